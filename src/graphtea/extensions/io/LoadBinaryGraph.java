@@ -0,0 +1,235 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.io;
+
+import graphtea.graph.atributeset.GraphAttrSet;
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.GraphPoint;
+import graphtea.graph.graph.Vertex;
+import graphtea.graph.old.Arrow;
+import graphtea.graph.old.GShape;
+import graphtea.graph.old.GStroke;
+import graphtea.platform.StaticUtils;
+import graphtea.plugins.main.saveload.SaveLoadPluginMethods;
+import graphtea.plugins.main.saveload.core.GraphIOException;
+import graphtea.plugins.main.saveload.core.extension.GraphReaderExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import static graphtea.extensions.io.SaveBinaryGraph.*;
+
+/**
+ * Loads a graph saved by SaveBinaryGraph. The file is memory mapped and the columns are
+ * copied to primitive arrays in bulk, then the vertices and edges are created and inserted
+ * in one insertVertices/insertEdges call.
+ *
+ * @see SaveBinaryGraph
+ */
+public class LoadBinaryGraph implements GraphReaderExtension {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    public boolean accepts(File file) {
+        return getExtension().equals(SaveLoadPluginMethods.getExtension(file));
+    }
+
+    public String getName() {
+        return "GraphTea Binary";
+    }
+
+    public String getExtension() {
+        return "gtb";
+    }
+
+    public GraphModel read(File file) throws GraphIOException {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel ch = raf.getChannel();
+                return read(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+            } finally {
+                raf.close();
+            }
+        } catch (IOException e) {
+            throw new GraphIOException(e.getMessage(), e);
+        } catch (BufferUnderflowException e) {
+            throw new GraphIOException("Unexpected end of file", e);
+        }
+    }
+
+    private GraphModel read(ByteBuffer b) throws GraphIOException {
+        if (b.getInt() != MAGIC)
+            throw new GraphIOException("Not a GraphTea binary file");
+        int version = b.getInt();
+        if (version > VERSION)
+            throw new GraphIOException("Unsupported version: " + version);
+        int flags = b.getInt();
+        int n = b.getInt(), m = b.getInt();
+
+        Tables tables = new Tables(b);
+
+        GraphModel g = new GraphModel((flags & DIRECTED) != 0);
+        g.setAllowLoops((flags & ALLOW_LOOPS) != 0);
+        g.setLabel(tables.string(b.getInt()));
+        GraphAttrSet gas = new GraphAttrSet(g);
+        for (int i = b.getInt(); i > 0; i--) {
+            String name = tables.strings[b.getInt()];
+            Object value = tables.object(b.getInt());
+            if (value != null)
+                gas.put(name, value);
+        }
+
+        double[] x = doubles(b, n), y = doubles(b, n), w = doubles(b, n), h = doubles(b, n);
+        double[] lx = doubles(b, n), ly = doubles(b, n);
+        int[] color = ints(b, n), label = ints(b, n), shape = ints(b, n), border = ints(b, n);
+        byte[] vflags = new byte[n];
+        b.get(vflags);
+
+        int[] offsets = ints(b, n + 1), targets = ints(b, m);
+        int[] weight = ints(b, m), ecolor = ints(b, m), elabel = ints(b, m), stroke = ints(b, m), arrow = ints(b, m);
+        double[] elx = doubles(b, m), ely = doubles(b, m), cx = doubles(b, m), cy = doubles(b, m);
+        byte[] eflags = new byte[m];
+        b.get(eflags);
+
+        Vertex[] vertices = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            Vertex v = vertices[i] = new Vertex();
+            GraphPoint p = point(x[i], y[i]);
+            if (p != null)
+                v.setLocation(p);
+            p = point(w[i], h[i]);
+            if (p != null)
+                v.setSize(p);
+            p = point(lx[i], ly[i]);
+            if (p != null)
+                v.setLabelLocation(p);
+            v.setColor(color[i]);
+            v.setLabel(tables.string(label[i]));
+            Object o = tables.object(shape[i]);
+            if (o instanceof GShape)
+                v.setShape((GShape) o);
+            o = tables.object(border[i]);
+            if (o instanceof GStroke)
+                v.setShapeStroke((GStroke) o);
+            v.setMark((vflags[i] & MARK) != 0);
+            v.setSelected((vflags[i] & SELECTED) != 0);
+        }
+
+        Edge[] edges = new Edge[m];
+        for (int u = 0; u < n; u++)
+            for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+                Edge e = edges[p] = new Edge(vertices[u], vertices[targets[p]]);
+                e.setWeight(weight[p]);
+                e.setColor(ecolor[p]);
+                e.setShowWeight((eflags[p] & SHOW_WEIGHT) != 0);
+                e.setLabel(tables.string(elabel[p]));
+                e.setMark((eflags[p] & MARK) != 0);
+                Object o = tables.object(stroke[p]);
+                if (o instanceof GStroke)
+                    e.setStroke((GStroke) o);
+                o = tables.object(arrow[p]);
+                if (o instanceof Arrow)
+                    e.setArrow((Arrow) o);
+                GraphPoint q = point(elx[p], ely[p]);
+                if (q != null)
+                    e.setLabelLocation(q);
+                q = point(cx[p], cy[p]);
+                if (q != null)
+                    e.setCurveControlPoint(q);
+            }
+
+        for (int i = b.getInt(); i > 0; i--) {
+            byte kind = b.get();
+            int index = b.getInt();
+            String name = tables.strings[b.getInt()];
+            Object value = tables.object(b.getInt());
+            if (value == null)
+                continue;
+            if (kind == VERTEX)
+                vertices[index].setUserDefinedAttribute(name, value);
+            else
+                edges[index].setUserDefinedAttribute(name, value);
+        }
+
+        g.insertVertices(vertices);
+        g.insertEdges(edges);
+        return g;
+    }
+
+    /**
+     * The strings and objects tables of one file, each object is converted from its string once
+     * it is used.
+     */
+    private static class Tables {
+        final String[] strings;
+        final String[] objectTypes, objectValues;
+        final Object[] objectCache;
+        final boolean[] objectLoaded;
+
+        Tables(ByteBuffer b) {
+            strings = new String[b.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] s = new byte[b.getInt()];
+                b.get(s);
+                strings[i] = new String(s, UTF8);
+            }
+            int objects = b.getInt();
+            objectTypes = new String[objects];
+            objectValues = new String[objects];
+            objectCache = new Object[objects];
+            objectLoaded = new boolean[objects];
+            for (int i = 0; i < objects; i++) {
+                objectTypes[i] = strings[b.getInt()];
+                objectValues[i] = strings[b.getInt()];
+            }
+        }
+
+        String string(int i) {
+            return i < 0 ? null : strings[i];
+        }
+
+        Object object(int i) {
+            if (i < 0)
+                return null;
+            if (!objectLoaded[i]) {
+                objectLoaded[i] = true;
+                String type = objectTypes[i], value = objectValues[i];
+                //empty values can not be converted to the other types
+                if (value.length() > 0 || String.class.getName().equals(type))
+                    objectCache[i] = StaticUtils.fromString(type, value);
+            }
+            return objectCache[i];
+        }
+    }
+
+    private static GraphPoint point(double x, double y) {
+        return Double.isNaN(x) ? null : new GraphPoint(x, y);
+    }
+
+    private static int[] ints(ByteBuffer b, int count) {
+        int[] ret = new int[count];
+        b.asIntBuffer().get(ret);
+        b.position(b.position() + 4 * count);
+        return ret;
+    }
+
+    private static double[] doubles(ByteBuffer b, int count) {
+        double[] ret = new double[count];
+        b.asDoubleBuffer().get(ret);
+        b.position(b.position() + 8 * count);
+        return ret;
+    }
+
+    public String getDescription() {
+        return "GraphTea Binary File Format, fast to load for large graphs";
+    }
+}
@@ -0,0 +1,240 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.io;
+
+import graphtea.graph.atributeset.GraphAttrSet;
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.GraphPoint;
+import graphtea.graph.graph.Vertex;
+import graphtea.plugins.main.saveload.core.GraphIOException;
+import graphtea.plugins.main.saveload.core.extension.GraphWriterExtension;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Saves a graph in the GraphTea binary format, which is read by LoadBinaryGraph.
+ * <p/>
+ * All numbers are big endian, a string is its length in bytes followed by its UTF-8 bytes and
+ * an array is written as its elements one after another. Strings and attribute values are
+ * written once in tables and the columns refer to them by index (-1 for null):
+ * <pre>
+ * header:      int MAGIC, int VERSION, int flags (DIRECTED, ALLOW_LOOPS), int n, int m
+ * strings:     int count, string[count]
+ * objects:     int count, (int type, int value)[count]     type is a class name, value its toString
+ * graph:       int label, int count, (int name, int object)[count]
+ * vertices:    double[n] x, y, width, height, label x, label y (NaN for null points)
+ *              int[n] color, label, shape, border         shape and border are objects
+ *              byte[n] flags (MARK, SELECTED)
+ * edges:       int[n+1] offsets, int[m] targets           edges sorted by source id (CSR)
+ *              int[m] weight, color, label, stroke, arrow stroke and arrow are objects
+ *              double[m] label x, label y, control x, control y
+ *              byte[m] flags (MARK, SHOW_WEIGHT)
+ * attributes:  int count, (byte VERTEX or EDGE, int index, int name, int object)[count]
+ * </pre>
+ * The attributes section holds the user defined attributes of vertices (by id) and edges (by
+ * position in the CSR arrays).
+ *
+ * @see LoadBinaryGraph
+ */
+public class SaveBinaryGraph implements GraphWriterExtension {
+    static final int MAGIC = 0x47544247; // GTBG
+    static final int VERSION = 1;
+
+    static final int DIRECTED = 1, ALLOW_LOOPS = 2;
+    static final int MARK = 1, SELECTED = 2, SHOW_WEIGHT = 2;
+    static final byte VERTEX = 0, EDGE = 1;
+
+    public String getName() {
+        return "GraphTea Binary";
+    }
+
+    public String getExtension() {
+        return "gtb";
+    }
+
+    public void write(File file, GraphModel graph) throws GraphIOException {
+        try {
+            DataOutputStream o = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            try {
+                write(o, graph);
+            } finally {
+                o.close();
+            }
+        } catch (IOException e) {
+            throw new GraphIOException(e.getMessage(), e);
+        }
+    }
+
+    private void write(DataOutputStream o, GraphModel g) throws IOException {
+        int n = g.getVerticesCount(), m = g.getEdgesCount();
+        Tables tables = new Tables();
+        ArrayList<int[]> attributes = new ArrayList<int[]>();
+
+        //graph attributes, except the ones which are in the header
+        int graphLabel = tables.string(g.getLabel());
+        ArrayList<int[]> graphAttrs = new ArrayList<int[]>();
+        for (Map.Entry<String, Object> e : new GraphAttrSet(g).getAttrs().entrySet()) {
+            String name = e.getKey();
+            if (e.getValue() != null && !name.equals(GraphAttrSet.LABEL) && !name.equals(GraphAttrSet.DIRECTED)
+                    && !name.equals(GraphAttrSet.Allow_Loops))
+                graphAttrs.add(new int[]{tables.string(name), tables.object(e.getValue())});
+        }
+
+        double[] x = new double[n], y = new double[n], w = new double[n], h = new double[n];
+        double[] lx = new double[n], ly = new double[n];
+        int[] color = new int[n], label = new int[n], shape = new int[n], border = new int[n];
+        byte[] flags = new byte[n];
+        for (Vertex v : g) {
+            int i = v.getId();
+            GraphPoint p = v.getLocation();
+            x[i] = p == null ? Double.NaN : p.x;
+            y[i] = p == null ? Double.NaN : p.y;
+            p = v.getSize();
+            w[i] = p == null ? Double.NaN : p.x;
+            h[i] = p == null ? Double.NaN : p.y;
+            p = v.getLabelLocation();
+            lx[i] = p == null ? Double.NaN : p.x;
+            ly[i] = p == null ? Double.NaN : p.y;
+            color[i] = v.getColor();
+            label[i] = tables.string(v.getLabel());
+            shape[i] = tables.object(v.getShape());
+            border[i] = tables.object(v.getShapeStroke());
+            flags[i] = (byte) ((v.getMark() ? MARK : 0) | (v.isSelected() ? SELECTED : 0));
+            tables.addAttributes(attributes, VERTEX, i, v.getUserDefinedAttributes());
+        }
+
+        //edges in CSR order
+        int[] offsets = new int[n + 1];
+        for (Iterator<Edge> it = g.lightEdgeIterator(); it.hasNext(); )
+            offsets[it.next().source.getId() + 1]++;
+        for (int i = 0; i < n; i++)
+            offsets[i + 1] += offsets[i];
+        int[] pos = new int[n];
+        System.arraycopy(offsets, 0, pos, 0, n);
+        int[] targets = new int[m], weight = new int[m], ecolor = new int[m], elabel = new int[m];
+        int[] stroke = new int[m], arrow = new int[m];
+        double[] elx = new double[m], ely = new double[m], cx = new double[m], cy = new double[m];
+        byte[] eflags = new byte[m];
+        for (Iterator<Edge> it = g.lightEdgeIterator(); it.hasNext(); ) {
+            Edge e = it.next();
+            int p = pos[e.source.getId()]++;
+            targets[p] = e.target.getId();
+            weight[p] = e.getWeight();
+            ecolor[p] = e.getColor();
+            elabel[p] = tables.string(e.getLabel());
+            stroke[p] = tables.object(e.getStroke());
+            arrow[p] = tables.object(e.getArrow());
+            GraphPoint q = e.getLabelLocation();
+            elx[p] = q == null ? Double.NaN : q.x;
+            ely[p] = q == null ? Double.NaN : q.y;
+            q = e.getCurveControlPoint();
+            cx[p] = q == null ? Double.NaN : q.x;
+            cy[p] = q == null ? Double.NaN : q.y;
+            eflags[p] = (byte) ((e.getMark() ? MARK : 0) | (e.isShowWeight() ? SHOW_WEIGHT : 0));
+            tables.addAttributes(attributes, EDGE, p, e.getUserDefinedAttributes());
+        }
+
+        o.writeInt(MAGIC);
+        o.writeInt(VERSION);
+        o.writeInt((g.isDirected() ? DIRECTED : 0) | (g.isAllowLoops() ? ALLOW_LOOPS : 0));
+        o.writeInt(n);
+        o.writeInt(m);
+
+        o.writeInt(tables.strings.size());
+        for (String s : tables.strings.keySet()) {
+            byte[] b = s.getBytes("UTF-8");
+            o.writeInt(b.length);
+            o.write(b);
+        }
+        o.writeInt(tables.objectList.size());
+        for (int[] t : tables.objectList)
+            writeInts(o, t);
+
+        o.writeInt(graphLabel);
+        o.writeInt(graphAttrs.size());
+        for (int[] t : graphAttrs)
+            writeInts(o, t);
+
+        writeDoubles(o, x, y, w, h, lx, ly);
+        writeInts(o, color, label, shape, border);
+        o.write(flags);
+
+        writeInts(o, offsets, targets, weight, ecolor, elabel, stroke, arrow);
+        writeDoubles(o, elx, ely, cx, cy);
+        o.write(eflags);
+
+        o.writeInt(attributes.size());
+        for (int[] t : attributes) {
+            o.writeByte(t[0]);
+            o.writeInt(t[1]);
+            o.writeInt(t[2]);
+            o.writeInt(t[3]);
+        }
+    }
+
+    /**
+     * The strings and objects tables of one file, objects are keyed by their type and value.
+     */
+    private static class Tables {
+        LinkedHashMap<String, Integer> strings = new LinkedHashMap<String, Integer>();
+        LinkedHashMap<String, Integer> objects = new LinkedHashMap<String, Integer>();
+        ArrayList<int[]> objectList = new ArrayList<int[]>();
+
+        int string(String s) {
+            if (s == null)
+                return -1;
+            Integer i = strings.get(s);
+            if (i == null) {
+                i = strings.size();
+                strings.put(s, i);
+            }
+            return i;
+        }
+
+        int object(Object o) {
+            if (o == null)
+                return -1;
+            String type = o.getClass().getName(), value = o.toString();
+            String key = type + '\0' + value;
+            Integer i = objects.get(key);
+            if (i == null) {
+                i = objectList.size();
+                objects.put(key, i);
+                objectList.add(new int[]{string(type), string(value)});
+            }
+            return i;
+        }
+
+        void addAttributes(ArrayList<int[]> attributes, byte kind, int index, Map<String, Object> atr) {
+            if (atr == null)
+                return;
+            for (Map.Entry<String, Object> e : atr.entrySet())
+                if (e.getValue() != null)
+                    attributes.add(new int[]{kind, index, string(e.getKey()), object(e.getValue())});
+        }
+    }
+
+    private static void writeInts(DataOutputStream o, int[]... columns) throws IOException {
+        for (int[] c : columns)
+            for (int i : c)
+                o.writeInt(i);
+    }
+
+    private static void writeDoubles(DataOutputStream o, double[]... columns) throws IOException {
+        for (double[] c : columns)
+            for (double d : c)
+                o.writeDouble(d);
+    }
+
+    public String getDescription() {
+        return "GraphTea Binary File Format, fast to load for large graphs";
+    }
+}
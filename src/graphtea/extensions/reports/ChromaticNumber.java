@@ -5,13 +5,21 @@
 
 package graphtea.extensions.reports;
 
+import graphtea.library.algorithms.coloring.ExactColoring;
+import graphtea.platform.parameter.Parameter;
+import graphtea.platform.parameter.Parametrizable;
 import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.ReportExecutor;
 import graphtea.plugins.reports.extension.GraphReportExtension;
 
 /**
  * @author Azin Azadi
+ * @see ExactColoring
  */
-public class ChromaticNumber implements GraphReportExtension, ColoringListener {
+public class ChromaticNumber implements GraphReportExtension, Parametrizable {
+
+    @Parameter(name = "Time Limit", description = "Maximum time of the search in seconds, 0 for no limit. If the limit is reached the bounds found so far are reported")
+    public Integer timeLimit = 60;
 
     public String getName() {
         return "Chromatic Number";
@@ -21,27 +29,40 @@ public class ChromaticNumber implements GraphReportExtension, ColoringListener {
         return "The chromatic number of graph";
     }
 
-    Partitioner p;
-    int ct;
-    boolean found;
-
     public Object calculate(GraphData gd) {
-        p = new Partitioner(gd.getGraph());
-        ct = 1;
-        found = false;
-        while (!found) {
-            found = isColorable(ct++);
+        final ExactColoring ec = new ExactColoring(gd.getGraph());
+        long limit = timeLimit * 1000L;
+        final ReportExecutor.Context context = ReportExecutor.Context.current();
+        if (context != null) {
+            //0 is no limit for ExactColoring
+            long left = Math.max(1, context.getTimeLeft());
+            if (left != Long.MAX_VALUE)
+                limit = limit == 0 ? left : Math.min(limit, left);
+            ec.setProgressListener(new ExactColoring.ProgressListener() {
+                public void progress(int lowerBound, int upperBound, long nodes) {
+                    context.setProgress("between " + lowerBound + " and " + upperBound + ", " + nodes + " nodes searched");
+                }
+            });
+            context.onCancel(new Runnable() {
+                public void run() {
+                    ec.cancel();
+                }
+            });
         }
-        return ct;
-    }
-
-    public boolean isColorable(int t) {
-        return p.findAllPartitionings(t, this);
+        //a cancel hook which ran before solve() is lost, as solve() starts a new search
+        if (context != null && context.isCancelled())
+            return null;
+        ec.setTimeLimit(limit);
+        int chi = ec.solve();
+        if (ec.isExact())
+            return chi;
+        if (context != null)
+            context.setCacheable(false);
+        return "between " + ec.getLowerBound() + " and " + ec.getUpperBound() + " (time limit reached)";
     }
 
-    public boolean coloringFound(final int t) {
-        found = true;
-        return true;
+    public String checkParameters() {
+        return timeLimit < 0 ? "Time Limit should be positive" : null;
     }
 
 	@Override
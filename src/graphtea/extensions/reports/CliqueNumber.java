@@ -0,0 +1,35 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports;
+
+import graphtea.library.algorithms.subgraphs.MaximumClique;
+import graphtea.platform.lang.CommandAttitude;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+/**
+ * @see MaximumClique
+ */
+@CommandAttitude(name = "clique_number", abbreviation = "_omega")
+public class CliqueNumber implements GraphReportExtension {
+
+    public String getName() {
+        return "Clique Number";
+    }
+
+    public String getDescription() {
+        return "The number of vertices of a maximum clique of graph";
+    }
+
+    public Object calculate(GraphData gd) {
+        return new MaximumClique(gd.getGraph(), false).solve();
+    }
+
+	@Override
+	public String getCategory() {
+		return "Property";
+	}
+}
@@ -7,6 +7,7 @@ package graphtea.extensions.reports;
 
 import graphtea.graph.graph.GraphColoring;
 import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.coloring.ExactColoring;
 import graphtea.platform.parameter.Parameter;
 import graphtea.platform.parameter.Parametrizable;
 import graphtea.plugins.main.GraphData;
@@ -15,6 +16,9 @@ import graphtea.plugins.reports.extension.GraphReportExtension;
 import java.util.Vector;
 
 /**
+ * Finds a coloring with the minimum number of colors by ExactColoring, and if all colorings are
+ * requested enumerates them by the Partitioner once, for that number of colors.
+ *
  * @author Azin Azadi
  */
 public class ColoringReport implements GraphReportExtension, ColoringListener, Parametrizable {
@@ -28,14 +32,28 @@ public class ColoringReport implements GraphReportExtension, ColoringListener, P
     @Parameter(name = "All Colorings", description = "Create a list of all colorings of graph using minimum number of colors")
     public Boolean allColorings=false;
 
+    @Parameter(name = "Time Limit", description = "Maximum time of the search in seconds, 0 for no limit. If the limit is reached the best coloring found so far is returned")
+    public Integer timeLimit = 60;
+
     public Object calculate(GraphData gd) {
-        p = new Partitioner(gd.getGraph());
         colorings = new Vector<GraphColoring>(1);
-        int ct = lowerBound;
-        found = false;
-        while (!found) {
-            tryToColor(ct++);
+        ExactColoring ec = new ExactColoring(gd.getGraph());
+        ec.setLowerBound(lowerBound);
+        ec.setTimeLimit(timeLimit * 1000L);
+        int chi = ec.solve();
+        if (allColorings && ec.isExact() && chi > 0) {
+            //the partitioner colors by 0..t
+            p = new Partitioner(gd.getGraph());
+            found = false;
+            tryToColor(chi - 1);
+            if (found)
+                return colorings;
         }
+        int[] color = ec.getColoring();
+        GraphColoring coloring = new GraphColoring();
+        for (Vertex v : gd.getGraph())
+            coloring.vertexColors.put(v, color[v.getId()]);
+        colorings.add(coloring);
         return colorings;
     }
 
@@ -62,7 +80,9 @@ public class ColoringReport implements GraphReportExtension, ColoringListener, P
     }
 
     public String checkParameters() {
-        return lowerBound < 0 ? "Lower Bound should be positive" : null;
+        if (lowerBound < 0)
+            return "Lower Bound should be positive";
+        return timeLimit < 0 ? "Time Limit should be positive" : null;
     }
 
 	@Override
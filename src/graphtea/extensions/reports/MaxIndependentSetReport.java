@@ -9,8 +9,12 @@ import graphtea.graph.graph.GraphModel;
 import graphtea.graph.graph.SubGraph;
 import graphtea.graph.graph.Vertex;
 import graphtea.library.BaseVertex;
+import graphtea.library.algorithms.subgraphs.MaximumClique;
 import graphtea.platform.lang.CommandAttitude;
+import graphtea.platform.parameter.Parameter;
+import graphtea.platform.parameter.Parametrizable;
 import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.ReportExecutor;
 import graphtea.plugins.reports.extension.GraphReportExtension;
 
 import java.util.ArrayDeque;
@@ -19,17 +23,16 @@ import java.util.Vector;
 
 /**
  * @author Azin Azadi
+ * @see MaximumClique
  */
 
 @CommandAttitude(name = "maximum_independent_set", abbreviation = "_mis")
-public class MaxIndependentSetReport implements GraphReportExtension {
-//todo: impelemnt these:
-//    @Parameter(name = "Lower Bound", description = "Lower Bound for the number of independent set members, This will make the search Interval smaller")
-//    public Integer lowerBound = 1;
-//
-//    @Parameter(name = "All Independent Sets", description = "Create a list of all independent sets of graph using minimum number of members")
-//    public Boolean allColorings = false;
-//
+public class MaxIndependentSetReport implements GraphReportExtension, Parametrizable {
+    @Parameter(name = "All Independent Sets", description = "Create a list of all maximum independent sets of graph (at most Max Results of them)")
+    public Boolean allSets = false;
+
+    @Parameter(name = "Max Results", description = "Maximum number of independent sets to list")
+    public Integer maxResults = 1000;
 
     public String getName() {
         return "Max Independent Set";
@@ -42,7 +45,7 @@ public class MaxIndependentSetReport implements GraphReportExtension {
 
     public Object calculate(GraphData gd) {
         GraphModel graph = gd.getGraph();
-        Vector<ArrayDeque<BaseVertex>> maxsets = getMaxIndependentSet(graph);
+        Vector<ArrayDeque<BaseVertex>> maxsets = getMaxIndependentSets(graph, allSets ? maxResults : 1);
         Vector<SubGraph> ret = new Vector<SubGraph>();
         for (ArrayDeque<BaseVertex> maxset : maxsets) {
             SubGraph sd = new SubGraph(graph);
@@ -55,27 +58,53 @@ public class MaxIndependentSetReport implements GraphReportExtension {
         return ret;
     }
 
+    public String checkParameters() {
+        return maxResults < 1 ? "Max Results should be positive" : null;
+    }
+
+    /**
+     * @return all of the maximum independent sets of the graph
+     */
     public static Vector<ArrayDeque<BaseVertex>> getMaxIndependentSet(GraphModel graph) {
-        Partitioner p = new Partitioner(graph);
-        MaxIndSetSubSetListener l = new MaxIndSetSubSetListener();
-        p.findAllSubsets(l);
+        return getMaxIndependentSets(graph, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxResults the maximum number of sets to list
+     * @return the maximum independent sets of the graph
+     */
+    public static Vector<ArrayDeque<BaseVertex>> getMaxIndependentSets(GraphModel graph, int maxResults) {
+        final MaximumClique mc = new MaximumClique(graph, true);
+        mc.setAllMaximum(maxResults > 1, maxResults);
+        ReportExecutor.Context context = ReportExecutor.Context.current();
+        if (context != null) {
+            context.setProgress("searching the independent sets of " + graph.getVerticesCount() + " vertices");
+            context.onCancel(new Runnable() {
+                public void run() {
+                    mc.cancel();
+                }
+            });
+        }
+        mc.solve();
         Vector<ArrayDeque<BaseVertex>> ret = new Vector<ArrayDeque<BaseVertex>>();
-        for (ArrayDeque<BaseVertex> set : l.maxsets) {
-            if (set.size() == l.max) {
-                ret.add(set);
-            }
+        for (int[] set : mc.getCliques()) {
+            ArrayDeque<BaseVertex> s = new ArrayDeque<BaseVertex>();
+            for (int id : set)
+                s.add(graph.getVertex(id));
+            ret.add(s);
         }
         return ret;
     }
 
+    /**
+     * @param putFirstVertexInSet if true the maximum independent set which contains the first vertex is searched
+     * @return size of a maximum independent set of the graph
+     */
     public static int getMaxIndependentSetSize(GraphModel graph, boolean putFirstVertexInSet) {
-        System.out.println(graph);
-        Partitioner p = new Partitioner(graph);
-//        max = -1;
-//        MaxIndSetSubSetSizeListener l = new MaxIndSetSubSetSizeListener();
-        return p.findMaxIndSet(putFirstVertexInSet);
-//        System.out.println("\n sets checked"+l.nn);
-//        return l.max;
+        if (graph.getVerticesCount() == 0)
+            return 0;
+        MaximumClique mc = new MaximumClique(graph, true);
+        return putFirstVertexInSet ? mc.solveContaining(0) : mc.solve();
     }
 
 	@Override
@@ -85,30 +114,3 @@ public class MaxIndependentSetReport implements GraphReportExtension {
 	}
 
 }
-
-class MaxIndSetSubSetListener implements SubSetListener {
-    Vector<ArrayDeque<BaseVertex>> maxsets = new Vector<ArrayDeque<BaseVertex>>();
-    //    ArrayDeque<BaseVertex> maxset = new ArrayDeque<BaseVertex>();
-    int max = -1;
-
-    public boolean subsetFound(int t, ArrayDeque<BaseVertex> complement, ArrayDeque<BaseVertex> set) {
-        if (max <= set.size()) {
-            max = set.size();
-            maxsets.add(new ArrayDeque<BaseVertex>(set));
-        }
-        return false;
-    }
-}
-
-class MaxIndSetSubSetSizeListener implements SubSetListener {
-    int max = -1;
-    int nn = 0;
-
-    public boolean subsetFound(int t, ArrayDeque<BaseVertex> complement, ArrayDeque<BaseVertex> set) {
-        nn++;
-        if (max < set.size()) {
-            max = set.size();
-        }
-        return false;
-    }
-}
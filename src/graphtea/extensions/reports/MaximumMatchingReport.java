@@ -0,0 +1,77 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports;
+
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.SubGraph;
+import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.matching.MaximumMatching;
+import graphtea.library.algorithms.matching.MaximumWeightMatching;
+import graphtea.platform.lang.CommandAttitude;
+import graphtea.platform.parameter.Parameter;
+import graphtea.platform.parameter.Parametrizable;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+import java.util.List;
+
+/**
+ * @see MaximumMatching
+ * @see MaximumWeightMatching
+ */
+@CommandAttitude(name = "maximum_matching", abbreviation = "_mm")
+public class MaximumMatchingReport implements GraphReportExtension, Parametrizable {
+
+    @Parameter(name = "Weighted", description = "Find a matching of maximum total weight instead of maximum number of edges")
+    public Boolean weighted = false;
+
+    @Parameter(name = "Max Cardinality", description = "In the weighted mode, only consider the matchings with maximum number of edges")
+    public Boolean maxCardinality = false;
+
+    public String getName() {
+        return "Maximum Matching";
+    }
+
+    public String getDescription() {
+        return "A maximum matching of graph";
+    }
+
+    public Object calculate(GraphData gd) {
+        GraphModel graph = gd.getGraph();
+        List<Edge> matching;
+        if (weighted) {
+            MaximumWeightMatching<Vertex, Edge> mwm = new MaximumWeightMatching<Vertex, Edge>(graph, maxCardinality);
+            matching = mwm.getMatchedEdges();
+            return toSubGraph(graph, matching, "Weight: " + mwm.getWeight());
+        }
+        matching = new MaximumMatching<Vertex, Edge>(graph).getMatchedEdges();
+        return toSubGraph(graph, matching, "Size: " + matching.size());
+    }
+
+    /**
+     * @return the edges and their end points as a subgraph of graph
+     */
+    public static SubGraph toSubGraph(GraphModel graph, List<Edge> edges, String label) {
+        SubGraph sd = new SubGraph(graph);
+        for (Edge e : edges) {
+            sd.edges.add(e);
+            sd.vertices.add(e.source);
+            sd.vertices.add(e.target);
+        }
+        sd.label = label;
+        return sd;
+    }
+
+    public String checkParameters() {
+        return null;
+    }
+
+	@Override
+	public String getCategory() {
+		return "Property";
+	}
+}
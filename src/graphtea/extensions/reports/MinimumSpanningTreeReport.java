@@ -0,0 +1,53 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports;
+
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.SubGraph;
+import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.spanningtree.Boruvka;
+import graphtea.platform.lang.CommandAttitude;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+import java.util.List;
+
+/**
+ * The minimum spanning forest is found by Boruvka's algorithm, which scans the edges of large
+ * graphs in parallel.
+ *
+ * @see Boruvka
+ */
+@CommandAttitude(name = "minimum_spanning_tree", abbreviation = "_mst")
+public class MinimumSpanningTreeReport implements GraphReportExtension {
+
+    public String getName() {
+        return "Minimum Spanning Tree";
+    }
+
+    public String getDescription() {
+        return "A minimum spanning tree of graph, a forest if the graph is not connected";
+    }
+
+    public Object calculate(GraphData gd) {
+        GraphModel graph = gd.getGraph();
+        List<Edge> forest = new Boruvka().findMinimumSpanningTree(graph);
+        long weight = 0;
+        for (Edge e : forest)
+            weight += e.getWeight();
+        SubGraph sd = MaximumMatchingReport.toSubGraph(graph, forest, "Weight: " + weight);
+        //the isolated vertices are spanned too
+        for (Vertex v : graph)
+            sd.vertices.add(v);
+        return sd;
+    }
+
+	@Override
+	public String getCategory() {
+		return "Property";
+	}
+}
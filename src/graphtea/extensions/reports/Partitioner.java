@@ -44,6 +44,10 @@ public class Partitioner {
         return findAllSubsetsRecursively(1, listener, v, new ArrayDeque<BaseVertex>(), new ArrayDeque<BaseVertex>());
     }
 
+    /**
+     * @deprecated use graphtea.library.algorithms.subgraphs.MaximumClique, which is much faster
+     */
+    @Deprecated
     public int findMaxIndSet(boolean putFirstVertexInSet) {
         color = new int[vertices.length];
 
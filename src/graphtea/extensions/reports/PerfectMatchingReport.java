@@ -0,0 +1,40 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports;
+
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.matching.MaximumMatching;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+/**
+ * @see MaximumMatching
+ */
+public class PerfectMatchingReport implements GraphReportExtension {
+
+    public String getName() {
+        return "Perfect Matching";
+    }
+
+    public String getDescription() {
+        return "A matching of graph which covers all of the vertices, if there is one";
+    }
+
+    public Object calculate(GraphData gd) {
+        GraphModel graph = gd.getGraph();
+        MaximumMatching<Vertex, Edge> mm = new MaximumMatching<Vertex, Edge>(graph);
+        if (!mm.isPerfect())
+            return "No perfect matching, a maximum matching has " + mm.size() + " edges";
+        return MaximumMatchingReport.toSubGraph(graph, mm.getMatchedEdges(), "Perfect Matching");
+    }
+
+	@Override
+	public String getCategory() {
+		return "Property";
+	}
+}
@@ -0,0 +1,36 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports.basicreports;
+
+import graphtea.library.algorithms.subgraphs.SmallCyclesCounter;
+import graphtea.platform.lang.CommandAttitude;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+/**
+ * The global clustering coefficient (transitivity) of the graph, 3 * triangles / connected triples.
+ *
+ * @see SmallCyclesCounter#getGlobalClusteringCoefficient()
+ */
+@CommandAttitude(name = "clustering_coefficient", abbreviation = "_gcc")
+public class ClusteringCoefficient implements GraphReportExtension {
+    public Object calculate(GraphData gd) {
+        return new SmallCyclesCounter(gd.getGraph()).getGlobalClusteringCoefficient();
+    }
+
+    public String getName() {
+        return "Global Clustering Coefficient";
+    }
+
+    public String getDescription() {
+        return "3 * number of triangles / number of paths of length 2";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Property";
+    }
+}
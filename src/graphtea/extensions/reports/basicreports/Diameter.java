@@ -0,0 +1,65 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports.basicreports;
+
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.shortestpath.FloydWarshall;
+import graphtea.platform.lang.CommandAttitude;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+
+/**
+ * The diameter by the weights of the edges, the largest distance between two vertices which are
+ * joined by a path. The distances are found by the blocked Floyd-Warshall algorithm.
+ *
+ * @see FloydWarshall
+ */
+
+@CommandAttitude(name = "diameter", abbreviation = "_diam")
+public class Diameter implements GraphReportExtension {
+
+    public Object calculate(GraphData gd) {
+        GraphModel graph = gd.getGraph();
+        long diameter = getDiameter(graph);
+        if (diameter < 0)
+            return "The graph has a negative cycle";
+        return diameter;
+    }
+
+    /**
+     * @return the diameter of the graph, or -1 if it has a negative cycle
+     */
+    public static long getDiameter(GraphModel graph) {
+        int n = graph.getVerticesCount();
+        int[] d = new FloydWarshall<Vertex, Edge>().getDistanceMatrix(graph);
+        long diameter = 0;
+        for (int i = 0; i < n; i++) {
+            if (d[i * n + i] < 0)
+                return -1;
+            for (int j = 0; j < n; j++)
+                if (d[i * n + j] != FloydWarshall.INFINITY && d[i * n + j] > diameter)
+                    diameter = d[i * n + j];
+        }
+        return diameter;
+    }
+
+    public String getName() {
+        return "Graph Diameter";
+    }
+
+    public String getDescription() {
+        return "The largest distance between two vertices of the graph which are joined by a path, by the weights of the edges";
+    }
+
+
+	@Override
+	public String getCategory() {
+		return "Property";
+	}
+}
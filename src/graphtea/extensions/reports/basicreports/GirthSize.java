@@ -6,13 +6,12 @@
 package graphtea.extensions.reports.basicreports;
 
 import graphtea.graph.graph.GraphModel;
+import graphtea.library.util.SparseMatrix;
 import graphtea.platform.lang.CommandAttitude;
 import graphtea.plugins.main.GraphData;
 import graphtea.plugins.main.core.AlgorithmUtils;
 import graphtea.plugins.reports.extension.GraphReportExtension;
 
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * @author Mohammad Ali Rostami
@@ -21,9 +20,10 @@ import java.util.List;
 @CommandAttitude(name = "girth_size", abbreviation = "_gs")
 public class GirthSize implements GraphReportExtension {
 
-    private static int bfs(int start, double mat[][], int cc, int girth) {
-        int baba[] = new int[cc];
-        int dist[] = new int[cc];
+    private static int bfs(int start, SparseMatrix mat, int cc, int girth, int[] baba, int[] dist, int[] queue) {
+        int[] rowStart = mat.getRowStart();
+        int[] cols = mat.getColumns();
+        double[] vals = mat.getValues();
         for (int i = 0; i < cc; i++) {
             baba[i] = AlgorithmUtils.Max_Int;
             dist[i] = AlgorithmUtils.Max_Int;
@@ -31,20 +31,22 @@ public class GirthSize implements GraphReportExtension {
 
         dist[start] = 0;
         baba[start] = -1;
-        List<Integer> ll = new ArrayList<Integer>();
-        ll.add(start);
-        while (ll.size() > 0) {
-            int currentNode = ll.remove(0);
-            for (int j = 0; j < cc; j++)
-                if (mat[currentNode][j] == 1)
-                    if (dist[j] == AlgorithmUtils.Max_Int) {
-                        dist[j] = dist[currentNode] + 1;
-                        baba[j] = currentNode;
-                        if (2 * dist[j] < girth - 1)
-                            ll.add(j);
-                    } else if (dist[j] + dist[currentNode] < girth - 1 && baba[currentNode] != j)
-                        girth = dist[j] + dist[currentNode] + 1;
-
+        int head = 0, tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int currentNode = queue[head++];
+            for (int p = rowStart[currentNode]; p < rowStart[currentNode + 1]; p++) {
+                if (vals[p] != 1)
+                    continue;
+                int j = cols[p];
+                if (dist[j] == AlgorithmUtils.Max_Int) {
+                    dist[j] = dist[currentNode] + 1;
+                    baba[j] = currentNode;
+                    if (2 * dist[j] < girth - 1)
+                        queue[tail++] = j;
+                } else if (dist[j] + dist[currentNode] < girth - 1 && baba[currentNode] != j)
+                    girth = dist[j] + dist[currentNode] + 1;
+            }
         }
         return girth;
     }
@@ -60,11 +62,14 @@ public class GirthSize implements GraphReportExtension {
      * @return the girth size of the given graph
      */
     public static int getgirthSize(GraphModel graph) {
-        int size = graph.getVertexArray().length;
-        double mat[][] = graph.getAdjacencyMatrix().getArray();
+        int size = graph.getVerticesCount();
+        SparseMatrix mat = graph.getSparseAdjacencyMatrix();
+        int baba[] = new int[size];
+        int dist[] = new int[size];
+        int queue[] = new int[size];
         int girth = AlgorithmUtils.Max_Int;
         for (int i = 0; i < size; i++) {
-            int sizeofsmallestcycle = bfs(i, mat, size, girth);
+            int sizeofsmallestcycle = bfs(i, mat, size, girth, baba, dist, queue);
             if (sizeofsmallestcycle != AlgorithmUtils.Max_Int && girth > sizeofsmallestcycle)
                 girth = sizeofsmallestcycle;
         }
@@ -0,0 +1,41 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports.basicreports;
+
+import graphtea.library.algorithms.subgraphs.SmallCyclesCounter;
+import graphtea.platform.lang.CommandAttitude;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+import java.util.ArrayList;
+
+/**
+ * The local clustering coefficient of each vertex, by vertex id.
+ *
+ * @see SmallCyclesCounter#getLocalClusteringCoefficients()
+ */
+@CommandAttitude(name = "local_clustering_coefficients", abbreviation = "_lcc")
+public class LocalClusteringCoefficients implements GraphReportExtension {
+    public Object calculate(GraphData gd) {
+        ArrayList<Double> ret = new ArrayList<Double>();
+        for (double c : new SmallCyclesCounter(gd.getGraph()).getLocalClusteringCoefficients())
+            ret.add(c);
+        return ret;
+    }
+
+    public String getName() {
+        return "Local Clustering Coefficients";
+    }
+
+    public String getDescription() {
+        return "ratio of the connected pairs of neighbors of each vertex";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Property";
+    }
+}
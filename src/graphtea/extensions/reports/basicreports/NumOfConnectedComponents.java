@@ -6,10 +6,11 @@
 package graphtea.extensions.reports.basicreports;
 
 import graphtea.graph.graph.GraphModel;
-import graphtea.library.BaseGraph;
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.traversal.GraphTraversal;
 import graphtea.platform.lang.CommandAttitude;
 import graphtea.plugins.main.GraphData;
-import graphtea.plugins.main.core.AlgorithmUtils;
 import graphtea.plugins.reports.extension.GraphReportExtension;
 
 import java.util.ArrayList;
@@ -30,51 +31,20 @@ public class NumOfConnectedComponents implements GraphReportExtension {
      * @return Number of connected components of the given graph
      */
     public static int getNumOfConnectedComponents(GraphModel graph) {
-        double[][] mat = graph.getAdjacencyMatrix().getArray();
-        int size = mat.length;
-        ArrayList untraversed = new ArrayList();
-        for (int i = 0; i < size; i++)
-            untraversed.add(new Integer(i));
-
-        ArrayList comps = new ArrayList();
-        int parent[] = new int[size];
-        for (int i = 0; i < size; i++)
-            parent[i] = -1;
-
-        ArrayList visit;
-        for (; untraversed.size() > 0; untraversed.removeAll(visit)) {
-            visit = new ArrayList();
-            int currentNode = ((Integer) untraversed.get(0)).intValue();
-            parent[currentNode] = currentNode;
-            AlgorithmUtils.dfs((BaseGraph) graph, currentNode, visit, parent);
-            comps.add(visit);
-        }
-        return comps.size();
+        return new GraphTraversal<Vertex, Edge>(graph).componentsCount();
     }
 
     /**
      * @return connected components of the given graph, each cell of ArrayList is a ArrayList
-     * containing indices of the corresponding component vertices indices
+     * containing indices of the corresponding component vertices indices, in increasing order
      */
     public static ArrayList<ArrayList<Integer>> getConnectedComponents(GraphModel graph) {
-        double[][] mat = graph.getAdjacencyMatrix().getArray();
-        int size = mat.length;
-        ArrayList<Integer> untraversed = new ArrayList<Integer>();
-        for (int i = 0; i < size; i++)
-            untraversed.add(new Integer(i));
-
-        ArrayList<ArrayList<Integer>> comps = new ArrayList();
-        int parent[] = new int[size];
-        for (int i = 0; i < size; i++)
-            parent[i] = -1;
-
-        ArrayList<Integer> visit;
-        for (; untraversed.size() > 0; untraversed.removeAll(visit)) {
-            visit = new ArrayList();
-            int currentNode = ((Integer) untraversed.get(0)).intValue();
-            parent[currentNode] = currentNode;
-            AlgorithmUtils.dfs((BaseGraph) graph, currentNode, visit, parent);
-            comps.add(visit);
+        int[] comp = new GraphTraversal<Vertex, Edge>(graph).components();
+        ArrayList<ArrayList<Integer>> comps = new ArrayList<ArrayList<Integer>>();
+        for (int v = 0; v < comp.length; v++) {
+            if (comp[v] == comps.size())
+                comps.add(new ArrayList<Integer>());
+            comps.get(comp[v]).add(v);
         }
         return comps;
     }
@@ -6,10 +6,9 @@
 package graphtea.extensions.reports.basicreports;
 
 import graphtea.graph.graph.GraphModel;
-import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.subgraphs.SmallCyclesCounter;
 import graphtea.platform.lang.CommandAttitude;
 import graphtea.plugins.main.GraphData;
-import graphtea.plugins.main.core.AlgorithmUtils;
 import graphtea.plugins.reports.extension.GraphReportExtension;
 
 /**
@@ -32,20 +31,11 @@ public class NumOfQuadrangle implements GraphReportExtension {
     }
 
     /**
-     * @return number of quadrangles in the given graph
+     * @return number of quadrangles in the given graph, directions of edges are ignored
+     * @see SmallCyclesCounter
      */
-    public static int getNumOfQuadrangles(GraphModel graph) {
-        int quadrangles = 0;
-        for (Vertex i : graph)
-            for (Vertex j : AlgorithmUtils.getNeighbors(graph, i))
-                for (Vertex k : AlgorithmUtils.getNeighbors(graph, j))
-                    for (Vertex l : AlgorithmUtils.getNeighbors(graph, k))
-                        if (l != j &&
-                                l != i &&
-                                k != i &&
-                                graph.isEdge(i, l)) quadrangles++;
-
-        return quadrangles / 8;
+    public static long getNumOfQuadrangles(GraphModel graph) {
+        return new SmallCyclesCounter(graph).getQuadrangles();
     }
 
 	@Override
@@ -6,10 +6,9 @@
 package graphtea.extensions.reports.basicreports;
 
 import graphtea.graph.graph.GraphModel;
-import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.subgraphs.SmallCyclesCounter;
 import graphtea.platform.lang.CommandAttitude;
 import graphtea.plugins.main.GraphData;
-import graphtea.plugins.main.core.AlgorithmUtils;
 import graphtea.plugins.reports.extension.GraphReportExtension;
 
 /**
@@ -24,19 +23,11 @@ public class NumOfTriangles implements GraphReportExtension {
     }
 
     /**
-     * @return the number of triangles in the given graph
+     * @return the number of triangles in the given graph, directions of edges are ignored
+     * @see SmallCyclesCounter
      */
-    public static int getNumOfTriangles(GraphModel graph) {
-        int cc = 0;
-        for (Vertex i : graph) {
-            for (Vertex j : AlgorithmUtils.getNeighbors(graph, i))
-                for (Vertex k : AlgorithmUtils.getNeighbors(graph, j)) {
-                    if (k.getId() != i.getId() && graph.isEdge(k, i))
-                        cc++;
-                }
-
-        }
-        return cc / 6;
+    public static long getNumOfTriangles(GraphModel graph) {
+        return new SmallCyclesCounter(graph).getTriangles();
     }
 
     public String getName() {
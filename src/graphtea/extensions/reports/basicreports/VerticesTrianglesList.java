@@ -0,0 +1,41 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.extensions.reports.basicreports;
+
+import graphtea.library.algorithms.subgraphs.SmallCyclesCounter;
+import graphtea.platform.lang.CommandAttitude;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+import java.util.ArrayList;
+
+/**
+ * The number of triangles which each vertex is in, by vertex id.
+ *
+ * @see SmallCyclesCounter#getVertexTriangles()
+ */
+@CommandAttitude(name = "vertices_triangles_list", abbreviation = "_vtl")
+public class VerticesTrianglesList implements GraphReportExtension {
+    public Object calculate(GraphData gd) {
+        ArrayList<Long> ret = new ArrayList<Long>();
+        for (long t : new SmallCyclesCounter(gd.getGraph()).getVertexTriangles())
+            ret.add(t);
+        return ret;
+    }
+
+    public String getName() {
+        return "Vertices Triangles List";
+    }
+
+    public String getDescription() {
+        return "number of triangles of each vertex";
+    }
+
+    @Override
+    public String getCategory() {
+        return "Property";
+    }
+}
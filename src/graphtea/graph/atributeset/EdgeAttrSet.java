@@ -12,7 +12,10 @@ import graphtea.graph.old.GStroke;
 import graphtea.platform.attribute.AttributeSet;
 import graphtea.platform.attribute.NotifiableAttributeSetImpl;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -41,6 +44,14 @@ public class EdgeAttrSet implements AttributeSet {
     public static final String LABEL_LOCATION = "Label Location";
     public static final String ARROW = "Arrow";
     public static final String CURVE_CONTROL_POINT = "Curve Control Point";
+    //only used to name the selection in the attribute change events, it is not in the attribute set
+    public static final String SELECTED = "Selected";
+
+    /**
+     * the names of the attributes which every edge has, the user defined attributes are not in it
+     */
+    public static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList(
+            WEIGHT, LABEL, SHOW_WEIGHT, COLOR, MARK, STROKE, LABEL_LOCATION, ARROW, CURVE_CONTROL_POINT));
 
     public void put(String atrName, Object val) {
         if (atrName.equals(LABEL)) {
@@ -101,15 +112,8 @@ public class EdgeAttrSet implements AttributeSet {
 
     public Map<String, Object> getAttrs() {
         Map<String, Object> ret = new HashMap<String, Object>();
-        ret.put(WEIGHT, e.getWeight());
-        ret.put(LABEL, e.getLabel());
-        ret.put(SHOW_WEIGHT, e.isShowWeight());
-        ret.put(COLOR, e.getColor());
-        ret.put(MARK, e.getMark());
-        ret.put(STROKE, e.getStroke());
-        ret.put(LABEL_LOCATION, e.getLabelLocation());
-        ret.put(ARROW, e.getArrow());
-        ret.put(CURVE_CONTROL_POINT, e.getCurveControlPoint());
+        for (String name : NAMES)
+            ret.put(name, get(name));
         if (e.getUserDefinedAttributes() != null)
             ret.putAll(e.getUserDefinedAttributes());
         return ret;
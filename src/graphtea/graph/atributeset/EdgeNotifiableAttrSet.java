@@ -6,28 +6,33 @@
 package graphtea.graph.atributeset;
 
 import graphtea.graph.graph.Edge;
-import graphtea.platform.attribute.TimeLimitedNotifiableAttrSet;
 
 /**
- * changes on Edge will take effect on next 100 milisecond,
- * using this class should be done with care, this class uses a thread
- * and checks the edge on each 100ms for any changes, so creating a lot of
- * instances of this class (for example for all edges of graph)
- * will take more and more cpu,
- * <p/>
- * try to create as few as possible instances of this class and call stop() when you don't need
- * it any more!
+ * changes on Edge are told to the listeners as soon as they are made, until stop() is called.
  * <p/>
  *
  * @author azin azadi
  * @see EdgeAttrSet
  * @see graphtea.graph.graph.Edge
- * @see EdgeAttrSet
+ * @see ElementNotifiableAttrSet
  */
-public class EdgeNotifiableAttrSet extends TimeLimitedNotifiableAttrSet<EdgeAttrSet> {
+public class EdgeNotifiableAttrSet extends ElementNotifiableAttrSet<EdgeAttrSet> {
+    private final Edge e;
+
     public EdgeNotifiableAttrSet(Edge input) {
         super(new EdgeAttrSet(input));
+        e = input;
+        start();
     }
-}
 
+    protected void listen(boolean add) {
+        if (add)
+            e.addAttributeChangeListener(this);
+        else
+            e.removeAttributeChangeListener(this);
+    }
 
+    public void edgeAttributeChanged(Edge e, String name, Object oldVal, Object newVal) {
+        fireAttributeChange(name, oldVal, newVal);
+    }
+}
@@ -0,0 +1,109 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.graph.atributeset;
+
+import graphtea.graph.event.AttributeChangeListener;
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.Vertex;
+import graphtea.platform.attribute.AttributeListener;
+import graphtea.platform.attribute.AttributeSet;
+import graphtea.platform.attribute.NotifiableAttributeSet;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The base of the NotifiableAttributeSets of a vertex, an edge or a graph. It is an attribute
+ * change listener of its element, so its listeners are told of a change as soon as a setter of the
+ * element is called (by the thread which called it), and nothing is done while nothing changes.
+ * <p/>
+ * It listens to the element from its construction until stop() is called, call stop() when you
+ * don't need it any more, so that the element does not keep it.
+ *
+ * @see VertexNotifiableAttrSet
+ * @see EdgeNotifiableAttrSet
+ * @see GraphNotifiableAttrSet
+ */
+public abstract class ElementNotifiableAttrSet<T extends AttributeSet> implements NotifiableAttributeSet, AttributeChangeListener {
+    protected final T inp;
+    private final CopyOnWriteArrayList<AttributeListener> listeners = new CopyOnWriteArrayList<AttributeListener>();
+    private boolean started = false;
+
+    protected ElementNotifiableAttrSet(T input) {
+        this.inp = input;
+    }
+
+    /**
+     * starts firing listeners of this class
+     */
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            listen(true);
+        }
+    }
+
+    /**
+     * stops firing listeners
+     */
+    public synchronized void stop() {
+        if (started) {
+            started = false;
+            listen(false);
+        }
+    }
+
+    /**
+     * adds this to (or removes it from) the attribute change listeners of the element
+     */
+    protected abstract void listen(boolean add);
+
+    protected void fireAttributeChange(String name, Object oldVal, Object newVal) {
+        for (AttributeListener l : listeners)
+            l.attributeUpdated(name, oldVal, newVal);
+    }
+
+    //the subclasses override the one of their element
+    public void vertexAttributeChanged(Vertex v, String name, Object oldVal, Object newVal) {
+    }
+
+    public void edgeAttributeChanged(Edge e, String name, Object oldVal, Object newVal) {
+    }
+
+    public void graphAttributeChanged(GraphModel g, String name, Object oldVal, Object newVal) {
+    }
+
+//-----   NotifiableAttributeSet Methods
+
+    public Map<String, Object> getAttrs() {
+        return inp.getAttrs();
+    }
+
+    /**
+     * sets the attribute on the element, the listeners are told of it by the element
+     */
+    public void put(String name, Object value) {
+        inp.put(name, value);
+    }
+
+    public Object get(String name) {
+        return inp.get(name);
+    }
+
+    public void addAttributeListener(AttributeListener attributeListener) {
+        listeners.add(attributeListener);
+    }
+
+    public Collection<AttributeListener> getAttributeListeners() {
+        return listeners;
+    }
+
+    public void removeAttributeListener(AttributeListener attributeListener) {
+        listeners.remove(attributeListener);
+    }
+}
@@ -6,14 +6,27 @@
 package graphtea.graph.atributeset;
 
 import graphtea.graph.graph.GraphModel;
-import graphtea.platform.attribute.TimeLimitedNotifiableAttrSet;
 
 /**
  * @see graphtea.graph.atributeset.EdgeNotifiableAttrSet
  */
-public class GraphNotifiableAttrSet extends TimeLimitedNotifiableAttrSet<GraphAttrSet> {
+public class GraphNotifiableAttrSet extends ElementNotifiableAttrSet<GraphAttrSet> {
+    private final GraphModel g;
+
     public GraphNotifiableAttrSet(GraphModel g) {
         super(new GraphAttrSet(g));
+        this.g = g;
         start();
     }
-}
\ No newline at end of file
+
+    protected void listen(boolean add) {
+        if (add)
+            g.addAttributeChangeListener(this);
+        else
+            g.removeAttributeChangeListener(this);
+    }
+
+    public void graphAttributeChanged(GraphModel g, String name, Object oldVal, Object newVal) {
+        fireAttributeChange(name, oldVal, newVal);
+    }
+}
@@ -11,7 +11,10 @@ import graphtea.graph.old.GShape;
 import graphtea.graph.old.GStroke;
 import graphtea.platform.attribute.AttributeSet;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,21 +33,20 @@ public class VertexAttrSet implements AttributeSet {
     public static final String SELECTED = "Selected";
     public static final String LABEL_LOCATION = "Label Location";
 
+    /**
+     * the names of the attributes which every vertex has, the user defined attributes are not in it
+     */
+    public static final List<String> NAMES = Collections.unmodifiableList(Arrays.asList(
+            LABEL, COLOR, SHAPE, BORDER, LOCATION, SIZE, MARK, SELECTED, LABEL_LOCATION));
+
     public VertexAttrSet(Vertex v) {
         this.v = v;
     }
 
     public Map<String, Object> getAttrs() {
         Map<String, Object> ret = new HashMap<String, Object>(15);
-        ret.put(LABEL, v.getLabel());
-        ret.put(COLOR, v.getColor());
-        ret.put(SHAPE, v.getShape());
-        ret.put(BORDER, v.getShapeStroke());
-        ret.put(LOCATION, v.getLocation());
-        ret.put(SIZE, v.getSize());
-        ret.put(MARK, v.getMark());
-        ret.put(SELECTED, v.isSelected());
-        ret.put(LABEL_LOCATION, v.getLabelLocation());
+        for (String name : NAMES)
+            ret.put(name, get(name));
         if (v.getUserDefinedAttributes() != null)
             ret.putAll(v.getUserDefinedAttributes());
         return ret;
@@ -6,11 +6,25 @@
 package graphtea.graph.atributeset;
 
 import graphtea.graph.graph.Vertex;
-import graphtea.platform.attribute.TimeLimitedNotifiableAttrSet;
 
 
-public class VertexNotifiableAttrSet extends TimeLimitedNotifiableAttrSet<VertexAttrSet> {
+public class VertexNotifiableAttrSet extends ElementNotifiableAttrSet<VertexAttrSet> {
+    private final Vertex v;
+
     public VertexNotifiableAttrSet(Vertex input) {
         super(new VertexAttrSet(input));
+        v = input;
+        start();
+    }
+
+    protected void listen(boolean add) {
+        if (add)
+            v.addAttributeChangeListener(this);
+        else
+            v.removeAttributeChangeListener(this);
+    }
+
+    public void vertexAttributeChanged(Vertex v, String name, Object oldVal, Object newVal) {
+        fireAttributeChange(name, oldVal, newVal);
     }
 }
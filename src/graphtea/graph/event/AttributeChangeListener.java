@@ -0,0 +1,27 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+package graphtea.graph.event;
+
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.Vertex;
+
+/**
+ * The interface for listening to the changes of the attributes of vertices, edges and graphs. The
+ * setters of Vertex, Edge and GraphModel call it at once, in the thread which made the change.
+ * <p/>
+ * A listener can be added to a single vertex or edge, or to a GraphModel, then it is told of the
+ * changes of the graph and of all the vertices and edges in it. The names of the attributes are
+ * the ones of VertexAttrSet, EdgeAttrSet and GraphAttrSet, or the names of user defined attributes.
+ *
+ * @see graphtea.graph.graph.GraphModel#addAttributeChangeListener(AttributeChangeListener)
+ */
+public interface AttributeChangeListener {
+    public void vertexAttributeChanged(Vertex v, String name, Object oldVal, Object newVal);
+
+    public void edgeAttributeChanged(Edge e, String name, Object oldVal, Object newVal);
+
+    public void graphAttributeChanged(GraphModel g, String name, Object oldVal, Object newVal);
+}
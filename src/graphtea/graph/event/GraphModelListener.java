@@ -24,4 +24,10 @@ public interface GraphModelListener {
     public void graphCleared();
 
     public void repaintGraph();
+
+    /**
+     * called once at the end of a bulk update of the graph (GraphModel.endBulkUpdate()), instead of
+     * the events of the changes made during it, so the whole graph should be considered as changed.
+     */
+    public void graphChanged();
 }
@@ -5,6 +5,7 @@
 package graphtea.graph.graph;
 
 import graphtea.graph.atributeset.EdgeAttrSet;
+import graphtea.graph.event.AttributeChangeListener;
 import graphtea.graph.event.EdgeListener;
 import graphtea.graph.old.Arrow;
 import graphtea.graph.old.ArrowHandler;
@@ -16,6 +17,7 @@ import graphtea.platform.attribute.AttributeSet;
 import java.awt.geom.Line2D;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author Hooman Mohajeri Moghaddam added new constructor
@@ -26,6 +28,16 @@ import java.util.Map;
 public class Edge extends BaseEdge<Vertex> {
 
     public EdgeListener view;
+
+    //the spatial index of the graph, which is notified of the changes of the curve
+    GraphSpatialIndex index;
+
+    //the graph which the edge is in, its attribute listeners are told of the changes of the edge
+    GraphModel graph;
+
+    //listeners of the attributes of this edge, null if there is none
+    private CopyOnWriteArrayList<AttributeChangeListener> attributeListeners;
+
     private boolean isSelected = false;
     private boolean showWeight = true;
     private GStroke stroke;
@@ -77,7 +89,8 @@ public class Edge extends BaseEdge<Vertex> {
         if (userDefinedAttributes == null) {
             userDefinedAttributes = new HashMap<String, Object>();
         }
-        userDefinedAttributes.put(name, value);
+        Object old = userDefinedAttributes.put(name, value);
+        fireAttributeChange(name, old, value);
     }
 
     /**
@@ -98,9 +111,10 @@ public class Edge extends BaseEdge<Vertex> {
      * @param name
      */
     public void removeUserDefinedAttribute(String name) {
-        userDefinedAttributes.remove(name);
+        Object old = userDefinedAttributes.remove(name);
         if (userDefinedAttributes.size() == 0)
             userDefinedAttributes = null;
+        fireAttributeChange(name, old, null);
     }
 
     /**
@@ -189,8 +203,10 @@ public class Edge extends BaseEdge<Vertex> {
     GStroke last;
 
     public void setMark(boolean m) {
+        boolean old = getMark();
         super.setMark(m);
         repaintView();
+        fireAttributeChange(EdgeAttrSet.MARK, old, m);
     }
 
     void repaintView() {
@@ -199,9 +215,38 @@ public class Edge extends BaseEdge<Vertex> {
         }
     }
 
+    /**
+     * adds a listener which is told of the changes of the attributes of this edge
+     */
+    public synchronized void addAttributeChangeListener(AttributeChangeListener listener) {
+        if (attributeListeners == null)
+            attributeListeners = new CopyOnWriteArrayList<AttributeChangeListener>();
+        attributeListeners.add(listener);
+    }
+
+    public synchronized void removeAttributeChangeListener(AttributeChangeListener listener) {
+        if (attributeListeners == null)
+            return;
+        attributeListeners.remove(listener);
+        if (attributeListeners.isEmpty())
+            attributeListeners = null;
+    }
+
+    private void fireAttributeChange(String name, Object oldVal, Object newVal) {
+        CopyOnWriteArrayList<AttributeChangeListener> listeners = attributeListeners;
+        if (listeners != null)
+            for (AttributeChangeListener l : listeners)
+                l.edgeAttributeChanged(this, name, oldVal, newVal);
+        GraphModel g = graph;
+        if (g != null)
+            g.fireEdgeAttributeChange(this, name, oldVal, newVal);
+    }
+
     public void setStroke(GStroke stroke) {
+        GStroke old = this.stroke;
         this.stroke = stroke;
         repaintView();
+        fireAttributeChange(EdgeAttrSet.STROKE, old, stroke);
     }
 
     public GStroke getStroke() {
@@ -209,9 +254,11 @@ public class Edge extends BaseEdge<Vertex> {
     }
 
     public void setWeight(int weight) {
+        int old = getWeight();
         super.setWeight(weight);
         updateText();
         repaintView();
+        fireAttributeChange(EdgeAttrSet.WEIGHT, old, weight);
     }
 
     public void setProp(BaseEdgeProperties prop) {
@@ -220,8 +267,10 @@ public class Edge extends BaseEdge<Vertex> {
     }
 
     public void setColor(int color) {
+        int old = getColor();
         super.setColor(color);
         repaintView();
+        fireAttributeChange(EdgeAttrSet.COLOR, old, color);
     }
 
     public Arrow getArrow() {
@@ -229,8 +278,10 @@ public class Edge extends BaseEdge<Vertex> {
     }
 
     public void setArrow(Arrow a) {
+        Arrow old = arrow;
         this.arrow = a;
         repaintView();
+        fireAttributeChange(EdgeAttrSet.ARROW, old, a);
     }
 
     public void setEdgeListener(EdgeListener listener) {
@@ -271,8 +322,10 @@ public class Edge extends BaseEdge<Vertex> {
     }
 
     public void setSelected(boolean selected) {
+        boolean old = isSelected;
         isSelected = selected;
         repaintView();
+        fireAttributeChange(EdgeAttrSet.SELECTED, old, selected);
     }
 
     public String getId() {
@@ -327,8 +380,12 @@ public class Edge extends BaseEdge<Vertex> {
         } else {allowed = true;}
 
         if (allowed) {
+            GraphPoint old = curveControlPoint;
             this.curveControlPoint = controlPoint;
+            if (index != null)
+                index.edgeMoved(this);
             repaintView();
+            fireAttributeChange(EdgeAttrSet.CURVE_CONTROL_POINT, old, controlPoint);
         }
     }
     //---------------    - Curved Edge            --------------------
@@ -337,8 +394,10 @@ public class Edge extends BaseEdge<Vertex> {
     String label;
 
     public void setLabel(String label) {
+        String old = this.label;
         this.label = label;
         updateText();
+        fireAttributeChange(EdgeAttrSet.LABEL, old, label);
     }
 
     public String getLabel() {
@@ -364,9 +423,11 @@ public class Edge extends BaseEdge<Vertex> {
     }
 
     public void setShowWeight(boolean showWeight) {
+        boolean old = this.showWeight;
         this.showWeight = showWeight;
         updateText();
         repaintView();
+        fireAttributeChange(EdgeAttrSet.SHOW_WEIGHT, old, showWeight);
     }
 
     public void updateBounds() {
@@ -374,8 +435,10 @@ public class Edge extends BaseEdge<Vertex> {
     }
 
     public void setLabelLocation(GraphPoint graphPoint) {
+        GraphPoint old = labelLocation;
         this.labelLocation = graphPoint;
         repaintView();
+        fireAttributeChange(EdgeAttrSet.LABEL_LOCATION, old, graphPoint);
     }
 
     public GraphPoint getLabelLocation() {
@@ -499,6 +499,24 @@ public class FastRenderer extends AbstractGraphRenderer implements VertexListene
         super.repaintGraph();
     }
 
+    /**
+     * the vertices and edges added during the bulk update are not known, so all of them are
+     * listened again, the same as setGraph
+     */
+    public void graphChanged() {
+        GraphModel g = getGraph();
+        for (Vertex v : g) {
+            if (v.getLabel() == null)
+                v.setLabel(v.getId() + "");
+            v.setVertexListener(this);
+        }
+        for (Iterator<Edge> ie = g.lightEdgeIterator(); ie.hasNext();)
+            ie.next().setEdgeListener(this);
+        updateGraphBounds();
+        isGraphChanged = true;
+        repaint();
+    }
+
     public void graphCleared() {
         updateGraphBounds();
         isGraphChanged = true;
@@ -17,7 +17,7 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelListener;
 import java.awt.geom.Line2D;
-import java.util.Iterator;
+import java.awt.geom.Rectangle2D;
 
 /**
  * @author Azin Azadi, roozbeh ebrahimi, Ali Ershadi
@@ -230,28 +230,17 @@ public class GraphControl implements MouseListener, MouseWheelListener, MouseMot
         double min = 100000;
         boolean loopDetected = false;
         Edge mine = null;
-        Iterator<Edge> ei = g.lightEdgeIterator();
+        GraphSpatialIndex index = g.getSpatialIndex();
         if (g.isEdgesCurved()) {
-            for (; ei.hasNext();) {
-                Edge e = ei.next();
-                GraphPoint cnp = e.getCurveControlPoint();
-                GraphPoint s = e.source.getLocation();
-                GraphPoint t = e.target.getLocation();
-                GraphPoint cp = new GraphPoint((s.x + t.x) / 2.0 + cnp.x, (s.y + t.y) / 2.0 + cnp.y);
-                if (e.isLoop())
-                    cp = new GraphPoint(s.x + cnp.x, s.y + cnp.y);
-                double dist = GraphPoint.distance(cp.x, cp.y, p.x, p.y);
-                if (min > dist) {
-                    min = dist;
-                    mine = e;
-                }
-            }
+            Pair<Edge, Double> nearest = index.nearestCurveControlPoint(p, min);
+            mine = nearest.first;
+            min = nearest.second;
             if (min < EDGE_CURVE_CPNTROL_BOX_DIAMETER) {
                 min = 0;
             }
         } else {
-            for (; ei.hasNext();) {
-                Edge e = ei.next();
+            //only the edges whose bounds are near p can be on it
+            for (Edge e : index.getEdges(new Rectangle2D.Double(p.x - 5, p.y - 5, 10, 10))) {
                 if (!isInBounds(e, p) && !e.isLoop())
                     continue;
                 GraphPoint sloc = e.source.getLocation();
@@ -318,16 +307,7 @@ public class GraphControl implements MouseListener, MouseWheelListener, MouseMot
      * @return the minimum distance vertex to the given location, and its distanse square(^2).
      */
     public static Pair<Vertex, Double> mindistv(GraphModel g, GraphPoint p) {
-        double min = 100000;
-        Vertex minv = null;
-        for (Vertex v : g) {
-            double dist = Math.pow(v.getLocation().x - p.x, 2) + Math.pow(v.getLocation().y - p.y, 2);
-            if (min > dist) {
-                min = dist;
-                minv = v;
-            }
-        }
-        return new Pair(minv, min);
+        return g.getSpatialIndex().nearestVertex(p, 100000);
     }
 
     /**
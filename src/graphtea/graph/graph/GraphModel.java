@@ -4,6 +4,9 @@
 // Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
 package graphtea.graph.graph;
 
+import graphtea.graph.atributeset.GraphAttrSet;
+import graphtea.graph.atributeset.VertexAttrSet;
+import graphtea.graph.event.AttributeChangeListener;
 import graphtea.graph.event.GraphModelListener;
 import graphtea.library.ListGraph;
 import graphtea.library.exceptions.InvalidEdgeException;
@@ -22,6 +25,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -63,6 +68,7 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	static final int EDGE_REMOVED_GRAPH_CHANGE = 3;
 	static final int GRAPH_CLEARED_GRAPH_CHANGE = 4;
 	static final int REPAINT_GRAPH_GRAPH_CHANGE = 5;
+	static final int GRAPH_CHANGED_GRAPH_CHANGE = 6;
 
 	boolean showChangesOnView;
 	private String label;
@@ -114,7 +120,8 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 		if (userDefinedAttributes == null) {
 			userDefinedAttributes = new HashMap<String, Object>();
 		}
-		userDefinedAttributes.put(name, value);
+		Object old = userDefinedAttributes.put(name, value);
+		fireGraphAttributeChange(name, old, value);
 	}
 
 	/**
@@ -135,9 +142,10 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	 * @param name
 	 */
 	public void removeUserDefinedAttribute(String name) {
-		userDefinedAttributes.remove(name);
+		Object old = userDefinedAttributes.remove(name);
 		if (userDefinedAttributes.size() == 0)
 			userDefinedAttributes = null;
+		fireGraphAttributeChange(name, old, null);
 	}
 
 	/**
@@ -199,6 +207,7 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	 */
 	public void insertVertex(Vertex newVertex) {
 		super.insertVertex(newVertex);
+		newVertex.graph = this;
         if (newVertex.label == null){
             int nid = newVertex.getId();
             lastUsedID = Math.max(lastUsedID,nid);
@@ -209,18 +218,31 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void insertVertices(Collection<Vertex> vertices) {
-		for (Vertex v : vertices) {
-			insertVertex(v);
+		beginBulkUpdate();
+		try {
+			for (Vertex v : vertices) {
+				insertVertex(v);
+			}
+		} finally {
+			endBulkUpdate();
 		}
 	}
 
 	public void removeAllEdges(Vertex source, Vertex target) throws InvalidVertexException {
-		super.removeAllEdges(source, target);
-		fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		//the removed edges are not reported one by one, so the listeners get a graphChanged()
+		beginBulkUpdate();
+		try {
+			super.removeAllEdges(source, target);
+			fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		} finally {
+			endBulkUpdate();
+		}
 	}
 
 	public void removeEdge(Edge edge) throws InvalidEdgeException {
 		super.removeEdge(edge);
+		if (edge.graph == this)
+			edge.graph = null;
 		fireGraphChange(EDGE_REMOVED_GRAPH_CHANGE, null, edge);
 	}
 
@@ -231,10 +253,24 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 
 		}
 		super.removeVertex(v);
+		if (v.graph == this)
+			v.graph = null;
 		fireGraphChange(VERTEX_REMOVED_GRAPH_CHANGE, v, null);
 	}
 
 	public void clear() {
+		for (Edge e : getEdges()) {
+			if (!grecorders.isEmpty())
+				record(EDGE_REMOVED_GRAPH_CHANGE, null, e);
+			if (e.graph == this)
+				e.graph = null;
+		}
+		for (Vertex v : getVertexArray()) {
+			if (!grecorders.isEmpty())
+				record(VERTEX_REMOVED_GRAPH_CHANGE, v, null);
+			if (v.graph == this)
+				v.graph = null;
+		}
 		super.clear();
 		fireGraphChange(GRAPH_CLEARED_GRAPH_CHANGE, null, null);
 	}
@@ -264,6 +300,7 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 		try {
 			if (!isEdge(newedge.source, newedge.target)) {
 				super.insertEdge(newedge);
+				newedge.graph = this;
                 fireGraphChange(EDGE_ADDED_GRAPH_CHANGE, null, newedge);
 			}
 		}
@@ -285,6 +322,63 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	//                         Listener
 
 	HashSet<GraphModelListener> glisteners = new HashSet<GraphModelListener>();
+	HashSet<GraphModelListener> grecorders = new HashSet<GraphModelListener>();
+	private int bulkUpdates = 0;
+	private boolean changedInBulkUpdate = false;
+
+	/**
+	 * Starts a bulk update: until the matching endBulkUpdate() the listeners are not notified of
+	 * the changes of the graph, and at the end they get a single graphChanged() event instead.
+	 * Bulk updates can be nested, the event is fired at the end of the outermost one. Always call
+	 * endBulkUpdate() in a finally block:
+	 * <pre>
+	 * g.beginBulkUpdate();
+	 * try {
+	 *     ...
+	 * } finally {
+	 *     g.endBulkUpdate();
+	 * }
+	 * </pre>
+	 */
+	public synchronized void beginBulkUpdate() {
+		bulkUpdates++;
+	}
+
+	/**
+	 * Ends a bulk update started by beginBulkUpdate(), if it is the outermost one and the graph
+	 * is changed during it, the listeners are notified by graphChanged().
+	 *
+	 * @throws IllegalStateException if there is no bulk update in progress
+	 */
+	public void endBulkUpdate() {
+		synchronized (this) {
+			if (bulkUpdates == 0)
+				throw new IllegalStateException("endBulkUpdate() without beginBulkUpdate()");
+			if (--bulkUpdates > 0 || !changedInBulkUpdate)
+				return;
+			changedInBulkUpdate = false;
+		}
+		fireGraphChange(GRAPH_CHANGED_GRAPH_CHANGE, null, null);
+	}
+
+	/**
+	 * @return true if a bulk update is in progress, so the changes are not reported to the listeners
+	 */
+	public synchronized boolean isInBulkUpdate() {
+		return bulkUpdates > 0;
+	}
+
+	private GraphSpatialIndex spatialIndex;
+
+	/**
+	 * @return the spatial index of the vertices and edges of this graph, which is used for picking
+	 *         and rectangle selection. It is created at the first call and then kept up to date.
+	 */
+	public synchronized GraphSpatialIndex getSpatialIndex() {
+		if (spatialIndex == null)
+			spatialIndex = new GraphSpatialIndex(this);
+		return spatialIndex;
+	}
 
 	public void addGraphListener(GraphModelListener listener) {
 		glisteners.add(listener);
@@ -294,7 +388,105 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 		glisteners.remove(listener);
 	}
 
+	/**
+	 * Adds a recorder, a listener which is told of each vertex and edge added to or removed from
+	 * the graph one by one, also during bulk updates and by clear() (which reports its edges and
+	 * then its vertices as removed). Only vertexAdded, vertexRemoved, edgeAdded and edgeRemoved are
+	 * called on it, before the listeners of the graph. It is used to log the changes, for example
+	 * by the undo manager.
+	 */
+	public void addGraphRecorder(GraphModelListener recorder) {
+		grecorders.add(recorder);
+	}
+
+	public void removeGraphRecorder(GraphModelListener recorder) {
+		grecorders.remove(recorder);
+	}
+
+	//listeners of the attributes of the graph and of its vertices and edges
+	private final CopyOnWriteArrayList<AttributeChangeListener> attributeListeners
+			= new CopyOnWriteArrayList<AttributeChangeListener>();
+
+	/**
+	 * Adds a listener which is told of the changes of the attributes of this graph and of all the
+	 * vertices and edges in it, as soon as their setters are called.
+	 */
+	public void addAttributeChangeListener(AttributeChangeListener listener) {
+		attributeListeners.add(listener);
+	}
+
+	public void removeAttributeChangeListener(AttributeChangeListener listener) {
+		attributeListeners.remove(listener);
+	}
+
+	//the structural version of the graph, see getVersion()
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * @return a number which is increased whenever the graph, or an attribute of the graph or of
+	 *         one of its vertices or edges is changed (except the selection and the zoom, which
+	 *         are only of the view). So a value which is computed from the graph is still valid
+	 *         if the version is the same as when it was computed.
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+
+	private void changed(String attribute) {
+		if (!VertexAttrSet.SELECTED.equals(attribute) && !GraphAttrSet.ZOOM.equals(attribute))
+			version.incrementAndGet();
+	}
+
+	void fireVertexAttributeChange(Vertex v, String name, Object oldVal, Object newVal) {
+		changed(name);
+		for (AttributeChangeListener l : attributeListeners)
+			l.vertexAttributeChanged(v, name, oldVal, newVal);
+	}
+
+	void fireEdgeAttributeChange(Edge e, String name, Object oldVal, Object newVal) {
+		changed(name);
+		for (AttributeChangeListener l : attributeListeners)
+			l.edgeAttributeChanged(e, name, oldVal, newVal);
+	}
+
+	private void fireGraphAttributeChange(String name, Object oldVal, Object newVal) {
+		changed(name);
+		for (AttributeChangeListener l : attributeListeners)
+			l.graphAttributeChanged(this, name, oldVal, newVal);
+	}
+
+	private void record(int change, Vertex v, Edge e) {
+		for (GraphModelListener l : grecorders) {
+			switch (change) {
+			case VERTEX_ADDED_GRAPH_CHANGE:
+				l.vertexAdded(v);
+				break;
+			case VERTEX_REMOVED_GRAPH_CHANGE:
+				l.vertexRemoved(v);
+				break;
+			case EDGE_ADDED_GRAPH_CHANGE:
+				l.edgeAdded(e);
+				break;
+			case EDGE_REMOVED_GRAPH_CHANGE:
+				l.edgeRemoved(e);
+				break;
+			}
+		}
+	}
+
 	void fireGraphChange(int change, Vertex v, Edge e) {
+		if (change != REPAINT_GRAPH_GRAPH_CHANGE)
+			version.incrementAndGet();
+		if (!grecorders.isEmpty())
+			record(change, v, e);
+		if (change != GRAPH_CHANGED_GRAPH_CHANGE) {
+			synchronized (this) {
+				if (bulkUpdates > 0) {
+					changedInBulkUpdate = true;
+					return;
+				}
+			}
+		}
 		for (GraphModelListener l : glisteners) {
 			switch (change) {
 			case VERTEX_ADDED_GRAPH_CHANGE:
@@ -315,6 +507,9 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 			case REPAINT_GRAPH_GRAPH_CHANGE:
 				l.repaintGraph();
 				break;
+			case GRAPH_CHANGED_GRAPH_CHANGE:
+				l.graphChanged();
+				break;
 			}
 		}
 	}
@@ -379,10 +574,12 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void setZoom(ArrayX<String> zoom) {
+		ArrayX<String> old = this.zoom;
 		this.zoom = zoom;
 		String vl = zoom.getValue();
 		zoomFactor = Integer.parseInt(vl.substring(0, vl.length() - 1)) / 100.0;
 		fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		fireGraphAttributeChange(GraphAttrSet.ZOOM, old, zoom);
 	}
 
 	public void zoomIn(){
@@ -405,7 +602,9 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void setLabel(String s) {
+		String old = label;
 		this.label = s;
+		fireGraphAttributeChange(GraphAttrSet.LABEL, old, s);
 	}
 
 	public String getLabel() {
@@ -420,8 +619,13 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void insertEdges(Iterable<Edge> edges) {
-		for (Edge _ : edges)
-			insertEdge(_);
+		beginBulkUpdate();
+		try {
+			for (Edge _ : edges)
+				insertEdge(_);
+		} finally {
+			endBulkUpdate();
+		}
 	}
 
 	/**
@@ -435,15 +639,20 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 		Rectangle2D.Double rect = new Rectangle2D.Double(_rect.getX(), _rect.getY(), _rect.getWidth(), _rect.getHeight());
 		double kx = rect.width / bounds1.getWidth();
 		double ky = rect.height / bounds1.getHeight();
-		for (Vertex vm : graph) {
-			GraphPoint p = vm.getLocation();
-			insertVertex(vm);
-			vm.setLocation(new GraphPoint(((p.x - bounds1.x) * kx + rect.x), (int) ((p.y - bounds1.y) * ky + rect.y)));
-		}
-		Iterator<Edge> eiter = graph.lightEdgeIterator();
-		for (; eiter.hasNext();) {
-			Edge edge = eiter.next();
-			insertEdge(edge);
+		beginBulkUpdate();
+		try {
+			for (Vertex vm : graph) {
+				GraphPoint p = vm.getLocation();
+				insertVertex(vm);
+				vm.setLocation(new GraphPoint(((p.x - bounds1.x) * kx + rect.x), (int) ((p.y - bounds1.y) * ky + rect.y)));
+			}
+			Iterator<Edge> eiter = graph.lightEdgeIterator();
+			for (; eiter.hasNext();) {
+				Edge edge = eiter.next();
+				insertEdge(edge);
+			}
+		} finally {
+			endBulkUpdate();
 		}
 	}
 
@@ -477,8 +686,10 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void setFont(Font font) {
+		Font old = this.font;
 		this.font = font;
 		fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		fireGraphAttributeChange(GraphAttrSet.FONT, old, font);
 	}
 
 	public boolean isDrawEdgeLabels() {
@@ -486,8 +697,10 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void setDrawEdgeLabels(boolean drawEdgeLabels) {
+		boolean old = this.drawEdgeLabels;
 		this.drawEdgeLabels = drawEdgeLabels;
 		fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		fireGraphAttributeChange(GraphAttrSet.DRAW_EDGE_LABELS, old, drawEdgeLabels);
 	}
 
 	public boolean isDrawVertexLabels() {
@@ -495,8 +708,10 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void setDrawVertexLabels(boolean drawVertexLabels) {
+		boolean old = this.drawVertexLabels;
 		this.drawVertexLabels = drawVertexLabels;
 		fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		fireGraphAttributeChange(GraphAttrSet.DRAW_VERTEX_LABELS, old, drawVertexLabels);
 	}
 
 	/**
@@ -513,19 +728,31 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	 * @param isCurve
 	 */
 	public void setIsEdgesCurved(boolean isCurve) {
+		boolean old = this.isEdgesCurved;
 		this.isEdgesCurved = isCurve;
 		fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		fireGraphAttributeChange(GraphAttrSet.IS_EDGES_CURVED, old, isCurve);
 	}
 
 	public void insertVertices(Vertex[] vertices) {
-		for (Vertex v : vertices) {
-			insertVertex(v);
+		beginBulkUpdate();
+		try {
+			for (Vertex v : vertices) {
+				insertVertex(v);
+			}
+		} finally {
+			endBulkUpdate();
 		}
 	}
 
 	public void insertEdges(Edge[] edges) {
-		for (Edge e:edges)
-			insertEdge(e);
+		beginBulkUpdate();
+		try {
+			for (Edge e : edges)
+				insertEdge(e);
+		} finally {
+			endBulkUpdate();
+		}
 	}
 
 
@@ -550,6 +777,7 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 	}
 
 	public void setBackgroundImageFile(File imageFile) {
+		File old = backgroundImageFile;
 		backgroundImageFile = imageFile;
 		try
 		{
@@ -560,6 +788,7 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
 			System.out.println("Error loading image file");
 		}
 		fireGraphChange(REPAINT_GRAPH_GRAPH_CHANGE, null, null);
+		fireGraphAttributeChange(GraphAttrSet.BACKGROUND_IMAGE, old, imageFile);
 	}
 
     public BufferedImage getBackgroundImage()
@@ -571,7 +800,9 @@ public class GraphModel extends ListGraph<Vertex, Edge> implements StorableOnExi
         return allowLoops;
     }
     public void setAllowLoops(boolean allowLoops) {
+        boolean old = this.allowLoops;
         this.allowLoops = allowLoops;
+        fireGraphAttributeChange(GraphAttrSet.Allow_Loops, old, allowLoops);
     }
 
 }
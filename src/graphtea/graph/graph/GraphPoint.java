@@ -9,7 +9,6 @@ import graphtea.platform.StaticUtils;
 
 import java.awt.geom.Point2D;
 import java.io.Serializable;
-import java.util.Scanner;
 
 public class GraphPoint extends Point2D.Double implements Serializable, FromStringProvider {
     static {
@@ -74,9 +73,17 @@ public class GraphPoint extends Point2D.Double implements Serializable, FromStri
         return Math.sqrt(PX * PX + PY * PY);
     }
 
+    /**
+     * parses the output of toString ("x , y"), "x y" is also accepted
+     */
     public GraphPoint fromString(String data) {
-        data = data.replace(',', ' ');
-        Scanner _ = new Scanner(data);
-        return new GraphPoint(_.nextDouble(), _.nextDouble());
+        data = data.trim();
+        int i = data.indexOf(',');
+        if (i < 0)
+            i = data.indexOf(' ');
+        if (i < 0)
+            throw new NumberFormatException("Invalid point: " + data);
+        return new GraphPoint(java.lang.Double.parseDouble(data.substring(0, i).trim()),
+                java.lang.Double.parseDouble(data.substring(i + 1).trim()));
     }
 }
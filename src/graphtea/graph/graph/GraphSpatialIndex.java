@@ -0,0 +1,764 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.graph.graph;
+
+import graphtea.graph.event.GraphModelListener;
+import graphtea.library.util.Pair;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A spatial index of the elements of a graph, which is used to find the element under the mouse
+ * and the elements in a selection rectangle without scanning the whole graph.
+ * <p/>
+ * The centers of the vertices are kept in an adaptive (bucket PR) quadtree: a leaf is split into
+ * four when it has more than QUAD_CAPACITY vertices, and four leaves are merged back when they get
+ * small, so clustered vertices get a deep tree only where they are. The root grows when a vertex is
+ * placed out of it. The edges are kept in an R-tree (Guttman, quadratic split) over their bounding
+ * boxes, the box of an edge covers its two ends, its curve control point and the circle of a loop.
+ * When the index is built from the whole graph the R-tree is packed by Sort-Tile-Recursive.
+ * <p/>
+ * The index is maintained incrementally from the events of the graph (vertexAdded, edgeAdded, ...)
+ * and from Vertex.setLocation and Edge.setCurveControlPoint. Moves are only recorded, the moved
+ * elements are placed again at the next query, so a layout which moves all the vertices costs
+ * nothing until the user points at the graph. If more than a quarter of the vertices are moved, or
+ * the graph is changed in a bulk update, the index is built again at the next query.
+ * <p/>
+ * A vertex or an edge reports its moves to the index of the last graph it is added to.
+ *
+ * @see GraphModel#getSpatialIndex()
+ */
+public class GraphSpatialIndex implements GraphModelListener {
+    //vertices of a quadtree leaf before it is split, and the smallest quad which is split
+    static final int QUAD_CAPACITY = 16;
+    static final double QUAD_MIN_SIZE = 1e-3;
+    //entries of an R-tree node
+    static final int RTREE_MAX = 16;
+    static final int RTREE_MIN = 6;
+
+    private final GraphModel g;
+    //true if the index should be built again before the next query
+    private boolean dirty = true;
+
+    private final IdentityHashMap<Vertex, Entry> vertexEntries = new IdentityHashMap<Vertex, Entry>();
+    private final IdentityHashMap<Edge, Entry> edgeEntries = new IdentityHashMap<Edge, Entry>();
+    private final Set<Vertex> movedVertices = Collections.newSetFromMap(new IdentityHashMap<Vertex, Boolean>());
+    private final Set<Edge> movedEdges = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
+    private Quad quadRoot;
+    private RNode rRoot;
+
+    /**
+     * An indexed element and its bounding box, node is the quad or the R-tree leaf which holds it.
+     */
+    private static final class Entry {
+        final Object item;
+        double minX, minY, maxX, maxY;
+        Object node;
+
+        Entry(Object item) {
+            this.item = item;
+        }
+
+        double distanceSq(double x, double y) {
+            double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+            double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+            return dx * dx + dy * dy;
+        }
+    }
+
+    public GraphSpatialIndex(GraphModel g) {
+        this.g = g;
+        g.addGraphListener(this);
+    }
+
+    //                 queries
+
+    /**
+     * @return the nearest vertex to p and its squared distance to p, or (null, maxDistSq) if there
+     *         is no vertex nearer than sqrt(maxDistSq).
+     */
+    public synchronized Pair<Vertex, Double> nearestVertex(GraphPoint p, double maxDistSq) {
+        update();
+        Entry[] best = new Entry[1];
+        double d = quadNearest(quadRoot, p.x, p.y, maxDistSq, best);
+        return new Pair<Vertex, Double>(best[0] == null ? null : (Vertex) best[0].item, d);
+    }
+
+    /**
+     * @return the vertices whose centers are in the given rectangle (borders included)
+     */
+    public synchronized ArrayList<Vertex> getVertices(Rectangle2D r) {
+        update();
+        ArrayList<Vertex> ret = new ArrayList<Vertex>();
+        quadRange(quadRoot, r.getMinX(), r.getMinY(), r.getMaxX(), r.getMaxY(), ret);
+        return ret;
+    }
+
+    /**
+     * @return the edges whose bounding boxes intersect the given rectangle, the bounding box of an
+     *         edge contains its curve control point and its loop.
+     */
+    public synchronized ArrayList<Edge> getEdges(Rectangle2D r) {
+        update();
+        ArrayList<Edge> ret = new ArrayList<Edge>();
+        if (rRoot != null)
+            rRange(rRoot, r.getMinX(), r.getMinY(), r.getMaxX(), r.getMaxY(), ret);
+        return ret;
+    }
+
+    /**
+     * @return the edge whose curve control point (as drawn, see Edge.getCurveControlPoint()) is the
+     *         nearest to p and the distance of them, or (null, maxDist) if no control point is nearer.
+     */
+    public synchronized Pair<Edge, Double> nearestCurveControlPoint(GraphPoint p, double maxDist) {
+        update();
+        Edge[] best = new Edge[1];
+        double d = maxDist;
+        if (rRoot != null)
+            d = Math.sqrt(rNearestControlPoint(rRoot, p.x, p.y, maxDist * maxDist, best));
+        return new Pair<Edge, Double>(best[0], best[0] == null ? maxDist : d);
+    }
+
+    //                 maintenance
+
+    synchronized void vertexMoved(Vertex v) {
+        if (!dirty && vertexEntries.containsKey(v)) {
+            movedVertices.add(v);
+            if (movedVertices.size() > vertexEntries.size() / 4 + QUAD_CAPACITY)
+                invalidate();
+        }
+    }
+
+    synchronized void edgeMoved(Edge e) {
+        if (!dirty && edgeEntries.containsKey(e))
+            movedEdges.add(e);
+    }
+
+    /**
+     * Makes the index to be built again at the next query.
+     */
+    public synchronized void invalidate() {
+        dirty = true;
+        movedVertices.clear();
+        movedEdges.clear();
+    }
+
+    private void update() {
+        if (dirty) {
+            rebuild();
+            return;
+        }
+        if (!movedVertices.isEmpty()) {
+            for (Vertex v : movedVertices) {
+                Entry e = vertexEntries.get(v);
+                quadRemove(e);
+                setVertexBounds(e, v);
+                quadInsert(e);
+                Iterator<Edge> it = g.edgeIterator(v);
+                while (it.hasNext())
+                    movedEdges.add(it.next());
+            }
+            movedVertices.clear();
+        }
+        if (!movedEdges.isEmpty()) {
+            for (Edge edge : movedEdges) {
+                Entry e = edgeEntries.get(edge);
+                if (e == null)
+                    continue;
+                rRemove(e);
+                setEdgeBounds(e, edge);
+                rInsert(e);
+            }
+            movedEdges.clear();
+        }
+    }
+
+    private void rebuild() {
+        dirty = false;
+        movedVertices.clear();
+        movedEdges.clear();
+        vertexEntries.clear();
+        edgeEntries.clear();
+        quadRoot = null;
+        rRoot = null;
+        for (Vertex v : g)
+            addVertex(v);
+        ArrayList<Entry> edges = new ArrayList<Entry>();
+        Iterator<Edge> it = g.lightEdgeIterator();
+        while (it.hasNext()) {
+            Edge edge = it.next();
+            Entry e = new Entry(edge);
+            setEdgeBounds(e, edge);
+            edgeEntries.put(edge, e);
+            edge.index = this;
+            edges.add(e);
+        }
+        if (!edges.isEmpty())
+            rRoot = bulkLoad(edges.toArray(), true);
+    }
+
+    private void addVertex(Vertex v) {
+        Entry e = new Entry(v);
+        setVertexBounds(e, v);
+        vertexEntries.put(v, e);
+        v.index = this;
+        quadInsert(e);
+    }
+
+    private void addEdge(Edge edge) {
+        Entry e = new Entry(edge);
+        setEdgeBounds(e, edge);
+        edgeEntries.put(edge, e);
+        edge.index = this;
+        rInsert(e);
+    }
+
+    private static void setVertexBounds(Entry e, Vertex v) {
+        GraphPoint l = v.getLocation();
+        e.minX = e.maxX = finite(l.x);
+        e.minY = e.maxY = finite(l.y);
+    }
+
+    //a vertex at an invalid location is indexed at 0, it would make the quadtree grow forever
+    private static double finite(double x) {
+        return Double.isNaN(x) || Double.isInfinite(x) ? 0 : x;
+    }
+
+    private static void setEdgeBounds(Entry e, Edge edge) {
+        GraphPoint s = edge.source.getLocation();
+        GraphPoint t = edge.target.getLocation();
+        GraphPoint c = controlPoint(edge);
+        e.minX = finite(Math.min(Math.min(s.x, t.x), c.x));
+        e.maxX = finite(Math.max(Math.max(s.x, t.x), c.x));
+        e.minY = finite(Math.min(Math.min(s.y, t.y), c.y));
+        e.maxY = finite(Math.max(Math.max(s.y, t.y), c.y));
+        if (edge.isLoop()) {
+            GraphPoint center = edge.getLoopCenter();
+            double r = edge.getLoopWidth() / 2;
+            e.minX = Math.min(e.minX, center.x - r);
+            e.maxX = Math.max(e.maxX, center.x + r);
+            e.minY = Math.min(e.minY, center.y - r);
+            e.maxY = Math.max(e.maxY, center.y + r);
+        }
+    }
+
+    /**
+     * @return the absolute position of the curve control point of the edge
+     */
+    static GraphPoint controlPoint(Edge e) {
+        GraphPoint cnp = e.getCurveControlPoint();
+        GraphPoint s = e.source.getLocation();
+        if (e.isLoop())
+            return new GraphPoint(s.x + cnp.x, s.y + cnp.y);
+        GraphPoint t = e.target.getLocation();
+        return new GraphPoint((s.x + t.x) / 2.0 + cnp.x, (s.y + t.y) / 2.0 + cnp.y);
+    }
+
+    //                 GraphModelListener
+
+    public synchronized void vertexAdded(Vertex v) {
+        if (dirty)
+            return;
+        if (v.index != null && v.index != this)
+            v.index.invalidate();
+        addVertex(v);
+    }
+
+    public synchronized void vertexRemoved(Vertex v) {
+        if (dirty)
+            return;
+        Entry e = vertexEntries.remove(v);
+        if (e != null) {
+            movedVertices.remove(v);
+            quadRemove(e);
+        }
+    }
+
+    public synchronized void edgeAdded(Edge e) {
+        if (dirty)
+            return;
+        if (e.index != null && e.index != this)
+            e.index.invalidate();
+        addEdge(e);
+    }
+
+    public synchronized void edgeRemoved(Edge e) {
+        if (dirty)
+            return;
+        Entry en = edgeEntries.remove(e);
+        if (en != null) {
+            movedEdges.remove(e);
+            rRemove(en);
+        }
+    }
+
+    public void graphCleared() {
+        invalidate();
+    }
+
+    public void repaintGraph() {
+    }
+
+    public void graphChanged() {
+        invalidate();
+    }
+
+    //                 quadtree of the vertices
+
+    private static final class Quad {
+        final double x, y, size;
+        Quad parent;
+        Quad[] children;
+        Entry[] items = new Entry[4];
+        int count;
+
+        Quad(Quad parent, double x, double y, double size) {
+            this.parent = parent;
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+        boolean contains(double px, double py) {
+            return px >= x && py >= y && px < x + size && py < y + size;
+        }
+
+        int childIndex(double px, double py) {
+            double half = size / 2;
+            return (px >= x + half ? 1 : 0) + (py >= y + half ? 2 : 0);
+        }
+
+        double distanceSq(double px, double py) {
+            double dx = px < x ? x - px : (px > x + size ? px - x - size : 0);
+            double dy = py < y ? y - py : (py > y + size ? py - y - size : 0);
+            return dx * dx + dy * dy;
+        }
+
+        void add(Entry e) {
+            if (count == items.length) {
+                Entry[] a = new Entry[count * 2];
+                System.arraycopy(items, 0, a, 0, count);
+                items = a;
+            }
+            items[count++] = e;
+            e.node = this;
+        }
+    }
+
+    private void quadInsert(Entry e) {
+        double px = e.minX, py = e.minY;
+        if (quadRoot == null)
+            quadRoot = new Quad(null, Math.floor(px) - 512, Math.floor(py) - 512, 1024);
+        while (!quadRoot.contains(px, py)) {
+            //grow the root towards the point
+            Quad old = quadRoot;
+            double x = px < old.x ? old.x - old.size : old.x;
+            double y = py < old.y ? old.y - old.size : old.y;
+            Quad root = new Quad(null, x, y, old.size * 2);
+            if (old.count == 0 && old.children == null) {
+                quadRoot = root;
+                continue;
+            }
+            root.children = new Quad[4];
+            root.items = null;
+            double half = old.size;
+            for (int i = 0; i < 4; i++)
+                root.children[i] = new Quad(root, x + (i & 1) * half, y + (i >> 1) * half, half);
+            int k = root.childIndex(old.x, old.y);
+            root.children[k] = old;
+            old.parent = root;
+            quadRoot = root;
+        }
+        Quad q = quadRoot;
+        while (q.children != null)
+            q = q.children[q.childIndex(px, py)];
+        q.add(e);
+        if (q.count > QUAD_CAPACITY && q.size > QUAD_MIN_SIZE)
+            split(q);
+    }
+
+    private void split(Quad q) {
+        double half = q.size / 2;
+        q.children = new Quad[4];
+        for (int i = 0; i < 4; i++)
+            q.children[i] = new Quad(q, q.x + (i & 1) * half, q.y + (i >> 1) * half, half);
+        Entry[] items = q.items;
+        int count = q.count;
+        q.items = null;
+        q.count = 0;
+        for (int i = 0; i < count; i++)
+            q.children[q.childIndex(items[i].minX, items[i].minY)].add(items[i]);
+        for (Quad c : q.children)
+            if (c.count > QUAD_CAPACITY && c.size > QUAD_MIN_SIZE)
+                split(c);
+    }
+
+    private void quadRemove(Entry e) {
+        Quad q = (Quad) e.node;
+        for (int i = 0; i < q.count; i++)
+            if (q.items[i] == e) {
+                q.items[i] = q.items[--q.count];
+                q.items[q.count] = null;
+                break;
+            }
+        e.node = null;
+        //merge the leaves which got small
+        for (Quad p = q.parent; p != null; p = p.parent) {
+            int total = 0;
+            for (Quad c : p.children) {
+                if (c.children != null)
+                    return;
+                total += c.count;
+            }
+            if (total > QUAD_CAPACITY / 2)
+                return;
+            p.items = new Entry[Math.max(4, total)];
+            Quad[] children = p.children;
+            p.children = null;
+            for (Quad c : children)
+                for (int i = 0; i < c.count; i++)
+                    p.add(c.items[i]);
+        }
+    }
+
+    private static double quadNearest(Quad q, double px, double py, double best, Entry[] found) {
+        if (q == null || q.distanceSq(px, py) >= best)
+            return best;
+        if (q.children == null) {
+            for (int i = 0; i < q.count; i++) {
+                Entry e = q.items[i];
+                double dx = e.minX - px, dy = e.minY - py;
+                double d = dx * dx + dy * dy;
+                if (d < best) {
+                    best = d;
+                    found[0] = e;
+                }
+            }
+            return best;
+        }
+        //the quad of the point first, then the others
+        int k = q.childIndex(px, py);
+        best = quadNearest(q.children[k], px, py, best, found);
+        for (int i = 0; i < 4; i++)
+            if (i != k)
+                best = quadNearest(q.children[i], px, py, best, found);
+        return best;
+    }
+
+    private static void quadRange(Quad q, double x1, double y1, double x2, double y2, ArrayList<Vertex> ret) {
+        if (q == null || q.x > x2 || q.y > y2 || q.x + q.size < x1 || q.y + q.size < y1)
+            return;
+        if (q.children == null) {
+            for (int i = 0; i < q.count; i++) {
+                Entry e = q.items[i];
+                if (e.minX >= x1 && e.minX <= x2 && e.minY >= y1 && e.minY <= y2)
+                    ret.add((Vertex) e.item);
+            }
+            return;
+        }
+        for (Quad c : q.children)
+            quadRange(c, x1, y1, x2, y2, ret);
+    }
+
+    //                 R-tree of the edges
+
+    private static final class RNode {
+        final boolean leaf;
+        RNode parent;
+        //Entry in leaves, RNode in the others
+        final Object[] slots = new Object[RTREE_MAX + 1];
+        int count;
+        double minX, minY, maxX, maxY;
+
+        RNode(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        void add(Object o) {
+            slots[count++] = o;
+            if (leaf)
+                ((Entry) o).node = this;
+            else
+                ((RNode) o).parent = this;
+        }
+
+        void remove(Object o) {
+            for (int i = 0; i < count; i++)
+                if (slots[i] == o) {
+                    slots[i] = slots[--count];
+                    slots[count] = null;
+                    return;
+                }
+        }
+
+        void updateBounds() {
+            minX = minY = Double.POSITIVE_INFINITY;
+            maxX = maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                Object o = slots[i];
+                minX = Math.min(minX, minX(o));
+                minY = Math.min(minY, minY(o));
+                maxX = Math.max(maxX, maxX(o));
+                maxY = Math.max(maxY, maxY(o));
+            }
+        }
+
+        double distanceSq(double x, double y) {
+            double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+            double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+            return dx * dx + dy * dy;
+        }
+    }
+
+    private static double minX(Object o) {
+        return o instanceof Entry ? ((Entry) o).minX : ((RNode) o).minX;
+    }
+
+    private static double minY(Object o) {
+        return o instanceof Entry ? ((Entry) o).minY : ((RNode) o).minY;
+    }
+
+    private static double maxX(Object o) {
+        return o instanceof Entry ? ((Entry) o).maxX : ((RNode) o).maxX;
+    }
+
+    private static double maxY(Object o) {
+        return o instanceof Entry ? ((Entry) o).maxY : ((RNode) o).maxY;
+    }
+
+    private static double area(double x1, double y1, double x2, double y2) {
+        return (x2 - x1) * (y2 - y1);
+    }
+
+    private static double enlargement(RNode n, Object o) {
+        return area(Math.min(n.minX, minX(o)), Math.min(n.minY, minY(o)),
+                Math.max(n.maxX, maxX(o)), Math.max(n.maxY, maxY(o))) - area(n.minX, n.minY, n.maxX, n.maxY);
+    }
+
+    private void rInsert(Entry e) {
+        if (rRoot == null)
+            rRoot = new RNode(true);
+        RNode n = rRoot;
+        while (!n.leaf) {
+            RNode best = null;
+            double bestEnl = 0, bestArea = 0;
+            for (int i = 0; i < n.count; i++) {
+                RNode c = (RNode) n.slots[i];
+                double enl = enlargement(c, e);
+                double a = area(c.minX, c.minY, c.maxX, c.maxY);
+                if (best == null || enl < bestEnl || (enl == bestEnl && a < bestArea)) {
+                    best = c;
+                    bestEnl = enl;
+                    bestArea = a;
+                }
+            }
+            n = best;
+        }
+        n.add(e);
+        adjust(n);
+    }
+
+    /**
+     * Splits the overflowed nodes and updates the bounds from n up to the root.
+     */
+    private void adjust(RNode n) {
+        while (n != null) {
+            RNode p = n.parent;
+            if (n.count > RTREE_MAX) {
+                RNode sibling = split(n);
+                if (p == null) {
+                    p = new RNode(false);
+                    p.add(n);
+                    rRoot = p;
+                }
+                p.add(sibling);
+            }
+            n.updateBounds();
+            n = p;
+        }
+    }
+
+    /**
+     * Quadratic split of Guttman, the node keeps one group and the other is returned.
+     */
+    private static RNode split(RNode n) {
+        int count = n.count;
+        Object[] all = new Object[count];
+        System.arraycopy(n.slots, 0, all, 0, count);
+        //the pair which wastes the most area as seeds
+        int s1 = 0, s2 = 1;
+        double worst = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++)
+            for (int j = i + 1; j < count; j++) {
+                Object a = all[i], b = all[j];
+                double d = area(Math.min(minX(a), minX(b)), Math.min(minY(a), minY(b)),
+                        Math.max(maxX(a), maxX(b)), Math.max(maxY(a), maxY(b)))
+                        - area(minX(a), minY(a), maxX(a), maxY(a)) - area(minX(b), minY(b), maxX(b), maxY(b));
+                if (d > worst) {
+                    worst = d;
+                    s1 = i;
+                    s2 = j;
+                }
+            }
+        RNode other = new RNode(n.leaf);
+        for (int i = 0; i < count; i++)
+            n.slots[i] = null;
+        n.count = 0;
+        n.add(all[s1]);
+        other.add(all[s2]);
+        n.updateBounds();
+        other.updateBounds();
+        int left = count - 2;
+        for (int i = 0; i < count; i++) {
+            if (i == s1 || i == s2)
+                continue;
+            Object o = all[i];
+            RNode to;
+            if (n.count + left == RTREE_MIN)
+                to = n;
+            else if (other.count + left == RTREE_MIN)
+                to = other;
+            else {
+                double e1 = enlargement(n, o), e2 = enlargement(other, o);
+                to = e1 < e2 || (e1 == e2 && n.count <= other.count) ? n : other;
+            }
+            to.add(o);
+            to.updateBounds();
+            left--;
+        }
+        return other;
+    }
+
+    /**
+     * Packs the given entries (or nodes) into an R-tree by Sort-Tile-Recursive: they are sorted by x
+     * into vertical slices, each slice is sorted by y and cut into full nodes, then the same is done
+     * with the nodes until one node is left.
+     *
+     * @return the root
+     */
+    private static RNode bulkLoad(Object[] items, boolean leaf) {
+        int count = items.length;
+        int nodes = (count + RTREE_MAX - 1) / RTREE_MAX;
+        int slices = (int) Math.ceil(Math.sqrt(nodes));
+        int perSlice = slices * RTREE_MAX;
+        Arrays.sort(items, new Comparator<Object>() {
+            public int compare(Object a, Object b) {
+                return Double.compare(minX(a) + maxX(a), minX(b) + maxX(b));
+            }
+        });
+        Comparator<Object> byY = new Comparator<Object>() {
+            public int compare(Object a, Object b) {
+                return Double.compare(minY(a) + maxY(a), minY(b) + maxY(b));
+            }
+        };
+        ArrayList<RNode> level = new ArrayList<RNode>(nodes);
+        for (int from = 0; from < count; from += perSlice) {
+            int to = Math.min(count, from + perSlice);
+            Arrays.sort(items, from, to, byY);
+            for (int i = from; i < to; i += RTREE_MAX) {
+                RNode n = new RNode(leaf);
+                for (int j = i; j < Math.min(to, i + RTREE_MAX); j++)
+                    n.add(items[j]);
+                n.updateBounds();
+                level.add(n);
+            }
+        }
+        if (level.size() == 1)
+            return level.get(0);
+        return bulkLoad(level.toArray(), false);
+    }
+
+    private void rRemove(Entry e) {
+        RNode n = (RNode) e.node;
+        n.remove(e);
+        e.node = null;
+        ArrayList<Entry> orphans = new ArrayList<Entry>();
+        while (n.parent != null) {
+            RNode p = n.parent;
+            if (n.count < RTREE_MIN) {
+                p.remove(n);
+                collect(n, orphans);
+            } else
+                n.updateBounds();
+            n = p;
+        }
+        n.updateBounds();
+        while (!rRoot.leaf && rRoot.count == 1) {
+            rRoot = (RNode) rRoot.slots[0];
+            rRoot.parent = null;
+        }
+        if (!rRoot.leaf && rRoot.count == 0)
+            rRoot = new RNode(true);
+        for (Entry o : orphans)
+            rInsert(o);
+    }
+
+    private static void collect(RNode n, ArrayList<Entry> ret) {
+        for (int i = 0; i < n.count; i++) {
+            if (n.leaf)
+                ret.add((Entry) n.slots[i]);
+            else
+                collect((RNode) n.slots[i], ret);
+        }
+    }
+
+    private static void rRange(RNode n, double x1, double y1, double x2, double y2, ArrayList<Edge> ret) {
+        for (int i = 0; i < n.count; i++) {
+            Object o = n.slots[i];
+            if (minX(o) > x2 || maxX(o) < x1 || minY(o) > y2 || maxY(o) < y1)
+                continue;
+            if (n.leaf)
+                ret.add((Edge) ((Entry) o).item);
+            else
+                rRange((RNode) o, x1, y1, x2, y2, ret);
+        }
+    }
+
+    private static double rNearestControlPoint(RNode n, double px, double py, double best, Edge[] found) {
+        if (n.count == 0 || n.distanceSq(px, py) >= best)
+            return best;
+        if (n.leaf) {
+            for (int i = 0; i < n.count; i++) {
+                Entry e = (Entry) n.slots[i];
+                if (e.distanceSq(px, py) >= best)
+                    continue;
+                GraphPoint c = controlPoint((Edge) e.item);
+                double dx = c.x - px, dy = c.y - py;
+                double d = dx * dx + dy * dy;
+                if (d < best) {
+                    best = d;
+                    found[0] = (Edge) e.item;
+                }
+            }
+            return best;
+        }
+        //nearer children first
+        RNode[] children = new RNode[n.count];
+        double[] dist = new double[n.count];
+        for (int i = 0; i < n.count; i++) {
+            RNode c = (RNode) n.slots[i];
+            double d = c.distanceSq(px, py);
+            int j = i;
+            while (j > 0 && dist[j - 1] > d) {
+                dist[j] = dist[j - 1];
+                children[j] = children[j - 1];
+                j--;
+            }
+            dist[j] = d;
+            children[j] = c;
+        }
+        for (int i = 0; i < children.length && dist[i] < best; i++)
+            best = rNearestControlPoint(children[i], px, py, best, found);
+        return best;
+    }
+}
@@ -5,6 +5,7 @@
 package graphtea.graph.graph;
 
 import graphtea.graph.atributeset.VertexAttrSet;
+import graphtea.graph.event.AttributeChangeListener;
 import graphtea.graph.event.VertexListener;
 import graphtea.graph.old.GShape;
 import graphtea.graph.old.GStroke;
@@ -16,6 +17,7 @@ import java.awt.*;
 import java.awt.geom.Rectangle2D;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
@@ -27,6 +29,15 @@ public class Vertex extends BaseVertex {
 
     public VertexListener view;// = emptyListener;
 
+    //the spatial index of the graph, which is notified of the moves
+    GraphSpatialIndex index;
+
+    //the graph which the vertex is in, its attribute listeners are told of the changes of the vertex
+    GraphModel graph;
+
+    //listeners of the attributes of this vertex, null if there is none
+    private CopyOnWriteArrayList<AttributeChangeListener> attributeListeners;
+
     //todo(bug): Vertex is dependent on Fast Renderer!
     public GShape shape = FastRenderer.defaultVertexShape;
 
@@ -71,7 +82,8 @@ public class Vertex extends BaseVertex {
         if (userDefinedAttributes == null) {
             userDefinedAttributes = new HashMap<String, Object>();
         }
-        userDefinedAttributes.put(name, value);
+        Object old = userDefinedAttributes.put(name, value);
+        fireAttributeChange(name, old, value);
     }
 
     /**
@@ -92,9 +104,10 @@ public class Vertex extends BaseVertex {
      * @param name
      */
     public void removeUserDefinedAttribute(String name) {
-        userDefinedAttributes.remove(name);
+        Object old = userDefinedAttributes.remove(name);
         if (userDefinedAttributes.size() == 0)
             userDefinedAttributes = null;
+        fireAttributeChange(name, old, null);
     }
 
     /**
@@ -174,8 +187,10 @@ public class Vertex extends BaseVertex {
     }
 
     public void setMark(boolean mark) {
+        boolean old = getMark();
         super.setMark(mark);
         fireModelListenerChanged();
+        fireAttributeChange(VertexAttrSet.MARK, old, mark);
     }
 
     public void setVertexListener(VertexListener listener) {
@@ -194,6 +209,33 @@ public class Vertex extends BaseVertex {
             view.repaint(this);
     }
 
+    /**
+     * adds a listener which is told of the changes of the attributes of this vertex
+     */
+    public synchronized void addAttributeChangeListener(AttributeChangeListener listener) {
+        if (attributeListeners == null)
+            attributeListeners = new CopyOnWriteArrayList<AttributeChangeListener>();
+        attributeListeners.add(listener);
+    }
+
+    public synchronized void removeAttributeChangeListener(AttributeChangeListener listener) {
+        if (attributeListeners == null)
+            return;
+        attributeListeners.remove(listener);
+        if (attributeListeners.isEmpty())
+            attributeListeners = null;
+    }
+
+    private void fireAttributeChange(String name, Object oldVal, Object newVal) {
+        CopyOnWriteArrayList<AttributeChangeListener> listeners = attributeListeners;
+        if (listeners != null)
+            for (AttributeChangeListener l : listeners)
+                l.vertexAttributeChanged(this, name, oldVal, newVal);
+        GraphModel g = graph;
+        if (g != null)
+            g.fireVertexAttributeChange(this, name, oldVal, newVal);
+    }
+
     /**
      * @return the center point of the vertex
      */
@@ -208,9 +250,13 @@ public class Vertex extends BaseVertex {
     }
 
     public void setLocation(GraphPoint p) {
+        GraphPoint old = location;
         this.location = p;
+        if (index != null)
+            index.vertexMoved(this);
         if (view != null)
             view.updateLocation(this, location);
+        fireAttributeChange(VertexAttrSet.LOCATION, old, p);
     }
 
     /**
@@ -225,13 +271,17 @@ public class Vertex extends BaseVertex {
     }
 
     public void setLabel(String label) {
+        String old = this.label;
         this.label = label;
         fireModelListenerChanged();
+        fireAttributeChange(VertexAttrSet.LABEL, old, label);
     }
 
     public void setShape(GShape shape) {
+        GShape old = this.shape;
         this.shape = shape;
         fireModelListenerChanged();
+        fireAttributeChange(VertexAttrSet.SHAPE, old, shape);
     }
 
     public GShape getShape() {
@@ -239,8 +289,10 @@ public class Vertex extends BaseVertex {
     }
 
     public void setShapeStroke(GStroke stroke) {
+        GStroke old = shapeStroke;
         this.shapeStroke = stroke;
         fireModelListenerChanged();
+        fireAttributeChange(VertexAttrSet.BORDER, old, stroke);
     }
 
     public GStroke getShapeStroke() {
@@ -248,10 +300,12 @@ public class Vertex extends BaseVertex {
     }
 
     public void setSize(GraphPoint size) {
+        GraphPoint old = shapeSize;
         this.shapeSize = size;
         if (view != null)
             view.updateSize(this, size);
         fireModelListenerChanged();
+        fireAttributeChange(VertexAttrSet.SIZE, old, size);
     }
 
     public GraphPoint getSize() {
@@ -268,8 +322,10 @@ public class Vertex extends BaseVertex {
     }
 
     public void setSelected(boolean selected) {
+        boolean old = isSelected;
         isSelected = selected;
         fireModelListenerChanged();
+        fireAttributeChange(VertexAttrSet.SELECTED, old, selected);
     }
 
     public void repaint() {
@@ -277,9 +333,11 @@ public class Vertex extends BaseVertex {
     }
 
     public void setLabelLocation(GraphPoint graphPoint) {
+        GraphPoint old = labelLocation;
         this.labelLocation = graphPoint;
         if (view != null)
             repaint();
+        fireAttributeChange(VertexAttrSet.LABEL_LOCATION, old, graphPoint);
     }
 
     public GraphPoint getLabelLocation() {
@@ -287,8 +345,10 @@ public class Vertex extends BaseVertex {
     }
 
     public void setColor(int color) {
+        int old = getColor();
         super.setColor(color);
         if (view != null)
             repaint();
+        fireAttributeChange(VertexAttrSet.COLOR, old, color);
     }
 }
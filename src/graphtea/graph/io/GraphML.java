@@ -14,52 +14,120 @@ import graphtea.plugins.main.saveload.xmlparser.GraphmlHandlerImpl;
 import graphtea.plugins.main.saveload.xmlparser.GraphmlParser;
 import org.xml.sax.InputSource;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Author: @Reza Mohammadi
+ * <p/>
+ * The document is written element by element to a Writer, so saving a graph is linear in its size
+ * and does not build the whole document in memory. The keys are collected in one pass over the
+ * vertices and edges before writing them.
  */
 public class GraphML {
     public static HashMap<String, String> graphMLGraphKeys = new HashMap<String, String>();
     public static HashMap<String, String> graphMLVertexKeys = new HashMap<String, String>();
     public static HashMap<String, String> graphMLEdgeKeys = new HashMap<String, String>();
 
+    static final String HEADER = ""
+            + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE graphml SYSTEM \"graphml.dtd\">\n"
+            + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\"\n"
+            + "    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+            + "    xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns\n"
+            + "     http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n";
+
     public static String vertex2GraphML(Vertex v) {
-        int id = v.getId();
-        String s = "    <node id=\"" + id + "\">\n";
-        for (String key : graphMLVertexKeys.keySet()) {
-            VertexAttrSet _ = new VertexAttrSet(v);
-            if (_.get(key) != null)
-                s += "      <data key=\"n_" + key + "\">"
-                        + _.get(key).toString()
-                        + "</data>\n";
+        StringWriter s = new StringWriter();
+        try {
+            writeVertex(s, v, graphMLVertexKeys);
+        } catch (IOException e) {
+            //StringWriter does not throw
         }
-        s += "    </node>\n";
-        return s;
+        return s.toString();
     }
 
     public static String edge2GraphML(Edge e) {
-        String s = "";
-        String s2 = "";
-        if (e.getId() != null)
-            s = " id=\"" + e.getId() + "\"";
+        StringWriter s = new StringWriter();
+        try {
+            writeEdge(s, e, graphMLEdgeKeys);
+        } catch (IOException ex) {
+            //StringWriter does not throw
+        }
+        return s.toString();
+    }
+
+    static void writeVertex(Writer out, Vertex v, Map<String, String> vertexKeys) throws IOException {
+        out.write("    <node id=\"");
+        out.write(Integer.toString(v.getId()));
+        out.write("\">\n");
+        VertexAttrSet _ = new VertexAttrSet(v);
+        for (String key : vertexKeys.keySet())
+            writeData(out, "      <data key=\"n_", key, _.get(key));
+        out.write("    </node>\n");
+    }
+
+    static void writeEdge(Writer out, Edge e, Map<String, String> edgeKeys) throws IOException {
+        out.write("    <edge source=\"");
+        out.write(Integer.toString(e.source.getId()));
+        out.write("\" target=\"");
+        out.write(Integer.toString(e.target.getId()));
+        out.write("\"");
+        if (e.getId() != null) {
+            out.write(" id=\"");
+            escape(out, e.getId());
+            out.write("\"");
+        }
+        out.write(">\n");
         EdgeAttrSet _ = new EdgeAttrSet(e);
-// edge direction now is setted only in graph
-//        if ((_.get(EdgeAttrSet.DIRECTED) != null) && (e.model.getAttributes().get(Edge.DIRECTED).toString().equalsIgnoreCase("true")))
-//            s += " directed=\"true\"";
-        s2 = "    <edge source=\"" + e.source.getId()
-                + "\" target=\"" + e.target.getId()
-                + "\"" + s + ">\n";
-        for (String key : graphMLEdgeKeys.keySet()) {
-            if (_.get(key) != null)
-                s2 += "      <data key=\"e_" + key + "\">"
-                        + _.get(key).toString()
-                        + "</data>\n";
+        for (String key : edgeKeys.keySet())
+            writeData(out, "      <data key=\"e_", key, _.get(key));
+        out.write("    </edge>\n");
+    }
+
+    private static void writeData(Writer out, String prefix, String key, Object value) throws IOException {
+        if (value == null)
+            return;
+        out.write(prefix);
+        escape(out, key);
+        out.write("\">");
+        escape(out, value.toString());
+        out.write("</data>\n");
+    }
+
+    /**
+     * writes s to out, escaping the xml special characters
+     */
+    static void escape(Writer out, String s) throws IOException {
+        int last = 0;
+        for (int i = 0; i < s.length(); i++) {
+            String rep;
+            switch (s.charAt(i)) {
+                case '<':
+                    rep = "&lt;";
+                    break;
+                case '>':
+                    rep = "&gt;";
+                    break;
+                case '&':
+                    rep = "&amp;";
+                    break;
+                case '"':
+                    rep = "&quot;";
+                    break;
+                default:
+                    continue;
+            }
+            out.write(s, last, i - last);
+            out.write(rep);
+            last = i + 1;
         }
-        s2 += "    </edge>\n";
-        return s2;
+        out.write(s, last, s.length() - last);
     }
 
     public static GraphModel GraphML2Graph(String gml) {
@@ -76,28 +144,73 @@ public class GraphML {
 
     public static String graph2GraphML(GraphModel g) {
         initializeGMLKeys(g);
+        StringWriter s = new StringWriter();
+        try {
+            writeGraph(s, g, graphMLGraphKeys, graphMLVertexKeys, graphMLEdgeKeys);
+        } catch (IOException e) {
+            //StringWriter does not throw
+        }
+        return s.toString();
+    }
+
+    /**
+     * Writes the keys and the graph element of g (without the xml header) to out. The keys are
+     * collected in one pass, then the vertices and edges are written one by one, so the memory used
+     * does not depend on the size of the graph.
+     */
+    public static void writeGraphML(Writer out, GraphModel g) throws IOException {
+        Map<String, String> graphKeys = new LinkedHashMap<String, String>();
+        Map<String, String> vertexKeys = new LinkedHashMap<String, String>();
+        Map<String, String> edgeKeys = new LinkedHashMap<String, String>();
+        collectKeys(g, graphKeys, vertexKeys, edgeKeys);
+        writeGraph(out, g, graphKeys, vertexKeys, edgeKeys);
+    }
+
+    /**
+     * Writes the whole GraphML document of g to out.
+     */
+    public static void writeGraphMLDocument(Writer out, GraphModel g) throws IOException {
+        out.write(HEADER);
+        writeGraphML(out, g);
+        out.write("</graphml>");
+    }
+
+    private static void writeGraph(Writer out, GraphModel g, Map<String, String> graphKeys,
+                                   Map<String, String> vertexKeys, Map<String, String> edgeKeys) throws IOException {
+        writeKeys(out, "g_", "graph", graphKeys);
+        writeKeys(out, "n_", "node", vertexKeys);
+        writeKeys(out, "e_", "edge", edgeKeys);
+
+        out.write("  <graph id=\"");
+        escape(out, String.valueOf(g.getLabel()));
+        out.write("\" edgedefault=\"");
+        out.write(g.isDirected() ? GraphAttrSet.EDGEDEFAULT_DIRECTED : GraphAttrSet.EDGEDEFAULT_UNDIRECTED);
+        out.write("\">\n");
         GraphAttrSet _ = new GraphAttrSet(g);
-        String graphML = graphMLKeys();
-        graphML +=
-                "  <graph id=\"" + g.getLabel()
-                        + "\" edgedefault=\"" + (g.isDirected() ? GraphAttrSet.EDGEDEFAULT_DIRECTED : GraphAttrSet.EDGEDEFAULT_UNDIRECTED)
-                        + "\">\n";
-        for (String ss : graphMLGraphKeys.keySet()) {
+        for (String ss : graphKeys.keySet()) {
             if (!ss.equals(GraphAttrSet.EDGEDEFAULT))
-                if (_.get(ss) != null)
-                    graphML += "    <data key=\"g_" + ss + "\">"
-                            + _.get(ss)
-                            + "</data>\n";
-        }
-        for (Vertex v : g) {
-            graphML += GraphML.vertex2GraphML(v);
+                writeData(out, "    <data key=\"g_", ss, _.get(ss));
         }
-        for (Iterator<Edge> it = g.edgeIterator(); it.hasNext(); ) {
-            Edge e = it.next();
-            graphML += GraphML.edge2GraphML(e);
+        for (Vertex v : g)
+            writeVertex(out, v, vertexKeys);
+        for (Iterator<Edge> it = g.lightEdgeIterator(); it.hasNext(); )
+            writeEdge(out, it.next(), edgeKeys);
+        out.write("  </graph>\n");
+    }
+
+    private static void writeKeys(Writer out, String prefix, String kind, Map<String, String> keys) throws IOException {
+        for (Map.Entry<String, String> e : keys.entrySet()) {
+            out.write("  <key id=\"");
+            out.write(prefix);
+            escape(out, e.getKey());
+            out.write("\" for=\"");
+            out.write(kind);
+            out.write("\" attr.name=\"");
+            escape(out, e.getKey());
+            out.write("\" attr.type=\"");
+            out.write(e.getValue());
+            out.write("\"/>\n");
         }
-        graphML += "  </graph>\n";
-        return graphML;
     }
 //    public static String graphSelection2GraphML(GraphModel g, Collection<Vertex> v, Collection<Edge> e){
 //        String graphML = graphMLKeys();
@@ -124,59 +237,59 @@ public class GraphML {
 //    }
 
     public static String graphMLKeys() {
-        String s = "";
-        for (Map.Entry<String, String> e : graphMLGraphKeys.entrySet()) {
-            s += "  <key id=\"g_" + e.getKey() + "\" for=\"graph\" attr.name=\""
-                    + e.getKey() + "\" attr.type=\"" + e.getValue() + "\"/>\n";
-        }
-        for (Map.Entry<String, String> e : graphMLVertexKeys.entrySet()) {
-            s += "  <key id=\"n_" + e.getKey() + "\" for=\"node\" attr.name=\""
-                    + e.getKey() + "\" attr.type=\"" + e.getValue() + "\"/>\n";
-        }
-        for (Map.Entry<String, String> e : graphMLEdgeKeys.entrySet()) {
-            s += "  <key id=\"e_" + e.getKey() + "\" for=\"edge\" attr.name=\""
-                    + e.getKey() + "\" attr.type=\"" + e.getValue() + "\"/>\n";
+        StringWriter s = new StringWriter();
+        try {
+            writeKeys(s, "g_", "graph", graphMLGraphKeys);
+            writeKeys(s, "n_", "node", graphMLVertexKeys);
+            writeKeys(s, "e_", "edge", graphMLEdgeKeys);
+        } catch (IOException e) {
+            //StringWriter does not throw
         }
-        return s;
+        return s.toString();
     }
 
     static void initializeGMLKeys(GraphModel g) {
         graphMLEdgeKeys.clear();
         graphMLGraphKeys.clear();
         graphMLVertexKeys.clear();
+        collectKeys(g, graphMLGraphKeys, graphMLVertexKeys, graphMLEdgeKeys);
+    }
+
+    /**
+     * Finds the attributes of the graph, its vertices and its edges and their types, in one pass.
+     * The attribute sets are read by name, so no attribute map is built per vertex or edge.
+     */
+    static void collectKeys(GraphModel g, Map<String, String> graphKeys,
+                            Map<String, String> vertexKeys, Map<String, String> edgeKeys) {
         for (Vertex v : g) {
             VertexAttrSet _ = new VertexAttrSet(v);
-            Map<String, Object> atr = _.getAttrs();
-            for (String name : atr.keySet()) {
-                if (atr.get(name) != null)
-                    graphMLVertexKeys.put(name, atr.get(name).getClass().getName());
-            }
+            for (String name : VertexAttrSet.NAMES)
+                putKey(vertexKeys, name, _.get(name));
+            putKeys(vertexKeys, v.getUserDefinedAttributes());
         }
-        Iterator<Edge> ie = g.edgeIterator();
+        Iterator<Edge> ie = g.lightEdgeIterator();
         while (ie.hasNext()) {
             Edge edge = ie.next();
-            Map<String, Object> atr = new EdgeAttrSet(edge).getAttrs();
-            for (String name : atr.keySet()) {
-                if (atr.get(name) != null)
-                    graphMLEdgeKeys.put(name, atr.get(name).getClass().getName());
-            }
-        }
-        Map<String, Object> atr = new GraphAttrSet(g).getAttrs();
-        for (String name : atr.keySet()) {
-            if (atr.get(name) != null)
-                graphMLGraphKeys.put(name, atr.get(name).getClass().getName());
+            EdgeAttrSet _ = new EdgeAttrSet(edge);
+            for (String name : EdgeAttrSet.NAMES)
+                putKey(edgeKeys, name, _.get(name));
+            putKeys(edgeKeys, edge.getUserDefinedAttributes());
         }
+        putKeys(graphKeys, new GraphAttrSet(g).getAttrs());
+    }
+
+    private static void putKeys(Map<String, String> keys, Map<String, Object> atr) {
+        if (atr != null)
+            for (Map.Entry<String, Object> e : atr.entrySet())
+                putKey(keys, e.getKey(), e.getValue());
+    }
+
+    private static void putKey(Map<String, String> keys, String name, Object value) {
+        if (value != null)
+            keys.put(name, value.getClass().getName());
     }
 
     public static String graph2GraphML_with_headers(GraphModel g) {
-        return (""
-                + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
-                + "<!DOCTYPE graphml SYSTEM \"graphml.dtd\">\n"
-                + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\"\n"
-                + "    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
-                + "    xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns\n"
-                + "     http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n"
-                + graph2GraphML(g)
-                + "</graphml>");
-    }
-}
\ No newline at end of file
+        return HEADER + graph2GraphML(g) + "</graphml>";
+    }
+}
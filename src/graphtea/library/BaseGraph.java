@@ -16,8 +16,10 @@ import graphtea.library.exceptions.InvalidEdgeException;
 import graphtea.library.exceptions.InvalidGraphException;
 import graphtea.library.exceptions.InvalidVertexException;
 import graphtea.library.genericcloners.EdgeVertexCopier;
+import graphtea.library.util.SparseMatrix;
 
 import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -202,6 +204,70 @@ abstract public class BaseGraph<VertexType extends BaseVertex, EdgeType extends
      */
     public abstract Matrix getWeightedAdjacencyMatrix();
 
+    /**
+     * Returns the adjacency matrix of the graph as a sparse matrix, entry (i, j) is the
+     * number of edges from the vertex with id i to the vertex with id j (both directions for
+     * undirected graphs). It needs O(V+E) memory instead of the O(V^2) of getAdjacencyMatrix().
+     *
+     * @return Sparse adjacency matrix of the graph.
+     * @see BaseGraph#getAdjacencyMatrix()
+     */
+    public SparseMatrix getSparseAdjacencyMatrix() {
+        return sparseAdjacencyMatrix(false);
+    }
+
+    /**
+     * Returns the weighted adjacency matrix of the graph as a sparse matrix.
+     *
+     * @return Sparse weighted adjacency matrix of the graph.
+     * @see BaseGraph#getWeightedAdjacencyMatrix()
+     */
+    public SparseMatrix getSparseWeightedAdjacencyMatrix() {
+        return sparseAdjacencyMatrix(true);
+    }
+
+    /**
+     * Returns the Laplacian matrix (D - A) of the weighted adjacency matrix as a sparse matrix.
+     *
+     * @param inDegree for directed graphs, whether D holds in degrees (otherwise out degrees).
+     * @return Sparse Laplacian matrix of the graph.
+     */
+    public SparseMatrix getSparseLaplacianMatrix(boolean inDegree) {
+        return getSparseWeightedAdjacencyMatrix().laplacian(inDegree);
+    }
+
+    private SparseMatrix sparseAdjacencyMatrix(boolean weighted) {
+        int n = getVerticesCount();
+        int m = getEdgesCount();
+        boolean directed = isDirected();
+        int cap = directed ? m : 2 * m;
+        int[] r = new int[cap];
+        int[] c = new int[cap];
+        double[] v = new double[cap];
+        int k = 0;
+        Iterator<EdgeType> it = lightEdgeIterator();
+        while (it.hasNext()) {
+            EdgeType edge = it.next();
+            if (k + 2 > r.length) {
+                cap = 2 * r.length + 2;
+                r = Arrays.copyOf(r, cap);
+                c = Arrays.copyOf(c, cap);
+                v = Arrays.copyOf(v, cap);
+            }
+            int s = getId(edge.source), t = getId(edge.target);
+            double w = weighted ? edge.getWeight() : 1;
+            r[k] = s;
+            c[k] = t;
+            v[k++] = w;
+            if (!directed && s != t) {
+                r[k] = t;
+                c[k] = s;
+                v[k++] = w;
+            }
+        }
+        return SparseMatrix.fromCOO(n, n, r, c, v, k);
+    }
+
     /**
      * Returns whether the graph is directed.
      *
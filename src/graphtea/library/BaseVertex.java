@@ -88,6 +88,13 @@ public class BaseVertex {
         return id;
     }
 
+    /**
+     * @return whether the vertex has an index, which is set when it is inserted in a graph.
+     */
+    boolean hasId() {
+        return id != null;
+    }
+
     /**
      * Returns the index of the vertex in the graph that belongs to a specified subgraph.
      *
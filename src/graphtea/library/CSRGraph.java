@@ -0,0 +1,656 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library;
+
+import Jama.Matrix;
+import graphtea.library.exceptions.InvalidEdgeException;
+import graphtea.library.exceptions.InvalidGraphException;
+import graphtea.library.exceptions.InvalidVertexException;
+import graphtea.library.genericcloners.EdgeVertexCopier;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed Sparse Row (CSR) Graph.
+ * <p/>
+ * An immutable snapshot of another graph, the adjacency of vertex <code>i</code> is stored in
+ * <code>outTargets[outOffsets[i] .. outOffsets[i+1])</code>, sorted by target id, and the edge
+ * object of each slot is referenced by its index in <code>getEdge(int)</code>. Directed graphs
+ * also keep an inverse CSR for the in-edges; for undirected graphs every edge is stored in the rows
+ * of both of its end points and the inverse arrays are the same as the forward ones.
+ * <p/>
+ * The vertices keep the ids they had in the source graph, so algorithms which index arrays by
+ * <code>getId()</code> run on it unchanged. The graph can not be modified, all the mutating methods
+ * throw <code>UnsupportedOperationException</code>; use <code>createEmptyGraph()</code> to get a
+ * mutable graph of the same type.
+ * <p/>
+ * Usage: <code>CSRGraph&lt;Vertex, Edge&gt; csr = new CSRGraph&lt;Vertex, Edge&gt;(graphModel);</code>
+ *
+ * @param <VertexType> Type of the vertices the graph can work with.
+ * @param <EdgeType> Type of the edges the graph can work with.
+ */
+public class CSRGraph<VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+        extends BaseGraph<VertexType, EdgeType> {
+    //Specified whether the graph is directed.
+    private final boolean directed;
+
+    //vertices by their id
+    private final VertexType[] vertices;
+
+    //edges by their index, each edge exists once in this array
+    private final EdgeType[] edges;
+
+    //weights of edges by their index, taken at construction time
+    private final int[] weights;
+
+    //the forward CSR, the edges which their source is the vertex (all incident edges in undirected graphs)
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outEdges;
+
+    //the inverse CSR, the edges which their target is the vertex
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inEdges;
+
+    /**
+     * Freezes the given graph into CSR form. Later changes of the source graph are not reflected
+     * in the constructed object.
+     *
+     * @param graph The graph to be frozen.
+     */
+    @SuppressWarnings("unchecked")
+    public CSRGraph(BaseGraph<VertexType, EdgeType> graph) {
+        directed = graph.isDirected();
+        subgraphIndex = graph.subgraphIndex;
+        int n = graph.getVerticesCount();
+
+        vertices = (VertexType[]) new BaseVertex[n];
+        for (VertexType v : graph) {
+            int id = getId(v);
+            if (id < 0 || id >= n || vertices[id] != null)
+                throw new InvalidGraphException();
+            vertices[id] = v;
+        }
+
+        ArrayList<EdgeType> edgeList = new ArrayList<EdgeType>(graph.getEdgesCount());
+        Iterator<EdgeType> it = graph.lightEdgeIterator();
+        while (it.hasNext())
+            edgeList.add(it.next());
+
+        int m = edgeList.size();
+        edges = (EdgeType[]) edgeList.toArray(new BaseEdge[m]);
+        weights = new int[m];
+        int[] src = new int[m];
+        int[] trg = new int[m];
+        for (int i = 0; i < m; i++) {
+            weights[i] = edges[i].getWeight();
+            src[i] = getId(edges[i].source);
+            trg[i] = getId(edges[i].target);
+        }
+
+        if (directed) {
+            outOffsets = new int[n + 1];
+            outTargets = new int[m];
+            outEdges = new int[m];
+            fill(n, src, trg, false, outOffsets, outTargets, outEdges);
+            inOffsets = new int[n + 1];
+            inSources = new int[m];
+            inEdges = new int[m];
+            fill(n, trg, src, false, inOffsets, inSources, inEdges);
+        } else {
+            outOffsets = new int[n + 1];
+            outTargets = new int[2 * m];
+            outEdges = new int[2 * m];
+            fill(n, src, trg, true, outOffsets, outTargets, outEdges);
+            inOffsets = outOffsets;
+            inSources = outTargets;
+            inEdges = outEdges;
+        }
+    }
+
+    /**
+     * Fills a CSR structure (counting sort on <code>from</code>) and sorts each row by its targets.
+     *
+     * @param both If true each edge is also stored in the row of its <code>to</code> end point.
+     */
+    private static void fill(int n, int[] from, int[] to, boolean both,
+                             int[] offsets, int[] targets, int[] edgeIds) {
+        for (int i = 0; i < from.length; i++) {
+            offsets[from[i] + 1]++;
+            if (both)
+                offsets[to[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++)
+            offsets[i + 1] += offsets[i];
+
+        int[] pos = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < from.length; i++) {
+            int p = pos[from[i]]++;
+            targets[p] = to[i];
+            edgeIds[p] = i;
+            if (both) {
+                p = pos[to[i]]++;
+                targets[p] = from[i];
+                edgeIds[p] = i;
+            }
+        }
+
+        //sort rows by target, packing (target, edge index) into a long keeps them together
+        long[] buf = new long[16];
+        for (int v = 0; v < n; v++) {
+            int start = offsets[v], len = offsets[v + 1] - start;
+            if (len < 2)
+                continue;
+            if (buf.length < len)
+                buf = new long[Math.max(len, 2 * buf.length)];
+            for (int j = 0; j < len; j++)
+                buf[j] = ((long) targets[start + j] << 32) | edgeIds[start + j];
+            Arrays.sort(buf, 0, len);
+            for (int j = 0; j < len; j++) {
+                targets[start + j] = (int) (buf[j] >>> 32);
+                edgeIds[start + j] = (int) buf[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the first slot of the row of <code>u</code> which its target is not less than
+     * <code>v</code>, using binary search.
+     */
+    private static int lowerBound(int[] offsets, int[] targets, int u, int v) {
+        int lo = offsets[u], hi = offsets[u + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (targets[mid] < v)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("CSRGraph is immutable, modify the source graph and freeze it again.");
+    }
+
+    //                         Primitive access
+    //the returned arrays are the internal ones and should not be modified
+
+    /**
+     * @return array of size n+1, the row of vertex i in out targets and out edges is [offsets[i], offsets[i+1])
+     */
+    public int[] getOutOffsets() {
+        return outOffsets;
+    }
+
+    /**
+     * @return the target ids of the forward CSR rows, sorted in each row
+     */
+    public int[] getOutTargets() {
+        return outTargets;
+    }
+
+    /**
+     * @return the edge index of each slot of the forward CSR
+     * @see CSRGraph#getEdge(int)
+     */
+    public int[] getOutEdges() {
+        return outEdges;
+    }
+
+    /**
+     * @return the offsets of the inverse CSR, same as getOutOffsets() in undirected graphs
+     */
+    public int[] getInOffsets() {
+        return inOffsets;
+    }
+
+    /**
+     * @return the source ids of the inverse CSR rows, sorted in each row
+     */
+    public int[] getInSources() {
+        return inSources;
+    }
+
+    /**
+     * @return the edge index of each slot of the inverse CSR
+     */
+    public int[] getInEdges() {
+        return inEdges;
+    }
+
+    /**
+     * @return weights of the edges by their index, as they were when the graph was frozen
+     */
+    public int[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * @param index index of the edge, as stored in getOutEdges() and getInEdges()
+     * @return the edge object
+     */
+    public EdgeType getEdge(int index) {
+        return edges[index];
+    }
+
+    /**
+     * Returns Vertex internally associated with id <code>id</code>.
+     *
+     * @throws InvalidVertexException if the <code>id</code> is invalid.
+     */
+    public VertexType getVertex(int id) throws InvalidVertexException {
+        if (id < 0 || id >= vertices.length)
+            throw new InvalidVertexException();
+        return vertices[id];
+    }
+
+    //                         Iterators
+
+    /**
+     * Iterates the edges of a range of slots, optionally followed by a second range
+     * whose self-loops are skipped (they are already visited in the first one).
+     */
+    private class SlotIterator implements Iterator<EdgeType> {
+        private final int[] ids1, ids2, ends2;
+        private int cur1, end1, cur2, end2;
+        private final int self;
+
+        SlotIterator(int[] ids, int from, int to) {
+            this(ids, from, to, null, null, 0, 0, -1);
+        }
+
+        SlotIterator(int[] ids1, int from1, int to1, int[] ids2, int[] ends2, int from2, int to2, int self) {
+            this.ids1 = ids1;
+            this.cur1 = from1;
+            this.end1 = to1;
+            this.ids2 = ids2;
+            this.ends2 = ends2;
+            this.cur2 = from2;
+            this.end2 = to2;
+            this.self = self;
+            skipLoops();
+        }
+
+        private void skipLoops() {
+            while (cur2 < end2 && ends2[cur2] == self)
+                cur2++;
+        }
+
+        public boolean hasNext() {
+            return cur1 < end1 || cur2 < end2;
+        }
+
+        public EdgeType next() {
+            if (cur1 < end1)
+                return edges[ids1[cur1++]];
+            if (cur2 >= end2)
+                throw new NoSuchElementException();
+            EdgeType ret = edges[ids2[cur2++]];
+            skipLoops();
+            return ret;
+        }
+
+        public void remove() {
+            throw immutable();
+        }
+    }
+
+    private class AllEdgesIterator implements Iterator<EdgeType> {
+        private int cur = 0;
+
+        public boolean hasNext() {
+            return cur < edges.length;
+        }
+
+        public EdgeType next() {
+            if (cur >= edges.length)
+                throw new NoSuchElementException();
+            return edges[cur++];
+        }
+
+        public void remove() {
+            throw immutable();
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#edgeIterator()
+     */
+    @Override
+    public Iterator<EdgeType> edgeIterator() {
+        return new AllEdgesIterator();
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#edgeIterator(null)
+     */
+    @Override
+    public Iterator<EdgeType> edgeIterator(VertexType v) throws InvalidVertexException {
+        checkVertex(v);
+        int id = getId(v);
+        if (!directed)
+            return new SlotIterator(outEdges, outOffsets[id], outOffsets[id + 1]);
+        return new SlotIterator(outEdges, outOffsets[id], outOffsets[id + 1],
+                inEdges, inSources, inOffsets[id], inOffsets[id + 1], id);
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#edgeIterator(null, boolean)
+     */
+    @Override
+    public Iterator<EdgeType> edgeIterator(VertexType v, boolean source) throws InvalidVertexException {
+        checkVertex(v);
+        int id = getId(v);
+        if (source)
+            return new SlotIterator(outEdges, outOffsets[id], outOffsets[id + 1]);
+        return new SlotIterator(inEdges, inOffsets[id], inOffsets[id + 1]);
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#lightEdgeIterator()
+     */
+    @Override
+    public Iterator<EdgeType> lightEdgeIterator() {
+        return new AllEdgesIterator();
+    }
+
+    /**
+     * Same as ListGraph, in directed graphs only the edges which their source is <code>v</code> are iterated.
+     *
+     * @see graphtea.library.BaseGraph#lightEdgeIterator(BaseVertex)
+     */
+    @Override
+    public Iterator<EdgeType> lightEdgeIterator(VertexType v) throws InvalidVertexException {
+        return edgeIterator(v, true);
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#lightBackEdgeIterator(null)
+     */
+    @Override
+    public Iterator<EdgeType> lightBackEdgeIterator(VertexType v) throws InvalidVertexException {
+        return edgeIterator(v, false);
+    }
+
+    /* (non-Javadoc)
+     * @see java.lang.Iterable#iterator()
+     */
+    @Override
+    public Iterator<VertexType> iterator() {
+        return new Iterator<VertexType>() {
+            int cur = 0;
+
+            public boolean hasNext() {
+                return cur < vertices.length;
+            }
+
+            public VertexType next() {
+                if (cur >= vertices.length)
+                    throw new NoSuchElementException();
+                return vertices[cur++];
+            }
+
+            public void remove() {
+                throw immutable();
+            }
+        };
+    }
+
+    //                         Queries
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getVerticesCount()
+     */
+    @Override
+    public int getVerticesCount() {
+        return vertices.length;
+    }
+
+    @Override
+    public int getEdgesCount() {
+        return edges.length;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#isDirected()
+     */
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#isEdge(null, null)
+     */
+    @Override
+    public boolean isEdge(VertexType source, VertexType target) throws InvalidVertexException {
+        checkVertex(source);
+        checkVertex(target);
+        int s = getId(source), t = getId(target);
+        int p = lowerBound(outOffsets, outTargets, s, t);
+        return p < outOffsets[s + 1] && outTargets[p] == t;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getEdges(null, null)
+     */
+    @Override
+    public AbstractList<EdgeType> getEdges(VertexType source, VertexType target) throws InvalidVertexException {
+        checkVertex(source);
+        checkVertex(target);
+        int s = getId(source), t = getId(target);
+        ArrayList<EdgeType> arr = new ArrayList<EdgeType>();
+        int end = outOffsets[s + 1];
+        int last = -1;
+        for (int p = lowerBound(outOffsets, outTargets, s, t); p < end && outTargets[p] == t; p++) {
+            //an undirected loop is stored twice in its row
+            if (outEdges[p] != last)
+                arr.add(edges[outEdges[p]]);
+            last = outEdges[p];
+        }
+        return arr;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#weightOfEdge(null, null)
+     */
+    @Override
+    public int[] weightOfEdge(VertexType source, VertexType target) throws InvalidVertexException {
+        AbstractList<EdgeType> es = getEdges(source, target);
+        if (es.size() == 0)
+            return null;
+        int[] res = new int[es.size()];
+        int i = 0;
+        for (EdgeType e : es)
+            res[i++] = e.getWeight();
+        return res;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getInDegree(null)
+     */
+    @Override
+    public int getInDegree(VertexType v) throws InvalidVertexException {
+        checkVertex(v);
+        int id = getId(v);
+        return inOffsets[id + 1] - inOffsets[id];
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getOutDegree(null)
+     */
+    @Override
+    public int getOutDegree(VertexType v) throws InvalidVertexException {
+        checkVertex(v);
+        int id = getId(v);
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#containsVertex(null)
+     */
+    @Override
+    public boolean containsVertex(VertexType v) {
+        int id = getId(v);
+        return id >= 0 && id < vertices.length && vertices[id] == v;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#checkVertex(null)
+     */
+    @Override
+    public void checkVertex(VertexType v) throws InvalidVertexException {
+        int id = getId(v);
+        if (id < 0 || id >= vertices.length)
+            throw new InvalidVertexException("Out of range");
+        if (vertices[id] != v)
+            throw new InvalidVertexException("Invalid");
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getVertexArray()
+     */
+    @Override
+    public BaseVertex[] getVertexArray() {
+        BaseVertex[] arr = new BaseVertex[vertices.length];
+        System.arraycopy(vertices, 0, arr, 0, vertices.length);
+        return arr;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getEdgeArray()
+     */
+    @Override
+    public int[][] getEdgeArray() {
+        int[][] arr = new int[vertices.length][];
+        for (int i = 0; i < vertices.length; i++)
+            arr[i] = Arrays.copyOfRange(outTargets, outOffsets[i], outOffsets[i + 1]);
+        return arr;
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getAdjacencyMatrix()
+     */
+    @Override
+    public Matrix getAdjacencyMatrix() {
+        return adjacencyMatrix(false);
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#getWeightedAdjacencyMatrix()
+     */
+    @Override
+    public Matrix getWeightedAdjacencyMatrix() {
+        return adjacencyMatrix(true);
+    }
+
+    private Matrix adjacencyMatrix(boolean weighted) {
+        int n = vertices.length;
+        double[][] a = new double[n][n];
+        for (int i = 0; i < edges.length; i++) {
+            int s = getId(edges[i].source), t = getId(edges[i].target);
+            a[s][t] += weighted ? weights[i] : 1;
+            if (!directed)
+                a[t][s] = a[s][t];
+        }
+        return new Matrix(a, n, n);
+    }
+
+    /* (non-Javadoc)
+     * @see graphtea.library.BaseGraph#dump()
+     */
+    @Override
+    public void dump() {
+        System.out.print('\n');
+        for (int i = 0; i < vertices.length; i++) {
+            int[] row = new int[vertices.length];
+            for (int p = outOffsets[i]; p < outOffsets[i + 1]; p++)
+                row[outTargets[p]]++;
+            for (int j = 0; j < vertices.length; ++j)
+                System.out.print(" " + row[j]);
+            System.out.print('\n');
+        }
+        System.out.print('\n');
+    }
+
+    /**
+     * Copies the graph using <code>gc</code> and freezes the copy.
+     *
+     * @see graphtea.library.BaseGraph#copy(EdgeVertexCopier)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public BaseGraph<VertexType, EdgeType> copy(EdgeVertexCopier<VertexType, EdgeType> gc)
+            throws InvalidGraphException {
+        ListGraph<VertexType, EdgeType> oGraph = new ListGraph<VertexType, EdgeType>(directed, vertices.length);
+        VertexType[] alvt = (VertexType[]) new BaseVertex[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            alvt[i] = gc.convert(vertices[i]);
+            oGraph.insertVertex(alvt[i]);
+        }
+        try {
+            for (EdgeType edge : edges)
+                oGraph.insertEdge(gc.convert(edge, alvt[getId(edge.source)], alvt[getId(edge.target)]));
+        } catch (InvalidVertexException ex) {
+            throw new InvalidGraphException(ex);
+        }
+        return new CSRGraph<VertexType, EdgeType>(oGraph);
+    }
+
+    /**
+     * The CSR graph is immutable, so a mutable ListGraph is returned.
+     *
+     * @see graphtea.library.BaseGraph#createEmptyGraph()
+     */
+    @Override
+    public ListGraph<VertexType, EdgeType> createEmptyGraph() {
+        return new ListGraph<VertexType, EdgeType>(directed, 0);
+    }
+
+    //                         Unsupported modifications
+
+    @Override
+    public void insertEdge(EdgeType newEdge) throws InvalidVertexException {
+        throw immutable();
+    }
+
+    @Override
+    public void removeAllEdges(VertexType source, VertexType target) throws InvalidVertexException {
+        throw immutable();
+    }
+
+    @Override
+    public void removeEdge(EdgeType edge) throws InvalidEdgeException {
+        throw immutable();
+    }
+
+    @Override
+    public void insertVertex(VertexType newVertex) {
+        throw immutable();
+    }
+
+    @Override
+    public void removeVertex(VertexType v) throws InvalidVertexException {
+        throw immutable();
+    }
+
+    @Override
+    public void clear() {
+        throw immutable();
+    }
+
+    @Override
+    public void setDirected(boolean isDirected) {
+        if (isDirected != directed)
+            throw immutable();
+    }
+}
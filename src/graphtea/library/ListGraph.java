@@ -593,7 +593,7 @@ public class ListGraph<VertexType extends BaseVertex, EdgeType extends BaseEdge<
      */
     @Override
     public void insertVertex(VertexType newVertex) {
-        if (!vertices.contains(newVertex)) {
+        if (!containsVertex(newVertex)) {
             guard = true;
             vertices.add(newVertex);
             list.add(new LinkedList<Pair<EdgeType, VertexType>>());
@@ -890,8 +890,13 @@ public class ListGraph<VertexType extends BaseVertex, EdgeType extends BaseEdge<
       */
     @Override
     public boolean containsVertex(VertexType v) {
-        return vertices.contains(v);
-
+        //the id of a vertex is its index, so there is no need to search the list
+        if (subgraphIndex != 0)
+            return vertices.contains(v);
+        if (!v.hasId())
+            return false;
+        int id = v.getId();
+        return id >= 0 && id < vertices.size() && vertices.get(id) == v;
     }
 
 
@@ -1045,7 +1050,9 @@ public class ListGraph<VertexType extends BaseVertex, EdgeType extends BaseEdge<
         vertices = new ArrayList<VertexType>();
         outDegree = new ArrayList<Integer>();
         inDegree = new ArrayList<Integer>();
-        edgeIterationIndex = 0;
+        //edgeIterationIndex is not reset, the removed edges may be inserted again and must not
+        //look as already iterated
+        edgeCount = 0;
         guard = false;
     }
 
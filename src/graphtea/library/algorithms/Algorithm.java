@@ -6,12 +6,16 @@
 package graphtea.library.algorithms;
 
 import graphtea.library.algorithms.util.EventUtils;
+import graphtea.library.event.AlgorithmStep;
 import graphtea.library.event.Event;
 import graphtea.library.event.EventDispatcher;
 
 /**
  * @author Omid Aladini
  *         Animated algorithms should extend this class.
+ *         <p/>
+ *         Steps cost nothing when no dispatcher is attached (the algorithm runs headless) or steps
+ *         are disabled: no event is created and the messages given as parts are never concatenated.
  */
 public abstract class Algorithm implements AlgorithmInterface {
     /**
@@ -19,6 +23,11 @@ public abstract class Algorithm implements AlgorithmInterface {
      */
     EventDispatcher dispatcher = null;
 
+    /**
+     * Whether algorithm steps are sent to the dispatcher.
+     */
+    private boolean stepsEnabled = true;
+
     /**
      * Gets a reference to the dispatcher object responsible for dispatching events.
      *
@@ -43,16 +52,52 @@ public abstract class Algorithm implements AlgorithmInterface {
 
     }
 
+    /**
+     * Enables or disables the algorithm steps, for example to keep the requests of an algorithm
+     * answered by a dispatcher without animating it. Steps are enabled by default.
+     */
+    public void setStepsEnabled(boolean stepsEnabled) {
+        this.stepsEnabled = stepsEnabled;
+    }
+
+    /**
+     * @return true if the steps of the algorithm are delivered to someone, algorithms may check it
+     *         before preparing anything which is only needed for animation.
+     */
+    public boolean isStepping() {
+        return dispatcher != null && stepsEnabled;
+    }
+
     /**
      * defines a step on algorithm, for example visiting a vertex, or every thing which then user can 
      * pause on it.
      * @param msg
      */
     protected void step(String msg, String id){
-        EventUtils.algorithmStep(this, msg,id);
+        if (isStepping())
+            EventUtils.algorithmStep(this, msg,id);
     }
 
     protected void step(String msg){
-        EventUtils.algorithmStep(this, msg);
+        if (isStepping())
+            EventUtils.algorithmStep(this, msg);
+    }
+
+    /**
+     * same as step(msg), the message is the concatenation of msg and value, and is built only if
+     * it is read by the dispatcher.
+     */
+    protected void step(String msg, long value) {
+        if (isStepping())
+            dispatcher.dispatchEvent(new AlgorithmStep(msg, value));
+    }
+
+    /**
+     * same as step(msg), the message is the concatenation of the parts, and is built only if
+     * it is read by the dispatcher.
+     */
+    protected void step(Object... parts) {
+        if (isStepping())
+            dispatcher.dispatchEvent(new AlgorithmStep(parts));
     }
 }
@@ -0,0 +1,439 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.coloring;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the chromatic number of a graph and a coloring with that many colors.
+ * <p/>
+ * The coloring is of the underlying simple undirected graph: directions are ignored, parallel
+ * edges are counted once and loops are ignored.
+ * <ul>
+ * <li>An upper bound is found by the DSATUR heuristic, and a lower bound by growing a clique
+ * greedily from every vertex on adjacency bitsets.</li>
+ * <li>Then a single DSATUR branch and bound runs between the two bounds: the vertices of the
+ * clique are colored first with distinct colors, then the uncolored vertex with the most distinct
+ * colors among its neighbors (saturation) is branched on, trying the used colors which no
+ * neighbor has and one new color, as long as the coloring stays below the best one found. The
+ * number of neighbors of each color is kept per vertex, so feasibility and saturation are
+ * updated in O(degree) per step.</li>
+ * <li>The first levels of the search tree are split into tasks on a ForkJoinPool, the tasks
+ * share the best coloring found.</li>
+ * </ul>
+ * The search can be limited by time; when the limit is reached, the calling thread is
+ * interrupted (also when the search runs on the pool) or <code>cancel()</code> is called, the best
+ * coloring found so far is returned and <code>isExact()</code> is false.
+ * The bounds and the number of searched nodes can be read from another thread while it runs, and
+ * a listener can be notified of them.
+ * <p/>
+ * Usage: <code>int chi = new ExactColoring(graph).solve();</code>
+ */
+public class ExactColoring {
+    /**
+     * Receives the progress of the search. It is called from the threads of the search, about
+     * twice a second and whenever a better coloring is found.
+     */
+    public interface ProgressListener {
+        void progress(int lowerBound, int upperBound, long nodes);
+    }
+
+    //levels of the search tree which are split into parallel tasks
+    static final int SPLIT_DEPTH = 3;
+    //graphs smaller than this are searched on the calling thread
+    static final int PARALLEL_THRESHOLD = 48;
+    //nodes between two checks of the time limit
+    static final int CHECK_INTERVAL = 4096;
+    static final long REPORT_INTERVAL = 500;
+    //adjacency bitsets are only built for graphs up to this size
+    static final int MAX_BITSET_VERTICES = 1 << 14;
+
+    private final int n;
+    //simple undirected adjacency by vertex id
+    private final int[][] adj;
+
+    private ForkJoinPool pool;
+    private long timeLimit = 0;
+    private int knownLowerBound = 0;
+    private ProgressListener listener;
+
+    private volatile int lowerBound;
+    private volatile int upperBound;
+    private int[] best;
+    private int[] clique;
+    private final AtomicLong nodes = new AtomicLong();
+    //set by the time limit, an interrupt or cancel()
+    private volatile boolean stopped;
+    //set when a coloring with lowerBound colors is found, so the rest of the search is not needed
+    private volatile boolean optimal;
+    //the thread which called solve(), the search stops when it is interrupted
+    private volatile Thread caller;
+    private long deadline;
+    private volatile long lastReport;
+
+    public <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    ExactColoring(BaseGraph<VertexType, EdgeType> graph) {
+        n = graph.getVerticesCount();
+        int[] src = new int[graph.getEdgesCount()], trg = new int[src.length];
+        int m = 0;
+        Iterator<EdgeType> it = graph.lightEdgeIterator();
+        while (it.hasNext()) {
+            EdgeType e = it.next();
+            int s = e.source.getId(), t = e.target.getId();
+            if (s != t) {
+                src[m] = s;
+                trg[m++] = t;
+            }
+        }
+        int[] deg = new int[n];
+        for (int i = 0; i < m; i++) {
+            deg[src[i]]++;
+            deg[trg[i]]++;
+        }
+        adj = new int[n][];
+        for (int v = 0; v < n; v++)
+            adj[v] = new int[deg[v]];
+        Arrays.fill(deg, 0);
+        for (int i = 0; i < m; i++) {
+            adj[src[i]][deg[src[i]]++] = trg[i];
+            adj[trg[i]][deg[trg[i]]++] = src[i];
+        }
+        //sort the rows and remove parallel edges
+        for (int v = 0; v < n; v++) {
+            int[] row = adj[v];
+            Arrays.sort(row);
+            int k = 0;
+            for (int p = 0; p < row.length; p++)
+                if (p == 0 || row[p] != row[p - 1])
+                    row[k++] = row[p];
+            if (k < row.length)
+                adj[v] = Arrays.copyOf(row, k);
+        }
+    }
+
+    /**
+     * @param pool the pool which the search is split on, null means the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param millis the time the search may take, 0 means no limit
+     */
+    public void setTimeLimit(long millis) {
+        this.timeLimit = millis;
+    }
+
+    /**
+     * @param colors a number of colors which the graph is known to need, the search stops as soon
+     *               as a coloring with this many colors is found
+     */
+    public void setLowerBound(int colors) {
+        this.knownLowerBound = colors;
+    }
+
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return the chromatic number, or the number of colors of the best coloring found if the
+     *         search is stopped by the time limit.
+     */
+    public int solve() {
+        stopped = false;
+        optimal = false;
+        caller = Thread.currentThread();
+        nodes.set(0);
+        deadline = timeLimit > 0 ? System.currentTimeMillis() + timeLimit : Long.MAX_VALUE;
+        lastReport = System.currentTimeMillis();
+
+        best = dsatur();
+        upperBound = 0;
+        for (int c : best)
+            upperBound = Math.max(upperBound, c + 1);
+        clique = greedyClique();
+        lowerBound = Math.max(n > 0 ? 1 : 0, Math.max(clique.length, Math.min(knownLowerBound, n)));
+        report();
+        if (lowerBound >= upperBound)
+            return upperBound;
+
+        Search root = new Search();
+        for (int i = 0; i < clique.length; i++)
+            root.assign(clique[i], i);
+        root.maxColor = clique.length - 1;
+        if (n >= PARALLEL_THRESHOLD) {
+            root.depth = 0;
+            (pool == null ? ForkJoinPool.commonPool() : pool).invoke(root);
+        } else {
+            root.depth = SPLIT_DEPTH;
+            root.compute();
+        }
+        if (isExact())
+            lowerBound = upperBound;
+        report();
+        return upperBound;
+    }
+
+    /**
+     * Stops the running search, it can be called from any thread.
+     */
+    public void cancel() {
+        stopped = true;
+    }
+
+    /**
+     * @return true if the last search was complete, so the returned number is the chromatic number
+     */
+    public boolean isExact() {
+        return optimal || !stopped;
+    }
+
+    /**
+     * @return the best coloring found by the last search, colors of the vertices by their ids
+     *         from 0 to the number of colors - 1
+     */
+    public int[] getColoring() {
+        return best;
+    }
+
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * @return number of nodes of the search tree visited so far
+     */
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    private void report() {
+        lastReport = System.currentTimeMillis();
+        if (listener != null)
+            listener.progress(lowerBound, upperBound, nodes.get());
+    }
+
+    private synchronized void improve(int colors, int[] color) {
+        if (colors < upperBound) {
+            best = color.clone();
+            upperBound = colors;
+            report();
+        }
+    }
+
+    /**
+     * Colors the vertices one by one, the vertex with maximum saturation (ties by degree) first,
+     * each by its smallest free color.
+     */
+    int[] dsatur() {
+        int[] color = new int[n];
+        Arrays.fill(color, -1);
+        //colors seen among the neighbors of each vertex, a vertex never needs more than degree + 1
+        long[][] seen = new long[n][];
+        int[] sat = new int[n];
+        for (int v = 0; v < n; v++)
+            seen[v] = new long[(adj[v].length >> 6) + 1];
+        for (int step = 0; step < n; step++) {
+            int v = -1;
+            for (int u = 0; u < n; u++)
+                if (color[u] < 0 && (v < 0 || sat[u] > sat[v] || (sat[u] == sat[v] && adj[u].length > adj[v].length)))
+                    v = u;
+            int c = 0;
+            long[] s = seen[v];
+            while ((s[c >> 6] & (1L << c)) != 0)
+                c++;
+            color[v] = c;
+            for (int w : adj[v]) {
+                long[] sw = seen[w];
+                if (color[w] < 0 && c < (sw.length << 6) && (sw[c >> 6] & (1L << c)) == 0) {
+                    sw[c >> 6] |= 1L << c;
+                    sat[w]++;
+                }
+            }
+        }
+        return color;
+    }
+
+    /**
+     * Grows a clique from every vertex, adding the candidate of largest degree each time, on
+     * adjacency bitsets.
+     *
+     * @return the largest clique found
+     */
+    int[] greedyClique() {
+        if (n == 0)
+            return new int[0];
+        if (n > MAX_BITSET_VERTICES) {
+            for (int v = 0; v < n; v++)
+                if (adj[v].length > 0)
+                    return new int[]{v, adj[v][0]};
+            return new int[]{0};
+        }
+        int words = (n + 63) >> 6;
+        long[][] bits = new long[n][words];
+        for (int v = 0; v < n; v++)
+            for (int w : adj[v])
+                bits[v][w >> 6] |= 1L << w;
+
+        int[] bestClique = new int[]{0};
+        long[] cand = new long[words];
+        int[] cur = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (adj[v].length < bestClique.length)
+                continue;
+            int size = 0;
+            cur[size++] = v;
+            System.arraycopy(bits[v], 0, cand, 0, words);
+            while (true) {
+                int u = -1;
+                for (int i = 0; i < words; i++)
+                    for (long word = cand[i]; word != 0; word &= word - 1) {
+                        int w = (i << 6) + Long.numberOfTrailingZeros(word);
+                        if (u < 0 || adj[w].length > adj[u].length)
+                            u = w;
+                    }
+                if (u < 0)
+                    break;
+                cur[size++] = u;
+                long[] bu = bits[u];
+                for (int i = 0; i < words; i++)
+                    cand[i] &= bu[i];
+            }
+            if (size > bestClique.length)
+                bestClique = Arrays.copyOf(cur, size);
+        }
+        return bestClique;
+    }
+
+    /**
+     * A node of the search tree with its own copy of the partial coloring.
+     */
+    private class Search extends RecursiveAction {
+        final int[] color;
+        //number of neighbors of each vertex having each color, conflicts[v * k + c]
+        final int[] conflicts;
+        final int[] sat;
+        final int k;
+        int colored;
+        int maxColor = -1;
+        int depth;
+        long localNodes;
+
+        Search() {
+            k = upperBound;
+            color = new int[n];
+            Arrays.fill(color, -1);
+            conflicts = new int[n * k];
+            sat = new int[n];
+        }
+
+        Search(Search s) {
+            k = s.k;
+            color = s.color.clone();
+            conflicts = s.conflicts.clone();
+            sat = s.sat.clone();
+            colored = s.colored;
+            maxColor = s.maxColor;
+            depth = s.depth + 1;
+        }
+
+        void assign(int v, int c) {
+            color[v] = c;
+            colored++;
+            for (int w : adj[v])
+                if (conflicts[w * k + c]++ == 0)
+                    sat[w]++;
+        }
+
+        void unassign(int v, int c) {
+            color[v] = -1;
+            colored--;
+            for (int w : adj[v])
+                if (--conflicts[w * k + c] == 0)
+                    sat[w]--;
+        }
+
+        protected void compute() {
+            search();
+            nodes.addAndGet(localNodes);
+        }
+
+        private void search() {
+            if (stopped || optimal)
+                return;
+            if (++localNodes % CHECK_INTERVAL == 0) {
+                nodes.addAndGet(localNodes);
+                localNodes = 0;
+                long now = System.currentTimeMillis();
+                if (now > deadline || caller.isInterrupted()) {
+                    stopped = true;
+                    return;
+                }
+                if (now - lastReport > REPORT_INTERVAL)
+                    report();
+            }
+            int bound = upperBound;
+            if (maxColor + 1 >= bound)
+                return;
+            if (colored == n) {
+                improve(maxColor + 1, color);
+                if (upperBound <= lowerBound)
+                    optimal = true;
+                return;
+            }
+
+            int v = -1;
+            for (int u = 0; u < n; u++)
+                if (color[u] < 0 && (v < 0 || sat[u] > sat[v] || (sat[u] == sat[v] && adj[u].length > adj[v].length)))
+                    v = u;
+            //a new color is only worth trying if it keeps the coloring below the best one
+            int last = Math.min(maxColor + 1, bound - 2);
+
+            if (depth < SPLIT_DEPTH) {
+                ArrayList<Search> children = new ArrayList<Search>();
+                for (int c = 0; c <= last; c++)
+                    if (conflicts[v * k + c] == 0) {
+                        Search child = new Search(this);
+                        child.assign(v, c);
+                        child.maxColor = Math.max(maxColor, c);
+                        children.add(child);
+                    }
+                invokeAll(children);
+                return;
+            }
+
+            int oldMax = maxColor;
+            for (int c = 0; c <= last && c <= Math.min(maxColor + 1, upperBound - 2); c++) {
+                if (conflicts[v * k + c] != 0)
+                    continue;
+                assign(v, c);
+                maxColor = Math.max(oldMax, c);
+                search();
+                maxColor = oldMax;
+                unassign(v, c);
+                if (stopped || optimal)
+                    return;
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.flow;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+import graphtea.library.exceptions.InvalidGraphException;
+import graphtea.library.exceptions.InvalidVertexException;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Gomory-Hu cut tree of an undirected graph by the algorithm of Gusfield, the capacities are the
+ * weights of the edges. For every two vertices u and v the minimum weight on the path between them
+ * in the tree is the value of a minimum u-v cut of the graph, and removing that edge of the tree
+ * splits the vertices into the two sides of such a cut.
+ * <p/>
+ * Gusfield's algorithm computes a minimum cut between each vertex s = 1 .. n-1 and its current
+ * parent p[s], and each cut may change the parents of the vertices after s. The flows are run in
+ * parallel on a ForkJoinPool ahead of the vertex being committed (Cohen et al.): a window of the
+ * next vertices is solved with their parents at submit time, and when a vertex is committed in
+ * order its cut is used only if its parent has not changed since, otherwise it is solved again.
+ * Any minimum cut of the same pair is as good as another, so the tree is the one of the sequential
+ * algorithm.
+ * <p/>
+ * The residual network is built once. Each worker takes a PushRelabelMaxFlow workspace from a
+ * free list and gives it back, so at most one workspace per thread is allocated and the memory is
+ * O(P(n + m) + Wn) for P threads and a window of W cuts, and not O(n^2).
+ * <p/>
+ * Usage: <code>int[] p = new GomoryHuCutTree&lt;Vertex, Edge&gt;(graph).build().getParents();</code>
+ */
+public class GomoryHuCutTree<VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>> {
+    //cuts solved ahead of the committed vertex, per thread of the pool
+    static final int WINDOW_PER_THREAD = 2;
+
+    private final int n;
+    private final PushRelabelMaxFlow<VertexType, EdgeType> network;
+    private final ConcurrentLinkedQueue<PushRelabelMaxFlow<VertexType, EdgeType>> workspaces
+            = new ConcurrentLinkedQueue<PushRelabelMaxFlow<VertexType, EdgeType>>();
+    private final ConcurrentLinkedQueue<boolean[]> sides = new ConcurrentLinkedQueue<boolean[]>();
+    private ForkJoinPool pool;
+
+    private int[] parent;
+    private long[] weight;
+    private int[] depth;
+
+    /**
+     * A minimum cut between s and t, side[v] is true if v is on the side of s.
+     */
+    private static class Cut {
+        final int s, t;
+        long value;
+        boolean[] side;
+
+        Cut(int s, int t) {
+            this.s = s;
+            this.t = t;
+        }
+    }
+
+    private class Flow extends RecursiveTask<Cut> {
+        private final int s, t;
+
+        Flow(int s, int t) {
+            this.s = s;
+            this.t = t;
+        }
+
+        protected Cut compute() {
+            PushRelabelMaxFlow<VertexType, EdgeType> w = workspaces.poll();
+            if (w == null)
+                w = new PushRelabelMaxFlow<VertexType, EdgeType>(network);
+            Cut c = new Cut(s, t);
+            c.value = w.maxFlow(s, t);
+            c.side = sides.poll();
+            if (c.side == null)
+                c.side = new boolean[n];
+            System.arraycopy(w.getSourceSide(), 0, c.side, 0, n);
+            workspaces.add(w);
+            return c;
+        }
+    }
+
+    /**
+     * @throws InvalidGraphException if the graph is directed
+     */
+    public GomoryHuCutTree(BaseGraph<VertexType, EdgeType> graph) throws InvalidGraphException {
+        if (graph.isDirected())
+            throw new InvalidGraphException("Gomory-Hu tree is defined for undirected graphs");
+        network = new PushRelabelMaxFlow<VertexType, EdgeType>(graph);
+        n = graph.getVerticesCount();
+        workspaces.add(network);
+    }
+
+    /**
+     * @param pool the pool which the cuts are computed on, null means the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the tree, vertex 0 is its root.
+     *
+     * @return this
+     */
+    @SuppressWarnings("unchecked")
+    public GomoryHuCutTree<VertexType, EdgeType> build() {
+        parent = new int[n];
+        weight = new long[n];
+        depth = null;
+        if (n == 0)
+            return this;
+        parent[0] = -1;
+        ForkJoinPool p = pool == null ? ForkJoinPool.commonPool() : pool;
+        int window = Math.max(2, p.getParallelism() * WINDOW_PER_THREAD);
+        Flow[] tasks = new GomoryHuCutTree.Flow[window];
+
+        int next = 1;
+        for (int s = 1; s < n; s++) {
+            for (; next < n && next < s + window; next++) {
+                tasks[next % window] = new Flow(next, parent[next]);
+                p.execute(tasks[next % window]);
+            }
+            Cut c = tasks[s % window].join();
+            tasks[s % window] = null;
+            if (c.t != parent[s]) {
+                //the parent of s was changed by the cuts before it
+                sides.add(c.side);
+                c = new Flow(s, parent[s]).invoke();
+            }
+            commit(c);
+            sides.add(c.side);
+        }
+        return this;
+    }
+
+    private void commit(Cut c) {
+        int s = c.s, t = c.t;
+        boolean[] side = c.side;
+        weight[s] = c.value;
+        for (int i = 1; i < n; i++)
+            if (i != s && side[i] && parent[i] == t)
+                parent[i] = s;
+        if (parent[t] >= 0 && side[parent[t]]) {
+            parent[s] = parent[t];
+            parent[t] = s;
+            weight[s] = weight[t];
+            weight[t] = c.value;
+        }
+    }
+
+    /**
+     * @return the parent of each vertex id in the tree, -1 for the root (vertex 0)
+     */
+    public int[] getParents() {
+        return parent;
+    }
+
+    /**
+     * @return for each vertex id the weight of the tree edge to its parent, which is the value of
+     *         a minimum cut between the two. 0 for the root.
+     */
+    public long[] getWeights() {
+        return weight;
+    }
+
+    public int getParent(int v) {
+        return parent[v];
+    }
+
+    public long getWeight(int v) {
+        return weight[v];
+    }
+
+    /**
+     * @return the value of a minimum cut between the vertices of the given ids, the minimum weight on
+     *         their path in the tree.
+     */
+    public long minCutValue(int u, int v) throws InvalidVertexException {
+        if (u < 0 || u >= n || v < 0 || v >= n || u == v)
+            throw new InvalidVertexException();
+        if (depth == null)
+            computeDepths();
+        long min = Long.MAX_VALUE;
+        while (u != v) {
+            if (depth[u] < depth[v]) {
+                int x = u;
+                u = v;
+                v = x;
+            }
+            min = Math.min(min, weight[u]);
+            u = parent[u];
+        }
+        return min;
+    }
+
+    private void computeDepths() {
+        int[] d = new int[n];
+        Arrays.fill(d, -1);
+        d[0] = 0;
+        int[] stack = new int[n];
+        for (int v = 1; v < n; v++) {
+            int top = 0, x = v;
+            while (d[x] < 0) {
+                stack[top++] = x;
+                x = parent[x];
+            }
+            while (top > 0) {
+                int y = stack[--top];
+                d[y] = d[parent[y]] + 1;
+            }
+        }
+        depth = d;
+    }
+}
@@ -0,0 +1,387 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.flow;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+import graphtea.library.exceptions.InvalidVertexException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Maximum flow and minimum cut by the push-relabel algorithm of Goldberg and Tarjan.
+ * <p/>
+ * The capacities are the weights of the edges (negative weights are taken as 0). An edge of a
+ * directed graph is an arc of its capacity with a reverse arc of capacity 0; an edge of an
+ * undirected graph is two arcs of its capacity, each the reverse of the other. The arcs are kept in
+ * a CSR array: the arcs leaving v are first[v] .. first[v+1], rev[a] is the pair of arc a and cap[a]
+ * its residual capacity, so memory is linear in the number of edges.
+ * <ul>
+ * <li>The active vertex of the highest label is discharged first (active vertices are kept in
+ * buckets by label), each vertex scans its arcs from a current arc.</li>
+ * <li>Gap heuristic: when no vertex is left on a label below n, the vertices above it can not reach
+ * the sink any more and are lifted above the source at once.</li>
+ * <li>Global relabeling: every O(n + m) work the labels are set to the exact distances to the sink
+ * (and to the source plus n for the rest) in the residual network, by a reverse BFS.</li>
+ * </ul>
+ * The algorithm runs in a single phase: excess which can not reach the sink is returned to the
+ * source, so the result is a flow and not only a preflow. The minimum cut is the set of vertices
+ * reachable from the source in the residual network, found by a BFS in O(V+E).
+ * <p/>
+ * The network is built once and any number of source/sink pairs can be solved on it, each run
+ * reuses the same workspace. An instance must not be used by two threads at the same time, but
+ * copies made by the copy constructor share the network and only have their own workspace.
+ * <p/>
+ * Usage: <code>long f = new PushRelabelMaxFlow&lt;Vertex, Edge&gt;(graph).maxFlow(s, t);</code>
+ */
+public class PushRelabelMaxFlow<VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>> {
+    //work between two global relabelings is ALPHA * n + m
+    static final int ALPHA = 6;
+    //work counted for each relabel, in addition to the arcs scanned
+    static final int RELABEL_WORK = 12;
+
+    //the network, shared by the copies of an instance
+    private final int n, m;
+    private final ArrayList<EdgeType> edges;
+    private final int[] first, head, rev;
+    //the arc of each edge, from its source to its target
+    private final int[] edgeArc;
+    private final long[] capacity, cap;
+
+    //workspace of a run
+    private final long[] excess;
+    private final int[] height, current;
+    private final int[] activeNext, activeHead;
+    private final int[] allNext, allPrev, allHead;
+    private final int[] queue;
+    private final boolean[] sourceSide;
+    private int maxActive, maxAll;
+    private long work;
+
+    private int source = -1, sink = -1;
+    private long flow;
+
+    public PushRelabelMaxFlow(BaseGraph<VertexType, EdgeType> graph) {
+        n = graph.getVerticesCount();
+        edges = new ArrayList<EdgeType>();
+        Iterator<EdgeType> it = graph.lightEdgeIterator();
+        while (it.hasNext()) {
+            EdgeType e = it.next();
+            if (e.source.getId() != e.target.getId())
+                edges.add(e);
+        }
+        m = 2 * edges.size();
+        boolean directed = graph.isDirected();
+
+        first = new int[n + 1];
+        for (EdgeType e : edges) {
+            first[e.source.getId() + 1]++;
+            first[e.target.getId() + 1]++;
+        }
+        for (int v = 0; v < n; v++)
+            first[v + 1] += first[v];
+        int[] pos = Arrays.copyOf(first, n);
+        head = new int[m];
+        rev = new int[m];
+        capacity = new long[m];
+        edgeArc = new int[edges.size()];
+        for (int k = 0; k < edges.size(); k++) {
+            EdgeType e = edges.get(k);
+            int u = e.source.getId(), v = e.target.getId();
+            long c = Math.max(0, e.getWeight());
+            int a = pos[u]++, b = pos[v]++;
+            head[a] = v;
+            head[b] = u;
+            rev[a] = b;
+            rev[b] = a;
+            capacity[a] = c;
+            capacity[b] = directed ? 0 : c;
+            edgeArc[k] = a;
+        }
+        cap = new long[m];
+        excess = new long[n];
+        height = new int[n];
+        current = new int[n];
+        activeNext = new int[n];
+        activeHead = new int[2 * n + 1];
+        allNext = new int[n];
+        allPrev = new int[n];
+        allHead = new int[n + 1];
+        queue = new int[n];
+        sourceSide = new boolean[n];
+    }
+
+    /**
+     * Creates a new workspace on the network of the given instance. The network itself is shared, so
+     * the two instances can solve different source/sink pairs in two threads at the same time.
+     */
+    public PushRelabelMaxFlow(PushRelabelMaxFlow<VertexType, EdgeType> network) {
+        n = network.n;
+        m = network.m;
+        edges = network.edges;
+        first = network.first;
+        head = network.head;
+        rev = network.rev;
+        edgeArc = network.edgeArc;
+        capacity = network.capacity;
+        cap = new long[m];
+        excess = new long[n];
+        height = new int[n];
+        current = new int[n];
+        activeNext = new int[n];
+        activeHead = new int[2 * n + 1];
+        allNext = new int[n];
+        allPrev = new int[n];
+        allHead = new int[n + 1];
+        queue = new int[n];
+        sourceSide = new boolean[n];
+    }
+
+    /**
+     * @return number of vertices of the network
+     */
+    public int getVerticesCount() {
+        return n;
+    }
+
+    /**
+     * Computes a maximum flow from source to sink.
+     *
+     * @return the value of the flow
+     * @throws InvalidVertexException if an id is out of range or source and sink are the same
+     */
+    public long maxFlow(int source, int sink) throws InvalidVertexException {
+        if (source < 0 || source >= n || sink < 0 || sink >= n || source == sink)
+            throw new InvalidVertexException();
+        this.source = source;
+        this.sink = sink;
+        System.arraycopy(capacity, 0, cap, 0, m);
+        Arrays.fill(excess, 0);
+
+        for (int a = first[source]; a < first[source + 1]; a++) {
+            long c = cap[a];
+            if (c > 0) {
+                cap[a] = 0;
+                cap[rev[a]] += c;
+                excess[head[a]] += c;
+                excess[source] -= c;
+            }
+        }
+        globalRelabel();
+
+        long workLimit = (long) ALPHA * n + m;
+        while (maxActive >= 0) {
+            int u = activeHead[maxActive];
+            if (u < 0) {
+                maxActive--;
+                continue;
+            }
+            activeHead[maxActive] = activeNext[u];
+            if (height[u] != maxActive) {
+                //lifted by a gap after it was queued
+                activate(u);
+                continue;
+            }
+            discharge(u);
+            if (work > workLimit)
+                globalRelabel();
+        }
+        flow = excess[sink];
+        findCut();
+        return flow;
+    }
+
+    public long maxFlow(VertexType source, VertexType sink) throws InvalidVertexException {
+        return maxFlow(source.getId(), sink.getId());
+    }
+
+    /**
+     * @return the value of the last flow
+     */
+    public long getFlowValue() {
+        return flow;
+    }
+
+    /**
+     * @return number of edges of the network (loops are not counted)
+     */
+    public int getEdgesCount() {
+        return edges.size();
+    }
+
+    public EdgeType getEdge(int k) {
+        return edges.get(k);
+    }
+
+    /**
+     * @return the flow of the last run on the k'th edge, from its source to its target. It is
+     *         negative if it goes from the target to the source of an undirected edge.
+     */
+    public long getEdgeFlow(int k) {
+        int a = edgeArc[k];
+        return capacity[a] - cap[a];
+    }
+
+    /**
+     * @return for each vertex id, true if it is on the source side of the minimum cut of the last run.
+     *         The array is reused by the next run.
+     */
+    public boolean[] getSourceSide() {
+        return sourceSide;
+    }
+
+    public boolean isOnSourceSide(int v) {
+        return sourceSide[v];
+    }
+
+    private void activate(int v) {
+        int h = height[v];
+        activeNext[v] = activeHead[h];
+        activeHead[h] = v;
+        if (h > maxActive)
+            maxActive = h;
+    }
+
+    private void addToLevel(int v) {
+        int h = height[v];
+        allPrev[v] = -1;
+        allNext[v] = allHead[h];
+        if (allHead[h] >= 0)
+            allPrev[allHead[h]] = v;
+        allHead[h] = v;
+        if (h > maxAll)
+            maxAll = h;
+    }
+
+    private void removeFromLevel(int v) {
+        int h = height[v];
+        if (allPrev[v] >= 0)
+            allNext[allPrev[v]] = allNext[v];
+        else
+            allHead[h] = allNext[v];
+        if (allNext[v] >= 0)
+            allPrev[allNext[v]] = allPrev[v];
+    }
+
+    private void discharge(int u) {
+        int end = first[u + 1];
+        while (true) {
+            int hu = height[u];
+            for (int a = current[u]; a < end; a++) {
+                if (cap[a] == 0)
+                    continue;
+                int v = head[a];
+                if (height[v] != hu - 1)
+                    continue;
+                long d = Math.min(excess[u], cap[a]);
+                cap[a] -= d;
+                cap[rev[a]] += d;
+                if (excess[v] == 0 && v != sink && v != source)
+                    activate(v);
+                excess[v] += d;
+                excess[u] -= d;
+                if (excess[u] == 0) {
+                    current[u] = a;
+                    return;
+                }
+            }
+            relabel(u);
+            if (height[u] >= 2 * n)
+                return;
+        }
+    }
+
+    private void relabel(int u) {
+        int old = height[u];
+        if (old < n) {
+            removeFromLevel(u);
+            if (allHead[old] < 0) {
+                //gap, the vertices above it can not reach the sink
+                for (int h = old + 1; h <= maxAll; h++) {
+                    for (int v = allHead[h]; v >= 0; v = allNext[v])
+                        height[v] = n + 1;
+                    allHead[h] = -1;
+                }
+                maxAll = old - 1;
+                if (maxActive < n + 1)
+                    maxActive = n + 1;
+            }
+        }
+        int min = 2 * n;
+        for (int a = first[u]; a < first[u + 1]; a++)
+            if (cap[a] > 0 && height[head[a]] < min)
+                min = height[head[a]];
+        int h = Math.min(min + 1, 2 * n);
+        height[u] = h;
+        current[u] = first[u];
+        if (h < n)
+            addToLevel(u);
+        work += first[u + 1] - first[u] + RELABEL_WORK;
+    }
+
+    /**
+     * Sets the labels to the distances to the sink in the residual network, and the labels of the
+     * vertices which can not reach the sink to n plus their distance to the source. Then the buckets
+     * are built again.
+     */
+    private void globalRelabel() {
+        work = 0;
+        Arrays.fill(height, 2 * n);
+        bfsLabels(sink, 0);
+        bfsLabels(source, n);
+
+        Arrays.fill(activeHead, -1);
+        Arrays.fill(allHead, -1);
+        maxActive = -1;
+        maxAll = -1;
+        for (int v = 0; v < n; v++) {
+            current[v] = first[v];
+            if (v == source || v == sink)
+                continue;
+            if (height[v] < n)
+                addToLevel(v);
+            if (excess[v] > 0 && height[v] < 2 * n)
+                activate(v);
+        }
+    }
+
+    private void bfsLabels(int root, int base) {
+        int qh = 0, qt = 0;
+        height[root] = base;
+        queue[qt++] = root;
+        while (qh < qt) {
+            int v = queue[qh++];
+            int hv = height[v] + 1;
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                int u = head[a];
+                if (height[u] == 2 * n && cap[rev[a]] > 0 && u != source && u != sink) {
+                    height[u] = hv;
+                    queue[qt++] = u;
+                }
+            }
+        }
+    }
+
+    private void findCut() {
+        Arrays.fill(sourceSide, false);
+        int qh = 0, qt = 0;
+        sourceSide[source] = true;
+        queue[qt++] = source;
+        while (qh < qt) {
+            int v = queue[qh++];
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                int u = head[a];
+                if (cap[a] > 0 && !sourceSide[u]) {
+                    sourceSide[u] = true;
+                    queue[qt++] = u;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.matching;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+import graphtea.library.algorithms.util.BipartiteChecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Finds a maximum cardinality matching of a graph.
+ * <p/>
+ * The matching is of the underlying undirected graph: directions are ignored and loops are
+ * ignored. The adjacency is kept as primitive arrays by vertex id (neighbors of v are
+ * adj[off[v] .. off[v+1]) and adjEdge has the index of the edge of each slot).
+ * <ul>
+ * <li>If the graph is bipartite (by BipartiteChecker) the Hopcroft-Karp algorithm is used: in each
+ * phase a BFS layers the graph from the free vertices of one side and a DFS (without recursion)
+ * finds a maximal set of shortest vertex disjoint augmenting paths. O(E sqrt(V)).</li>
+ * <li>Otherwise Edmonds' blossom algorithm is used: an alternating tree is grown from each free
+ * vertex and the odd cycles (blossoms) are contracted by relabeling their base. Only the vertices of
+ * the tree are touched, so each search is O(E + tree size * blossoms).</li>
+ * </ul>
+ * Both start from a greedy matching. The matching is computed on the first call and then cached.
+ * <p/>
+ * Usage: <code>List&lt;Edge&gt; m = new MaximumMatching&lt;Vertex, Edge&gt;(graph).getMatchedEdges();</code>
+ *
+ * @see MaximumWeightMatching
+ */
+public class MaximumMatching<VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>> {
+    private final int n;
+    private final int[] off, adj, adjEdge;
+    private final ArrayList<EdgeType> edges = new ArrayList<EdgeType>();
+
+    //mate of each vertex and the edge to it, -1 for the free vertices
+    private int[] mate;
+    private int[] mateEdge;
+    private int size = -1;
+    private boolean bipartite;
+
+    public MaximumMatching(BaseGraph<VertexType, EdgeType> graph) {
+        n = graph.getVerticesCount();
+        Iterator<EdgeType> it = graph.lightEdgeIterator();
+        while (it.hasNext()) {
+            EdgeType e = it.next();
+            if (e.source.getId() != e.target.getId())
+                edges.add(e);
+        }
+        int m = edges.size();
+        off = new int[n + 1];
+        for (EdgeType e : edges) {
+            off[e.source.getId() + 1]++;
+            off[e.target.getId() + 1]++;
+        }
+        for (int i = 0; i < n; i++)
+            off[i + 1] += off[i];
+        int[] pos = Arrays.copyOf(off, n);
+        adj = new int[2 * m];
+        adjEdge = new int[2 * m];
+        for (int k = 0; k < m; k++) {
+            int s = edges.get(k).source.getId(), t = edges.get(k).target.getId();
+            adjEdge[pos[s]] = k;
+            adj[pos[s]++] = t;
+            adjEdge[pos[t]] = k;
+            adj[pos[t]++] = s;
+        }
+    }
+
+    /**
+     * @return number of edges of a maximum matching
+     */
+    public int size() {
+        solve();
+        return size;
+    }
+
+    /**
+     * @return the vertex id matched to each vertex by its id, -1 for the free vertices
+     */
+    public int[] getMates() {
+        solve();
+        return mate.clone();
+    }
+
+    /**
+     * @return the edges of the matching
+     */
+    public List<EdgeType> getMatchedEdges() {
+        solve();
+        ArrayList<EdgeType> ret = new ArrayList<EdgeType>(size);
+        for (int v = 0; v < n; v++)
+            if (mate[v] > v)
+                ret.add(edges.get(mateEdge[v]));
+        return ret;
+    }
+
+    /**
+     * @return true if the matching covers all of the vertices
+     */
+    public boolean isPerfect() {
+        return 2 * size() == n;
+    }
+
+    /**
+     * @return true if the graph was found bipartite and the Hopcroft-Karp algorithm was used
+     */
+    public boolean isBipartite() {
+        solve();
+        return bipartite;
+    }
+
+    private void solve() {
+        if (size >= 0)
+            return;
+        mate = new int[n];
+        Arrays.fill(mate, -1);
+        for (int v = 0; v < n; v++)
+            if (mate[v] < 0)
+                for (int p = off[v]; p < off[v + 1]; p++)
+                    if (mate[adj[p]] < 0) {
+                        mate[v] = adj[p];
+                        mate[adj[p]] = v;
+                        break;
+                    }
+        int[] side = BipartiteChecker.bipartition(n, off, adj);
+        bipartite = side != null;
+        if (bipartite)
+            hopcroftKarp(side);
+        else
+            edmonds();
+
+        mateEdge = new int[n];
+        Arrays.fill(mateEdge, -1);
+        size = 0;
+        for (int v = 0; v < n; v++)
+            if (mate[v] > v) {
+                size++;
+                for (int p = off[v]; p < off[v + 1]; p++)
+                    if (adj[p] == mate[v]) {
+                        mateEdge[v] = mateEdge[mate[v]] = adjEdge[p];
+                        break;
+                    }
+            }
+    }
+
+    private void hopcroftKarp(int[] side) {
+        final int INF = Integer.MAX_VALUE;
+        int[] dist = new int[n];
+        int[] queue = new int[n];
+        int[] next = new int[n];
+        int[] stack = new int[n];
+        while (true) {
+            //layers from the free vertices of side 0, until a free vertex of side 1 is reached
+            int head = 0, tail = 0;
+            for (int u = 0; u < n; u++)
+                if (side[u] == 0 && mate[u] < 0) {
+                    dist[u] = 0;
+                    queue[tail++] = u;
+                } else
+                    dist[u] = INF;
+            boolean found = false;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int p = off[u]; p < off[u + 1]; p++) {
+                    int w = mate[adj[p]];
+                    if (w < 0)
+                        found = true;
+                    else if (dist[w] == INF) {
+                        dist[w] = dist[u] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            if (!found)
+                return;
+
+            //shortest augmenting paths along the layers, the stack has the side 0 vertices of the path
+            for (int u = 0; u < n; u++)
+                next[u] = off[u];
+            for (int i = 0; i < tail; i++) {
+                int root = queue[i];
+                if (dist[root] != 0)
+                    break;
+                int top = 0;
+                stack[top++] = root;
+                while (top > 0) {
+                    int x = stack[top - 1];
+                    if (next[x] == off[x + 1]) {
+                        dist[x] = INF;
+                        top--;
+                        continue;
+                    }
+                    int v = adj[next[x]++];
+                    int w = mate[v];
+                    if (w < 0) {
+                        for (int j = 0; j < top; j++) {
+                            int a = stack[j], b = adj[next[a] - 1];
+                            mate[a] = b;
+                            mate[b] = a;
+                        }
+                        break;
+                    } else if (dist[w] == dist[x] + 1)
+                        stack[top++] = w;
+                }
+            }
+        }
+    }
+
+    //state of the search of Edmonds' algorithm, the blossoms are sets of a union find and the
+    //base of a set is kept at its root
+    private int[] set, setBase, parent, stamp, touched, pending;
+    private boolean[] inTree, dead;
+    private int touchedCount, lcaStamp, pendingCount;
+
+    private void edmonds() {
+        set = new int[n];
+        setBase = new int[n];
+        parent = new int[n];
+        stamp = new int[n];
+        touched = new int[n];
+        pending = new int[2 * n];
+        inTree = new boolean[n];
+        dead = new boolean[n];
+        int[] queue = new int[n];
+        for (int v = 0; v < n; v++) {
+            set[v] = setBase[v] = v;
+            parent[v] = -1;
+        }
+        for (int root = 0; root < n; root++) {
+            if (mate[root] >= 0)
+                continue;
+            int x = findPath(root, queue);
+            boolean failed = x < 0;
+            while (x >= 0) {
+                int pv = parent[x], ppv = mate[pv];
+                mate[x] = pv;
+                mate[pv] = x;
+                x = ppv;
+            }
+            //reset the vertices touched by the search, if it failed its tree is Hungarian and
+            //none of its vertices can be on an augmenting path later
+            for (int i = 0; i < touchedCount; i++) {
+                int v = touched[i];
+                set[v] = setBase[v] = v;
+                parent[v] = -1;
+                inTree[v] = false;
+                if (failed)
+                    dead[v] = true;
+            }
+            touchedCount = 0;
+        }
+    }
+
+    private int find(int v) {
+        while (set[v] != v)
+            v = set[v] = set[set[v]];
+        return v;
+    }
+
+    private int base(int v) {
+        return setBase[find(v)];
+    }
+
+    private void touch(int v) {
+        if (!inTree[v] && parent[v] < 0)
+            touched[touchedCount++] = v;
+    }
+
+    /**
+     * Grows an alternating tree from root.
+     *
+     * @return the free vertex which an augmenting path from root reaches, or -1
+     */
+    private int findPath(int root, int[] queue) {
+        int head = 0, tail = 0;
+        touch(root);
+        inTree[root] = true;
+        queue[tail++] = root;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int p = off[v]; p < off[v + 1]; p++) {
+                int to = adj[p];
+                if (dead[to] || mate[v] == to || base(v) == base(to))
+                    continue;
+                if (to == root || (mate[to] >= 0 && parent[mate[to]] >= 0)) {
+                    int b = lca(v, to, root);
+                    tail = markPath(v, b, to, queue, tail);
+                    tail = markPath(to, b, v, queue, tail);
+                    contract(b);
+                } else if (parent[to] < 0) {
+                    touch(to);
+                    parent[to] = v;
+                    if (mate[to] < 0)
+                        return to;
+                    int m = mate[to];
+                    touch(m);
+                    inTree[m] = true;
+                    queue[tail++] = m;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int lca(int a, int b, int root) {
+        lcaStamp++;
+        while (true) {
+            a = base(a);
+            stamp[a] = lcaStamp;
+            if (a == root)
+                break;
+            a = parent[mate[a]];
+        }
+        while (true) {
+            b = base(b);
+            if (stamp[b] == lcaStamp)
+                return b;
+            b = parent[mate[b]];
+        }
+    }
+
+    /**
+     * Walks the path from v up to the base b, the odd vertices of the path become even and are
+     * queued. The vertices of the path are collected to be merged into the blossom of b once
+     * both of its paths are walked.
+     *
+     * @return the new tail of the queue
+     */
+    private int markPath(int v, int b, int child, int[] queue, int tail) {
+        while (base(v) != b) {
+            int m = mate[v];
+            parent[v] = child;
+            if (!inTree[m]) {
+                inTree[m] = true;
+                queue[tail++] = m;
+            }
+            pending[pendingCount++] = v;
+            pending[pendingCount++] = m;
+            child = m;
+            v = parent[m];
+        }
+        return tail;
+    }
+
+    private void contract(int b) {
+        int bs = find(b);
+        for (int i = 0; i < pendingCount; i++) {
+            int s = find(pending[i]);
+            if (s != bs)
+                set[s] = bs;
+        }
+        setBase[bs] = b;
+        pendingCount = 0;
+    }
+}
@@ -0,0 +1,630 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.matching;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Finds a maximum weight matching of a graph by the primal-dual blossom algorithm of Edmonds, in
+ * the O(V^3) form of Galil (following the formulation of J. van Rantwijk).
+ * <p/>
+ * The matching is of the underlying undirected graph: directions and loops are ignored. Edges of
+ * non-positive weight are never needed, unless a maximum cardinality matching is asked for, in which
+ * case the matching of maximum weight among the maximum cardinality ones is found. The weights are
+ * doubled internally, so all of the dual variables stay integers and no precision is lost.
+ * <p/>
+ * The state is kept in primitive arrays: the ends of edge k are endpoint[2k] and endpoint[2k+1],
+ * vertices are 0..n-1 and the (non trivial) blossoms are n..2n-1.
+ * <p/>
+ * Usage: <code>List&lt;Edge&gt; m = new MaximumWeightMatching&lt;Vertex, Edge&gt;(graph, false).getMatchedEdges();</code>
+ *
+ * @see MaximumMatching
+ */
+public class MaximumWeightMatching<VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>> {
+    private final int n, nedge;
+    private final ArrayList<EdgeType> edges = new ArrayList<EdgeType>();
+    private final int[] endpoint;
+    private final long[] weight;
+    //edge ends (2k+1 for the source, 2k for the target) of the edges of each vertex
+    private final int[][] neighbend;
+    private final boolean maxCardinality;
+
+    private int[] mate;
+    private int[] label, labelend, inblossom, blossomparent, blossombase, bestedge;
+    private int[][] blossomchilds, blossomendps, blossombestedges;
+    private long[] dualvar;
+    private boolean[] allowedge;
+    private int[] queue;
+    private int queueSize;
+    private int[] unusedblossoms;
+    private int unusedCount;
+
+    private int[] result;
+
+    /**
+     * @param maxCardinality if true only maximum cardinality matchings are considered
+     */
+    public MaximumWeightMatching(BaseGraph<VertexType, EdgeType> graph, boolean maxCardinality) {
+        this.maxCardinality = maxCardinality;
+        n = graph.getVerticesCount();
+        Iterator<EdgeType> it = graph.lightEdgeIterator();
+        while (it.hasNext()) {
+            EdgeType e = it.next();
+            if (e.source.getId() != e.target.getId())
+                edges.add(e);
+        }
+        nedge = edges.size();
+        endpoint = new int[2 * nedge];
+        weight = new long[nedge];
+        int[] deg = new int[n];
+        for (int k = 0; k < nedge; k++) {
+            EdgeType e = edges.get(k);
+            endpoint[2 * k] = e.source.getId();
+            endpoint[2 * k + 1] = e.target.getId();
+            weight[k] = 2L * e.getWeight();
+            deg[endpoint[2 * k]]++;
+            deg[endpoint[2 * k + 1]]++;
+        }
+        neighbend = new int[n][];
+        for (int v = 0; v < n; v++)
+            neighbend[v] = new int[deg[v]];
+        Arrays.fill(deg, 0);
+        for (int k = 0; k < nedge; k++) {
+            int i = endpoint[2 * k], j = endpoint[2 * k + 1];
+            neighbend[i][deg[i]++] = 2 * k + 1;
+            neighbend[j][deg[j]++] = 2 * k;
+        }
+    }
+
+    /**
+     * @return the vertex id matched to each vertex by its id, -1 for the free vertices
+     */
+    public int[] getMates() {
+        solve();
+        int[] ret = new int[n];
+        for (int v = 0; v < n; v++)
+            ret[v] = result[v] >= 0 ? endpoint[result[v]] : -1;
+        return ret;
+    }
+
+    /**
+     * @return the edges of the matching
+     */
+    public List<EdgeType> getMatchedEdges() {
+        solve();
+        ArrayList<EdgeType> ret = new ArrayList<EdgeType>();
+        for (int v = 0; v < n; v++)
+            if (result[v] >= 0 && endpoint[result[v]] > v)
+                ret.add(edges.get(result[v] / 2));
+        return ret;
+    }
+
+    /**
+     * @return sum of the weights of the edges of the matching
+     */
+    public long getWeight() {
+        long w = 0;
+        for (EdgeType e : getMatchedEdges())
+            w += e.getWeight();
+        return w;
+    }
+
+    private long slack(int k) {
+        return dualvar[endpoint[2 * k]] + dualvar[endpoint[2 * k + 1]] - 2 * weight[k];
+    }
+
+    /**
+     * @return the vertices of the blossom b
+     */
+    private int[] leaves(int b) {
+        if (b < n)
+            return new int[]{b};
+        IntList ret = new IntList();
+        addLeaves(b, ret);
+        return ret.toArray();
+    }
+
+    private void addLeaves(int b, IntList to) {
+        if (b < n)
+            to.add(b);
+        else
+            for (int t : blossomchilds[b])
+                addLeaves(t, to);
+    }
+
+    private void push(int v) {
+        if (queueSize == queue.length)
+            queue = Arrays.copyOf(queue, 2 * queueSize);
+        queue[queueSize++] = v;
+    }
+
+    /**
+     * Labels the top level blossom of w with t (1 for S, 2 for T), reached through the edge end p.
+     */
+    private void assignLabel(int w, int t, int p) {
+        int b = inblossom[w];
+        label[w] = label[b] = t;
+        labelend[w] = labelend[b] = p;
+        bestedge[w] = bestedge[b] = -1;
+        if (t == 1) {
+            for (int v : leaves(b))
+                push(v);
+        } else if (t == 2) {
+            int base = blossombase[b];
+            assignLabel(endpoint[mate[base]], 1, mate[base] ^ 1);
+        }
+    }
+
+    /**
+     * Traces back from v and w to find a new blossom or an augmenting path.
+     *
+     * @return the base of the new blossom, or -1 if an augmenting path is found
+     */
+    private int scanBlossom(int v, int w) {
+        IntList path = new IntList();
+        int base = -1;
+        while (v != -1 || w != -1) {
+            int b = inblossom[v];
+            if ((label[b] & 4) != 0) {
+                base = blossombase[b];
+                break;
+            }
+            path.add(b);
+            label[b] = 5;
+            if (labelend[b] == -1)
+                v = -1;
+            else {
+                v = endpoint[labelend[b]];
+                b = inblossom[v];
+                v = endpoint[labelend[b]];
+            }
+            if (w != -1) {
+                int tmp = v;
+                v = w;
+                w = tmp;
+            }
+        }
+        for (int i = 0; i < path.size; i++)
+            label[path.data[i]] = 1;
+        return base;
+    }
+
+    /**
+     * Makes a new blossom with the given base, closed by the edge k between two S vertices.
+     */
+    private void addBlossom(int base, int k) {
+        int v = endpoint[2 * k], w = endpoint[2 * k + 1];
+        int bb = inblossom[base], bv = inblossom[v], bw = inblossom[w];
+        int b = unusedblossoms[--unusedCount];
+        blossombase[b] = base;
+        blossomparent[b] = -1;
+        blossomparent[bb] = b;
+        IntList path = new IntList(), endps = new IntList();
+        while (bv != bb) {
+            blossomparent[bv] = b;
+            path.add(bv);
+            endps.add(labelend[bv]);
+            v = endpoint[labelend[bv]];
+            bv = inblossom[v];
+        }
+        path.add(bb);
+        path.reverse();
+        endps.reverse();
+        endps.add(2 * k);
+        while (bw != bb) {
+            blossomparent[bw] = b;
+            path.add(bw);
+            endps.add(labelend[bw] ^ 1);
+            w = endpoint[labelend[bw]];
+            bw = inblossom[w];
+        }
+        blossomchilds[b] = path.toArray();
+        blossomendps[b] = endps.toArray();
+        label[b] = 1;
+        labelend[b] = labelend[bb];
+        dualvar[b] = 0;
+        for (int u : leaves(b)) {
+            if (label[inblossom[u]] == 2)
+                push(u);
+            inblossom[u] = b;
+        }
+
+        //the least slack edges from the new blossom to each neighboring S blossom
+        int[] bestedgeto = new int[2 * n];
+        Arrays.fill(bestedgeto, -1);
+        for (int c : blossomchilds[b]) {
+            IntList nblist = new IntList();
+            if (blossombestedges[c] == null) {
+                for (int u : leaves(c))
+                    for (int p : neighbend[u])
+                        nblist.add(p / 2);
+            } else
+                for (int kk : blossombestedges[c])
+                    nblist.add(kk);
+            for (int x = 0; x < nblist.size; x++) {
+                int kk = nblist.data[x];
+                int i = endpoint[2 * kk], j = endpoint[2 * kk + 1];
+                if (inblossom[j] == b)
+                    j = i;
+                int bj = inblossom[j];
+                if (bj != b && label[bj] == 1 && (bestedgeto[bj] == -1 || slack(kk) < slack(bestedgeto[bj])))
+                    bestedgeto[bj] = kk;
+            }
+            blossombestedges[c] = null;
+            bestedge[c] = -1;
+        }
+        IntList be = new IntList();
+        for (int kk : bestedgeto)
+            if (kk != -1)
+                be.add(kk);
+        blossombestedges[b] = be.toArray();
+        bestedge[b] = -1;
+        for (int kk : blossombestedges[b])
+            if (bestedge[b] == -1 || slack(kk) < slack(bestedge[b]))
+                bestedge[b] = kk;
+    }
+
+    private static int at(int[] a, int j) {
+        return a[j >= 0 ? j : j + a.length];
+    }
+
+    private static int indexOf(int[] a, int x) {
+        for (int i = 0; i < a.length; i++)
+            if (a[i] == x)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Expands the top level blossom b, at the end of a stage (then its sub-blossoms of zero dual
+     * are expanded too) or when its dual reaches zero as a T blossom.
+     */
+    private void expandBlossom(int b, boolean endstage) {
+        int[] childs = blossomchilds[b], endps = blossomendps[b];
+        for (int s : childs) {
+            blossomparent[s] = -1;
+            if (s < n)
+                inblossom[s] = s;
+            else if (endstage && dualvar[s] == 0)
+                expandBlossom(s, endstage);
+            else
+                for (int v : leaves(s))
+                    inblossom[v] = s;
+        }
+        if (!endstage && label[b] == 2) {
+            //relabel the sub-blossoms on the even path from the entry child to the base
+            int entrychild = inblossom[endpoint[labelend[b] ^ 1]];
+            int j = indexOf(childs, entrychild);
+            int jstep, endptrick;
+            if ((j & 1) != 0) {
+                j -= childs.length;
+                jstep = 1;
+                endptrick = 0;
+            } else {
+                jstep = -1;
+                endptrick = 1;
+            }
+            int p = labelend[b];
+            while (j != 0) {
+                label[endpoint[p ^ 1]] = 0;
+                label[endpoint[at(endps, j - endptrick) ^ endptrick ^ 1]] = 0;
+                assignLabel(endpoint[p ^ 1], 2, p);
+                allowedge[at(endps, j - endptrick) / 2] = true;
+                j += jstep;
+                p = at(endps, j - endptrick) ^ endptrick;
+                allowedge[p / 2] = true;
+                j += jstep;
+            }
+            int bv = at(childs, j);
+            label[endpoint[p ^ 1]] = label[bv] = 2;
+            labelend[endpoint[p ^ 1]] = labelend[bv] = p;
+            bestedge[bv] = -1;
+            j += jstep;
+            while (at(childs, j) != entrychild) {
+                bv = at(childs, j);
+                if (label[bv] == 1) {
+                    j += jstep;
+                    continue;
+                }
+                int v = -1;
+                for (int u : leaves(bv)) {
+                    v = u;
+                    if (label[u] != 0)
+                        break;
+                }
+                if (label[v] != 0) {
+                    label[v] = 0;
+                    label[endpoint[mate[blossombase[bv]]]] = 0;
+                    assignLabel(v, 2, labelend[v]);
+                }
+                j += jstep;
+            }
+        }
+        label[b] = labelend[b] = -1;
+        blossomchilds[b] = blossomendps[b] = null;
+        blossombase[b] = -1;
+        blossombestedges[b] = null;
+        bestedge[b] = -1;
+        unusedblossoms[unusedCount++] = b;
+    }
+
+    /**
+     * Swaps the matched and unmatched edges of blossom b on the path from vertex v to the base, v
+     * becomes the new base.
+     */
+    private void augmentBlossom(int b, int v) {
+        int t = v;
+        while (blossomparent[t] != b)
+            t = blossomparent[t];
+        if (t >= n)
+            augmentBlossom(t, v);
+        int[] childs = blossomchilds[b], endps = blossomendps[b];
+        int i = indexOf(childs, t), j = i;
+        int jstep, endptrick;
+        if ((i & 1) != 0) {
+            j -= childs.length;
+            jstep = 1;
+            endptrick = 0;
+        } else {
+            jstep = -1;
+            endptrick = 1;
+        }
+        while (j != 0) {
+            j += jstep;
+            t = at(childs, j);
+            int p = at(endps, j - endptrick) ^ endptrick;
+            if (t >= n)
+                augmentBlossom(t, endpoint[p]);
+            j += jstep;
+            t = at(childs, j);
+            if (t >= n)
+                augmentBlossom(t, endpoint[p ^ 1]);
+            mate[endpoint[p]] = p ^ 1;
+            mate[endpoint[p ^ 1]] = p;
+        }
+        //rotate the children so the new base is first
+        int len = childs.length;
+        int[] nc = new int[len], ne = new int[len];
+        for (int x = 0; x < len; x++) {
+            nc[x] = childs[(i + x) % len];
+            ne[x] = endps[(i + x) % len];
+        }
+        blossomchilds[b] = nc;
+        blossomendps[b] = ne;
+        blossombase[b] = blossombase[nc[0]];
+    }
+
+    /**
+     * Augments the matching along the path through edge k between two S vertices.
+     */
+    private void augmentMatching(int k) {
+        for (int side = 0; side < 2; side++) {
+            int s = side == 0 ? endpoint[2 * k] : endpoint[2 * k + 1];
+            int p = side == 0 ? 2 * k + 1 : 2 * k;
+            while (true) {
+                int bs = inblossom[s];
+                if (bs >= n)
+                    augmentBlossom(bs, s);
+                mate[s] = p;
+                if (labelend[bs] == -1)
+                    break;
+                int t = endpoint[labelend[bs]];
+                int bt = inblossom[t];
+                s = endpoint[labelend[bt]];
+                int j = endpoint[labelend[bt] ^ 1];
+                if (bt >= n)
+                    augmentBlossom(bt, j);
+                mate[j] = labelend[bt];
+                p = labelend[bt] ^ 1;
+            }
+        }
+    }
+
+    private void solve() {
+        if (result != null)
+            return;
+        long maxweight = 0;
+        for (long w : weight)
+            maxweight = Math.max(maxweight, w);
+        mate = new int[n];
+        Arrays.fill(mate, -1);
+        label = new int[2 * n];
+        labelend = new int[2 * n];
+        Arrays.fill(labelend, -1);
+        inblossom = new int[n];
+        for (int v = 0; v < n; v++)
+            inblossom[v] = v;
+        blossomparent = new int[2 * n];
+        Arrays.fill(blossomparent, -1);
+        blossomchilds = new int[2 * n][];
+        blossombase = new int[2 * n];
+        for (int v = 0; v < 2 * n; v++)
+            blossombase[v] = v < n ? v : -1;
+        blossomendps = new int[2 * n][];
+        bestedge = new int[2 * n];
+        Arrays.fill(bestedge, -1);
+        blossombestedges = new int[2 * n][];
+        unusedblossoms = new int[n];
+        for (int b = 0; b < n; b++)
+            unusedblossoms[b] = 2 * n - 1 - b;
+        unusedCount = n;
+        dualvar = new long[2 * n];
+        for (int v = 0; v < n; v++)
+            dualvar[v] = maxweight;
+        allowedge = new boolean[nedge];
+        queue = new int[n + 1];
+
+        for (int stage = 0; stage < n; stage++) {
+            Arrays.fill(label, 0);
+            Arrays.fill(bestedge, -1);
+            for (int b = n; b < 2 * n; b++)
+                blossombestedges[b] = null;
+            Arrays.fill(allowedge, false);
+            queueSize = 0;
+            for (int v = 0; v < n; v++)
+                if (mate[v] == -1 && label[inblossom[v]] == 0)
+                    assignLabel(v, 1, -1);
+
+            boolean augmented = false;
+            while (true) {
+                while (queueSize > 0 && !augmented) {
+                    int v = queue[--queueSize];
+                    for (int p : neighbend[v]) {
+                        int k = p / 2;
+                        int w = endpoint[p];
+                        if (inblossom[v] == inblossom[w])
+                            continue;
+                        long kslack = 0;
+                        if (!allowedge[k]) {
+                            kslack = slack(k);
+                            if (kslack <= 0)
+                                allowedge[k] = true;
+                        }
+                        if (allowedge[k]) {
+                            if (label[inblossom[w]] == 0)
+                                assignLabel(w, 2, p ^ 1);
+                            else if (label[inblossom[w]] == 1) {
+                                int base = scanBlossom(v, w);
+                                if (base >= 0)
+                                    addBlossom(base, k);
+                                else {
+                                    augmentMatching(k);
+                                    augmented = true;
+                                    break;
+                                }
+                            } else if (label[w] == 0) {
+                                label[w] = 2;
+                                labelend[w] = p ^ 1;
+                            }
+                        } else if (label[inblossom[w]] == 1) {
+                            int b = inblossom[v];
+                            if (bestedge[b] == -1 || kslack < slack(bestedge[b]))
+                                bestedge[b] = k;
+                        } else if (label[w] == 0) {
+                            if (bestedge[w] == -1 || kslack < slack(bestedge[w]))
+                                bestedge[w] = k;
+                        }
+                    }
+                }
+                if (augmented)
+                    break;
+
+                //no augmenting path, change the duals
+                int deltatype = -1, deltaedge = -1, deltablossom = -1;
+                long delta = 0;
+                if (!maxCardinality) {
+                    deltatype = 1;
+                    delta = Long.MAX_VALUE;
+                    for (int v = 0; v < n; v++)
+                        delta = Math.min(delta, dualvar[v]);
+                }
+                for (int v = 0; v < n; v++)
+                    if (label[inblossom[v]] == 0 && bestedge[v] != -1) {
+                        long d = slack(bestedge[v]);
+                        if (deltatype == -1 || d < delta) {
+                            delta = d;
+                            deltatype = 2;
+                            deltaedge = bestedge[v];
+                        }
+                    }
+                for (int b = 0; b < 2 * n; b++)
+                    if (blossomparent[b] == -1 && label[b] == 1 && bestedge[b] != -1) {
+                        long d = slack(bestedge[b]) / 2;
+                        if (deltatype == -1 || d < delta) {
+                            delta = d;
+                            deltatype = 3;
+                            deltaedge = bestedge[b];
+                        }
+                    }
+                for (int b = n; b < 2 * n; b++)
+                    if (blossombase[b] >= 0 && blossomparent[b] == -1 && label[b] == 2
+                            && (deltatype == -1 || dualvar[b] < delta)) {
+                        delta = dualvar[b];
+                        deltatype = 4;
+                        deltablossom = b;
+                    }
+                if (deltatype == -1) {
+                    //only in max cardinality mode, the matching is maximum
+                    deltatype = 1;
+                    delta = Long.MAX_VALUE;
+                    for (int v = 0; v < n; v++)
+                        delta = Math.min(delta, dualvar[v]);
+                    delta = Math.max(0, delta);
+                }
+
+                for (int v = 0; v < n; v++)
+                    if (label[inblossom[v]] == 1)
+                        dualvar[v] -= delta;
+                    else if (label[inblossom[v]] == 2)
+                        dualvar[v] += delta;
+                for (int b = n; b < 2 * n; b++)
+                    if (blossombase[b] >= 0 && blossomparent[b] == -1) {
+                        if (label[b] == 1)
+                            dualvar[b] += delta;
+                        else if (label[b] == 2)
+                            dualvar[b] -= delta;
+                    }
+
+                if (deltatype == 1)
+                    break;
+                else if (deltatype == 2) {
+                    allowedge[deltaedge] = true;
+                    int i = endpoint[2 * deltaedge];
+                    if (label[inblossom[i]] == 0)
+                        i = endpoint[2 * deltaedge + 1];
+                    push(i);
+                } else if (deltatype == 3) {
+                    allowedge[deltaedge] = true;
+                    push(endpoint[2 * deltaedge]);
+                } else
+                    expandBlossom(deltablossom, false);
+            }
+            if (!augmented)
+                break;
+            for (int b = n; b < 2 * n; b++)
+                if (blossomparent[b] == -1 && blossombase[b] >= 0 && label[b] == 1 && dualvar[b] == 0)
+                    expandBlossom(b, true);
+        }
+        result = mate;
+        label = labelend = inblossom = blossomparent = blossombase = bestedge = queue = unusedblossoms = null;
+        blossomchilds = blossomendps = blossombestedges = null;
+        dualvar = null;
+        allowedge = null;
+    }
+
+    /**
+     * A growable int array.
+     */
+    private static class IntList {
+        int[] data = new int[8];
+        int size;
+
+        void add(int x) {
+            if (size == data.length)
+                data = Arrays.copyOf(data, 2 * size);
+            data[size++] = x;
+        }
+
+        void reverse() {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                int t = data[i];
+                data[i] = data[j];
+                data[j] = t;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -8,27 +8,160 @@ package graphtea.library.algorithms.shortestpath;
 import graphtea.library.BaseEdge;
 import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
+import graphtea.library.CSRGraph;
+import graphtea.library.Path;
 import graphtea.library.algorithms.Algorithm;
 import graphtea.library.algorithms.AutomatedAlgorithm;
-import graphtea.library.algorithms.util.EventUtils;
 import graphtea.library.event.GraphRequest;
 import graphtea.library.event.VertexEvent;
 import graphtea.library.event.VertexRequest;
 import graphtea.library.exceptions.InvalidVertexException;
+import graphtea.library.util.IndexedMinHeap;
 
-import java.util.*;
+import java.util.Iterator;
+import java.util.Vector;
 
 
 /**
  * This method finds the shortest path from a vertex to all vertices
- * of a graph.
- * [Should be tested]
+ * of a graph. Edge weights should be non negative, in directed graphs
+ * the direction of edges is considered.
+ * <p/>
+ * Negative weights are not supported: each vertex is settled once and is never
+ * relaxed again, so the search always ends, but the distances through negative
+ * edges may not be the shortest ones. Use BellmanFord or Johnson for such graphs.
+ * <p/>
+ * Distances and parents are kept in primitive arrays and the vertices are
+ * selected using an indexed heap with decrease-key. The arrays and the heap are
+ * kept between runs, so running the same object several times on graphs of the same
+ * size does not allocate. Marks and algorithm steps are only produced when an
+ * event dispatcher is attached (animation), so the headless path has no extra cost.
+ * If the graph is a CSRGraph its primitive arrays are used directly.
  *
  * @author Omid Aladini
  */
 public class Dijkstra<VertexType extends BaseVertex,
         EdgeType extends BaseEdge<VertexType>> extends Algorithm
         implements AutomatedAlgorithm {
+    /**
+     * The distance of vertices which are not reachable from the source.
+     */
+    public static final long INFINITY = Long.MAX_VALUE;
+
+    private long[] dist = new long[0];
+    //id of the vertex before each vertex in the shortest path tree, -1 for the source and unreachable vertices
+    private int[] parent = new int[0];
+    private BaseEdge[] parentEdge = new BaseEdge[0];
+    //the vertices whose distances are final, they are never relaxed again
+    private boolean[] settled = new boolean[0];
+    private IndexedMinHeap heap = new IndexedMinHeap(0);
+
+    private void ensureCapacity(int n) {
+        if (dist.length != n) {
+            dist = new long[n];
+            parent = new int[n];
+            parentEdge = new BaseEdge[n];
+            settled = new boolean[n];
+        }
+        if (heap.capacity() < n)
+            heap = new IndexedMinHeap(n);
+        else
+            heap.clear();
+    }
+
+    /**
+     * Computes the shortest paths from <code>source</code>. If <code>target</code> is not null
+     * the search stops as soon as the distance of the target is known, in this case only the
+     * distances of vertices settled before the target are final.
+     *
+     * @param graph  Graph object to be searched.
+     * @param source The source of the paths.
+     * @param target The vertex to stop at, or null to compute the paths to all vertices.
+     * @return distances by vertex id, INFINITY for unreachable vertices. The array is reused by
+     *         the next run of this object.
+     * @throws InvalidVertexException if the supplied vertices are invalid.
+     */
+    @SuppressWarnings("unchecked")
+    public long[] computeDistances(final BaseGraph<VertexType, EdgeType> graph,
+                                   VertexType source, VertexType target)
+            throws InvalidVertexException {
+        graph.checkVertex(source);
+        if (target != null)
+            graph.checkVertex(target);
+
+        int n = graph.getVerticesCount();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            dist[i] = INFINITY;
+            parent[i] = -1;
+            parentEdge[i] = null;
+            settled[i] = false;
+        }
+
+        boolean animated = isStepping();
+        int s = source.getId();
+        int t = target == null ? -1 : target.getId();
+        dist[s] = 0;
+        heap.offer(s, 0);
+        if (animated) {
+            dispatchEvent(new VertexEvent<VertexType, EdgeType>(graph, source, VertexEvent.EventType.MARK));
+            source.setMark(true);
+        }
+
+        CSRGraph<VertexType, EdgeType> csr = graph instanceof CSRGraph ? (CSRGraph<VertexType, EdgeType>) graph : null;
+        BaseVertex[] vertices = csr == null ? graph.getVertexArray() : null;
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            long du = dist[u];
+            settled[u] = true;
+            if (animated) {
+                VertexType vMin = csr == null ? (VertexType) vertices[u] : csr.getVertex(u);
+                vMin.setMark(true);
+                if (parentEdge[u] != null)
+                    parentEdge[u].setMark(true);
+                step("settle: ", vMin.getId(), ", distance: ", du);
+            }
+            if (u == t)
+                break;
+
+            if (csr != null) {
+                int[] offsets = csr.getOutOffsets(), targets = csr.getOutTargets(), edgeIds = csr.getOutEdges();
+                int[] weights = csr.getWeights();
+                for (int p = offsets[u], end = offsets[u + 1]; p < end; p++) {
+                    int v = targets[p];
+                    if (settled[v])
+                        continue;
+                    long nd = du + weights[edgeIds[p]];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        parent[v] = u;
+                        parentEdge[v] = csr.getEdge(edgeIds[p]);
+                        heap.offer(v, nd);
+                    }
+                }
+            } else {
+                VertexType vu = (VertexType) vertices[u];
+                Iterator<EdgeType> iet = graph.lightEdgeIterator(vu);
+                while (iet.hasNext()) {
+                    EdgeType edge = iet.next();
+                    int v = (edge.source == vu ? edge.target : edge.source).getId();
+                    if (settled[v])
+                        continue;
+                    long nd = du + edge.getWeight();
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        parent[v] = u;
+                        parentEdge[v] = edge;
+                        heap.offer(v, nd);
+                    }
+                }
+            }
+        }
+        heap.clear();
+        return dist;
+    }
+
     /**
      * This method finds a reference array using Dijkstra algorithm
      * from which, one can find
@@ -42,78 +175,66 @@ public class Dijkstra<VertexType extends BaseVertex,
      *         from "vertex" to i, or null if there is no such vertex.
      * @throws InvalidVertexException if the supplied vertices are invalid.
      */
+    @SuppressWarnings("unchecked")
     public Vector<VertexType>
     getShortestPath(final BaseGraph<VertexType, EdgeType> graph,
                     VertexType vertex)
             throws InvalidVertexException {
-        graph.checkVertex(vertex);
-
-        final Integer dist[] = new Integer[graph.getVerticesCount()];
-        //the edge connected to i'th vertex
-        final HashMap<VertexType, EdgeType> edges = new HashMap<VertexType, EdgeType>();
-        Vector<VertexType> prev = new Vector<VertexType>();
-
-        for (int i = 0; i < dist.length; i++)
-            dist[i] = Integer.MAX_VALUE;
-
-        dist[vertex.getId()] = 0;
-
-        class VertexComparator implements Comparator<VertexType> {
-            public int compare(VertexType o1, VertexType o2) {
-                if (dist[o1.getId()] < dist[o2.getId()])
-                    return -1;
-                if (dist[o1.getId()] == dist[o2.getId()])
-                    return 0;
-                else
-                    return 1;
-            }
-        }
-
-        VertexComparator vComp = new VertexComparator();
-
-        //selected vertices
-        HashSet<VertexType> selectedVertices = new HashSet<VertexType>();
-
-        PriorityQueue<VertexType> Q = new PriorityQueue<VertexType>(1, vComp);
-
-        Q.add(vertex);
-        dispatchEvent(new VertexEvent<VertexType, EdgeType>(graph, vertex, VertexEvent.EventType.MARK));
-        vertex.setMark(true);
-        while (!Q.isEmpty()) {
-            VertexType vMin = Q.poll();
-            vMin.setMark(true);
-            EdgeType edg = edges.get(vMin);
-            if (edg != null)
-                edg.setMark(true);
-//            vMin.setColor(2);
-            EventUtils.algorithmStep(this, "");
-            selectedVertices.add(vMin);
-            Iterator<EdgeType> iet = graph.edgeIterator(vMin);
-            while ((iet.hasNext())) {
-                EdgeType edge = iet.next();
-//                edge.setColor((int) (Math.random() * 10));
-//           EventUtils.algorithmStep(this,600);
-                VertexType target = vMin == edge.source ? edge.target : edge.source;
-                VertexType source = vMin;
-                if (!selectedVertices.contains(target)) {
-                    if (dist[target.getId()] > dist[source.getId()] + edge.getWeight()) {
-                        dist[target.getId()] = dist[source.getId()] + edge.getWeight();
-//                        dispatchEvent(new EdgeEvent<VertexType, EdgeType>(graph, edge, EdgeEvent.EventType.MARK));
-//                        dispatchEvent(new VertexEvent<VertexType, EdgeType>(graph, target, VertexEvent.EventType.MARK));
-//                        edge.setMark(true);
-                        edges.put(target, edge);
-//                        target.setMark(true);
-//                        target.setColor(5);
-                        Q.add(target);
-//                        prev.add(edge.source.getId(), edge.target);
-                    }
-                }
-            }
-        }
+        computeDistances(graph, vertex, null);
 
+        BaseVertex[] vertices = graph.getVertexArray();
+        Vector<VertexType> prev = new Vector<VertexType>(vertices.length);
+        for (int i = 0; i < vertices.length; i++)
+            prev.add(parent[i] < 0 ? null : (VertexType) vertices[parent[i]]);
         return prev;
     }
 
+    /**
+     * Finds a shortest path between two vertices, stopping the search as soon as the
+     * target is reached.
+     *
+     * @return the path from source to target, or null if target is not reachable.
+     * @throws InvalidVertexException if the supplied vertices are invalid.
+     */
+    @SuppressWarnings("unchecked")
+    public Path<VertexType> getShortestPath(final BaseGraph<VertexType, EdgeType> graph,
+                                            VertexType source, VertexType target)
+            throws InvalidVertexException {
+        computeDistances(graph, source, target);
+        int t = target.getId();
+        if (dist[t] == INFINITY)
+            return null;
+
+        BaseVertex[] vertices = graph.getVertexArray();
+        Path<VertexType> path = new Path<VertexType>();
+        for (int v = t; v >= 0; v = parent[v])
+            path.insert((VertexType) vertices[v], 0);
+        return path;
+    }
+
+    /**
+     * @return distances of the last run by vertex id, INFINITY for unreachable vertices.
+     */
+    public long[] getDistances() {
+        return dist;
+    }
+
+    /**
+     * @return the shortest path tree of the last run as parent ids, -1 for the source and unreachable vertices.
+     */
+    public int[] getParents() {
+        return parent;
+    }
+
+    /**
+     * @return the edge which connects the vertex to its parent in the shortest path tree of the last run,
+     *         or null.
+     */
+    @SuppressWarnings("unchecked")
+    public EdgeType getParentEdge(VertexType v) {
+        return (EdgeType) parentEdge[v.getId()];
+    }
+
     public void doAlgorithm() {
         GraphRequest<VertexType, EdgeType> gr = new GraphRequest<VertexType, EdgeType>();
         dispatchEvent(gr);
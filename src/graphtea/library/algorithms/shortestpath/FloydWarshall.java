@@ -10,44 +10,239 @@ import graphtea.library.BaseEdge;
 import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This method finds the shortest paths between any two vertices of
  * a graph.
+ * <p/>
+ * The distances are computed on a flat n*n row major buffer, <code>d[i*n+j]</code> is the
+ * distance from vertex i to vertex j (by vertex ids). The matrix is processed in square tiles
+ * (blocked Floyd-Warshall): for each diagonal tile, first the tile itself, then the tiles of its
+ * row and column and at last all the other tiles are relaxed, the tiles of the last two phases
+ * are independent and are relaxed in parallel on a ForkJoinPool.
+ * Unreachable pairs have the distance INFINITY and never take part in a sum, so there is no overflow.
  *
  * @author Soroush Sabet, edited by Omid Aladini
+ * @see graphtea.extensions.reports.basicreports.Diameter
  */
 public class FloydWarshall<VertexType extends BaseVertex,
         EdgeType extends BaseEdge<VertexType>> {
+    /**
+     * The distance of unreachable pairs in int matrices.
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The largest number of vertices whose n*n matrix fits in an array.
+     */
+    public static final int MAX_VERTICES = 46340;
+
+    //edge of the square tiles, 64*64 ints of three tiles fit in the L2 cache
+    static final int TILE = 64;
+
+    private final ForkJoinPool pool;
+
+    public FloydWarshall() {
+        this(null);
+    }
+
+    /**
+     * @param pool the pool which the tiles are relaxed on, null means the common pool
+     */
+    public FloydWarshall(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
     /**
      * @param graph
-     * @return
+     * @return the distance matrix, dist[i][j] is the length of the shortest path from the vertex with
+     *         id i to the vertex with id j, or Integer.MAX_VALUE if there is no such path.
      */
     public Integer[][] getAllPairsShortestPath(final BaseGraph<VertexType, EdgeType> graph) {
+        int n = graph.getVerticesCount();
+        int[] d = getDistanceMatrix(graph);
+        Integer dist[][] = new Integer[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                dist[i][j] = d[i * n + j];
+        return dist;
+    }
 
-        final Integer dist[][] = new Integer[graph.getVerticesCount()][graph.getVerticesCount()];
-        Iterator<EdgeType> iet = graph.edgeIterator();
-        EdgeType edge;
-        for (Integer i : dist[0])
-            for (Integer j : dist[0]) {
-                dist[i][j] = Integer.MAX_VALUE;
-            }
+    /**
+     * @return the flat distance matrix of the graph, INFINITY for unreachable pairs.
+     */
+    public int[] getDistanceMatrix(final BaseGraph<VertexType, EdgeType> graph) {
+        int[] d = getEdgeMatrix(graph);
+        solve(d, graph.getVerticesCount(), pool);
+        return d;
+    }
+
+    /**
+     * Returns the flat matrix of the edges of the graph, the minimum weight of the edges
+     * from i to j (both directions for undirected graphs), 0 on the diagonal and INFINITY elsewhere.
+     */
+    public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    int[] getEdgeMatrix(BaseGraph<VertexType, EdgeType> graph) {
+        int n = graph.getVerticesCount();
+        int[] d = new int[matrixLength(n)];
+        Arrays.fill(d, INFINITY);
+        for (int i = 0; i < n; i++)
+            d[i * n + i] = 0;
 
+        boolean directed = graph.isDirected();
+        Iterator<EdgeType> iet = graph.lightEdgeIterator();
         while (iet.hasNext()) {
-            edge = iet.next();
-            dist[edge.target.getId()][edge.source.getId()] = edge.getWeight();
+            EdgeType edge = iet.next();
+            int s = edge.source.getId(), t = edge.target.getId(), w = edge.getWeight();
+            if (w < d[s * n + t])
+                d[s * n + t] = w;
+            if (!directed && w < d[t * n + s])
+                d[t * n + s] = w;
         }
+        return d;
+    }
 
-        for (VertexType v : graph)
-            for (VertexType u : graph)
-                for (VertexType w : graph) {
-                    if ((dist[v.getId()][w.getId()] + dist[w.getId()][u.getId()]) < dist[v.getId()][u.getId()])
-                        dist[v.getId()][u.getId()] = dist[v.getId()][w.getId()] + dist[w.getId()][u.getId()];
+    /**
+     * @return n*n, the length of the flat matrix of n vertices
+     * @throws IllegalArgumentException if n is more than MAX_VERTICES, then n*n overflows
+     */
+    static int matrixLength(int n) {
+        if (n > MAX_VERTICES)
+            throw new IllegalArgumentException("The distance matrix of " + n + " vertices does not fit in an array, at most "
+                    + MAX_VERTICES + " vertices are supported.");
+        return n * n;
+    }
+
+    /**
+     * Runs the Floyd-Warshall algorithm in place on the flat n*n matrix <code>d</code>.
+     *
+     * @param pool the pool to run the tiles on, null means the common pool
+     */
+    public static void solve(final int[] d, final int n, ForkJoinPool pool) {
+        solve(n, pool, new Tiles() {
+            public void relax(int k0, int k1, int i0, int i1, int j0, int j1) {
+                FloydWarshall.relax(d, n, k0, k1, i0, i1, j0, j1);
+            }
+        });
+    }
+
+    /**
+     * Relaxes the tile [i0,i1)*[j0,j1) through the vertices [k0,k1).
+     */
+    static void relax(int[] d, int n, int k0, int k1, int i0, int i1, int j0, int j1) {
+        for (int k = k0; k < k1; k++) {
+            int kRow = k * n;
+            for (int i = i0; i < i1; i++) {
+                int iRow = i * n;
+                int dik = d[iRow + k];
+                if (dik == INFINITY)
+                    continue;
+                for (int j = j0; j < j1; j++) {
+                    int dkj = d[kRow + j];
+                    if (dkj == INFINITY)
+                        continue;
+                    long s = (long) dik + dkj;
+                    if (s < d[iRow + j])
+                        d[iRow + j] = (int) s;
                 }
+            }
+        }
+    }
 
-        return dist;
+    /**
+     * Runs the Floyd-Warshall algorithm in place on the flat n*n matrix <code>d</code>,
+     * unreachable pairs should be Double.POSITIVE_INFINITY.
+     *
+     * @param pool the pool to run the tiles on, null means the common pool
+     */
+    public static void solve(final double[] d, final int n, ForkJoinPool pool) {
+        solve(n, pool, new Tiles() {
+            public void relax(int k0, int k1, int i0, int i1, int j0, int j1) {
+                FloydWarshall.relax(d, n, k0, k1, i0, i1, j0, j1);
+            }
+        });
+    }
 
+    /**
+     * The matrix being solved, the order of relaxing the tiles is shared by the int and double
+     * matrices and only the relaxation of a tile is written for each of them, so that its inner
+     * loop works on the primitive array directly.
+     */
+    interface Tiles {
+        /**
+         * Relaxes the tile [i0,i1)*[j0,j1) through the vertices [k0,k1).
+         */
+        void relax(int k0, int k1, int i0, int i1, int j0, int j1);
+    }
+
+    /**
+     * Runs the blocked Floyd-Warshall algorithm on an n*n matrix.
+     */
+    private static void solve(final int n, ForkJoinPool pool, final Tiles tiles) {
+        if (n <= 2 * TILE) {
+            tiles.relax(0, n, 0, n, 0, n);
+            return;
+        }
+        (pool == null ? ForkJoinPool.commonPool() : pool).invoke(new RecursiveAction() {
+            protected void compute() {
+                int count = (n + TILE - 1) / TILE;
+                for (int kt = 0; kt < count; kt++) {
+                    final int k0 = kt * TILE, k1 = Math.min(n, k0 + TILE);
+                    tiles.relax(k0, k1, k0, k1, k0, k1);
+
+                    ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+                    for (int t = 0; t < count; t++) {
+                        if (t == kt)
+                            continue;
+                        final int t0 = t * TILE, t1 = Math.min(n, t0 + TILE);
+                        tasks.add(new RecursiveAction() {
+                            protected void compute() {
+                                tiles.relax(k0, k1, t0, t1, k0, k1);
+                                tiles.relax(k0, k1, k0, k1, t0, t1);
+                            }
+                        });
+                    }
+                    invokeAll(tasks);
+
+                    tasks.clear();
+                    for (int it = 0; it < count; it++) {
+                        if (it == kt)
+                            continue;
+                        final int i0 = it * TILE, i1 = Math.min(n, i0 + TILE);
+                        tasks.add(new RecursiveAction() {
+                            protected void compute() {
+                                for (int j0 = 0; j0 < n; j0 += TILE)
+                                    if (j0 != k0)
+                                        tiles.relax(k0, k1, i0, i1, j0, Math.min(n, j0 + TILE));
+                            }
+                        });
+                    }
+                    invokeAll(tasks);
+                }
+            }
+        });
+    }
+
+    static void relax(double[] d, int n, int k0, int k1, int i0, int i1, int j0, int j1) {
+        for (int k = k0; k < k1; k++) {
+            int kRow = k * n;
+            for (int i = i0; i < i1; i++) {
+                int iRow = i * n;
+                double dik = d[iRow + k];
+                if (dik == Double.POSITIVE_INFINITY)
+                    continue;
+                for (int j = j0; j < j1; j++) {
+                    double s = dik + d[kRow + j];
+                    if (s < d[iRow + j])
+                        d[iRow + j] = s;
+                }
+            }
+        }
     }
 
 }
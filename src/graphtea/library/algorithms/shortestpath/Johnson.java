@@ -8,102 +8,103 @@ package graphtea.library.algorithms.shortestpath;
 import graphtea.library.BaseEdge;
 import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
+import graphtea.library.CSRGraph;
 import graphtea.library.algorithms.Algorithm;
-import graphtea.library.genericcloners.BaseEdgeVertexCopier;
+import graphtea.library.util.IndexedMinHeap;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Vector;
+import java.util.Arrays;
 
 /**
  * This Algorithm computes the lenght of the shortest
  * path between any two arbitrary vertices.
  * This method is usually used for sparse graphs.
+ * <p/>
+ * The edges are reweighted using Bellman-Ford potentials, so that all the weights
+ * become non negative, and then a Dijkstra is run from every vertex on the CSR form of
+ * the graph. The result has the same flat layout as FloydWarshall.getDistanceMatrix.
  *
  * @author Soroush Sabet
+ * @see FloydWarshall#getDistanceMatrix(graphtea.library.BaseGraph)
  */
 public class Johnson
         <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>, GraphType extends BaseGraph<VertexType, EdgeType>>
         extends Algorithm {
 
-    int[] a;
-    int[][] d;
-
-    //HashMap nw = new HashMap<EdgeType,Integer>();
-    Johnson() {
+    public Johnson() {
 
     }
 
+    /**
+     * @return d[i][j] is the length of the shortest path from vertex i to vertex j, FloydWarshall.INFINITY
+     *         if there is no path, or null if the graph has a negative cycle.
+     */
     public int[][] ComputePaths(GraphType g) {
+        int n = g.getVerticesCount();
+        int[] flat = getDistanceMatrix(g);
+        if (flat == null)
+            return null;
+        int[][] d = new int[n][];
+        for (int i = 0; i < n; i++)
+            d[i] = Arrays.copyOfRange(flat, i * n, (i + 1) * n);
+        return d;
+    }
 
-        BaseEdgeVertexCopier gc = new BaseEdgeVertexCopier();
-        VertexType u;
-        BaseEdge e;
-
-        u = (VertexType) gc.convert(null);
-        g.insertVertex(u);
-        for (VertexType v : g) {
-
-            if (v != u) {
-                e = gc.convert(null, u, v);
-                g.insertEdge((EdgeType) e);
-                e.setWeight(0);
-            }
-
-        }
-        BellmanFord sp = new BellmanFord();
-
-        if (sp.computePaths(g, u) != null) {
-            Vector<VertexType> pd = sp.computePaths(g, u);
-            for (VertexType v : g) {
-
-                int dd = 0;
-                VertexType w = v;
-                EdgeType h;
-                while (w != u) {
-                    h = getSingleEdge(g, pd.get(v.getId()), w);
-                    dd += h.getWeight();
+    /**
+     * @return the flat n*n distance matrix, FloydWarshall.INFINITY for unreachable pairs, or null if
+     *         the graph has a negative cycle.
+     */
+    public int[] getDistanceMatrix(BaseGraph<VertexType, EdgeType> g) {
+        CSRGraph<VertexType, EdgeType> csr = g instanceof CSRGraph ?
+                (CSRGraph<VertexType, EdgeType>) g : new CSRGraph<VertexType, EdgeType>(g);
+        int n = csr.getVerticesCount();
+        int[] offsets = csr.getOutOffsets(), targets = csr.getOutTargets(), edgeIds = csr.getOutEdges();
+        int[] weights = csr.getWeights();
+
+        //Bellman-Ford from a virtual vertex connected to all vertices with zero weight edges
+        long[] h = new long[n];
+        boolean changed = true;
+        for (int round = 0; changed; round++) {
+            if (round > n)
+                return null;
+            changed = false;
+            for (int u = 0; u < n; u++)
+                for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+                    long nh = h[u] + weights[edgeIds[p]];
+                    if (nh < h[targets[p]]) {
+                        h[targets[p]] = nh;
+                        changed = true;
+                    }
                 }
-                a[v.getId()] = dd;
-
-            }
-            Iterator<EdgeType> iet = g.edgeIterator();
-            EdgeType h;
-            while (iet.hasNext()) {
-                h = iet.next();
-                int w = h.getWeight() + a[h.source.getId()] - a[h.target.getId()];
-                //nw.put(h,w);
-                h.setWeight(w);
-            }
+        }
 
-            for (VertexType v : g) {
-                Dijkstra dj = new Dijkstra();
-                Vector<VertexType> pdj = dj.getShortestPath(g, v);
-                for (VertexType z : g) {
-                    int dd = 0;
-                    VertexType w = z;
-                    EdgeType f;
-                    while (w != v) {
-                        f = getSingleEdge(g, pdj.get(z.getId()), w);
-                        dd += f.getWeight();
+        //non negative weights of the arcs
+        long[] w = new long[targets.length];
+        for (int u = 0; u < n; u++)
+            for (int p = offsets[u]; p < offsets[u + 1]; p++)
+                w[p] = weights[edgeIds[p]] + h[u] - h[targets[p]];
+
+        int[] d = new int[FloydWarshall.matrixLength(n)];
+        long[] dist = new long[n];
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        for (int s = 0; s < n; s++) {
+            Arrays.fill(dist, Long.MAX_VALUE);
+            dist[s] = 0;
+            heap.offer(s, 0);
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                for (int p = offsets[u]; p < offsets[u + 1]; p++) {
+                    int v = targets[p];
+                    long nd = dist[u] + w[p];
+                    if (nd < dist[v]) {
+                        dist[v] = nd;
+                        heap.offer(v, nd);
                     }
-                    d[v.getId()][z.getId()] = dd + a[z.getId()] - a[v.getId()];
-
                 }
             }
-
+            for (int v = 0; v < n; v++)
+                d[s * n + v] = dist[v] == Long.MAX_VALUE ? FloydWarshall.INFINITY : (int) (dist[v] - h[s] + h[v]);
         }
-
-
-        return new int[0][];
-    }
-
-    private EdgeType getSingleEdge(GraphType g, VertexType v, VertexType w) {
-        Collection<EdgeType> f;
-        EdgeType h;
-        f = g.getEdges(v, w);
-        h = f.iterator().next();
-        return h;
+        return d;
     }
 
 }
@@ -0,0 +1,167 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.spanningtree;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+import graphtea.library.util.UnionFind;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Boruvka's algorithm for the minimum spanning forest, for very large graphs. Directions of
+ * edges are ignored.
+ * <p/>
+ * In each round every component picks its cheapest outgoing edge and all of them are added
+ * at once, so there are at most log(V) rounds. Edges are compared as (weight, index) pairs, so
+ * there are no ties and no cycles. The edges are kept in primitive arrays split in chunks: in a
+ * round the chunks are scanned in parallel on a ForkJoinPool, each chunk drops its edges which
+ * are inside a component and offers the others to the cheapest edge of their components by a
+ * compare-and-set. Merging the components is done on one thread with a union-find.
+ *
+ * @see Kruskal
+ * @see graphtea.extensions.reports.MinimumSpanningTreeReport
+ */
+public class Boruvka {
+    //edges in each parallel chunk
+    static final int CHUNK = 1 << 14;
+    static final long NONE = Long.MAX_VALUE;
+
+    private final ForkJoinPool pool;
+
+    public Boruvka() {
+        this(null);
+    }
+
+    /**
+     * @param pool the pool which the edges are scanned on, null means the common pool
+     */
+    public Boruvka(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return the edges of a minimum spanning forest of the graph
+     */
+    @SuppressWarnings("unchecked")
+    public <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    AbstractList<EdgeType> findMinimumSpanningTree(BaseGraph<VertexType, EdgeType> graph) {
+        final int n = graph.getVerticesCount();
+        int m = graph.getEdgesCount();
+        BaseEdge[] edges = new BaseEdge[m];
+        final int[] src = new int[m], trg = new int[m], weight = new int[m], index = new int[m];
+        int k = 0;
+        Iterator<EdgeType> eit = graph.lightEdgeIterator();
+        while (eit.hasNext()) {
+            EdgeType e = eit.next();
+            edges[k] = e;
+            src[k] = e.source.getId();
+            trg[k] = e.target.getId();
+            weight[k] = e.getWeight();
+            index[k] = k;
+            k++;
+        }
+
+        //chunk c holds the live edges [start[c], start[c] + length[c])
+        int chunks = Math.max(1, (k + CHUNK - 1) / CHUNK);
+        final int[] start = new int[chunks], length = new int[chunks];
+        for (int c = 0; c < chunks; c++) {
+            start[c] = c * CHUNK;
+            length[c] = Math.max(0, Math.min(CHUNK, k - start[c]));
+        }
+
+        final int[] comp = new int[n];
+        for (int v = 0; v < n; v++)
+            comp[v] = v;
+        final AtomicLongArray cheapest = new AtomicLongArray(n);
+        UnionFind sets = new UnionFind(n);
+        ArrayList<EdgeType> outputEdges = new ArrayList<EdgeType>(Math.max(n - 1, 0));
+        ForkJoinPool p = pool == null ? ForkJoinPool.commonPool() : pool;
+
+        while (true) {
+            for (int v = 0; v < n; v++)
+                cheapest.set(v, NONE);
+            ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                final int chunk = c;
+                tasks.add(new RecursiveAction() {
+                    protected void compute() {
+                        scan(chunk, start, length, src, trg, weight, index, comp, cheapest);
+                    }
+                });
+            }
+            if (chunks == 1)
+                tasks.get(0).invoke();
+            else
+                p.invoke(new Invoker(tasks));
+
+            boolean merged = false;
+            for (int v = 0; v < n; v++) {
+                long key = cheapest.get(v);
+                if (key == NONE)
+                    continue;
+                EdgeType e = (EdgeType) edges[(int) key];
+                if (sets.union(e.source.getId(), e.target.getId())) {
+                    outputEdges.add(e);
+                    merged = true;
+                }
+            }
+            if (!merged)
+                break;
+            for (int v = 0; v < n; v++)
+                comp[v] = sets.find(v);
+        }
+        return outputEdges;
+    }
+
+    /**
+     * drops the edges of the chunk which are inside a component (compacting the chunk) and offers
+     * the others to the cheapest edge of the components of their end points
+     */
+    private static void scan(int chunk, int[] start, int[] length, int[] src, int[] trg, int[] weight,
+                             int[] index, int[] comp, AtomicLongArray cheapest) {
+        int from = start[chunk], to = from + length[chunk], live = from;
+        for (int i = from; i < to; i++) {
+            int cs = comp[src[i]], ct = comp[trg[i]];
+            if (cs == ct)
+                continue;
+            src[live] = src[i];
+            trg[live] = trg[i];
+            weight[live] = weight[i];
+            index[live] = index[i];
+            long key = ((long) weight[i] << 32) | index[i];
+            offer(cheapest, cs, key);
+            offer(cheapest, ct, key);
+            live++;
+        }
+        length[chunk] = live - from;
+    }
+
+    private static void offer(AtomicLongArray cheapest, int c, long key) {
+        long old;
+        while (key < (old = cheapest.get(c)))
+            if (cheapest.compareAndSet(c, old, key))
+                return;
+    }
+
+    private static class Invoker extends RecursiveAction {
+        final ArrayList<RecursiveAction> tasks;
+
+        Invoker(ArrayList<RecursiveAction> tasks) {
+            this.tasks = tasks;
+        }
+
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+}
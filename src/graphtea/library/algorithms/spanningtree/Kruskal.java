@@ -11,86 +11,86 @@ import graphtea.library.BaseVertex;
 import graphtea.library.algorithms.Algorithm;
 import graphtea.library.algorithms.AutomatedAlgorithm;
 import graphtea.library.event.typedef.BaseGraphRequest;
+import graphtea.library.util.UnionFind;
 
 import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
+ * Kruskal's algorithm for the minimum spanning tree, or the minimum spanning forest if the graph
+ * is not connected. Directions of edges are ignored.
+ * <p/>
+ * The edges are sorted by weight as packed (weight, index) longs, and the components are kept in a
+ * union-find, so it runs in O(E log E). Marks and algorithm steps are only produced when an event
+ * dispatcher is attached (animation).
+ *
  * @author Omid Aladini
+ * @see Boruvka
  */
 public class Kruskal extends Algorithm implements AutomatedAlgorithm {
+    /**
+     * @return the edges of a minimum spanning forest of the graph, in increasing order of weight
+     */
     public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
     AbstractList<EdgeType>
     findMinimumSpanningTree(BaseGraph<VertexType, EdgeType> graph) {
-        ArrayList<EdgeType> outputEdges = new ArrayList<EdgeType>();
-        ArrayList<ArrayList<VertexType>> sets = new ArrayList<ArrayList<VertexType>>();
+        return new Kruskal().computeMinimumSpanningTree(graph);
+    }
 
-        for (VertexType v : graph) {
-            ArrayList<VertexType> set = new ArrayList<VertexType>();
-            set.add(v);
-            sets.add(set);
+    /**
+     * Same as findMinimumSpanningTree, but marks the chosen edges and their end points and
+     * dispatches an algorithm step for each of them if a dispatcher is attached.
+     */
+    @SuppressWarnings("unchecked")
+    public <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    AbstractList<EdgeType>
+    computeMinimumSpanningTree(BaseGraph<VertexType, EdgeType> graph) {
+        boolean animated = isStepping();
+        int n = graph.getVerticesCount();
+        int m = graph.getEdgesCount();
+        BaseEdge[] edges = new BaseEdge[m];
+        int[] src = new int[m], trg = new int[m];
+        long[] order = new long[m];
+        int k = 0;
+        Iterator<EdgeType> eit = graph.lightEdgeIterator();
+        while (eit.hasNext()) {
+            EdgeType e = eit.next();
+            edges[k] = e;
+            src[k] = e.source.getId();
+            trg[k] = e.target.getId();
+            order[k] = ((long) e.getWeight() << 32) | k;
+            k++;
         }
-
-        ArrayList<EdgeType> edges = new ArrayList<EdgeType>(graph.getEdgesCount());
-
-        Iterator<EdgeType> eit = graph.edgeIterator();
-        while (eit.hasNext())
-            edges.add(eit.next());
-
-        java.util.Collections.sort(edges, new Comparator<EdgeType>() {
-            public int compare(EdgeType o1, EdgeType o2) {
-                if (o1.getWeight() < o2.getWeight())
-                    return -1;
-                else if (o1.getWeight() == o2.getWeight())
-                    return 0;
-                return 1;
-            }
-        });
-
-        for (EdgeType e : edges)
-            System.out.print(e.getWeight() + " ");
-        System.out.println();
-
-        for (EdgeType e : edges) {
-            int set1 = findSet(sets, e.source);
-            int set2 = findSet(sets, e.target);
-
-            if (set1 != set2) {
-                outputEdges.add(e);
-                e.source.setMark(true);
-                e.setMark(true);
-                e.target.setMark(true);
-                sets.get(set1).addAll(sets.get(set2));
-                sets.remove(set2);
-                //EventUtils.algorithmStep(this,600);
+        Arrays.parallelSort(order, 0, k);
+
+        ArrayList<EdgeType> outputEdges = new ArrayList<EdgeType>(Math.max(n - 1, 0));
+        UnionFind sets = new UnionFind(n);
+        for (int i = 0; i < k && sets.count() > 1; i++) {
+            int e = (int) order[i];
+            if (sets.union(src[e], trg[e])) {
+                EdgeType edge = (EdgeType) edges[e];
+                outputEdges.add(edge);
+                if (animated) {
+                    edge.source.setMark(true);
+                    edge.setMark(true);
+                    edge.target.setMark(true);
+                    step("add edge: ", edge.source.getId(), " - ", edge.target.getId(),
+                            ", weight: ", edge.getWeight());
+                }
             }
         }
-
         return outputEdges;
     }
 
-    private static <VertexType extends BaseVertex>
-    int findSet(ArrayList<ArrayList<VertexType>> aav, VertexType v) {
-        int i = -1;
-        for (ArrayList<VertexType> set : aav) {
-            ++i;
-            if (set.contains(v))
-                return i;
-        }
-
-        throw new RuntimeException("Element is not present in any subset.");
-    }
-
     public void doAlgorithm() {
         BaseGraphRequest gr = new BaseGraphRequest();
         dispatchEvent(gr);
         BaseGraph<BaseVertex, BaseEdge<BaseVertex>> graph = gr.getGraph();
 
-        Kruskal.findMinimumSpanningTree(graph);
+        computeMinimumSpanningTree(graph);
     }
 
 
 }
-
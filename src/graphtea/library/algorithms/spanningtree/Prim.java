@@ -10,7 +10,6 @@ import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
 import graphtea.library.algorithms.Algorithm;
 import graphtea.library.algorithms.AutomatedAlgorithm;
-import graphtea.library.algorithms.util.EventUtils;
 import graphtea.library.event.MessageEvent;
 import graphtea.library.event.typedef.BaseGraphRequest;
 import graphtea.library.event.typedef.BaseVertexRequest;
@@ -18,6 +17,7 @@ import graphtea.library.exceptions.InvalidGraphException;
 import graphtea.library.exceptions.InvalidVertexException;
 import graphtea.library.genericcloners.BaseEdgeVertexCopier;
 import graphtea.library.genericcloners.EdgeVertexCopier;
+import graphtea.library.util.IndexedMinHeap;
 import graphtea.library.util.Pair;
 
 import java.util.*;
@@ -25,8 +25,11 @@ import java.util.*;
 
 /**
  * Implementation of Prim algorithm to find minimum spanning tree.
- * The output of this method is a new independent graph representing
- * the spanning tree.
+ * <p/>
+ * The vertices out of the tree are kept in an indexed heap keyed by the weight of their
+ * cheapest edge to the tree, so it runs in O(E log V). With a custom comparator the edges are
+ * sorted once and their ranks are used as keys. Marks and algorithm steps are only produced
+ * when an event dispatcher is attached (animation).
  *
  * @author Omid Aladini
  */
@@ -43,12 +46,6 @@ public class Prim<VertexType extends BaseVertex,
      * copied to the newly created spanning tree.
      */
     private EdgeVertexCopier<VertexType, EdgeType> gc;
-    /**
-     * Priority queue implemented as a binary heap to store edges, sorted according
-     * to their weights.
-     */
-    private PriorityQueue<EdgeType> pq;
-
     /**
      * Compares two edges of type EdgeType.
      *
@@ -89,12 +86,12 @@ public class Prim<VertexType extends BaseVertex,
     }
 
     /**
-     * Finds minimum spanning tree starting at vertex v. Note that if
-     * your graph is not connected, the algorithm falls in an infinite loop
-     * it's the caller's task to check connectivity.
+     * Finds minimum spanning tree starting at vertex v, using the given comparator
+     * to compare the edges. If the graph is not connected the tree spans the
+     * component of v.
      *
      * @param v Start vertex of Prim algorithm.
-     * @return The spanning tree graph.
+     * @return The vertices in the order they are added to the tree and the edges of the tree.
      * @throws InvalidGraphException if the supplied vertex is invalid.
      */
     public Pair<Vector<VertexType>, Vector<EdgeType>>
@@ -108,90 +105,80 @@ public class Prim<VertexType extends BaseVertex,
     }
 
     /**
-     * Finds minimum spanning tree starting at vertex v. Note that if
-     * your graph is not connected, the algorithm falls in an infinite loop
-     * it's the caller's task to check connectivity. Default comparator
+     * Finds minimum spanning tree starting at vertex v. If the graph is not
+     * connected the tree spans the component of v. In directed graphs the
+     * tree is grown along the direction of edges. Default comparator
      * which compares weight parameter of the graph is used.
      *
      * @param v Start vertex of Prim algorithm.
-     * @return The spanning tree graph.
+     * @return The vertices in the order they are added to the tree and the edges of the tree.
      * @throws InvalidGraphException if the supplied vertex is invalid.
      */
+    @SuppressWarnings("unchecked")
     public Pair<Vector<VertexType>, Vector<EdgeType>>
     findMinimumSpanningTree(VertexType v)
             throws InvalidGraphException, InvalidVertexException {
         graph.checkVertex(v);
-        BaseGraph<VertexType, EdgeType> gCopy = graph.copy(gc);
-        gCopy = graph;
+        boolean animated = isStepping();
+        int n = graph.getVerticesCount();
+        BaseVertex[] vertices = graph.getVertexArray();
+        IdentityHashMap<EdgeType, Integer> ranks = ec instanceof Prim.DefaultEdgeComparator ? null : rankEdges();
 
         Vector<VertexType> oVertices = new Vector<VertexType>();
         Vector<EdgeType> oEdges = new Vector<EdgeType>();
 
-        //dispatchEvent(new GraphEvent<VertexType,EdgeType>(oGraph));
-
-        pq = new PriorityQueue<EdgeType>(1, ec);
-
-        {    //lovely block
-            Iterator<EdgeType> edgeList = gCopy.edgeIterator();
-
-            while (edgeList.hasNext())
-                pq.add(edgeList.next());
-        }
-
-        for (VertexType searchV : gCopy)
-            if (searchV.getId() == v.getId()) {
-                oVertices.add(searchV);
-                searchV.setMark(true);
-                //dispatchEvent(new VertexEvent<VertexType, EdgeType>(graph, searchV, VertexEvent.EventType.MARK));
+        //the cheapest edge from the tree to each vertex
+        BaseEdge[] best = new BaseEdge[n];
+        boolean[] inTree = new boolean[n];
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        heap.offer(v.getId(), 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            inTree[u] = true;
+            VertexType vu = (VertexType) vertices[u];
+            EdgeType edge = (EdgeType) best[u];
+            oVertices.add(vu);
+            if (edge != null)
+                oEdges.add(edge);
+            if (animated) {
+                vu.setMark(true);
+                if (edge != null) {
+                    edge.setMark(true);
+                    step("add edge: ", edge.source.getId(), " - ", edge.target.getId(),
+                            ", weight: ", edge.getWeight());
+                }
             }
 
-        while (true) {
-            Pair<EdgeType, VertexType> pev = getNewEdgeForSpanningTree(oVertices, oEdges);
-            //Pair<EdgeType,VertexType> pev = getNewEdgeForSpanningTree(oGraph);
-
-            if (pev == null) {
-                break;
-            } else {
-                pev.second.setMark(true);
-                //dispatchEvent(new VertexEvent<VertexType, EdgeType>(graph, pev.second, VertexEvent.EventType.MARK));
-                oVertices.add(pev.second);
-                oEdges.add(pev.first);
-                //dispatchEvent(new EdgeEvent<VertexType, EdgeType>(graph, pev.first, EdgeEvent.EventType.MARK));
-                pev.first.setMark(true);
-                EventUtils.algorithmStep(this, "");
+            Iterator<EdgeType> iet = graph.lightEdgeIterator(vu);
+            while (iet.hasNext()) {
+                EdgeType e = iet.next();
+                int w = (e.source == vu ? e.target : e.source).getId();
+                if (inTree[w])
+                    continue;
+                long key = ranks == null ? e.getWeight() : ranks.get(e);
+                if (!heap.contains(w) || key < heap.getKey(w)) {
+                    heap.offer(w, key);
+                    best[w] = e;
+                }
             }
         }
 
         return new Pair<Vector<VertexType>, Vector<EdgeType>>(oVertices, oEdges);
     }
 
-
-    private Pair<EdgeType, VertexType>
-    getNewEdgeForSpanningTree(Vector<VertexType> vertices, Vector<EdgeType> edges) {
-        ArrayList<EdgeType> tempEdgeArray = new ArrayList<EdgeType>();
-
-        try {
-            while (true) {
-                EdgeType edge = pq.poll();
-                if (edge == null)
-                    return null;
-
-                if (!vertices.contains(edge.target) &&
-                        vertices.contains(edge.source))
-                    return new Pair<EdgeType, VertexType>(edge, edge.target);
-
-                if (!graph.isDirected() &&
-                        vertices.contains(edge.target) &&
-                        !vertices.contains(edge.source))
-                    return new Pair<EdgeType, VertexType>(edge, edge.source);
-
-                tempEdgeArray.add(edge);
-
-            }
-        } finally {
-            for (EdgeType e : tempEdgeArray)
-                pq.add(e);
-        }
+    /**
+     * @return the position of each edge in the order of the comparator
+     */
+    private IdentityHashMap<EdgeType, Integer> rankEdges() {
+        ArrayList<EdgeType> edges = new ArrayList<EdgeType>(graph.getEdgesCount());
+        Iterator<EdgeType> iet = graph.lightEdgeIterator();
+        while (iet.hasNext())
+            edges.add(iet.next());
+        Collections.sort(edges, ec);
+        IdentityHashMap<EdgeType, Integer> ranks = new IdentityHashMap<EdgeType, Integer>(edges.size());
+        for (int i = 0; i < edges.size(); i++)
+            ranks.put(edges.get(i), i);
+        return ranks;
     }
 
     public void doAlgorithm() {
@@ -0,0 +1,400 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.subgraphs;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+import graphtea.library.exceptions.InvalidVertexException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the maximum cliques of a graph, or the maximum independent sets, which are the maximum
+ * cliques of its complement.
+ * <p/>
+ * The search is of the underlying simple undirected graph: directions are ignored, parallel
+ * edges are counted once and loops are ignored. The vertices are ordered by decreasing degree and
+ * the adjacency (or the complement of it) is kept as one bitset per vertex in that order.
+ * <ul>
+ * <li>The search is a branch and bound in the style of MCQ/MCS of Tomita et al. with the bitset
+ * encoding of BBMC: at each node the candidate vertices are colored greedily, one color class at
+ * a time, and the number of colors bounds the size of a clique among them. The candidates are
+ * branched on in the reverse order of their colors, and a branch is cut as soon as its color
+ * can not make a clique larger than the best one found.</li>
+ * <li>The branches of the root are independent tasks on a ForkJoinPool, which share the size of
+ * the best clique found; work stealing balances them.</li>
+ * </ul>
+ * The search can be cancelled from another thread, or by interrupting the thread which called
+ * solve() (also when the search runs on the pool), then the best cliques
+ * found so far are kept and <code>isExact()</code> is false. The adjacency takes n^2/8 bytes.
+ * <p/>
+ * Usage: <code>int alpha = new MaximumClique(graph, true).solve();</code>
+ *
+ * @see graphtea.extensions.reports.MaxIndependentSetReport
+ */
+public class MaximumClique {
+    //smaller graphs are searched on the calling thread
+    static final int PARALLEL_THRESHOLD = 64;
+    //nodes between two checks of the interrupt flag
+    static final int CHECK_INTERVAL = 4096;
+
+    private final ForkJoinPool pool;
+    private final int n, words;
+    //the vertex id of each position of the order
+    private final int[] order;
+    //adjacency by position, bits[i] has the neighbors of order[i] (of the complement if searching independent sets)
+    private final long[][] bits;
+
+    private boolean allMaximum = false;
+    private int maxResults = 1000;
+
+    private volatile int best;
+    private final ArrayList<int[]> results = new ArrayList<int[]>();
+    private final AtomicLong nodes = new AtomicLong();
+    private volatile boolean cancelled;
+    //the thread which called solve(), the search stops when it is interrupted
+    private volatile Thread caller;
+
+    public <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    MaximumClique(BaseGraph<VertexType, EdgeType> graph, boolean independentSets) {
+        this(graph, independentSets, null);
+    }
+
+    /**
+     * @param independentSets if true the maximum independent sets are searched instead of cliques
+     * @param pool            the pool which the search is split on, null means the common pool
+     */
+    public <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    MaximumClique(BaseGraph<VertexType, EdgeType> graph, boolean independentSets, ForkJoinPool pool) {
+        this.pool = pool;
+        n = graph.getVerticesCount();
+        words = (n + 63) >> 6;
+        long[][] idBits = new long[n][words];
+        Iterator<EdgeType> it = graph.lightEdgeIterator();
+        while (it.hasNext()) {
+            EdgeType e = it.next();
+            int s = e.source.getId(), t = e.target.getId();
+            if (s != t) {
+                idBits[s][t >> 6] |= 1L << t;
+                idBits[t][s >> 6] |= 1L << s;
+            }
+        }
+        if (independentSets)
+            for (int v = 0; v < n; v++) {
+                long[] row = idBits[v];
+                for (int i = 0; i < words; i++)
+                    row[i] = ~row[i];
+                row[v >> 6] &= ~(1L << v);
+                if ((n & 63) != 0)
+                    row[words - 1] &= (1L << n) - 1;
+            }
+
+        //order by decreasing degree (counting sort, ties by id)
+        int[] deg = new int[n];
+        for (int v = 0; v < n; v++)
+            for (long w : idBits[v])
+                deg[v] += Long.bitCount(w);
+        int[] bucket = new int[n + 1];
+        for (int d : deg)
+            bucket[n - 1 - d + 1]++;
+        for (int d = 0; d < n; d++)
+            bucket[d + 1] += bucket[d];
+        order = new int[n];
+        int[] pos = new int[n];
+        for (int v = 0; v < n; v++) {
+            int p = bucket[n - 1 - deg[v]]++;
+            order[p] = v;
+            pos[v] = p;
+        }
+        bits = new long[n][words];
+        for (int p = 0; p < n; p++) {
+            long[] row = idBits[order[p]];
+            for (int i = 0; i < words; i++)
+                for (long w = row[i]; w != 0; w &= w - 1) {
+                    int q = pos[(i << 6) + Long.numberOfTrailingZeros(w)];
+                    bits[p][q >> 6] |= 1L << q;
+                }
+            idBits[order[p]] = null;
+        }
+    }
+
+    /**
+     * @param all        if true all of the maximum cliques are listed, otherwise one of them
+     * @param maxResults the maximum number of cliques to list
+     */
+    public void setAllMaximum(boolean all, int maxResults) {
+        this.allMaximum = all;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Searches the maximum cliques.
+     *
+     * @return the size of a maximum clique, or of the largest one found if the search is cancelled
+     */
+    public int solve() {
+        long[] p = new long[words];
+        for (int v = 0; v < n; v++)
+            p[v >> 6] |= 1L << v;
+        return search(new int[0], p);
+    }
+
+    /**
+     * Searches the maximum cliques which contain the given vertex.
+     *
+     * @return the size of a maximum clique containing the vertex
+     */
+    public int solveContaining(int vertexId) throws InvalidVertexException {
+        if (vertexId < 0 || vertexId >= n)
+            throw new InvalidVertexException();
+        int v = 0;
+        while (order[v] != vertexId)
+            v++;
+        return search(new int[]{v}, bits[v].clone());
+    }
+
+    private int search(int[] start, long[] p) {
+        cancelled = false;
+        caller = Thread.currentThread();
+        nodes.set(0);
+        results.clear();
+        best = 0;
+        if (n == 0)
+            return 0;
+        boolean parallel = n >= PARALLEL_THRESHOLD;
+        Search root = new Search(start, p, parallel);
+        if (parallel)
+            (pool == null ? ForkJoinPool.commonPool() : pool).invoke(root);
+        else
+            root.compute();
+        return best;
+    }
+
+    /**
+     * Stops the search, it can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if the last search was complete
+     */
+    public boolean isExact() {
+        return !cancelled;
+    }
+
+    /**
+     * @return size of the largest clique found so far
+     */
+    public int getMaximum() {
+        return best;
+    }
+
+    /**
+     * @return the largest cliques found, as arrays of vertex ids
+     */
+    public synchronized List<int[]> getCliques() {
+        ArrayList<int[]> ret = new ArrayList<int[]>();
+        for (int[] c : results) {
+            int[] ids = new int[c.length];
+            for (int i = 0; i < c.length; i++)
+                ids[i] = order[c[i]];
+            ret.add(ids);
+        }
+        return ret;
+    }
+
+    /**
+     * @return number of nodes of the search tree visited so far
+     */
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    private synchronized void found(int[] clique, int size) {
+        if (size > best) {
+            best = size;
+            results.clear();
+        } else if (size < best || !allMaximum || results.size() >= maxResults)
+            return;
+        int[] c = new int[size];
+        System.arraycopy(clique, 0, c, 0, size);
+        results.add(c);
+    }
+
+    /**
+     * A subtree of the search, it has the clique so far and the candidates which extend it. The
+     * buffers of the search are allocated when it runs.
+     */
+    private class Search extends RecursiveAction {
+        final int[] start;
+        final long[] startCand;
+        final boolean split;
+        int[] clique;
+        int size;
+        //candidates and coloring buffers by depth
+        long[][] cand;
+        long[] uncolored, colorClass;
+        int[][] colored, colors;
+        long localNodes;
+
+        Search(int[] start, long[] p, boolean split) {
+            this.start = start;
+            this.startCand = p;
+            this.split = split;
+        }
+
+        protected void compute() {
+            clique = new int[n + 1];
+            System.arraycopy(start, 0, clique, 0, start.length);
+            size = start.length;
+            cand = new long[n + 2][];
+            cand[size] = startCand;
+            uncolored = new long[words];
+            colorClass = new long[words];
+            colored = new int[n + 1][];
+            colors = new int[n + 1][];
+            if (isEmpty(startCand))
+                found(clique, size);
+            else
+                expand();
+            nodes.addAndGet(localNodes);
+        }
+
+        private boolean isEmpty(long[] set) {
+            for (long w : set)
+                if (w != 0)
+                    return false;
+            return true;
+        }
+
+        /**
+         * Colors the candidates greedily, by color classes in the order, the candidates whose
+         * color is too small to improve the best clique are not listed.
+         *
+         * @return number of listed candidates
+         */
+        private int color(long[] p, int[] vs, int[] cs, int kmin) {
+            System.arraycopy(p, 0, uncolored, 0, words);
+            int count = 0, k = 1;
+            int left = 0;
+            for (long w : p)
+                left += Long.bitCount(w);
+            while (left > 0) {
+                System.arraycopy(uncolored, 0, colorClass, 0, words);
+                for (int i = 0; i < words; i++)
+                    while (colorClass[i] != 0) {
+                        int v = (i << 6) + Long.numberOfTrailingZeros(colorClass[i]);
+                        colorClass[i] &= colorClass[i] - 1;
+                        uncolored[i] &= ~(1L << v);
+                        long[] bv = bits[v];
+                        for (int j = i; j < words; j++)
+                            colorClass[j] &= ~bv[j];
+                        left--;
+                        if (k >= kmin) {
+                            vs[count] = v;
+                            cs[count++] = k;
+                        }
+                    }
+                k++;
+            }
+            return count;
+        }
+
+        private void expand() {
+            if (cancelled)
+                return;
+            if (++localNodes % CHECK_INTERVAL == 0) {
+                nodes.addAndGet(localNodes);
+                localNodes = 0;
+                if (caller.isInterrupted()) {
+                    cancelled = true;
+                    return;
+                }
+            }
+            long[] p = cand[size];
+            if (colored[size] == null) {
+                colored[size] = new int[n];
+                colors[size] = new int[n];
+            }
+            int[] vs = colored[size], cs = colors[size];
+            //a candidate of color k makes cliques of at most size + k vertices
+            int slack = allMaximum ? 0 : 1;
+            int count = color(p, vs, cs, best - size + slack);
+
+            if (split && size == start.length) {
+                ArrayList<Search> tasks = new ArrayList<Search>();
+                for (int i = count - 1; i >= 0; i--) {
+                    int v = vs[i];
+                    p[v >> 6] &= ~(1L << v);
+                    tasks.add(new Branch(clique, size, v, p, size + cs[i]));
+                }
+                invokeAll(tasks);
+                return;
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                if (size + cs[i] < best + slack || cancelled)
+                    return;
+                int v = vs[i];
+                long[] bv = bits[v];
+                long[] np = cand[size + 1];
+                if (np == null)
+                    np = cand[size + 1] = new long[words];
+                boolean empty = true;
+                for (int j = 0; j < words; j++)
+                    if ((np[j] = p[j] & bv[j]) != 0)
+                        empty = false;
+                clique[size++] = v;
+                if (empty)
+                    found(clique, size);
+                else
+                    expand();
+                size--;
+                p[v >> 6] &= ~(1L << v);
+            }
+        }
+    }
+
+    /**
+     * A branch of the root, it is skipped if its color can not improve the best clique by the time
+     * it runs.
+     */
+    private class Branch extends Search {
+        final int bound;
+
+        Branch(int[] clique, int size, int v, long[] p, int bound) {
+            super(append(clique, size, v), and(p, bits[v]), false);
+            this.bound = bound;
+        }
+
+        protected void compute() {
+            if (bound < best + (allMaximum ? 0 : 1) || cancelled)
+                return;
+            super.compute();
+        }
+    }
+
+    private static int[] append(int[] a, int size, int v) {
+        int[] ret = new int[size + 1];
+        System.arraycopy(a, 0, ret, 0, size);
+        ret[size] = v;
+        return ret;
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        long[] ret = new long[a.length];
+        for (int i = 0; i < a.length; i++)
+            ret[i] = a[i] & b[i];
+        return ret;
+    }
+}
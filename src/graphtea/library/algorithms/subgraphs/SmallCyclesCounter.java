@@ -0,0 +1,391 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.subgraphs;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the triangles and quadrangles (cycles of length 3 and 4) of a graph, and computes
+ * the clustering coefficients from them.
+ * <p/>
+ * The counts are of the underlying simple undirected graph: directions are ignored, parallel
+ * edges are counted once and loops are ignored. The vertices are ranked by their degree and the
+ * adjacency of each vertex is kept as a sorted int array of ranks; the neighbors with a higher
+ * rank than the vertex are its forward neighbors.
+ * <ul>
+ * <li>Triangles are listed by the compact forward algorithm: each triangle is found once, from its
+ * lowest ranked vertex v, by marking the forward neighbors of v in a bitset and testing the forward
+ * neighbors of each of them against it. This is O(E^1.5), and much faster on real graphs where the
+ * high degree vertices have few forward neighbors.</li>
+ * <li>Quadrangles are counted from their highest ranked vertex v: the paths v-u-w through lower
+ * ranked vertices u and w are counted for each w, and c such paths to the same w close c(c-1)/2
+ * quadrangles.</li>
+ * </ul>
+ * The vertices are processed in parallel on a ForkJoinPool, each worker takes blocks of vertices
+ * until all are done. Results are computed on the first call and then cached.
+ *
+ * @see graphtea.extensions.reports.basicreports.NumOfTriangles
+ */
+public class SmallCyclesCounter {
+    //number of vertices each worker takes at a time
+    static final int BLOCK = 64;
+    //smaller graphs are counted on the calling thread
+    static final int PARALLEL_THRESHOLD = 4096;
+
+    private final ForkJoinPool pool;
+    private final int n;
+    //the vertex id of each rank
+    private final int[] order;
+    //adjacency in rank space, neighbors of rank r are adj[off[r] .. off[r+1]) in increasing order,
+    //the ones from split[r] on have a higher rank than r
+    private final int[] off, adj, split;
+
+    private long triangles = -1;
+    private long[] vertexTriangles;
+    private long quadrangles = -1;
+
+    public <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    SmallCyclesCounter(BaseGraph<VertexType, EdgeType> graph) {
+        this(graph, null);
+    }
+
+    /**
+     * @param pool the pool which the vertices are processed on, null means the common pool
+     */
+    public <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+    SmallCyclesCounter(BaseGraph<VertexType, EdgeType> graph, ForkJoinPool pool) {
+        this.pool = pool;
+        n = graph.getVerticesCount();
+
+        //symmetric adjacency by vertex id, without loops
+        int[] src = new int[graph.getEdgesCount()], trg = new int[src.length];
+        int m = 0;
+        Iterator<EdgeType> it = graph.lightEdgeIterator();
+        while (it.hasNext()) {
+            EdgeType e = it.next();
+            int s = e.source.getId(), t = e.target.getId();
+            if (s != t) {
+                src[m] = s;
+                trg[m++] = t;
+            }
+        }
+        int[] idOff = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            idOff[src[i] + 1]++;
+            idOff[trg[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++)
+            idOff[i + 1] += idOff[i];
+        int[] pos = Arrays.copyOf(idOff, n);
+        int[] idAdj = new int[2 * m];
+        for (int i = 0; i < m; i++) {
+            idAdj[pos[src[i]]++] = trg[i];
+            idAdj[pos[trg[i]]++] = src[i];
+        }
+        src = trg = null;
+
+        //sort the rows and remove the parallel edges, the rows are compacted in place
+        int[] deg = new int[n];
+        int k = 0;
+        for (int v = 0; v < n; v++) {
+            int start = idOff[v], end = idOff[v + 1];
+            Arrays.sort(idAdj, start, end);
+            idOff[v] = k;
+            for (int p = start; p < end; p++)
+                if (p == start || idAdj[p] != idAdj[p - 1])
+                    idAdj[k++] = idAdj[p];
+            deg[v] = k - idOff[v];
+        }
+        idOff[n] = k;
+
+        //rank by degree (counting sort, ties by id)
+        int maxDeg = 0;
+        for (int d : deg)
+            maxDeg = Math.max(maxDeg, d);
+        int[] bucket = new int[maxDeg + 2];
+        for (int d : deg)
+            bucket[d + 1]++;
+        for (int d = 0; d <= maxDeg; d++)
+            bucket[d + 1] += bucket[d];
+        order = new int[n];
+        int[] rank = new int[n];
+        for (int v = 0; v < n; v++) {
+            int r = bucket[deg[v]]++;
+            order[r] = v;
+            rank[v] = r;
+        }
+
+        //the adjacency in rank space, filling the rows in increasing rank keeps them sorted
+        off = new int[n + 1];
+        for (int r = 0; r < n; r++)
+            off[r + 1] = off[r] + deg[order[r]];
+        adj = new int[k];
+        split = new int[n];
+        pos = Arrays.copyOf(off, n);
+        for (int r = 0; r < n; r++)
+            split[r] = off[r + 1];
+        for (int r2 = 0; r2 < n; r2++) {
+            int v = order[r2];
+            for (int p = idOff[v]; p < idOff[v + 1]; p++) {
+                int r = rank[idAdj[p]];
+                if (r2 > r && split[r] == off[r + 1])
+                    split[r] = pos[r];
+                adj[pos[r]++] = r2;
+            }
+        }
+    }
+
+    /**
+     * @return number of triangles of the graph
+     */
+    public long getTriangles() {
+        countTriangles();
+        return triangles;
+    }
+
+    /**
+     * @return number of triangles which each vertex is in, by vertex id
+     */
+    public long[] getVertexTriangles() {
+        countTriangles();
+        return vertexTriangles.clone();
+    }
+
+    /**
+     * @return number of quadrangles (cycles of length 4) of the graph
+     */
+    public long getQuadrangles() {
+        if (quadrangles < 0)
+            quadrangles = countQuadrangles();
+        return quadrangles;
+    }
+
+    /**
+     * @return the degrees of the vertices in the underlying simple graph, by vertex id
+     */
+    public int[] getDegrees() {
+        int[] ret = new int[n];
+        for (int r = 0; r < n; r++)
+            ret[order[r]] = off[r + 1] - off[r];
+        return ret;
+    }
+
+    /**
+     * The local clustering coefficient of a vertex is the number of edges between its neighbors
+     * divided by the number of pairs of its neighbors, it is 0 for vertices with less than two neighbors.
+     *
+     * @return the local clustering coefficients, by vertex id
+     */
+    public double[] getLocalClusteringCoefficients() {
+        countTriangles();
+        int[] deg = getDegrees();
+        double[] ret = new double[n];
+        for (int v = 0; v < n; v++)
+            if (deg[v] > 1)
+                ret[v] = 2.0 * vertexTriangles[v] / ((double) deg[v] * (deg[v] - 1));
+        return ret;
+    }
+
+    /**
+     * @return the average of the local clustering coefficients of the vertices
+     */
+    public double getAverageClusteringCoefficient() {
+        if (n == 0)
+            return 0;
+        double sum = 0;
+        for (double c : getLocalClusteringCoefficients())
+            sum += c;
+        return sum / n;
+    }
+
+    /**
+     * The global clustering coefficient (transitivity) is 3 * triangles / connected triples, where a
+     * connected triple is a path of length 2. It is 0 if the graph has no connected triple.
+     */
+    public double getGlobalClusteringCoefficient() {
+        double triples = 0;
+        for (int r = 0; r < n; r++) {
+            double d = off[r + 1] - off[r];
+            triples += d * (d - 1) / 2;
+        }
+        return triples == 0 ? 0 : 3 * getTriangles() / triples;
+    }
+
+    private void countTriangles() {
+        if (triangles >= 0)
+            return;
+        final AtomicLongArray perRank = new AtomicLongArray(n);
+        final AtomicLong total = new AtomicLong();
+        run(new WorkerFactory() {
+            Worker create() {
+                return new TriangleWorker(perRank, total);
+            }
+        });
+        long[] vt = new long[n];
+        for (int r = 0; r < n; r++)
+            vt[order[r]] = perRank.get(r);
+        vertexTriangles = vt;
+        triangles = total.get();
+    }
+
+    private long countQuadrangles() {
+        final AtomicLong total = new AtomicLong();
+        run(new WorkerFactory() {
+            Worker create() {
+                return new QuadrangleWorker(total);
+            }
+        });
+        return total.get();
+    }
+
+    /**
+     * The work of one thread, it processes the vertices (by rank) given to it with its own buffers.
+     */
+    private abstract class Worker {
+        abstract void process(int v);
+
+        /**
+         * called once, after the last vertex of the worker
+         */
+        abstract void done();
+    }
+
+    private abstract class WorkerFactory {
+        abstract Worker create();
+    }
+
+    /**
+     * Lists the triangles whose lowest ranked vertex is v, the forward neighbors of v are marked in
+     * a bitset and each forward neighbor of a forward neighbor u which is marked closes a triangle.
+     */
+    private class TriangleWorker extends Worker {
+        final AtomicLongArray perRank;
+        final AtomicLong total;
+        final long[] marks = new long[(n >> 6) + 1];
+        long count = 0;
+
+        TriangleWorker(AtomicLongArray perRank, AtomicLong total) {
+            this.perRank = perRank;
+            this.total = total;
+        }
+
+        void process(int v) {
+            int vEnd = off[v + 1];
+            for (int p = split[v]; p < vEnd; p++)
+                marks[adj[p] >> 6] |= 1L << adj[p];
+            long ofV = 0;
+            for (int p = split[v]; p < vEnd; p++) {
+                int u = adj[p];
+                long ofU = 0;
+                for (int q = split[u], uEnd = off[u + 1]; q < uEnd; q++) {
+                    int w = adj[q];
+                    if ((marks[w >> 6] & (1L << w)) != 0) {
+                        ofU++;
+                        perRank.incrementAndGet(w);
+                    }
+                }
+                if (ofU != 0)
+                    perRank.addAndGet(u, ofU);
+                ofV += ofU;
+            }
+            if (ofV != 0)
+                perRank.addAndGet(v, ofV);
+            count += ofV;
+            for (int p = split[v]; p < vEnd; p++)
+                marks[adj[p] >> 6] = 0;
+        }
+
+        void done() {
+            total.addAndGet(count);
+        }
+    }
+
+    /**
+     * Counts the quadrangles whose highest ranked vertex is v, by counting the paths v-u-w with
+     * lower ranked u and w for each w.
+     */
+    private class QuadrangleWorker extends Worker {
+        final AtomicLong total;
+        //number of paths to each w, and the w's which have one
+        final int[] paths = new int[n];
+        final int[] touched = new int[n];
+        long count = 0;
+
+        QuadrangleWorker(AtomicLong total) {
+            this.total = total;
+        }
+
+        void process(int v) {
+            int t = 0;
+            for (int p = off[v], pEnd = split[v]; p < pEnd; p++) {
+                int u = adj[p];
+                for (int q = off[u], qEnd = off[u + 1]; q < qEnd; q++) {
+                    int w = adj[q];
+                    if (w >= v)
+                        break;
+                    if (paths[w]++ == 0)
+                        touched[t++] = w;
+                }
+            }
+            for (int i = 0; i < t; i++) {
+                long c = paths[touched[i]];
+                count += c * (c - 1) / 2;
+                paths[touched[i]] = 0;
+            }
+        }
+
+        void done() {
+            total.addAndGet(count);
+        }
+    }
+
+    /**
+     * Runs a worker on each thread of the pool, or one worker on the calling thread for small graphs.
+     */
+    private void run(WorkerFactory factory) {
+        ForkJoinPool p = pool == null ? ForkJoinPool.commonPool() : pool;
+        int threads = Math.min(p.getParallelism(), n / BLOCK + 1);
+        if (n < PARALLEL_THRESHOLD || threads < 2) {
+            Worker w = factory.create();
+            for (int v = 0; v < n; v++)
+                w.process(v);
+            w.done();
+            return;
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (int i = 0; i < threads; i++) {
+            final Worker w = factory.create();
+            tasks.add(new RecursiveAction() {
+                protected void compute() {
+                    int start;
+                    while ((start = next.getAndAdd(BLOCK)) < n) {
+                        int end = Math.min(n, start + BLOCK);
+                        for (int v = start; v < end; v++)
+                            w.process(v);
+                    }
+                    w.done();
+                }
+            });
+        }
+        p.invoke(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+}
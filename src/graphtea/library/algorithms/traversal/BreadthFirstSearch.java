@@ -16,14 +16,13 @@ import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
 import graphtea.library.algorithms.Algorithm;
 import graphtea.library.algorithms.AutomatedAlgorithm;
-import graphtea.library.algorithms.util.EventUtils;
 import graphtea.library.event.GraphRequest;
 import graphtea.library.event.PreWorkEvent;
 import graphtea.library.event.VertexRequest;
 import graphtea.library.event.handlers.PreWorkHandler;
 import graphtea.library.exceptions.InvalidVertexException;
 
-import java.util.LinkedList;
+import java.util.Iterator;
 
 /**
  * Description here.!
@@ -42,43 +41,69 @@ public class BreadthFirstSearch<VertexType extends BaseVertex, EdgeType extends
         this.graph = null;
     }
 
+    /**
+     * Runs Breadth First Search (BFS) algorithm on the graph starting from <I>vertex</I>, following
+     * the direction of edges in directed graphs.
+     * <p/>
+     * The visited vertices are kept in arrays of this run, not in the marks of the vertices, so
+     * several searches can run on the same graph at once. Marks and algorithm steps are only
+     * produced when the steps are delivered (isStepping(), i.e. animation).
+     *
+     * @param vertex  Starting vertex of the traversal.
+     * @param handler A reference to a PreWorkHandler that contains implementation
+     *                of pre-work operation that depends on the application of BFS, may be null.
+     * @return Whether the traversal has stopped at the middle by the handler.
+     * @see GraphTraversal
+     */
+    @SuppressWarnings("unchecked")
     public boolean doSearch(VertexType vertex, PreWorkHandler<VertexType> handler)
             throws InvalidVertexException {
-        //int vertexId = vertex.getId();
-
-        for (VertexType v : graph)
-            v.setMark(false);
-
-        vertex.setMark(true);
-        LinkedList<VertexType> queue = new LinkedList<VertexType>();
-        LinkedList<VertexType> roots = new LinkedList<VertexType>();
-        queue.offer(vertex);
-        roots.offer(vertex);
-        try {
-            while (queue.size() != 0) {
-                VertexType index = queue.poll();
-                VertexType root = roots.poll();
-
-                if (handler != null)
-                    if (handler.doPreWork(root, index))
-                        return true;
-
+        graph.checkVertex(vertex);
+        boolean animated = isStepping();
+        int n = graph.getVerticesCount();
+        BaseVertex[] vertices = graph.getVertexArray();
+        if (animated)
+            for (VertexType v : graph)
+                v.setMark(false);
+
+        //the queue, and the vertex each vertex of the queue is visited from
+        int[] queue = new int[n];
+        int[] roots = new int[n];
+        boolean[] visited = new boolean[n];
+        int head = 0, tail = 0;
+        visited[vertex.getId()] = true;
+        queue[tail] = vertex.getId();
+        roots[tail++] = vertex.getId();
+        if (animated)
+            vertex.setMark(true);
+
+        while (head < tail) {
+            VertexType index = (VertexType) vertices[queue[head]];
+            VertexType root = (VertexType) vertices[roots[head++]];
+
+            if (handler != null)
+                if (handler.doPreWork(root, index))
+                    return true;
+
+            if (animated) {
                 dispatchEvent(new PreWorkEvent<VertexType, EdgeType>(root, index, graph));
-                EventUtils.algorithmStep(this, "explore: " + index.getId());
-
+                step("explore: ", index.getId());
+            }
 
-                for (VertexType i : graph) {
-                    if (graph.isEdge(index, i) && !i.getMark()) {
+            Iterator<EdgeType> iet = graph.lightEdgeIterator(index);
+            while (iet.hasNext()) {
+                EdgeType e = iet.next();
+                VertexType i = e.source == index ? e.target : e.source;
+                if (!visited[i.getId()]) {
+                    visited[i.getId()] = true;
+                    if (animated) {
                         i.setMark(true);
-                        EventUtils.algorithmStep(this, "visit: " + i.getId());
-                        queue.offer(i);
-                        roots.offer(index);
+                        step("visit: ", i.getId());
                     }
-
+                    queue[tail] = i.getId();
+                    roots[tail++] = index.getId();
                 }
             }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
         }
         return false;
     }
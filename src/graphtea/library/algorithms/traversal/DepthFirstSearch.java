@@ -16,7 +16,6 @@ import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
 import graphtea.library.algorithms.Algorithm;
 import graphtea.library.algorithms.AutomatedAlgorithm;
-import graphtea.library.algorithms.util.EventUtils;
 import graphtea.library.event.GraphRequest;
 import graphtea.library.event.PostWorkEvent;
 import graphtea.library.event.PreWorkEvent;
@@ -25,6 +24,8 @@ import graphtea.library.event.handlers.PreWorkPostWorkHandler;
 import graphtea.library.exceptions.InvalidGraphException;
 import graphtea.library.exceptions.InvalidVertexException;
 
+import java.util.Iterator;
+
 
 /**
  * @author Omid Aladini
@@ -43,7 +44,7 @@ public class DepthFirstSearch<VertexType extends BaseVertex, EdgeType extends Ba
 
 
     /**
-     * Calling this will not reset the marks.
+     * Runs Depth First Search (DFS) algorithm on the graph starting from vertex <I>vertex</I>.
      *
      * @param vertex  Index of the starting vertex of the traversal.
      * @param handler A reference to a PreWorkPostWorkHandler that contains implementation
@@ -55,59 +56,100 @@ public class DepthFirstSearch<VertexType extends BaseVertex, EdgeType extends Ba
     }
 
     /**
-     * Runs Depth First Search (DFS) algorithm on the graph starting from vertex <I>vertexId</I>.
+     * Runs Depth First Search (DFS) algorithm on the graph starting from vertex <I>vertex</I>,
+     * following the direction of edges in directed graphs.
      * A reference to a PreWorkPostWorkHandler is supplied that contains implementation
      * of pre-work and post-work operations that depends on the application of DFS.
+     * <p/>
+     * The search is not recursive and keeps the visited vertices in arrays of this run, so several
+     * searches can run on the same graph at once. Marks and algorithm steps are only produced when
+     * the steps are delivered (isStepping(), i.e. animation), and marks also when <I>resetMarks</I>
+     * is false.
      *
      * @param vertex     Index of the starting vertex of the traversal.
      * @param handler    A reference to a PreWorkPostWorkHandler that contains implementation
      *                   of pre-work and post-work operations that depends on the application of DFS.
-     * @param resetMarks If the search should reset vertex visit marks.
+     * @param resetMarks If false, the marked vertices are considered visited and the vertices visited
+     *                   by this search get marked, so a search can be continued by another one.
      * @return Whether the traversal has stopped at the middle by the handler.
      */
+    @SuppressWarnings("unchecked")
     public boolean doSearch(VertexType vertex, PreWorkPostWorkHandler<VertexType> handler, boolean resetMarks)
             throws InvalidVertexException, InvalidGraphException {
 
         if (graph == null)
             throw new InvalidGraphException("Graph object is null.");
-
-        if (resetMarks)
+        graph.checkVertex(vertex);
+
+        boolean animated = isStepping();
+        boolean marks = animated || !resetMarks;
+        int n = graph.getVerticesCount();
+        BaseVertex[] vertices = graph.getVertexArray();
+        boolean[] visited = new boolean[n];
+        if (!resetMarks) {
+            for (int i = 0; i < n; i++)
+                visited[i] = vertices[i].getMark();
+        } else if (animated)
             for (VertexType v : graph)
                 v.setMark(false);
 
-        return depthFirstSearchRecursive(vertex, vertex, handler);
-    }
-
-    private boolean depthFirstSearchRecursive(VertexType vertex, VertexType fromVertex, PreWorkPostWorkHandler<VertexType> handler)
-            throws InvalidVertexException {
-        //TODO:Implementing non-recursive version
-        //int vertexId = vertex.getId();
-        vertex.setMark(true);
-        if (handler != null)
-            if (handler.doPreWork(fromVertex, vertex))
-                return true;
-        dispatchEvent(new PreWorkEvent<VertexType, EdgeType>(fromVertex, vertex, graph));
-        EventUtils.algorithmStep(this, "visit: " + vertex.getId());
-        VertexType lastInDepthVertex = vertex;
-
-        for (VertexType i : graph) {
-            if (graph.isEdge(vertex, i)) {
-                if (!i.getMark()) {
-                    lastInDepthVertex = i;
-                    if (depthFirstSearchRecursive(i, vertex, handler))
+        //the path from the start vertex, the edges not yet tried and the last child of each vertex on it
+        int[] stack = new int[n];
+        Iterator<EdgeType>[] edges = new Iterator[n];
+        int[] lastInDepth = new int[n];
+        int top = 0;
+        int from = vertex.getId();
+        int next = vertex.getId();
+        while (true) {
+            if (next >= 0) {
+                //entering next
+                VertexType v = (VertexType) vertices[next];
+                visited[next] = true;
+                if (marks)
+                    v.setMark(true);
+                if (handler != null)
+                    if (handler.doPreWork((VertexType) vertices[from], v))
                         return true;
+                if (animated) {
+                    dispatchEvent(new PreWorkEvent<VertexType, EdgeType>((VertexType) vertices[from], v, graph));
+                    step("visit: ", next);
                 }
+                stack[top] = next;
+                edges[top] = graph.lightEdgeIterator(v);
+                lastInDepth[top++] = next;
             }
-        }
-
-        dispatchEvent(new PostWorkEvent<VertexType, EdgeType>(lastInDepthVertex, vertex, graph));
-        EventUtils.algorithmStep(this, "leave: " + vertex.getId());
 
-        if (handler != null)
-            if (handler.doPostWork(lastInDepthVertex, vertex))
-                return true;
+            int u = stack[top - 1];
+            VertexType vu = (VertexType) vertices[u];
+            Iterator<EdgeType> iet = edges[top - 1];
+            next = -1;
+            while (iet.hasNext()) {
+                EdgeType e = iet.next();
+                int w = (e.source == vu ? e.target : e.source).getId();
+                if (!visited[w]) {
+                    next = w;
+                    break;
+                }
+            }
+            if (next >= 0) {
+                lastInDepth[top - 1] = next;
+                from = u;
+                continue;
+            }
 
-        return false;
+            //leaving u
+            VertexType last = (VertexType) vertices[lastInDepth[top - 1]];
+            edges[--top] = null;
+            if (animated) {
+                dispatchEvent(new PostWorkEvent<VertexType, EdgeType>(last, vu, graph));
+                step("leave: ", u);
+            }
+            if (handler != null)
+                if (handler.doPostWork(last, vu))
+                    return true;
+            if (top == 0)
+                return false;
+        }
     }
 
 
@@ -0,0 +1,342 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.algorithms.traversal;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+import graphtea.library.CSRGraph;
+import graphtea.library.Path;
+import graphtea.library.exceptions.InvalidVertexException;
+
+import java.util.Arrays;
+
+/**
+ * BFS/DFS traversal engine over the adjacency of a graph.
+ * <p/>
+ * The graph is frozen into a CSRGraph once (or used as is if it already is one) and every run
+ * keeps its visited/parent/depth state in its own primitive arrays, which are returned as a
+ * <code>Result</code>. Nothing is written to the graph (no marks), so an engine can be shared and
+ * any number of traversals can run on it at the same time. All runs are O(V+E).
+ * <p/>
+ * BFS accepts several sources and is direction optimizing: a level is expanded top-down (the
+ * frontier scans its out edges) while the frontier is small, and bottom-up (every unvisited vertex
+ * scans its in edges for a parent in the frontier) once the edges of the frontier are more than
+ * 1/ALPHA of the edges of the unvisited vertices. It goes back to top-down when the frontier is
+ * smaller than 1/BETA of the vertices. In directed graphs the direction of edges is considered.
+ * <p/>
+ * Usage: <code>GraphTraversal&lt;Vertex, Edge&gt; t = new GraphTraversal&lt;Vertex, Edge&gt;(graph);
+ * int[] depth = t.bfs(0).getDepths();</code>
+ *
+ * @see BreadthFirstSearch
+ * @see DepthFirstSearch
+ */
+public class GraphTraversal<VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>> {
+    static final int ALPHA = 14;
+    static final int BETA = 24;
+
+    private final CSRGraph<VertexType, EdgeType> graph;
+    private final int n;
+    private final int[] outOffsets, outTargets;
+    private final int[] inOffsets, inSources;
+
+    /**
+     * State of one traversal, by vertex id.
+     */
+    public static class Result {
+        private final int[] parent;
+        private final int[] depth;
+        private final int[] order;
+        private int count;
+
+        Result(int n) {
+            parent = new int[n];
+            depth = new int[n];
+            order = new int[n];
+            Arrays.fill(parent, -1);
+            Arrays.fill(depth, -1);
+        }
+
+        void visit(int v, int p, int d) {
+            parent[v] = p;
+            depth[v] = d;
+            order[count++] = v;
+        }
+
+        public boolean isVisited(int v) {
+            return depth[v] >= 0;
+        }
+
+        /**
+         * @return the parent of v in the traversal tree, -1 for the sources and unvisited vertices
+         */
+        public int getParent(int v) {
+            return parent[v];
+        }
+
+        /**
+         * @return the depth of v in the traversal tree (number of hops from the sources in BFS),
+         *         -1 for unvisited vertices
+         */
+        public int getDepth(int v) {
+            return depth[v];
+        }
+
+        /**
+         * @return number of visited vertices
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return ids of the visited vertices in the order of visiting, only the first getCount() cells
+         *         are used
+         */
+        public int[] getOrder() {
+            return order;
+        }
+
+        public int[] getParents() {
+            return parent;
+        }
+
+        public int[] getDepths() {
+            return depth;
+        }
+    }
+
+    /**
+     * Creates an engine on a snapshot of the graph, later changes of the graph are not seen by it.
+     */
+    @SuppressWarnings("unchecked")
+    public GraphTraversal(BaseGraph<VertexType, EdgeType> graph) {
+        this.graph = graph instanceof CSRGraph ? (CSRGraph<VertexType, EdgeType>) graph
+                : new CSRGraph<VertexType, EdgeType>(graph);
+        n = this.graph.getVerticesCount();
+        outOffsets = this.graph.getOutOffsets();
+        outTargets = this.graph.getOutTargets();
+        inOffsets = this.graph.getInOffsets();
+        inSources = this.graph.getInSources();
+    }
+
+    /**
+     * @return the snapshot of the graph which the traversals run on
+     */
+    public CSRGraph<VertexType, EdgeType> getGraph() {
+        return graph;
+    }
+
+    private void checkId(int v) {
+        if (v < 0 || v >= n)
+            throw new InvalidVertexException();
+    }
+
+    /**
+     * Breadth first search from the given vertex.
+     */
+    public Result bfs(VertexType source) throws InvalidVertexException {
+        graph.checkVertex(source);
+        return bfs(new int[]{source.getId()}, -1, true);
+    }
+
+    /**
+     * Breadth first search from all of the given vertex ids at once, each vertex gets the depth
+     * of its nearest source.
+     */
+    public Result bfs(int... sources) throws InvalidVertexException {
+        return bfs(sources, -1, true);
+    }
+
+    /**
+     * Breadth first search from all of the given vertex ids at once.
+     *
+     * @param sources             ids of the vertices of depth 0.
+     * @param target              id of a vertex to stop at, the search stops after the level which
+     *                            reaches it. -1 traverses everything reachable from the sources.
+     * @param directionOptimizing If false all levels are expanded top-down.
+     * @return The state of the search.
+     * @throws InvalidVertexException if an id is out of range.
+     */
+    public Result bfs(int[] sources, int target, boolean directionOptimizing)
+            throws InvalidVertexException {
+        if (target != -1)
+            checkId(target);
+        Result r = new Result(n);
+        int[] depth = r.depth, order = r.order;
+
+        //out edge slots of the current frontier, and of the vertices which are not visited yet
+        long frontierEdges = 0;
+        long unexploredEdges = outTargets.length;
+        for (int s : sources) {
+            checkId(s);
+            if (depth[s] < 0) {
+                r.visit(s, -1, 0);
+                int deg = outOffsets[s + 1] - outOffsets[s];
+                frontierEdges += deg;
+                unexploredEdges -= deg;
+            }
+        }
+
+        int head = 0, level = 0;
+        boolean bottomUp = false;
+        while (head < r.count && (target == -1 || depth[target] < 0)) {
+            int levelEnd = r.count;
+            if (directionOptimizing) {
+                if (!bottomUp && frontierEdges > unexploredEdges / ALPHA)
+                    bottomUp = true;
+                else if (bottomUp && levelEnd - head < n / BETA)
+                    bottomUp = false;
+            }
+            frontierEdges = 0;
+            if (bottomUp) {
+                for (int v = 0; v < n; v++) {
+                    if (depth[v] >= 0)
+                        continue;
+                    for (int p = inOffsets[v], end = inOffsets[v + 1]; p < end; p++) {
+                        int u = inSources[p];
+                        if (depth[u] == level) {
+                            r.visit(v, u, level + 1);
+                            int deg = outOffsets[v + 1] - outOffsets[v];
+                            frontierEdges += deg;
+                            unexploredEdges -= deg;
+                            break;
+                        }
+                    }
+                }
+            } else {
+                for (int i = head; i < levelEnd; i++) {
+                    int u = order[i];
+                    for (int p = outOffsets[u], end = outOffsets[u + 1]; p < end; p++) {
+                        int v = outTargets[p];
+                        if (depth[v] < 0) {
+                            r.visit(v, u, level + 1);
+                            int deg = outOffsets[v + 1] - outOffsets[v];
+                            frontierEdges += deg;
+                            unexploredEdges -= deg;
+                        }
+                    }
+                }
+            }
+            head = levelEnd;
+            level++;
+        }
+        return r;
+    }
+
+    /**
+     * @return the number of edges on a shortest path from source to target, or -1 if target is
+     *         not reachable.
+     */
+    public int hopDistance(VertexType source, VertexType target) throws InvalidVertexException {
+        graph.checkVertex(source);
+        graph.checkVertex(target);
+        return bfs(new int[]{source.getId()}, target.getId(), true).getDepth(target.getId());
+    }
+
+    /**
+     * @return a path from source to target with the minimum number of edges, or null if target is
+     *         not reachable.
+     */
+    public Path<VertexType> shortestHopPath(VertexType source, VertexType target)
+            throws InvalidVertexException {
+        graph.checkVertex(source);
+        graph.checkVertex(target);
+        Result r = bfs(new int[]{source.getId()}, target.getId(), true);
+        if (!r.isVisited(target.getId()))
+            return null;
+        Path<VertexType> path = new Path<VertexType>();
+        for (int v = target.getId(); v >= 0; v = r.parent[v])
+            path.insert(graph.getVertex(v), 0);
+        return path;
+    }
+
+    /**
+     * Depth first search from the given vertex id, without recursion. The order of the result is
+     * the pre-order of the search, and neighbors are visited in increasing order of their ids.
+     */
+    public Result dfs(int source) throws InvalidVertexException {
+        checkId(source);
+        Result r = new Result(n);
+        int[] depth = r.depth;
+        //the stack of the search and the next out edge slot of each vertex on it
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int top = 0;
+        r.visit(source, -1, 0);
+        stack[top++] = source;
+        next[source] = outOffsets[source];
+        while (top > 0) {
+            int u = stack[top - 1];
+            int end = outOffsets[u + 1];
+            int p = next[u];
+            while (p < end && depth[outTargets[p]] >= 0)
+                p++;
+            if (p == end) {
+                next[u] = p;
+                top--;
+                continue;
+            }
+            int v = outTargets[p];
+            next[u] = p + 1;
+            r.visit(v, u, depth[u] + 1);
+            next[v] = outOffsets[v];
+            stack[top++] = v;
+        }
+        return r;
+    }
+
+    /**
+     * Labels the (weakly, if the graph is directed) connected components of the graph.
+     *
+     * @return the component of each vertex by its id, components are numbered from 0 in the order
+     *         of their smallest vertex id.
+     */
+    public int[] components() {
+        int[] comp = new int[n];
+        Arrays.fill(comp, -1);
+        int[] queue = new int[n];
+        boolean directed = graph.isDirected();
+        int c = 0;
+        for (int s = 0; s < n; s++) {
+            if (comp[s] >= 0)
+                continue;
+            int head = 0, tail = 0;
+            comp[s] = c;
+            queue[tail++] = s;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int p = outOffsets[u], end = outOffsets[u + 1]; p < end; p++) {
+                    int v = outTargets[p];
+                    if (comp[v] < 0) {
+                        comp[v] = c;
+                        queue[tail++] = v;
+                    }
+                }
+                if (directed)
+                    for (int p = inOffsets[u], end = inOffsets[u + 1]; p < end; p++) {
+                        int v = inSources[p];
+                        if (comp[v] < 0) {
+                            comp[v] = c;
+                            queue[tail++] = v;
+                        }
+                    }
+            }
+            c++;
+        }
+        return comp;
+    }
+
+    /**
+     * @return number of (weakly, if the graph is directed) connected components of the graph
+     */
+    public int componentsCount() {
+        int max = -1;
+        for (int c : components())
+            max = Math.max(max, c);
+        return max + 1;
+    }
+}
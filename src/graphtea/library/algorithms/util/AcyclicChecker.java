@@ -10,9 +10,8 @@ import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
 import graphtea.library.algorithms.Algorithm;
 import graphtea.library.algorithms.AutomatedAlgorithm;
-import graphtea.library.algorithms.traversal.DepthFirstSearch;
+import graphtea.library.algorithms.traversal.GraphTraversal;
 import graphtea.library.event.MessageEvent;
-import graphtea.library.event.handlers.PreWorkPostWorkHandler;
 import graphtea.library.event.typedef.BaseGraphRequest;
 import graphtea.library.exceptions.InvalidGraphException;
 
@@ -41,21 +40,11 @@ public class AcyclicChecker extends Algorithm implements AutomatedAlgorithm {
         if (!graph.isDirected()) {
             int n = graph.getVerticesCount();
             int m = graph.getEdgesCount();
-            int components = 0;
 
             if (m >= n)
                 return false;
 
-            for (VertexType v : graph) {
-                if (v.getMark())
-                    continue;
-
-                ++components;
-
-                new DepthFirstSearch<VertexType, EdgeType>(graph)
-                        .doSearch(v, new AcyclicCheckerHandler<VertexType, EdgeType>(graph), false);
-            }
-
+            int components = new GraphTraversal<VertexType, EdgeType>(graph).componentsCount();
             return (n == m + components);
         } else {
             return true;
@@ -64,31 +53,6 @@ public class AcyclicChecker extends Algorithm implements AutomatedAlgorithm {
         }
     }
 
-    /**
-     * Prework-PostWork Handler for checking whether the graph is acyclic.
-     *
-     * @author Omid Aladini
-     * @param <VertexType> Graph's vertices type.
-     * @param <EdgeType>   Graph's edges type.
-     */
-    private static class AcyclicCheckerHandler<VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
-            implements PreWorkPostWorkHandler<VertexType> {
-        BaseGraph<VertexType, EdgeType> graph;
-
-        public AcyclicCheckerHandler(BaseGraph<VertexType, EdgeType> graph) {
-            this.graph = graph;
-        }
-
-        public boolean doPreWork(VertexType fromVertex, VertexType toVertex) {
-            toVertex.setMark(true);
-            return false;
-        }
-
-        public boolean doPostWork(VertexType returnFrom, VertexType returnTo) {
-            return false;
-        }
-    }
-
     public void doAlgorithm() {
         BaseGraphRequest gr = new BaseGraphRequest();
         dispatchEvent(gr);
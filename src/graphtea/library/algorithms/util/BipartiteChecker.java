@@ -1,6 +1,8 @@
 package graphtea.library.algorithms.util;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
 
 import graphtea.library.BaseEdge;
@@ -66,6 +68,71 @@ public class BipartiteChecker extends Algorithm implements AutomatedAlgorithm {
 		return true;
 	}
 
+	/**
+	 * Finds the two sides of a bipartite graph by BFS over its undirected adjacency, in O(V+E).
+	 * Directions are ignored and a loop makes the graph non-bipartite.
+	 *
+	 * @return the side (0 or 1) of each vertex by its id, or null if the graph is not bipartite
+	 */
+	public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
+	int[] bipartition(BaseGraph<VertexType, EdgeType> graph) {
+		int n = graph.getVerticesCount();
+		int[] src = new int[graph.getEdgesCount()], trg = new int[src.length];
+		int m = 0;
+		Iterator<EdgeType> it = graph.lightEdgeIterator();
+		while (it.hasNext()) {
+			EdgeType e = it.next();
+			src[m] = e.source.getId();
+			trg[m++] = e.target.getId();
+		}
+		int[] off = new int[n + 1];
+		for (int i = 0; i < m; i++) {
+			off[src[i] + 1]++;
+			off[trg[i] + 1]++;
+		}
+		for (int i = 0; i < n; i++)
+			off[i + 1] += off[i];
+		int[] pos = new int[n];
+		System.arraycopy(off, 0, pos, 0, n);
+		int[] adj = new int[2 * m];
+		for (int i = 0; i < m; i++) {
+			adj[pos[src[i]]++] = trg[i];
+			adj[pos[trg[i]]++] = src[i];
+		}
+		return bipartition(n, off, adj);
+	}
+
+	/**
+	 * Finds the two sides of a bipartite graph given by its symmetric adjacency, the neighbors of
+	 * v are adj[off[v] .. off[v+1]).
+	 *
+	 * @return the side (0 or 1) of each vertex, or null if the graph is not bipartite
+	 */
+	public static int[] bipartition(int n, int[] off, int[] adj) {
+		int[] side = new int[n];
+		Arrays.fill(side, -1);
+		int[] queue = new int[n];
+		for (int s = 0; s < n; s++) {
+			if (side[s] >= 0)
+				continue;
+			int head = 0, tail = 0;
+			side[s] = 0;
+			queue[tail++] = s;
+			while (head < tail) {
+				int u = queue[head++];
+				for (int p = off[u]; p < off[u + 1]; p++) {
+					int v = adj[p];
+					if (side[v] < 0) {
+						side[v] = 1 - side[u];
+						queue[tail++] = v;
+					} else if (side[v] == side[u])
+						return null;
+				}
+			}
+		}
+		return side;
+	}
+
 	@Override
 	public void doAlgorithm() {
 		BaseGraphRequest gr = new BaseGraphRequest();
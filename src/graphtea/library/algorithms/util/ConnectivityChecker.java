@@ -8,11 +8,8 @@ package graphtea.library.algorithms.util;
 import graphtea.library.BaseEdge;
 import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
-import graphtea.library.algorithms.traversal.BreadthFirstSearch;
+import graphtea.library.algorithms.traversal.GraphTraversal;
 import graphtea.library.exceptions.InvalidGraphException;
-import graphtea.library.exceptions.InvalidVertexException;
-
-import java.util.Iterator;
 
 /**
  * @author Omid Aladini
@@ -20,7 +17,8 @@ import java.util.Iterator;
 public class ConnectivityChecker {
 
     /**
-     * Checks whether the current graph is a connected graph.
+     * Checks whether the current graph is a connected graph, in directed graphs whether all the
+     * vertices are reachable from the first one. Vertex marks are not used.
      *
      * @return True if graph is connected and false otherwise.
      * @throws InvalidGraphException
@@ -28,22 +26,11 @@ public class ConnectivityChecker {
     public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
     boolean isGraphConnected(BaseGraph<VertexType, EdgeType> graph)
             throws InvalidGraphException {
-        try {
-            Iterator<VertexType> it = graph.iterator();
-            if (!it.hasNext())
-                return true;
-
-            new BreadthFirstSearch<VertexType, EdgeType>(graph).doSearch(it.next(), null);
-
-        } catch (InvalidVertexException e) {
-            throw new InvalidGraphException();
-        }
-
-        for (VertexType v : graph)
-            if (!v.getMark())
-                return false;
+        int n = graph.getVerticesCount();
+        if (n == 0)
+            return true;
 
-        return true;
+        return new GraphTraversal<VertexType, EdgeType>(graph).bfs(0).getCount() == n;
     }
 
 
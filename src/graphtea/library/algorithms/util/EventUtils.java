@@ -17,12 +17,16 @@ public class EventUtils {
      * @param message
      */
     public static void algorithmStep(Algorithm a, String message) {
+        if (!a.isStepping())
+            return;
         AlgorithmStep step = new AlgorithmStep();
         step.setMessage(message);
         a.dispatchEvent(step);
     }
 
     public static void algorithmStep(Algorithm algorithm, String msg, String id) {
+        if (!algorithm.isStepping())
+            return;
         AlgorithmStep step = new AlgorithmStep(msg, id);
         algorithm.dispatchEvent(step);
     }
@@ -11,6 +11,8 @@ package graphtea.library.event;
 
 /**
  * this Event is a algorithm step, (is it a major step) -> play one step (on AnimatorGUI)
+ * <p/>
+ * The message may be given as parts, it is concatenated on the first call to getMessage().
  *
  * @author Omid
  */
@@ -25,21 +27,46 @@ public class AlgorithmStep implements Event {
         this.id = id;
     }
 
+    /**
+     * a step which its message is the concatenation of the parts
+     */
+    public AlgorithmStep(Object... parts) {
+        this();
+        this.parts = parts;
+    }
+
+    /**
+     * a step which its message is the concatenation of message and value
+     */
+    public AlgorithmStep(String message, long value) {
+        this(message, (Object) value);
+    }
+
 
     public String getDescription() {
         return "Asks the handler to make a step. For animation purposes.";
     }
 
     public String getMessage() {
+        if (parts != null) {
+            StringBuilder sb = new StringBuilder();
+            for (Object part : parts)
+                sb.append(part);
+            message = sb.toString();
+            parts = null;
+        }
         return message;
     }
 
     public void setMessage(String message) {
         this.message = message;
+        this.parts = null;
     }
 
     String message;
     String id;
+    //the message before it is built
+    private Object[] parts;
 
 
     public String getID() {
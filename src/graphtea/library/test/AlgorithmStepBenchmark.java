@@ -0,0 +1,147 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.Algorithm;
+import graphtea.library.algorithms.shortestpath.Dijkstra;
+import graphtea.library.algorithms.spanningtree.Prim;
+import graphtea.library.algorithms.traversal.BreadthFirstSearch;
+import graphtea.library.event.Event;
+import graphtea.library.event.EventDispatcher;
+import graphtea.library.genericcloners.BaseEdgeVertexCopier;
+
+import java.util.Random;
+
+/**
+ * Throughput of Dijkstra, BFS and Prim headless, with a dispatcher attached but steps disabled,
+ * and with a dispatcher which reads every step (like the animator, without the delays).
+ * <p/>
+ * Usage: java graphtea.library.test.AlgorithmStepBenchmark [vertices] [edges] [seconds per case]
+ *
+ * @see graphtea.library.algorithms.Algorithm#isStepping()
+ */
+public class AlgorithmStepBenchmark {
+    /**
+     * A dispatcher which only reads the messages of the events, so their cost is measured.
+     */
+    static class ReadingDispatcher implements EventDispatcher {
+        long chars;
+
+        public Event dispatchEvent(Event ae) {
+            String message = ae.getMessage();
+            if (message != null)
+                chars += message.length();
+            return ae;
+        }
+    }
+
+    interface Case {
+        void run(Algorithm a);
+
+        Algorithm create();
+    }
+
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> graph;
+    static BaseVertex[] vertices;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 2;
+
+        Random r = new Random(1);
+        graph = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(false, n);
+        vertices = new BaseVertex[n];
+        for (int i = 0; i < n; i++) {
+            vertices[i] = new BaseVertex();
+            graph.insertVertex(vertices[i]);
+        }
+        for (int i = 0; i < m; i++) {
+            BaseEdge<BaseVertex> e = new BaseEdge<BaseVertex>(vertices[r.nextInt(n)], vertices[r.nextInt(n)]);
+            e.setWeight(1 + r.nextInt(100));
+            graph.insertEdge(e);
+        }
+
+        Case[] cases = {
+                new Case() {
+                    public Algorithm create() {
+                        return new Dijkstra<BaseVertex, BaseEdge<BaseVertex>>();
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    public void run(Algorithm a) {
+                        ((Dijkstra<BaseVertex, BaseEdge<BaseVertex>>) a).computeDistances(graph, vertices[0], null);
+                    }
+
+                    public String toString() {
+                        return "Dijkstra";
+                    }
+                },
+                new Case() {
+                    public Algorithm create() {
+                        return new BreadthFirstSearch<BaseVertex, BaseEdge<BaseVertex>>(graph);
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    public void run(Algorithm a) {
+                        ((BreadthFirstSearch<BaseVertex, BaseEdge<BaseVertex>>) a).doSearch(vertices[0], null);
+                    }
+
+                    public String toString() {
+                        return "BFS";
+                    }
+                },
+                new Case() {
+                    public Algorithm create() {
+                        return new Prim<BaseVertex, BaseEdge<BaseVertex>>(graph, new BaseEdgeVertexCopier());
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    public void run(Algorithm a) {
+                        ((Prim<BaseVertex, BaseEdge<BaseVertex>>) a).findMinimumSpanningTree(vertices[0]);
+                    }
+
+                    public String toString() {
+                        return "Prim";
+                    }
+                }
+        };
+
+        System.out.println("vertices: " + n + ", edges: " + m);
+        for (Case c : cases) {
+            Algorithm headless = c.create();
+            Algorithm disabled = c.create();
+            disabled.acceptEventDispatcher(new ReadingDispatcher());
+            disabled.setStepsEnabled(false);
+            Algorithm animated = c.create();
+            animated.acceptEventDispatcher(new ReadingDispatcher());
+
+            //warm up
+            measure(c, headless, seconds / 2);
+            measure(c, animated, seconds / 2);
+
+            System.out.printf("%-9s headless: %10.1f ops/s, steps disabled: %10.1f ops/s, stepping: %10.1f ops/s%n",
+                    c, measure(c, headless, seconds), measure(c, disabled, seconds), measure(c, animated, seconds));
+        }
+    }
+
+    /**
+     * @return runs per second
+     */
+    static double measure(Case c, Algorithm a, double seconds) {
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        long start = System.nanoTime();
+        int runs = 0;
+        do {
+            c.run(a);
+            runs++;
+        } while (System.nanoTime() < end);
+        return runs / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,39 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+/**
+ * The checks of the tests which compare an algorithm with a reference. A failed check is printed
+ * as "Oh, ..." like in TestListGraph and is counted, and at the end report() prints the number of
+ * failures and exits with status 1 if there is any, so a script running the tests sees the failure.
+ */
+final class Checks {
+    private static int failures = 0;
+
+    private Checks() {
+    }
+
+    static void check(String what, boolean ok) {
+        if (!ok) {
+            System.out.println("Oh, " + what);
+            failures++;
+        }
+    }
+
+    /**
+     * Checks that found is expected, up to rounding errors.
+     */
+    static void checkEquals(String what, double found, double expected) {
+        check(what + ": " + found + " instead of " + expected,
+                Math.abs(found - expected) <= 1e-9 * Math.max(1, Math.abs(expected)));
+    }
+
+    static void report(String name) {
+        System.out.println(name + ": " + failures + " failures");
+        if (failures > 0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,126 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseGraph;
+import graphtea.library.BaseVertex;
+import graphtea.library.CSRGraph;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.shortestpath.Dijkstra;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks Dijkstra against the Bellman-Ford algorithm on random graphs with non negative weights,
+ * on ListGraph and CSRGraph, and checks that it ends on graphs with negative weights, which it
+ * does not support.
+ */
+public class TestDijkstra {
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> randomGraph(Random r, boolean directed, int n, int m,
+                                                                     int minWeight, int maxWeight) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(directed, n);
+        BaseVertex v[] = new BaseVertex[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = new BaseVertex();
+            g.insertVertex(v[i]);
+        }
+        for (int i = 0; i < m; i++) {
+            BaseEdge<BaseVertex> e = new BaseEdge<BaseVertex>(v[r.nextInt(n)], v[r.nextInt(n)]);
+            e.setWeight(minWeight + r.nextInt(maxWeight - minWeight + 1));
+            g.insertEdge(e);
+        }
+        return g;
+    }
+
+    static long[] bellmanFord(BaseGraph<BaseVertex, BaseEdge<BaseVertex>> g, int s) {
+        int n = g.getVerticesCount();
+        long d[] = new long[n];
+        Arrays.fill(d, Dijkstra.INFINITY);
+        d[s] = 0;
+        for (int i = 0; i < n; i++) {
+            Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+            while (it.hasNext()) {
+                BaseEdge<BaseVertex> e = it.next();
+                int u = e.source.getId(), v = e.target.getId();
+                if (d[u] != Dijkstra.INFINITY && d[u] + e.getWeight() < d[v])
+                    d[v] = d[u] + e.getWeight();
+                if (!g.isDirected() && d[v] != Dijkstra.INFINITY && d[v] + e.getWeight() < d[u])
+                    d[u] = d[v] + e.getWeight();
+            }
+        }
+        return d;
+    }
+
+    static void checkPaths(String name, BaseGraph<BaseVertex, BaseEdge<BaseVertex>> g, BaseVertex source) {
+        int n = g.getVerticesCount(), s = source.getId();
+        long expected[] = bellmanFord(g, s);
+        Dijkstra<BaseVertex, BaseEdge<BaseVertex>> dijkstra = new Dijkstra<BaseVertex, BaseEdge<BaseVertex>>();
+        long found[] = dijkstra.computeDistances(g, source, null).clone();
+        int parent[] = dijkstra.getParents();
+        BaseVertex vertices[] = g.getVertexArray();
+        for (int v = 0; v < n; v++) {
+            check(name + ": distance " + found[v] + " of vertex " + v + " instead of " + expected[v], found[v] == expected[v]);
+            if (v == s || found[v] == Dijkstra.INFINITY)
+                continue;
+            //the edge to the parent is on a shortest path
+            BaseEdge<BaseVertex> e = dijkstra.getParentEdge(vertices[v]);
+            int p = parent[v];
+            check(name + ": parent edge of vertex " + v, e != null && p >= 0
+                    && ((e.source.getId() == p && e.target.getId() == v)
+                    || (!g.isDirected() && e.source.getId() == v && e.target.getId() == p))
+                    && found[p] + e.getWeight() == found[v]);
+        }
+        BaseVertex target = vertices[n - 1];
+        long d = dijkstra.computeDistances(g, source, target)[n - 1];
+        check(name + ": distance " + d + " to the target instead of " + expected[n - 1], d == expected[n - 1]);
+    }
+
+    public static void main(String args[]) throws InterruptedException {
+        final Random r = new Random(2);
+        for (int i = 0; i < 2000; i++) {
+            int n = 1 + r.nextInt(15);
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = randomGraph(r, r.nextBoolean(), n, r.nextInt(3 * n + 1), 0, 20);
+            BaseVertex source = g.getVertexArray()[r.nextInt(n)];
+            checkPaths("graph " + i, g, source);
+            checkPaths("csr graph " + i, new CSRGraph<BaseVertex, BaseEdge<BaseVertex>>(g), source);
+        }
+
+        //a negative undirected edge is a negative cycle of length 2, the search used to never end
+        Thread negative = new Thread() {
+            public void run() {
+                ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(false, 3);
+                BaseVertex v[] = new BaseVertex[3];
+                for (int i = 0; i < 3; i++) {
+                    v[i] = new BaseVertex();
+                    g.insertVertex(v[i]);
+                }
+                BaseEdge<BaseVertex> e = new BaseEdge<BaseVertex>(v[0], v[1]);
+                e.setWeight(-1);
+                g.insertEdge(e);
+                g.insertEdge(new BaseEdge<BaseVertex>(v[1], v[2]));
+                new Dijkstra<BaseVertex, BaseEdge<BaseVertex>>().computeDistances(g, v[0], null);
+                for (int i = 0; i < 500; i++) {
+                    int n = 1 + r.nextInt(15);
+                    g = randomGraph(r, r.nextBoolean(), n, r.nextInt(3 * n + 1), -10, 10);
+                    new Dijkstra<BaseVertex, BaseEdge<BaseVertex>>().computeDistances(g, g.getVertexArray()[0], null);
+                    new Dijkstra<BaseVertex, BaseEdge<BaseVertex>>().computeDistances(
+                            new CSRGraph<BaseVertex, BaseEdge<BaseVertex>>(g), g.getVertexArray()[0], null);
+                }
+            }
+        };
+        negative.setDaemon(true);
+        negative.start();
+        negative.join(10000);
+        check("the search does not end on graphs with negative weights", !negative.isAlive());
+        report("Dijkstra");
+    }
+}
@@ -0,0 +1,94 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.coloring.ExactColoring;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks ExactColoring against a brute force search on small random graphs.
+ */
+public class TestExactColoring {
+
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> randomGraph(Random r, int n, double p) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(false, n);
+        BaseVertex v[] = new BaseVertex[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = new BaseVertex();
+            g.insertVertex(v[i]);
+        }
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+                if (r.nextDouble() < p)
+                    g.insertEdge(new BaseEdge<BaseVertex>(v[i], v[j]));
+        return g;
+    }
+
+    static boolean[][] adjacency(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+        int n = g.getVerticesCount();
+        boolean adj[][] = new boolean[n][n];
+        Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+        while (it.hasNext()) {
+            BaseEdge<BaseVertex> e = it.next();
+            adj[e.source.getId()][e.target.getId()] = adj[e.target.getId()][e.source.getId()] = true;
+        }
+        return adj;
+    }
+
+    static boolean colorable(boolean adj[][], int color[], int v, int k) {
+        if (v == color.length)
+            return true;
+        for (int c = 0; c < k; c++) {
+            boolean free = true;
+            for (int u = 0; u < v && free; u++)
+                if (adj[v][u] && color[u] == c)
+                    free = false;
+            if (free) {
+                color[v] = c;
+                if (colorable(adj, color, v + 1, k))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    static int bruteForceChromaticNumber(boolean adj[][]) {
+        int n = adj.length;
+        for (int k = 1; k < n; k++)
+            if (colorable(adj, new int[n], 0, k))
+                return k;
+        return n;
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(15);
+        for (int i = 0; i < 3000; i++) {
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = randomGraph(r, 1 + r.nextInt(10), r.nextDouble());
+            boolean adj[][] = adjacency(g);
+            ExactColoring ec = new ExactColoring(g);
+            int chi = ec.solve();
+            int expected = bruteForceChromaticNumber(adj);
+            int coloring[] = ec.getColoring();
+            boolean proper = true;
+            for (int u = 0; u < adj.length; u++)
+                for (int v = 0; v < adj.length; v++)
+                    if (adj[u][v] && coloring[u] == coloring[v])
+                        proper = false;
+            check("graph " + i + ": chromatic number " + chi + " instead of " + expected
+                    + ", exact: " + ec.isExact() + ", proper coloring: " + proper,
+                    chi == expected && ec.isExact() && proper);
+        }
+        report("ExactColoring");
+    }
+}
@@ -0,0 +1,104 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.shortestpath.Dijkstra;
+import graphtea.library.algorithms.shortestpath.FloydWarshall;
+import graphtea.library.algorithms.shortestpath.Johnson;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks the blocked, parallel FloydWarshall on graphs of several tiles (whose sizes are not
+ * multiples of the tile) against Dijkstra from each vertex for non negative weights, and against
+ * Johnson for negative weights without negative cycles. The double matrices are checked against
+ * the int ones, and a graph with too many vertices for a matrix is refused.
+ */
+public class TestFloydWarshall {
+    /**
+     * @param potential if true the weights are shifted by random vertex potentials, so there are
+     *                  negative weights but no negative cycles (the graph should be directed)
+     */
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> randomGraph(Random r, boolean directed, int n, int m, boolean potential) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(directed, n);
+        BaseVertex v[] = new BaseVertex[n];
+        int h[] = new int[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = new BaseVertex();
+            g.insertVertex(v[i]);
+            h[i] = potential ? r.nextInt(50) : 0;
+        }
+        for (int i = 0; i < m; i++) {
+            int s = r.nextInt(n), t = r.nextInt(n);
+            BaseEdge<BaseVertex> e = new BaseEdge<BaseVertex>(v[s], v[t]);
+            e.setWeight(r.nextInt(100) + h[s] - h[t]);
+            g.insertEdge(e);
+        }
+        return g;
+    }
+
+    static void checkMatrix(String name, int n, int found[], int expected[]) {
+        int wrong = 0;
+        for (int i = 0; i < n * n; i++)
+            if (found[i] != expected[i])
+                wrong++;
+        check(name + ": " + wrong + " wrong distances", wrong == 0);
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(3);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int i = 0; i < 12; i++) {
+            int n = 130 + r.nextInt(201);
+            boolean directed = i % 3 != 0, potential = i % 3 == 2;
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = randomGraph(r, directed, n, r.nextInt(4 * n), potential);
+            String name = "graph " + i + " of " + n + " vertices";
+            int found[] = new FloydWarshall<BaseVertex, BaseEdge<BaseVertex>>(i % 2 == 0 ? pool : null).getDistanceMatrix(g);
+
+            int expected[];
+            if (potential) {
+                expected = new Johnson<BaseVertex, BaseEdge<BaseVertex>, ListGraph<BaseVertex, BaseEdge<BaseVertex>>>()
+                        .getDistanceMatrix(g);
+            } else {
+                expected = new int[n * n];
+                Dijkstra<BaseVertex, BaseEdge<BaseVertex>> dijkstra = new Dijkstra<BaseVertex, BaseEdge<BaseVertex>>();
+                for (BaseVertex s : g.getVertexArray()) {
+                    long d[] = dijkstra.computeDistances(g, s, null);
+                    for (int t = 0; t < n; t++)
+                        expected[s.getId() * n + t] = d[t] == Dijkstra.INFINITY ? FloydWarshall.INFINITY : (int) d[t];
+                }
+            }
+            checkMatrix(name, n, found, expected);
+
+            int edges[] = FloydWarshall.getEdgeMatrix(g);
+            double d[] = new double[n * n];
+            for (int k = 0; k < n * n; k++)
+                d[k] = edges[k] == FloydWarshall.INFINITY ? Double.POSITIVE_INFINITY : edges[k];
+            FloydWarshall.solve(d, n, pool);
+            int rounded[] = new int[n * n];
+            for (int k = 0; k < n * n; k++)
+                rounded[k] = d[k] == Double.POSITIVE_INFINITY ? FloydWarshall.INFINITY : (int) d[k];
+            checkMatrix(name + " (double)", n, rounded, expected);
+        }
+        pool.shutdown();
+
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> large = randomGraph(r, true, FloydWarshall.MAX_VERTICES + 1, 0, false);
+        try {
+            FloydWarshall.getEdgeMatrix(large);
+            check("the matrix of " + large.getVerticesCount() + " vertices is made", false);
+        } catch (IllegalArgumentException e) {
+            //the n*n length would overflow
+        }
+        report("FloydWarshall");
+    }
+}
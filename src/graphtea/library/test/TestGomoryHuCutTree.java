@@ -0,0 +1,123 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.flow.GomoryHuCutTree;
+import graphtea.library.exceptions.InvalidGraphException;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks GomoryHuCutTree: the minimum cut of every pair of vertices is compared with the minimum
+ * over all the cuts of small graphs, and with the Edmonds-Karp flow of TestPushRelabelMaxFlow on
+ * larger ones, which are solved on pools of several threads. Removing an edge of the tree must
+ * split the vertices into the two sides of a minimum cut.
+ */
+public class TestGomoryHuCutTree {
+    static long cutCapacity(long c[][], boolean side[]) {
+        long ret = 0;
+        for (int u = 0; u < c.length; u++)
+            for (int v = 0; v < c.length; v++)
+                if (side[u] && !side[v])
+                    ret += c[u][v];
+        return ret;
+    }
+
+    /**
+     * @return the minimum cut of each pair, over all the subsets of the vertices
+     */
+    static long[][] bruteForceMinCuts(long c[][]) {
+        int n = c.length;
+        long min[][] = new long[n][n];
+        for (long row[] : min)
+            Arrays.fill(row, Long.MAX_VALUE);
+        boolean side[] = new boolean[n];
+        for (int mask = 0; mask < 1 << n; mask++) {
+            for (int v = 0; v < n; v++)
+                side[v] = (mask >> v & 1) != 0;
+            long cut = cutCapacity(c, side);
+            for (int u = 0; u < n; u++)
+                for (int v = 0; v < n; v++)
+                    if (side[u] && !side[v] && cut < min[u][v])
+                        min[u][v] = min[v][u] = cut;
+        }
+        return min;
+    }
+
+    static void checkTree(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, long minCut[][], ForkJoinPool pool) {
+        int n = g.getVerticesCount();
+        long c[][] = TestPushRelabelMaxFlow.capacities(g);
+        GomoryHuCutTree<BaseVertex, BaseEdge<BaseVertex>> tree = new GomoryHuCutTree<BaseVertex, BaseEdge<BaseVertex>>(g);
+        tree.setPool(pool);
+        tree.build();
+        int parent[] = tree.getParents();
+        long weight[] = tree.getWeights();
+        if (n == 0)
+            return;
+        check(name + ": the root has a parent", parent[0] == -1);
+
+        //the subtree of each vertex, the parents must lead to the root without a cycle
+        boolean below[][] = new boolean[n][n];
+        for (int v = 1; v < n; v++) {
+            int x = v;
+            for (int steps = 0; x > 0 && steps < n; steps++) {
+                below[x][v] = true;
+                x = parent[x];
+            }
+            check(name + ": vertex " + v + " does not lead to the root", x == 0);
+        }
+        for (int v = 1; v < n; v++) {
+            check(name + ": weight " + weight[v] + " of the edge of vertex " + v + " instead of " + minCut[v][parent[v]],
+                    weight[v] == minCut[v][parent[v]]);
+            check(name + ": the subtree of vertex " + v + " is not a minimum cut",
+                    cutCapacity(c, below[v]) == weight[v]);
+        }
+        for (int u = 0; u < n; u++)
+            for (int v = u + 1; v < n; v++) {
+                long found = tree.minCutValue(u, v);
+                check(name + ": minimum cut " + found + " between " + u + " and " + v + " instead of " + minCut[u][v],
+                        found == minCut[u][v]);
+            }
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(19);
+        for (int i = 0; i < 500; i++) {
+            int n = r.nextInt(11);
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = TestPushRelabelMaxFlow.randomNetwork(r, false, n, r.nextInt(3 * n + 1));
+            checkTree("graph " + i, g, bruteForceMinCuts(TestPushRelabelMaxFlow.capacities(g)), null);
+        }
+
+        ForkJoinPool pools[] = {new ForkJoinPool(1), new ForkJoinPool(4)};
+        for (int i = 0; i < 6; i++) {
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = TestPushRelabelMaxFlow.randomNetwork(r, false, 60, 200);
+            long c[][] = TestPushRelabelMaxFlow.capacities(g);
+            long minCut[][] = new long[60][60];
+            for (int u = 0; u < 60; u++)
+                for (int v = u + 1; v < 60; v++)
+                    minCut[u][v] = minCut[v][u] = TestPushRelabelMaxFlow.edmondsKarp(c, u, v);
+            checkTree("large graph " + i, g, minCut, pools[i % 2]);
+        }
+        for (ForkJoinPool pool : pools)
+            pool.shutdown();
+
+        try {
+            new GomoryHuCutTree<BaseVertex, BaseEdge<BaseVertex>>(TestPushRelabelMaxFlow.randomNetwork(r, true, 3, 3));
+            check("a directed graph is accepted", false);
+        } catch (InvalidGraphException e) {
+            //expected
+        }
+        report("GomoryHuCutTree");
+    }
+}
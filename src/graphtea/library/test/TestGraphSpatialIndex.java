@@ -0,0 +1,194 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.GraphPoint;
+import graphtea.graph.graph.GraphSpatialIndex;
+import graphtea.graph.graph.Vertex;
+import graphtea.library.util.Pair;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks the queries of GraphSpatialIndex against a scan of all the vertices and edges, while the
+ * graph is changed by random insertions, removals, moves of single vertices and of the whole
+ * layout, bulk insertions and changes of curve control points. The vertices are partly clustered,
+ * so that the quadtree gets deep, and partly far away, so that its root grows.
+ */
+public class TestGraphSpatialIndex {
+    static Random r = new Random(20);
+
+    static GraphPoint randomPoint() {
+        switch (r.nextInt(3)) {
+            case 0:
+                return new GraphPoint(500 + r.nextGaussian(), 500 + r.nextGaussian());
+            case 1:
+                return new GraphPoint(r.nextDouble() * 1000, r.nextDouble() * 1000);
+            default:
+                return new GraphPoint((r.nextDouble() - 0.5) * 1e5, (r.nextDouble() - 0.5) * 1e5);
+        }
+    }
+
+    static Rectangle2D randomRectangle() {
+        GraphPoint p = randomPoint();
+        double w = r.nextBoolean() ? r.nextDouble() * 10 : r.nextDouble() * 2000;
+        return new Rectangle2D.Double(p.x - w / 2, p.y - w / 2, w, w * r.nextDouble());
+    }
+
+    static Vertex randomVertex(GraphModel g) {
+        return g.getVertex(r.nextInt(g.getVerticesCount()));
+    }
+
+    static ArrayList<Edge> edges(GraphModel g) {
+        ArrayList<Edge> ret = new ArrayList<Edge>();
+        Iterator<Edge> it = g.lightEdgeIterator();
+        while (it.hasNext())
+            ret.add(it.next());
+        return ret;
+    }
+
+    static GraphPoint controlPoint(Edge e) {
+        GraphPoint c = e.getCurveControlPoint(), s = e.source.getLocation(), t = e.target.getLocation();
+        if (e.isLoop())
+            return new GraphPoint(s.x + c.x, s.y + c.y);
+        return new GraphPoint((s.x + t.x) / 2 + c.x, (s.y + t.y) / 2 + c.y);
+    }
+
+    /**
+     * @return the box of an edge, which covers its ends, its curve control point and its loop
+     */
+    static Rectangle2D bounds(Edge e) {
+        GraphPoint s = e.source.getLocation(), t = e.target.getLocation(), c = controlPoint(e);
+        Rectangle2D ret = new Rectangle2D.Double(s.x, s.y, 0, 0);
+        ret.add(t.x, t.y);
+        ret.add(c.x, c.y);
+        if (e.isLoop()) {
+            GraphPoint center = e.getLoopCenter();
+            double radius = e.getLoopWidth() / 2;
+            ret.add(center.x - radius, center.y - radius);
+            ret.add(center.x + radius, center.y + radius);
+        }
+        return ret;
+    }
+
+    static <T> Set<T> identitySet(ArrayList<T> list) {
+        Set<T> ret = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+        ret.addAll(list);
+        return ret;
+    }
+
+    static void checkQueries(String name, GraphModel g) {
+        GraphSpatialIndex index = g.getSpatialIndex();
+
+        Rectangle2D rect = randomRectangle();
+        ArrayList<Vertex> vertices = index.getVertices(rect);
+        ArrayList<Vertex> expectedVertices = new ArrayList<Vertex>();
+        for (Vertex v : g) {
+            GraphPoint l = v.getLocation();
+            if (l.x >= rect.getMinX() && l.x <= rect.getMaxX() && l.y >= rect.getMinY() && l.y <= rect.getMaxY())
+                expectedVertices.add(v);
+        }
+        check(name + ": " + vertices.size() + " vertices in the rectangle instead of " + expectedVertices.size(),
+                vertices.size() == expectedVertices.size() && identitySet(vertices).equals(identitySet(expectedVertices)));
+
+        ArrayList<Edge> edges = index.getEdges(rect);
+        ArrayList<Edge> expectedEdges = new ArrayList<Edge>();
+        for (Edge e : edges(g)) {
+            Rectangle2D b = bounds(e);
+            if (b.getMinX() <= rect.getMaxX() && b.getMaxX() >= rect.getMinX()
+                    && b.getMinY() <= rect.getMaxY() && b.getMaxY() >= rect.getMinY())
+                expectedEdges.add(e);
+        }
+        check(name + ": " + edges.size() + " edges in the rectangle instead of " + expectedEdges.size(),
+                edges.size() == expectedEdges.size() && identitySet(edges).equals(identitySet(expectedEdges)));
+
+        GraphPoint p = randomPoint();
+        double maxDistSq = r.nextBoolean() ? 100 : 1e12;
+        Pair<Vertex, Double> nearest = index.nearestVertex(p, maxDistSq);
+        double best = Double.POSITIVE_INFINITY;
+        for (Vertex v : g) {
+            GraphPoint l = v.getLocation();
+            best = Math.min(best, (l.x - p.x) * (l.x - p.x) + (l.y - p.y) * (l.y - p.y));
+        }
+        if (best < maxDistSq)
+            check(name + ": nearest vertex at " + nearest.second + " instead of " + best,
+                    nearest.first != null && nearest.second == best && nearest.first.getLocation().distanceSq(p) == best);
+        else
+            check(name + ": a nearest vertex farther than the limit", nearest.first == null);
+
+        double maxDist = r.nextBoolean() ? 10 : 1e6;
+        Pair<Edge, Double> control = index.nearestCurveControlPoint(p, maxDist);
+        double bestControl = Double.POSITIVE_INFINITY;
+        for (Edge e : edges(g))
+            bestControl = Math.min(bestControl, controlPoint(e).distance(p));
+        if (bestControl < maxDist)
+            check(name + ": nearest control point at " + control.second + " instead of " + bestControl,
+                    control.first != null && Math.abs(control.second - bestControl) < 1e-9
+                            && Math.abs(controlPoint(control.first).distance(p) - bestControl) < 1e-9);
+        else
+            check(name + ": a nearest control point farther than the limit", control.first == null);
+    }
+
+    public static void main(String args[]) {
+        GraphModel g = new GraphModel(false);
+        g.setAllowLoops(true);
+        for (int step = 0; step < 10000; step++) {
+            int n = g.getVerticesCount();
+            ArrayList<Edge> edges = edges(g);
+            int op = r.nextInt(100);
+            if (op < 30 || n < 2) {
+                Vertex v = new Vertex();
+                v.setLocation(randomPoint());
+                g.insertVertex(v);
+            } else if (op < 40) {
+                //GraphModel.removeVertex fails on a loop, which the edge iterator of its vertex returns twice
+                Vertex v = randomVertex(g);
+                ArrayList<Edge> incident = new ArrayList<Edge>();
+                Iterator<Edge> it = g.edgeIterator(v);
+                while (it.hasNext())
+                    incident.add(it.next());
+                for (Edge e : identitySet(incident))
+                    g.removeEdge(e);
+                g.removeVertex(v);
+            } else if (op < 60) {
+                randomVertex(g).setLocation(randomPoint());
+            } else if (op < 61) {
+                //a layout, more than a quarter of the vertices are moved
+                for (Vertex v : g)
+                    v.setLocation(new GraphPoint(v.getLocation().x * 0.9 + 10, v.getLocation().y * 0.9 - 10));
+            } else if (op < 62) {
+                Vertex vs[] = new Vertex[1 + r.nextInt(20)];
+                for (int i = 0; i < vs.length; i++) {
+                    vs[i] = new Vertex();
+                    vs[i].setLocation(randomPoint());
+                }
+                g.insertVertices(vs);
+            } else if (op < 82) {
+                Vertex v = randomVertex(g);
+                g.insertEdge(new Edge(v, r.nextInt(10) == 0 ? v : randomVertex(g)));
+            } else if (op < 88 && !edges.isEmpty()) {
+                g.removeEdge(edges.get(r.nextInt(edges.size())));
+            } else if (!edges.isEmpty()) {
+                edges.get(r.nextInt(edges.size())).setCurveControlPoint(
+                        new GraphPoint(r.nextGaussian() * 100, r.nextGaussian() * 100));
+            }
+            if (step % 4 == 0)
+                checkQueries("step " + step, g);
+        }
+        report("GraphSpatialIndex");
+    }
+}
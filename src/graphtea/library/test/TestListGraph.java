@@ -124,21 +124,23 @@ public class TestListGraph {
 
         System.out.println("-------------DFS TEST-----------");
 
+        SampleTraversalHandler dfsHandler = new SampleTraversalHandler();
         new DepthFirstSearch<BaseVertex, BaseEdge<BaseVertex>>(myListGraph)
-                .doSearch(myListGraph.getAVertex(), new SampleTraversalHandler());
+                .doSearch(myListGraph.getAVertex(), dfsHandler);
 
         for (BaseVertex v : myListGraph)
-            if (!v.getMark())
+            if (!dfsHandler.existanceSet.contains(v.getId()))
                 System.out.println("Oh, one vertex not traversed!");
 
         System.out.println("\n-------------BFS TEST-----------");
 
+        SampleTraversalHandler bfsHandler = new SampleTraversalHandler();
         new BreadthFirstSearch<BaseVertex, BaseEdge<BaseVertex>>(myListGraph)
-                .doSearch(myListGraph.getAVertex(), new SampleTraversalHandler());
+                .doSearch(myListGraph.getAVertex(), bfsHandler);
 
 
         for (BaseVertex v : myListGraph)
-            if (!v.getMark())
+            if (!bfsHandler.existanceSet.contains(v.getId()))
                 System.out.println("Oh, one vertex not traversed!");
 
     }
@@ -0,0 +1,222 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.subgraphs.MaximumClique;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks the maximum cliques and independent sets of MaximumClique against an enumeration of all
+ * the vertex subsets of small random graphs (directed and undirected, with loops and parallel
+ * edges), and on disjoint unions of such graphs which are large enough to be searched in parallel.
+ */
+public class TestMaximumClique {
+    /**
+     * @return the neighbors of each vertex as a bitmask, of the complement if independentSets
+     */
+    static long[] neighbors(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, boolean independentSets) {
+        int n = g.getVerticesCount();
+        long adj[] = new long[n];
+        Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+        while (it.hasNext()) {
+            BaseEdge<BaseVertex> e = it.next();
+            int s = e.source.getId(), t = e.target.getId();
+            if (s != t) {
+                adj[s] |= 1L << t;
+                adj[t] |= 1L << s;
+            }
+        }
+        if (independentSets)
+            for (int v = 0; v < n; v++)
+                adj[v] = ~adj[v] & ~(1L << v) & ((1L << n) - 1);
+        return adj;
+    }
+
+    static boolean isClique(long adj[], int clique[]) {
+        HashSet<Integer> seen = new HashSet<Integer>();
+        for (int v : clique) {
+            if (v < 0 || v >= adj.length || !seen.add(v))
+                return false;
+            for (int w : clique)
+                if (w != v && (adj[v] & 1L << w) == 0)
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * The cliques of a small graph, found by enumerating all the subsets of its vertices.
+     */
+    static class Enumeration {
+        int maximum = 0;
+        int count = 0;
+        //the size of a maximum clique containing each vertex, and the number of such cliques
+        int maximumContaining[], countContaining[];
+
+        Enumeration(long adj[]) {
+            int n = adj.length;
+            maximumContaining = new int[n];
+            countContaining = new int[n];
+            boolean clique[] = new boolean[1 << n];
+            clique[0] = true;
+            for (int mask = 1; mask < 1 << n; mask++) {
+                int v = Integer.numberOfTrailingZeros(mask), rest = mask & ~(1 << v);
+                clique[mask] = clique[rest] && (rest & ~adj[v]) == 0;
+                if (!clique[mask])
+                    continue;
+                int size = Integer.bitCount(mask);
+                if (size > maximum) {
+                    maximum = size;
+                    count = 0;
+                }
+                if (size == maximum)
+                    count++;
+                for (int w = 0; w < n; w++)
+                    if ((mask & 1 << w) != 0) {
+                        if (size > maximumContaining[w]) {
+                            maximumContaining[w] = size;
+                            countContaining[w] = 0;
+                        }
+                        if (size == maximumContaining[w])
+                            countContaining[w]++;
+                    }
+            }
+        }
+    }
+
+    /**
+     * Checks that the cliques are different maximum cliques, which contain the given vertex if it is not -1.
+     */
+    static void checkCliques(String name, long adj[], List<int[]> cliques, int size, int vertex) {
+        HashSet<Long> seen = new HashSet<Long>();
+        for (int clique[] : cliques) {
+            check(name + ": a clique of size " + clique.length + " instead of " + size, clique.length == size);
+            check(name + ": not a clique", isClique(adj, clique));
+            long mask = 0;
+            for (int v : clique)
+                mask |= 1L << v;
+            check(name + ": a clique is listed twice", seen.add(mask));
+            if (vertex >= 0)
+                check(name + ": a clique without vertex " + vertex, (mask & 1L << vertex) != 0);
+        }
+    }
+
+    static void checkGraph(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, boolean independentSets) {
+        int n = g.getVerticesCount();
+        long adj[] = neighbors(g, independentSets);
+        Enumeration e = new Enumeration(adj);
+
+        MaximumClique mc = new MaximumClique(g, independentSets);
+        int found = mc.solve();
+        check(name + ": maximum " + found + " instead of " + e.maximum, found == e.maximum && mc.getMaximum() == found);
+        check(name + ": search not exact", mc.isExact());
+        check(name + ": " + mc.getCliques().size() + " cliques listed instead of one",
+                mc.getCliques().size() == (n == 0 ? 0 : 1));
+        checkCliques(name, adj, mc.getCliques(), e.maximum, -1);
+
+        mc.setAllMaximum(true, Integer.MAX_VALUE);
+        mc.solve();
+        check(name + ": " + mc.getCliques().size() + " maximum cliques instead of " + e.count,
+                mc.getCliques().size() == (n == 0 ? 0 : e.count));
+        checkCliques(name, adj, mc.getCliques(), e.maximum, -1);
+
+        if (n > 0) {
+            int v = n - 1;
+            found = mc.solveContaining(v);
+            check(name + ": maximum " + found + " containing vertex " + v + " instead of " + e.maximumContaining[v],
+                    found == e.maximumContaining[v]);
+            check(name + ": " + mc.getCliques().size() + " maximum cliques containing vertex " + v + " instead of "
+                    + e.countContaining[v], mc.getCliques().size() == e.countContaining[v]);
+            checkCliques(name, adj, mc.getCliques(), e.maximumContaining[v], v);
+        }
+    }
+
+    /**
+     * Checks the search of a disjoint union of small graphs, the maximum clique is the largest of
+     * the maximum cliques of the parts and the maximum independent set is the union of theirs.
+     */
+    static void checkUnion(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> parts[]) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(false, 0);
+        int maxClique = 0, cliques = 0, alpha = 0;
+        for (ListGraph<BaseVertex, BaseEdge<BaseVertex>> part : parts) {
+            BaseVertex v[] = new BaseVertex[part.getVerticesCount()];
+            for (int i = 0; i < v.length; i++) {
+                v[i] = new BaseVertex();
+                g.insertVertex(v[i]);
+            }
+            Iterator<BaseEdge<BaseVertex>> it = part.lightEdgeIterator();
+            while (it.hasNext()) {
+                BaseEdge<BaseVertex> e = it.next();
+                g.insertEdge(new BaseEdge<BaseVertex>(v[e.source.getId()], v[e.target.getId()]));
+            }
+            Enumeration c = new Enumeration(neighbors(part, false));
+            if (c.maximum > maxClique) {
+                maxClique = c.maximum;
+                cliques = 0;
+            }
+            if (c.maximum == maxClique)
+                cliques += c.count;
+            alpha += new Enumeration(neighbors(part, true)).maximum;
+        }
+
+        MaximumClique mc = new MaximumClique(g, false);
+        mc.setAllMaximum(true, Integer.MAX_VALUE);
+        int found = mc.solve();
+        check(name + ": maximum clique " + found + " instead of " + maxClique, found == maxClique);
+        check(name + ": " + mc.getCliques().size() + " maximum cliques instead of " + cliques, mc.getCliques().size() == cliques);
+        for (int clique[] : mc.getCliques())
+            check(name + ": not a clique", clique.length == maxClique && isCliqueOf(g, clique, false));
+
+        mc = new MaximumClique(g, true);
+        found = mc.solve();
+        check(name + ": maximum independent set " + found + " instead of " + alpha, found == alpha);
+        for (int set[] : mc.getCliques())
+            check(name + ": not an independent set", set.length == alpha && isCliqueOf(g, set, true));
+    }
+
+    static boolean isCliqueOf(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, int clique[], boolean independentSets) {
+        boolean adj[][] = TestExactColoring.adjacency(g);
+        HashSet<Integer> seen = new HashSet<Integer>();
+        for (int v : clique) {
+            if (!seen.add(v))
+                return false;
+            for (int w : clique)
+                if (w != v && adj[v][w] == independentSets)
+                    return false;
+        }
+        return true;
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(16);
+        for (int i = 0; i < 2000; i++) {
+            int n = r.nextInt(15);
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = n > 0 && r.nextBoolean()
+                    ? TestPushRelabelMaxFlow.randomNetwork(r, r.nextBoolean(), n, r.nextInt(n * n + 1))
+                    : TestExactColoring.randomGraph(r, n, r.nextDouble());
+            checkGraph("graph " + i, g, false);
+            checkGraph("complement of graph " + i, g, true);
+        }
+        for (int i = 0; i < 20; i++) {
+            @SuppressWarnings("unchecked")
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> parts[] = new ListGraph[5 + r.nextInt(3)];
+            for (int j = 0; j < parts.length; j++)
+                parts[j] = TestExactColoring.randomGraph(r, 13, r.nextDouble());
+            checkUnion("union " + i, parts);
+        }
+        report("MaximumClique");
+    }
+}
@@ -0,0 +1,150 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.matching.MaximumMatching;
+import graphtea.library.algorithms.matching.MaximumWeightMatching;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks MaximumMatching and MaximumWeightMatching (with and without maximum cardinality) against
+ * the best matchings found by enumeration on small random graphs (directed and undirected, with
+ * loops, parallel edges and edges of zero or negative weight) and on small random bipartite graphs.
+ */
+public class TestMaximumMatching {
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> randomBipartiteGraph(Random r, int n, int m) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(false, n);
+        BaseVertex v[] = new BaseVertex[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = new BaseVertex();
+            g.insertVertex(v[i]);
+        }
+        int left = 1 + r.nextInt(n - 1);
+        for (int i = 0; i < m; i++) {
+            BaseEdge<BaseVertex> e = new BaseEdge<BaseVertex>(v[r.nextInt(left)], v[left + r.nextInt(n - left)]);
+            e.setWeight(r.nextInt(20) - 2);
+            g.insertEdge(e);
+        }
+        return g;
+    }
+
+    /**
+     * The best matchings of the vertices of each subset, the lowest vertex of the subset is either
+     * free or matched to another vertex of it by the heaviest edge between them.
+     */
+    static class Enumeration {
+        //maximum cardinality, maximum weight, and maximum weight among the maximum cardinality ones
+        int cardinality[];
+        long weight[], cardinalityWeight[];
+
+        Enumeration(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+            int n = g.getVerticesCount();
+            boolean adjacent[][] = new boolean[n][n];
+            long heaviest[][] = new long[n][n];
+            Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+            while (it.hasNext()) {
+                BaseEdge<BaseVertex> e = it.next();
+                int s = e.source.getId(), t = e.target.getId();
+                if (s == t)
+                    continue;
+                if (!adjacent[s][t] || e.getWeight() > heaviest[s][t]) {
+                    heaviest[s][t] = heaviest[t][s] = e.getWeight();
+                    adjacent[s][t] = adjacent[t][s] = true;
+                }
+            }
+            cardinality = new int[1 << n];
+            weight = new long[1 << n];
+            cardinalityWeight = new long[1 << n];
+            for (int mask = 1; mask < 1 << n; mask++) {
+                int i = Integer.numberOfTrailingZeros(mask), rest = mask & ~(1 << i);
+                cardinality[mask] = cardinality[rest];
+                weight[mask] = weight[rest];
+                cardinalityWeight[mask] = cardinalityWeight[rest];
+                for (int j = i + 1; j < n; j++)
+                    if ((rest & 1 << j) != 0 && adjacent[i][j]) {
+                        int sub = rest & ~(1 << j);
+                        int c = cardinality[sub] + 1;
+                        long w = cardinalityWeight[sub] + heaviest[i][j];
+                        if (c > cardinality[mask] || (c == cardinality[mask] && w > cardinalityWeight[mask])) {
+                            cardinality[mask] = c;
+                            cardinalityWeight[mask] = w;
+                        }
+                        weight[mask] = Math.max(weight[mask], weight[sub] + heaviest[i][j]);
+                    }
+            }
+        }
+    }
+
+    /**
+     * Checks that the edges are a matching of the graph and that mates agrees with them.
+     */
+    static void checkMatching(String name, int n, List<BaseEdge<BaseVertex>> edges, int mates[]) {
+        int matched[] = new int[n];
+        for (BaseEdge<BaseVertex> e : edges) {
+            int s = e.source.getId(), t = e.target.getId();
+            check(name + ": a loop is matched", s != t);
+            matched[s]++;
+            matched[t]++;
+            check(name + ": mates of the edge " + s + "-" + t, mates[s] == t && mates[t] == s);
+        }
+        int covered = 0;
+        for (int v = 0; v < n; v++) {
+            check(name + ": vertex " + v + " is matched " + matched[v] + " times", matched[v] <= 1);
+            if (mates[v] >= 0)
+                covered++;
+        }
+        check(name + ": " + covered + " vertices have mates for " + edges.size() + " edges", covered == 2 * edges.size());
+    }
+
+    static void checkGraph(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, boolean bipartite) {
+        int n = g.getVerticesCount(), all = (1 << n) - 1;
+        Enumeration best = new Enumeration(g);
+
+        MaximumMatching<BaseVertex, BaseEdge<BaseVertex>> mm = new MaximumMatching<BaseVertex, BaseEdge<BaseVertex>>(g);
+        List<BaseEdge<BaseVertex>> edges = mm.getMatchedEdges();
+        checkMatching(name + " cardinality", n, edges, mm.getMates());
+        check(name + ": cardinality " + mm.size() + " instead of " + best.cardinality[all],
+                mm.size() == best.cardinality[all] && edges.size() == mm.size());
+        check(name + ": perfect is " + mm.isPerfect(), mm.isPerfect() == (2 * best.cardinality[all] == n));
+        if (bipartite)
+            check(name + ": not found bipartite", mm.isBipartite());
+
+        MaximumWeightMatching<BaseVertex, BaseEdge<BaseVertex>> mwm = new MaximumWeightMatching<BaseVertex, BaseEdge<BaseVertex>>(g, false);
+        edges = mwm.getMatchedEdges();
+        checkMatching(name + " weighted", n, edges, mwm.getMates());
+        check(name + ": weight " + mwm.getWeight() + " instead of " + best.weight[all], mwm.getWeight() == best.weight[all]);
+
+        mwm = new MaximumWeightMatching<BaseVertex, BaseEdge<BaseVertex>>(g, true);
+        edges = mwm.getMatchedEdges();
+        checkMatching(name + " maximum cardinality weighted", n, edges, mwm.getMates());
+        check(name + ": maximum cardinality weighted matching of " + edges.size() + " edges instead of "
+                + best.cardinality[all], edges.size() == best.cardinality[all]);
+        check(name + ": maximum cardinality weight " + mwm.getWeight() + " instead of " + best.cardinalityWeight[all],
+                mwm.getWeight() == best.cardinalityWeight[all]);
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(17);
+        for (int i = 0; i < 3000; i++) {
+            int n = 1 + r.nextInt(11);
+            checkGraph("graph " + i, TestPushRelabelMaxFlow.randomNetwork(r, r.nextBoolean(), n, r.nextInt(3 * n + 1)), false);
+        }
+        for (int i = 0; i < 1000; i++) {
+            int n = 2 + r.nextInt(10);
+            checkGraph("bipartite graph " + i, randomBipartiteGraph(r, n, r.nextInt(3 * n + 1)), true);
+        }
+        report("MaximumMatching");
+    }
+}
@@ -0,0 +1,176 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.spanningtree.Boruvka;
+import graphtea.library.algorithms.spanningtree.Kruskal;
+import graphtea.library.algorithms.spanningtree.Prim;
+import graphtea.library.util.Pair;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks that Kruskal, Prim (started from each component) and Boruvka find spanning forests of the
+ * same weight on random graphs (with negative weights, loops, parallel edges, and not connected),
+ * and on the small ones that no other edge is lighter than the heaviest edge of the forest path
+ * between its ends, which makes the forest minimum.
+ */
+public class TestMinimumSpanningTree {
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> randomGraph(Random r, boolean directed, int n, int m, int maxWeight) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(directed, n);
+        BaseVertex v[] = new BaseVertex[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = new BaseVertex();
+            g.insertVertex(v[i]);
+        }
+        for (int i = 0; i < m; i++) {
+            BaseEdge<BaseVertex> e = new BaseEdge<BaseVertex>(v[r.nextInt(n)], v[r.nextInt(n)]);
+            e.setWeight(r.nextInt(2 * maxWeight + 1) - maxWeight);
+            g.insertEdge(e);
+        }
+        return g;
+    }
+
+    static int find(int parent[], int v) {
+        while (parent[v] != v)
+            v = parent[v] = parent[parent[v]];
+        return v;
+    }
+
+    /**
+     * @return the number of connected components of the underlying undirected graph
+     */
+    static int components(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+        int n = g.getVerticesCount(), count = n;
+        int parent[] = new int[n];
+        for (int v = 0; v < n; v++)
+            parent[v] = v;
+        Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+        while (it.hasNext()) {
+            BaseEdge<BaseVertex> e = it.next();
+            int a = find(parent, e.source.getId()), b = find(parent, e.target.getId());
+            if (a != b) {
+                parent[a] = b;
+                count--;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks that the edges are a spanning forest of the graph.
+     *
+     * @return the weight of the forest
+     */
+    static long checkForest(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, List<BaseEdge<BaseVertex>> forest) {
+        int n = g.getVerticesCount();
+        int parent[] = new int[n];
+        for (int v = 0; v < n; v++)
+            parent[v] = v;
+        long weight = 0;
+        for (BaseEdge<BaseVertex> e : forest) {
+            int a = find(parent, e.source.getId()), b = find(parent, e.target.getId());
+            check(name + ": the edge " + e.source.getId() + "-" + e.target.getId() + " closes a cycle", a != b);
+            parent[a] = b;
+            weight += e.getWeight();
+        }
+        int expected = n - components(g);
+        check(name + ": " + forest.size() + " edges instead of " + expected, forest.size() == expected);
+        return weight;
+    }
+
+    /**
+     * @return the heaviest edge weight on the forest path from u to v, or null if they are not connected
+     */
+    static Integer heaviestOnPath(List<BaseEdge<BaseVertex>> forest, int u, int v, int from) {
+        if (u == v)
+            return Integer.MIN_VALUE;
+        for (BaseEdge<BaseVertex> e : forest) {
+            int s = e.source.getId(), t = e.target.getId();
+            int next = s == u ? t : t == u ? s : -1;
+            if (next < 0 || next == from)
+                continue;
+            Integer rest = heaviestOnPath(forest, next, v, u);
+            if (rest != null)
+                return Math.max(rest, e.getWeight());
+        }
+        return null;
+    }
+
+    static void checkMinimum(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, List<BaseEdge<BaseVertex>> forest) {
+        Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+        while (it.hasNext()) {
+            BaseEdge<BaseVertex> e = it.next();
+            Integer heaviest = heaviestOnPath(forest, e.source.getId(), e.target.getId(), -1);
+            check(name + ": the ends of the edge " + e.source.getId() + "-" + e.target.getId() + " are not connected",
+                    heaviest != null);
+            if (heaviest != null)
+                check(name + ": the edge " + e.source.getId() + "-" + e.target.getId() + " of weight " + e.getWeight()
+                        + " is lighter than an edge of weight " + heaviest + " on its path", heaviest <= e.getWeight());
+        }
+    }
+
+    /**
+     * @return the union of the trees found by Prim from each vertex which is not in a tree yet
+     */
+    static List<BaseEdge<BaseVertex>> primForest(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+        Prim<BaseVertex, BaseEdge<BaseVertex>> prim = new Prim<BaseVertex, BaseEdge<BaseVertex>>(g, null);
+        ArrayList<BaseEdge<BaseVertex>> ret = new ArrayList<BaseEdge<BaseVertex>>();
+        boolean spanned[] = new boolean[g.getVerticesCount()];
+        for (BaseVertex v : g.getVertexArray())
+            if (!spanned[v.getId()]) {
+                Pair<Vector<BaseVertex>, Vector<BaseEdge<BaseVertex>>> tree = prim.findMinimumSpanningTree(v);
+                for (BaseVertex w : tree.first)
+                    spanned[w.getId()] = true;
+                ret.addAll(tree.second);
+            }
+        return ret;
+    }
+
+    static void checkGraph(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, boolean small) {
+        List<BaseEdge<BaseVertex>> kruskal = Kruskal.findMinimumSpanningTree(g);
+        long weight = checkForest(name + " kruskal", g, kruskal);
+        if (small)
+            checkMinimum(name + " kruskal", g, kruskal);
+
+        List<BaseEdge<BaseVertex>> boruvka = new Boruvka().findMinimumSpanningTree(g);
+        long found = checkForest(name + " boruvka", g, boruvka);
+        check(name + ": boruvka weight " + found + " instead of " + weight, found == weight);
+        if (small)
+            checkMinimum(name + " boruvka", g, boruvka);
+
+        //Prim grows the trees along the directions of the edges
+        if (!g.isDirected()) {
+            List<BaseEdge<BaseVertex>> prim = primForest(g);
+            found = checkForest(name + " prim", g, prim);
+            check(name + ": prim weight " + found + " instead of " + weight, found == weight);
+            if (small)
+                checkMinimum(name + " prim", g, prim);
+        }
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(12);
+        for (int i = 0; i < 2000; i++) {
+            int n = 1 + r.nextInt(15);
+            checkGraph("graph " + i, randomGraph(r, r.nextBoolean(), n, r.nextInt(3 * n + 1), 1 + r.nextInt(20)), true);
+        }
+        //the edges are scanned in several parallel chunks by Boruvka, and the graphs are not connected
+        for (int i = 0; i < 4; i++)
+            checkGraph("large graph " + i, randomGraph(r, i % 2 == 1, 20000, 50000, 1000000), false);
+        report("MinimumSpanningTree");
+    }
+}
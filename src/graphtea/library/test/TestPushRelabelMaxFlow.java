@@ -0,0 +1,151 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.flow.PushRelabelMaxFlow;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import static graphtea.library.test.Checks.check;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks PushRelabelMaxFlow against the Edmonds-Karp algorithm on random networks (directed and
+ * undirected, with loops, parallel edges and edges of zero or negative weight), and checks that the
+ * flow on the edges is a valid flow and that the cut has the capacity of the flow.
+ */
+public class TestPushRelabelMaxFlow {
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> randomNetwork(Random r, boolean directed, int n, int m) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(directed, n);
+        BaseVertex v[] = new BaseVertex[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = new BaseVertex();
+            g.insertVertex(v[i]);
+        }
+        for (int i = 0; i < m; i++) {
+            BaseEdge<BaseVertex> e = new BaseEdge<BaseVertex>(v[r.nextInt(n)], v[r.nextInt(n)]);
+            e.setWeight(r.nextInt(20) - 2);
+            g.insertEdge(e);
+        }
+        return g;
+    }
+
+    /**
+     * @return the capacity matrix of the network, parallel edges are added and loops are ignored
+     */
+    static long[][] capacities(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+        int n = g.getVerticesCount();
+        long c[][] = new long[n][n];
+        Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+        while (it.hasNext()) {
+            BaseEdge<BaseVertex> e = it.next();
+            int s = e.source.getId(), t = e.target.getId();
+            if (s == t)
+                continue;
+            c[s][t] += Math.max(0, e.getWeight());
+            if (!g.isDirected())
+                c[t][s] += Math.max(0, e.getWeight());
+        }
+        return c;
+    }
+
+    static long edmondsKarp(long capacity[][], int s, int t) {
+        int n = capacity.length;
+        long c[][] = new long[n][];
+        for (int i = 0; i < n; i++)
+            c[i] = capacity[i].clone();
+        long flow = 0;
+        int parent[] = new int[n];
+        int queue[] = new int[n];
+        while (true) {
+            Arrays.fill(parent, -1);
+            parent[s] = s;
+            int qh = 0, qt = 0;
+            queue[qt++] = s;
+            while (qh < qt && parent[t] < 0) {
+                int u = queue[qh++];
+                for (int v = 0; v < n; v++)
+                    if (parent[v] < 0 && c[u][v] > 0) {
+                        parent[v] = u;
+                        queue[qt++] = v;
+                    }
+            }
+            if (parent[t] < 0)
+                return flow;
+            long push = Long.MAX_VALUE;
+            for (int v = t; v != s; v = parent[v])
+                push = Math.min(push, c[parent[v]][v]);
+            for (int v = t; v != s; v = parent[v]) {
+                c[parent[v]][v] -= push;
+                c[v][parent[v]] += push;
+            }
+            flow += push;
+        }
+    }
+
+    static void checkFlow(String name, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g, long c[][],
+                          PushRelabelMaxFlow<BaseVertex, BaseEdge<BaseVertex>> pr, int s, int t) {
+        int n = g.getVerticesCount();
+        long expected = edmondsKarp(c, s, t);
+        long found = pr.maxFlow(s, t);
+        check(name + ": flow " + found + " instead of " + expected, found == expected);
+        check(name + ": flow value " + pr.getFlowValue() + " instead of " + found, pr.getFlowValue() == found);
+
+        //capacity constraints and conservation
+        long net[] = new long[n];
+        for (int k = 0; k < pr.getEdgesCount(); k++) {
+            BaseEdge<BaseVertex> e = pr.getEdge(k);
+            long f = pr.getEdgeFlow(k), capacity = Math.max(0, e.getWeight());
+            check(name + ": flow " + f + " on an edge of capacity " + capacity,
+                    f <= capacity && (g.isDirected() ? f >= 0 : f >= -capacity));
+            net[e.source.getId()] -= f;
+            net[e.target.getId()] += f;
+        }
+        for (int v = 0; v < n; v++)
+            check(name + ": net flow " + net[v] + " into vertex " + v,
+                    net[v] == (v == s ? -found : v == t ? found : 0));
+
+        //the cut separates source and sink and its capacity is the flow
+        boolean side[] = pr.getSourceSide();
+        check(name + ": source not on the source side", side[s]);
+        check(name + ": sink on the source side", !side[t]);
+        long cut = 0;
+        for (int u = 0; u < n; u++)
+            for (int v = 0; v < n; v++)
+                if (side[u] && !side[v])
+                    cut += c[u][v];
+        check(name + ": cut " + cut + " instead of " + found, cut == found);
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(18);
+        for (int i = 0; i < 1000; i++) {
+            int n = 2 + r.nextInt(12);
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = randomNetwork(r, r.nextBoolean(), n, r.nextInt(4 * n));
+            long c[][] = capacities(g);
+            PushRelabelMaxFlow<BaseVertex, BaseEdge<BaseVertex>> pr = new PushRelabelMaxFlow<BaseVertex, BaseEdge<BaseVertex>>(g);
+            //several pairs on the same workspace, and one on a copy
+            for (int j = 0; j < 3; j++) {
+                int s = r.nextInt(n), t = (s + 1 + r.nextInt(n - 1)) % n;
+                checkFlow("network " + i + " from " + s + " to " + t, g, c, pr, s, t);
+            }
+            checkFlow("copy of network " + i, g, c, new PushRelabelMaxFlow<BaseVertex, BaseEdge<BaseVertex>>(pr), n - 1, 0);
+        }
+
+        //large enough for the gap and global relabeling heuristics
+        for (int i = 0; i < 10; i++) {
+            ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = randomNetwork(r, i % 2 == 0, 400, 3000);
+            PushRelabelMaxFlow<BaseVertex, BaseEdge<BaseVertex>> pr = new PushRelabelMaxFlow<BaseVertex, BaseEdge<BaseVertex>>(g);
+            checkFlow("large network " + i, g, capacities(g), pr, r.nextInt(200), 200 + r.nextInt(200));
+        }
+        report("PushRelabelMaxFlow");
+    }
+}
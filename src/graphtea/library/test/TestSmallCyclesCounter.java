@@ -0,0 +1,145 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.test;
+
+import graphtea.library.BaseEdge;
+import graphtea.library.BaseVertex;
+import graphtea.library.ListGraph;
+import graphtea.library.algorithms.subgraphs.SmallCyclesCounter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+
+import static graphtea.library.test.Checks.checkEquals;
+import static graphtea.library.test.Checks.report;
+
+/**
+ * Checks SmallCyclesCounter against brute force counts on small random graphs (directed and
+ * undirected, with loops and parallel edges), and against a count of the paths of length 2 on a
+ * large sparse graph, which is counted in parallel.
+ */
+public class TestSmallCyclesCounter {
+    static ListGraph<BaseVertex, BaseEdge<BaseVertex>> randomGraph(Random r, boolean directed, int n, int m) {
+        ListGraph<BaseVertex, BaseEdge<BaseVertex>> g = new ListGraph<BaseVertex, BaseEdge<BaseVertex>>(directed, n);
+        BaseVertex v[] = new BaseVertex[n];
+        for (int i = 0; i < n; i++) {
+            v[i] = new BaseVertex();
+            g.insertVertex(v[i]);
+        }
+        if (n > 0)
+            for (int i = 0; i < m; i++)
+                g.insertEdge(new BaseEdge<BaseVertex>(v[r.nextInt(n)], v[r.nextInt(n)]));
+        return g;
+    }
+
+    /**
+     * @return the adjacency sets of the underlying simple undirected graph
+     */
+    static HashSet<Integer>[] neighbors(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+        int n = g.getVerticesCount();
+        @SuppressWarnings("unchecked")
+        HashSet<Integer> ret[] = new HashSet[n];
+        for (int i = 0; i < n; i++)
+            ret[i] = new HashSet<Integer>();
+        Iterator<BaseEdge<BaseVertex>> it = g.lightEdgeIterator();
+        while (it.hasNext()) {
+            BaseEdge<BaseVertex> e = it.next();
+            int s = e.source.getId(), t = e.target.getId();
+            if (s != t) {
+                ret[s].add(t);
+                ret[t].add(s);
+            }
+        }
+        return ret;
+    }
+
+    static void checkSmall(int i, ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+        int n = g.getVerticesCount();
+        HashSet<Integer> adj[] = neighbors(g);
+        long triangles = 0, quadrangles = 0;
+        long vertexTriangles[] = new long[n];
+        for (int a = 0; a < n; a++)
+            for (int b = a + 1; b < n; b++)
+                for (int c = b + 1; c < n; c++) {
+                    if (adj[a].contains(b) && adj[b].contains(c) && adj[c].contains(a)) {
+                        triangles++;
+                        vertexTriangles[a]++;
+                        vertexTriangles[b]++;
+                        vertexTriangles[c]++;
+                    }
+                    //the three cycles on a, b, c, d
+                    for (int d = c + 1; d < n; d++) {
+                        if (adj[a].contains(b) && adj[b].contains(c) && adj[c].contains(d) && adj[d].contains(a))
+                            quadrangles++;
+                        if (adj[a].contains(b) && adj[b].contains(d) && adj[d].contains(c) && adj[c].contains(a))
+                            quadrangles++;
+                        if (adj[a].contains(c) && adj[c].contains(b) && adj[b].contains(d) && adj[d].contains(a))
+                            quadrangles++;
+                    }
+                }
+
+        SmallCyclesCounter scc = new SmallCyclesCounter(g);
+        checkEquals("graph " + i + " triangles", scc.getTriangles(), triangles);
+        checkEquals("graph " + i + " quadrangles", scc.getQuadrangles(), quadrangles);
+        long found[] = scc.getVertexTriangles();
+        int deg[] = scc.getDegrees();
+        double local[] = scc.getLocalClusteringCoefficients();
+        double triples = 0, sum = 0;
+        for (int v = 0; v < n; v++) {
+            int d = adj[v].size();
+            checkEquals("graph " + i + " triangles of vertex " + v, found[v], vertexTriangles[v]);
+            checkEquals("graph " + i + " degree of vertex " + v, deg[v], d);
+            double c = d < 2 ? 0 : 2.0 * vertexTriangles[v] / (d * (d - 1));
+            checkEquals("graph " + i + " clustering coefficient of vertex " + v, local[v], c);
+            sum += c;
+            triples += d * (d - 1) / 2.0;
+        }
+        checkEquals("graph " + i + " average clustering coefficient", scc.getAverageClusteringCoefficient(), n == 0 ? 0 : sum / n);
+        checkEquals("graph " + i + " global clustering coefficient", scc.getGlobalClusteringCoefficient(),
+                triples == 0 ? 0 : 3 * triangles / triples);
+    }
+
+    /**
+     * Counts the cycles of a large graph from the number of paths of length 2 between each pair of vertices.
+     */
+    static void checkLarge(ListGraph<BaseVertex, BaseEdge<BaseVertex>> g) {
+        int n = g.getVerticesCount();
+        HashSet<Integer> adj[] = neighbors(g);
+        long triangles = 0, paths = 0;
+        for (int u = 0; u < n; u++) {
+            //number of paths u-v-w for each w > u, each quadrangle is counted once from each of its two diagonals
+            HashMap<Integer, Integer> common = new HashMap<Integer, Integer>();
+            for (int v : adj[u])
+                for (int w : adj[v])
+                    if (w > u) {
+                        Integer c = common.get(w);
+                        common.put(w, c == null ? 1 : c + 1);
+                    }
+            for (int c : common.values())
+                paths += (long) c * (c - 1) / 2;
+            for (int v : adj[u])
+                if (v > u)
+                    for (int w : adj[v])
+                        if (w > v && adj[u].contains(w))
+                            triangles++;
+        }
+        SmallCyclesCounter scc = new SmallCyclesCounter(g);
+        checkEquals("large graph triangles", scc.getTriangles(), triangles);
+        checkEquals("large graph quadrangles", scc.getQuadrangles(), paths / 2);
+    }
+
+    public static void main(String args[]) {
+        Random r = new Random(10);
+        for (int i = 0; i < 2000; i++) {
+            int n = r.nextInt(13);
+            checkSmall(i, randomGraph(r, r.nextBoolean(), n, r.nextInt(3 * n + 1)));
+        }
+        checkLarge(randomGraph(r, false, 6000, 60000));
+        report("SmallCyclesCounter");
+    }
+}
@@ -0,0 +1,148 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap on the integers 0..capacity-1 with long keys, which supports
+ * decrease-key in O(log n). All the storage is allocated once in the constructor,
+ * so a heap can be cleared and reused by many runs of an algorithm
+ * (Dijkstra, Prim, ...) without any allocation.
+ */
+public class IndexedMinHeap {
+    //heap[0..size) is the binary heap of items
+    private final int[] heap;
+    //position of each item in the heap, -1 if the item is not in the heap
+    private final int[] pos;
+    private final long[] key;
+    private int size = 0;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        pos = new int[capacity];
+        key = new long[capacity];
+        for (int i = 0; i < capacity; i++)
+            pos[i] = -1;
+    }
+
+    public int capacity() {
+        return heap.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int item) {
+        return pos[item] >= 0;
+    }
+
+    /**
+     * @return the key of the item, valid only if the heap contains the item
+     */
+    public long getKey(int item) {
+        return key[item];
+    }
+
+    /**
+     * Inserts the item if it is not in the heap, or decreases its key if the given key is smaller
+     * than the current one.
+     *
+     * @return true if the heap is changed
+     */
+    public boolean offer(int item, long k) {
+        if (pos[item] < 0) {
+            key[item] = k;
+            heap[size] = item;
+            pos[item] = size;
+            siftUp(size++);
+            return true;
+        }
+        if (k < key[item]) {
+            key[item] = k;
+            siftUp(pos[item]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the item with the minimum key, without removing it
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the item with the minimum key.
+     */
+    public int poll() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        int ret = heap[0];
+        pos[ret] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return ret;
+    }
+
+    /**
+     * Removes all items, in O(size).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int item = heap[i];
+        long k = key[item];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (key[p] <= k)
+                break;
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = item;
+        pos[item] = i;
+    }
+
+    private void siftDown(int i) {
+        int item = heap[i];
+        long k = key[item];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && key[heap[right]] < key[c]) {
+                child = right;
+                c = heap[child];
+            }
+            if (k <= key[c])
+                break;
+            heap[i] = c;
+            pos[c] = i;
+            i = child;
+        }
+        heap[i] = item;
+        pos[item] = i;
+    }
+}
@@ -0,0 +1,249 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.util;
+
+import Jama.Matrix;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sparse matrix in compressed sparse row (CSR) form. The non zero entries of row
+ * <code>i</code> are <code>values[rowStart[i] .. rowStart[i+1])</code> and their columns are
+ * stored in <code>columns</code> in increasing order.
+ * <p/>
+ * Use <code>fromCOO</code> to build it from coordinate (row, column, value) triples, duplicate
+ * entries are summed. <code>toMatrix()</code> converts it to a dense Jama matrix when the dense
+ * algorithms (eigenvalues, ...) are needed.
+ *
+ * @see graphtea.library.BaseGraph#getSparseAdjacencyMatrix()
+ */
+public class SparseMatrix {
+    private final int rows, cols;
+    private final int[] rowStart;
+    private final int[] columns;
+    private final double[] values;
+
+    private SparseMatrix(int rows, int cols, int[] rowStart, int[] columns, double[] values) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Builds a sparse matrix from the first <code>nnz</code> coordinate triples, entries with the same
+     * row and column are summed and zero sums are dropped.
+     */
+    public static SparseMatrix fromCOO(int rows, int cols, int[] r, int[] c, double[] v, int nnz) {
+        int[] start = new int[rows + 1];
+        for (int k = 0; k < nnz; k++)
+            start[r[k] + 1]++;
+        for (int i = 0; i < rows; i++)
+            start[i + 1] += start[i];
+
+        int[] pos = Arrays.copyOf(start, rows);
+        int[] order = new int[nnz];
+        for (int k = 0; k < nnz; k++)
+            order[pos[r[k]]++] = k;
+
+        //sort each row by column and merge the duplicates
+        int[] cs = new int[nnz];
+        double[] vs = new double[nnz];
+        int[] newStart = new int[rows + 1];
+        long[] buf = new long[16];
+        int out = 0;
+        for (int i = 0; i < rows; i++) {
+            int s = start[i], len = start[i + 1] - s;
+            if (buf.length < len)
+                buf = new long[Math.max(len, 2 * buf.length)];
+            for (int j = 0; j < len; j++)
+                buf[j] = ((long) c[order[s + j]] << 32) | order[s + j];
+            Arrays.sort(buf, 0, len);
+            int j = 0;
+            while (j < len) {
+                int col = (int) (buf[j] >>> 32);
+                double sum = 0;
+                for (; j < len && (int) (buf[j] >>> 32) == col; j++)
+                    sum += v[(int) buf[j]];
+                if (sum != 0) {
+                    cs[out] = col;
+                    vs[out++] = sum;
+                }
+            }
+            newStart[i + 1] = out;
+        }
+        return new SparseMatrix(rows, cols, newStart, Arrays.copyOf(cs, out), Arrays.copyOf(vs, out));
+    }
+
+    /**
+     * Builds a diagonal matrix.
+     */
+    public static SparseMatrix diagonal(double[] d) {
+        int n = d.length;
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++)
+            idx[i] = i;
+        return fromCOO(n, n, idx, idx, d, n);
+    }
+
+    public int getRowDimension() {
+        return rows;
+    }
+
+    public int getColumnDimension() {
+        return cols;
+    }
+
+    /**
+     * @return number of stored (non zero) entries.
+     */
+    public int nnz() {
+        return values.length;
+    }
+
+    /**
+     * @return the internal row start array, of size rows+1, should not be modified.
+     */
+    public int[] getRowStart() {
+        return rowStart;
+    }
+
+    /**
+     * @return the internal column index array, should not be modified.
+     */
+    public int[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the internal value array, should not be modified.
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return number of non zero entries in row i.
+     */
+    public int rowNonZeros(int i) {
+        return rowStart[i + 1] - rowStart[i];
+    }
+
+    /**
+     * @return the entry (i, j), found by binary search in row i.
+     */
+    public double get(int i, int j) {
+        int p = Arrays.binarySearch(columns, rowStart[i], rowStart[i + 1], j);
+        return p < 0 ? 0 : values[p];
+    }
+
+    /**
+     * @return y = this * x
+     */
+    public double[] times(double[] x) {
+        if (x.length != cols)
+            throw new IllegalArgumentException("Matrix inner dimensions must agree.");
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            double s = 0;
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++)
+                s += values[p] * x[columns[p]];
+            y[i] = s;
+        }
+        return y;
+    }
+
+    /**
+     * @return the transpose of this matrix, in O(nnz).
+     */
+    public SparseMatrix transpose() {
+        int[] start = new int[cols + 1];
+        for (int col : columns)
+            start[col + 1]++;
+        for (int j = 0; j < cols; j++)
+            start[j + 1] += start[j];
+
+        int[] pos = Arrays.copyOf(start, cols);
+        int[] cs = new int[values.length];
+        double[] vs = new double[values.length];
+        //rows are visited in order, so the new rows are sorted by column
+        for (int i = 0; i < rows; i++)
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                int q = pos[columns[p]]++;
+                cs[q] = i;
+                vs[q] = values[p];
+            }
+        return new SparseMatrix(cols, rows, start, cs, vs);
+    }
+
+    /**
+     * @return sum of entries of each row.
+     */
+    public double[] rowSums() {
+        double[] s = new double[rows];
+        for (int i = 0; i < rows; i++)
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++)
+                s[i] += values[p];
+        return s;
+    }
+
+    /**
+     * @return sum of entries of each column.
+     */
+    public double[] columnSums() {
+        double[] s = new double[cols];
+        for (int p = 0; p < values.length; p++)
+            s[columns[p]] += values[p];
+        return s;
+    }
+
+    /**
+     * Considering this matrix as an adjacency matrix A, returns the degree matrix D, which is
+     * a diagonal matrix of row sums (out degrees) or column sums (in degrees).
+     */
+    public SparseMatrix degreeMatrix(boolean inDegree) {
+        return diagonal(inDegree ? columnSums() : rowSums());
+    }
+
+    /**
+     * Considering this matrix as an adjacency matrix A, returns the Laplacian L = D - A.
+     *
+     * @param inDegree use column sums (in degrees) for D instead of row sums
+     */
+    public SparseMatrix laplacian(boolean inDegree) {
+        if (rows != cols)
+            throw new IllegalArgumentException("Laplacian of a non square matrix.");
+        double[] d = inDegree ? columnSums() : rowSums();
+        int nnz = values.length + rows;
+        int[] r = new int[nnz];
+        int[] c = new int[nnz];
+        double[] v = new double[nnz];
+        int k = 0;
+        for (int i = 0; i < rows; i++) {
+            r[k] = i;
+            c[k] = i;
+            v[k++] = d[i];
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+                r[k] = i;
+                c[k] = columns[p];
+                v[k++] = -values[p];
+            }
+        }
+        return fromCOO(rows, cols, r, c, v, k);
+    }
+
+    /**
+     * @return a dense copy of this matrix.
+     */
+    public Matrix toMatrix() {
+        double[][] a = new double[rows][cols];
+        for (int i = 0; i < rows; i++)
+            for (int p = rowStart[i]; p < rowStart[i + 1]; p++)
+                a[i][columns[p]] = values[p];
+        return new Matrix(a, rows, cols);
+    }
+}
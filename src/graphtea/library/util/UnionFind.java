@@ -0,0 +1,75 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU Lesser General Public License (LGPL): http://www.gnu.org/licenses/
+
+package graphtea.library.util;
+
+/**
+ * Disjoint sets of the integers 0..size-1 (union-find), with path halving and union by
+ * rank, so a sequence of operations runs in almost linear time. Not thread safe.
+ */
+public class UnionFind {
+    private final int[] parent;
+    private final byte[] rank;
+    private int count;
+
+    /**
+     * creates size sets, each of one element
+     */
+    public UnionFind(int size) {
+        parent = new int[size];
+        rank = new byte[size];
+        for (int i = 0; i < size; i++)
+            parent[i] = i;
+        count = size;
+    }
+
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * @return number of sets
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the representative of the set of x, it is the same for all elements of a set
+     */
+    public int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+
+    /**
+     * merges the sets of x and y
+     *
+     * @return false if they were already in the same set
+     */
+    public boolean union(int x, int y) {
+        x = find(x);
+        y = find(y);
+        if (x == y)
+            return false;
+        if (rank[x] < rank[y]) {
+            int t = x;
+            x = y;
+            y = t;
+        }
+        parent[y] = x;
+        if (rank[x] == rank[y])
+            rank[x]++;
+        count--;
+        return true;
+    }
+}
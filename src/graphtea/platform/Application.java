@@ -7,7 +7,9 @@ package graphtea.platform;
 import graphtea.platform.core.BlackBoard;
 import graphtea.platform.core.exception.ExceptionHandler;
 import graphtea.platform.extension.Extension;
+import graphtea.platform.extension.BasicExtension;
 import graphtea.platform.extension.ExtensionClassLoader;
+import graphtea.platform.extension.ExtensionIndex;
 import graphtea.platform.extension.ExtensionLoader;
 import graphtea.platform.plugin.Plugger;
 import graphtea.platform.preferences.Preferences;
@@ -15,6 +17,10 @@ import graphtea.platform.preferences.lastsettings.StorableOnExit;
 
 import java.io.File;
 import java.net.URLClassLoader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
 
 
 /**
@@ -26,6 +32,15 @@ public class Application implements StorableOnExit {
     public static final String APPLICATION_INSTANCE = "GraphTea.main";
     public Plugger plugger = null;
     public static final String POST_INIT_EVENT = "Post Initialization";
+    /**
+     * the file which the index of the extensions directory is kept in
+     */
+    public static final File EXTENSION_INDEX_FILE = new File("prefs", "extensions.index");
+    /**
+     * the time of each phase of the start up in milliseconds, in the order of the phases
+     */
+    public final LinkedHashMap<String, Long> startupTimings = new LinkedHashMap<String, Long>();
+    private FutureTask<ExtensionIndex> extensionIndex;
 
     /**
      * @param blackboard
@@ -33,9 +48,24 @@ public class Application implements StorableOnExit {
      */
     public void run(BlackBoard blackboard) {
         try {
+            long start = System.currentTimeMillis();
             Preferences p = new Preferences(blackboard);
             GSplash gs = new GSplash();
             gs.showMessages();
+            //the extensions directory is listed while the plugins are loading
+            extensionIndex = new FutureTask<ExtensionIndex>(new Callable<ExtensionIndex>() {
+                public ExtensionIndex call() {
+                    long t = System.currentTimeMillis();
+                    ExtensionIndex index = new ExtensionIndex(new File("extensions"), EXTENSION_INDEX_FILE,
+                            new File("plugins"), new File("lib"));
+                    index.scan();
+                    synchronized (startupTimings) {
+                        startupTimings.put("extensions: index", System.currentTimeMillis() - t);
+                    }
+                    return index;
+                }
+            });
+            new Thread(extensionIndex, "extension index").start();
 //            Thread.sleep(3000);
 //            Thread.sleep(1000);
             loadPlugins();
@@ -43,7 +73,13 @@ public class Application implements StorableOnExit {
             loadExtensions(blackboard);
             gs.setVisible(false);
             gs.stopShowing();
+            long t = System.currentTimeMillis();
             blackboard.setData(POST_INIT_EVENT, "Pi");
+            synchronized (startupTimings) {
+                startupTimings.put("post initialization", System.currentTimeMillis() - t);
+                startupTimings.put("total", System.currentTimeMillis() - start);
+                System.out.println("Start up timings (ms): " + startupTimings);
+            }
         } catch (Exception e) {
             ExceptionHandler.catchException(e);
         }
@@ -52,7 +88,9 @@ public class Application implements StorableOnExit {
 
     private void loadPlugins() {
         plugger.plug();
-
+        synchronized (startupTimings) {
+            startupTimings.putAll(plugger.timings);
+        }
     }
 
     /**
@@ -81,29 +119,63 @@ public class Application implements StorableOnExit {
 
     /**
      * load all extensions from /extensions directory
+     * <p/>
+     * The classes are taken from the ExtensionIndex, the ones which are known not to be extensions
+     * are not loaded, and the ones which can be deferred are created on their first use.
      *
      * @param blackboard
+     * @see ExtensionIndex
      */
     public void loadExtensions(BlackBoard blackboard) {
         ExtensionClassLoader.cl = getExtensionsClassLoader();
-        ExtensionClassLoader e = new ExtensionClassLoader("extensions");
-        for (String c : e.classesData.keySet()) {
+        ExtensionIndex index;
+        try {
+            index = extensionIndex.get();
+        } catch (Exception e) {
+            ExceptionHandler.catchException(e);
+            return;
+        }
+        long t = System.currentTimeMillis();
+        int loaded = 0, deferred = 0;
+        for (ExtensionIndex.Entry entry : index.getClasses()) {
+            String c = entry.getClassName();
+            if (entry.getState() == ExtensionIndex.NOT_EXTENSION)
+                continue;
+            Map<String, String> description = entry.getDescription();
+            if (description != null && ExtensionLoader.deferExtension(blackboard, c, description)) {
+                deferred++;
+                continue;
+            }
             try {
                 Class s = getExtensionsClassLoader().loadClass(c);
+                loaded++;
+                if (!BasicExtension.class.isAssignableFrom(s)) {
+                    entry.set(ExtensionIndex.NOT_EXTENSION, null);
+                    continue;
+                }
                 Object extension = ExtensionLoader.loadExtension(s);
                 if (extension != null) {
                     SETTINGS.registerSetting(extension, "Extention Options");
-                    ExtensionLoader.handleExtension(blackboard, extension);
+                    entry.set(ExtensionIndex.EXTENSION, ExtensionLoader.handleAndDescribeExtension(blackboard, extension));
+                } else {
+                    //it may be loaded next time
+                    entry.set(ExtensionIndex.UNKNOWN, null);
                 }
             } catch (ClassNotFoundException e1) {
                 e1.printStackTrace();
                 StaticUtils.addExceptiontoLog(e1, blackboard);
             }
         }
-        for (File f : e.getUnknownFilesFound()) {
-            Extension extension = ExtensionLoader.loadUnknownExtension(f, blackboard);
+        for (ExtensionIndex.Entry f : index.getUnknownFiles()) {
+            Extension extension = ExtensionLoader.loadUnknownExtension(f.getFile(), blackboard);
             ExtensionLoader.handleExtension(blackboard, extension);
         }
+        index.save();
+        System.out.println(index.getClasses().size() + " extension class(es) found, " + index.getReusedCount()
+                + " from the index, " + loaded + " loaded, " + deferred + " deferred.");
+        synchronized (startupTimings) {
+            startupTimings.put("extensions: load", System.currentTimeMillis() - t);
+        }
     }
 
     protected URLClassLoader getExtensionsClassLoader() {
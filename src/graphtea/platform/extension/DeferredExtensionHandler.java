@@ -0,0 +1,41 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+package graphtea.platform.extension;
+
+import graphtea.platform.core.AbstractAction;
+import graphtea.platform.core.BlackBoard;
+
+import java.util.Map;
+
+/**
+ * A handler which lets an extension be created on its first use instead of on start up.
+ * <p/>
+ * On the first run the extension is loaded and handled normally, and the handler describes the
+ * action which was created for it, the description is kept in the ExtensionIndex. On the next
+ * runs the handler creates a placeholder (i.e. a menu item) from the description, which loads the
+ * extension when it is used for the first time.
+ *
+ * @author Azin Azadi
+ * @see ExtensionLoader#registerDeferredExtensionHandler(DeferredExtensionHandler)
+ * @see ExtensionIndex
+ */
+public interface DeferredExtensionHandler {
+    /**
+     * @param action the action created for an extension by the ExtensionHandlers
+     * @return a description of the action from which the placeholder can be created, null if the
+     *         extension should not be deferred
+     */
+    public Map<String, String> describe(AbstractAction action);
+
+    /**
+     * creates the placeholder of an extension
+     *
+     * @param b           the blackboard
+     * @param className   the class of the extension, use ExtensionLoader.loadDeferredExtension to load it
+     * @param description a description returned by describe()
+     * @return true if the placeholder is created, false if the description is not of this handler
+     */
+    public boolean defer(BlackBoard b, String className, Map<String, String> description);
+}
@@ -0,0 +1,265 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+package graphtea.platform.extension;
+
+import graphtea.platform.core.exception.ExceptionHandler;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The index of the files of the extensions directory, which is kept on the disk between the runs
+ * of the program. For each class file it keeps whether the class is an extension or not, and for
+ * the extensions that can be deferred, the description of their menu and commands from which
+ * they are created on their first use.
+ * <p/>
+ * An entry is used only if the length and the modification time of its file are not changed, and
+ * the whole index is thrown away if a jar file of the plugins or lib directories is changed
+ * (the extensions are loaded against them). So the index never needs to be deleted by hand.
+ * <p/>
+ * The class files are not read, only listed, and the classes which are known not to be
+ * extensions are not loaded at all.
+ *
+ * @author Azin Azadi
+ * @see ExtensionLoader#deferExtension(graphtea.platform.core.BlackBoard, String, java.util.Map)
+ */
+public class ExtensionIndex {
+    private static final int VERSION = 2;
+
+    public static final byte UNKNOWN = 0;
+    public static final byte NOT_EXTENSION = 1;
+    public static final byte EXTENSION = 2;
+
+    /**
+     * A file of the extensions directory
+     */
+    public static class Entry {
+        final String path;
+        final File file;
+        long length, lastModified;
+        byte state = UNKNOWN;
+        Map<String, String> description;
+
+        Entry(String path, File file) {
+            this(path, file, file.length(), file.lastModified());
+        }
+
+        Entry(String path, File file, long length, long lastModified) {
+            this.path = path;
+            this.file = file;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return the name of the class of this file, null if it is not a class file
+         */
+        public String getClassName() {
+            if (!path.endsWith(".class"))
+                return null;
+            return path.substring(0, path.length() - 6).replace('/', '.');
+        }
+
+        /**
+         * @return UNKNOWN, NOT_EXTENSION or EXTENSION
+         */
+        public byte getState() {
+            return state;
+        }
+
+        /**
+         * @return the description from which the extension can be created on its first use, null if
+         *         it should be created at start up
+         */
+        public Map<String, String> getDescription() {
+            return description;
+        }
+
+        /**
+         * sets what is known about the class of this file after loading it
+         *
+         * @param state       UNKNOWN if the class should be loaded again on the next start up
+         * @param description see getDescription()
+         */
+        public void set(byte state, Map<String, String> description) {
+            this.state = state;
+            this.description = description;
+        }
+    }
+
+    private final File dir;
+    private final File cache;
+    private final List<File> dependencies;
+    private final List<Entry> classes = new ArrayList<Entry>();
+    private final List<Entry> unknownFiles = new ArrayList<Entry>();
+    private final List<Entry> zipFiles = new ArrayList<Entry>();
+    private int reused = 0;
+
+    /**
+     * @param dir          the extensions directory
+     * @param cache        the file which the index is saved in
+     * @param dependencies the directories whose jar files the extensions are loaded against
+     */
+    public ExtensionIndex(File dir, File cache, File... dependencies) {
+        this.dir = dir;
+        this.cache = cache;
+        this.dependencies = Arrays.asList(dependencies);
+    }
+
+    /**
+     * Lists the extensions directory, and takes what is known about the unchanged files from the
+     * saved index. The zip files in the directory are extracted if they are new or changed.
+     */
+    public void scan() {
+        Map<String, Entry> saved = read();
+        if (!dir.exists())
+            return;
+        scan(dir, "", saved);
+    }
+
+    private void scanZips(File d, String path, Map<String, Entry> saved) {
+        File files[] = d.listFiles();
+        if (files == null)
+            return;
+        for (File f : files)
+            if (f.isFile() && f.getName().endsWith(".zip")) {
+                Entry e = new Entry(path + f.getName(), f);
+                Entry old = saved.get(e.path);
+                if (old == null || old.length != e.length || old.lastModified != e.lastModified)
+                    ExtensionClassLoader.unZip(f.getAbsolutePath(), f.getParentFile().getAbsolutePath());
+                zipFiles.add(e);
+            }
+    }
+
+    private void scan(File d, String path, Map<String, Entry> saved) {
+        scanZips(d, path, saved);
+        File files[] = d.listFiles();
+        if (files == null)
+            return;
+        for (File f : files) {
+            if (f.isDirectory()) {
+                scan(f, path + f.getName() + "/", saved);
+            } else if (f.getName().endsWith(".class")) {
+                Entry e = new Entry(path + f.getName(), f);
+                Entry old = saved.get(e.path);
+                if (old != null && old.length == e.length && old.lastModified == e.lastModified) {
+                    e.state = old.state;
+                    e.description = old.description;
+                    reused++;
+                }
+                classes.add(e);
+            } else {
+                unknownFiles.add(new Entry(path + f.getName(), f));
+            }
+        }
+    }
+
+    public List<Entry> getClasses() {
+        return classes;
+    }
+
+    /**
+     * @return the files which are not class files, they are given to UnknownExtensionLoaders
+     */
+    public List<Entry> getUnknownFiles() {
+        return unknownFiles;
+    }
+
+    /**
+     * @return the number of the class files which were found unchanged in the saved index
+     */
+    public int getReusedCount() {
+        return reused;
+    }
+
+    private String dependenciesStamp() {
+        StringBuilder sb = new StringBuilder();
+        for (File d : dependencies) {
+            File[] files = d.listFiles();
+            if (files == null)
+                continue;
+            Arrays.sort(files);
+            for (File f : files)
+                if (f.isFile() && f.getName().toLowerCase().endsWith(".jar"))
+                    sb.append(f.getName()).append(':').append(f.length()).append(':').append(f.lastModified()).append(';');
+        }
+        return sb.toString();
+    }
+
+    private Map<String, Entry> read() {
+        Map<String, Entry> ret = new HashMap<String, Entry>();
+        if (!cache.isFile())
+            return ret;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cache)));
+            try {
+                if (in.readInt() != VERSION || !in.readUTF().equals(dependenciesStamp()))
+                    return ret;
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    Entry e = new Entry(in.readUTF(), null, in.readLong(), in.readLong());
+                    e.state = in.readByte();
+                    int m = in.readInt();
+                    if (m >= 0) {
+                        e.description = new LinkedHashMap<String, String>();
+                        for (int j = 0; j < m; j++)
+                            e.description.put(in.readUTF(), in.readUTF());
+                    }
+                    ret.put(e.path, e);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            //a broken index is the same as no index
+            ret.clear();
+        }
+        return ret;
+    }
+
+    /**
+     * saves the index, to be used on the next start up
+     */
+    public void save() {
+        try {
+            if (cache.getParentFile() != null)
+                cache.getParentFile().mkdirs();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cache)));
+            try {
+                out.writeInt(VERSION);
+                out.writeUTF(dependenciesStamp());
+                out.writeInt(classes.size() + zipFiles.size());
+                for (Entry e : zipFiles)
+                    write(out, e);
+                for (Entry e : classes)
+                    write(out, e);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            ExceptionHandler.catchException(e);
+        }
+    }
+
+    private void write(DataOutputStream out, Entry e) throws IOException {
+        out.writeUTF(e.path);
+        out.writeLong(e.length);
+        out.writeLong(e.lastModified);
+        out.writeByte(e.state);
+        if (e.description == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(e.description.size());
+            for (Map.Entry<String, String> d : e.description.entrySet()) {
+                out.writeUTF(d.getKey());
+                out.writeUTF(d.getValue());
+            }
+        }
+    }
+}
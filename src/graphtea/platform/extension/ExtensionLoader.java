@@ -10,10 +10,13 @@ import graphtea.platform.core.AbstractAction;
 import graphtea.platform.core.BlackBoard;
 import graphtea.platform.core.exception.ExceptionHandler;
 import graphtea.platform.preferences.lastsettings.StorableOnExit;
+import graphtea.platform.preferences.lastsettings.UserModifiableProperty;
 
 import java.io.File;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.util.HashSet;
+import java.util.Map;
 
 /**
  * The base class for loading extensions.
@@ -24,6 +27,7 @@ import java.util.HashSet;
 public class ExtensionLoader implements StorableOnExit {
     private static HashSet<ExtensionHandler> registeredExtensionHandlers = new HashSet<ExtensionHandler>();
     private static HashSet<UnknownExtensionLoader> registeredUnknownExtensionLoaders = new HashSet<UnknownExtensionLoader>();
+    private static HashSet<DeferredExtensionHandler> registeredDeferredExtensionHandlers = new HashSet<DeferredExtensionHandler>();
 
     /**
      * Registers extHandler as an extension handler, so after this new extension that are loaded
@@ -50,6 +54,16 @@ public class ExtensionLoader implements StorableOnExit {
         registeredUnknownExtensionLoaders.add(e);
     }
 
+    /**
+     * register e as a DeferredExtensionHandler, so the extensions it describes are created on
+     * their first use on the next runs
+     *
+     * @param e
+     */
+    public static void registerDeferredExtensionHandler(DeferredExtensionHandler e) {
+        registeredDeferredExtensionHandlers.add(e);
+    }
+
     /**
      * gets e as an extension and tries to create Its relating AbstractAction
      * using registered ExtensionHandlers
@@ -65,6 +79,75 @@ public class ExtensionLoader implements StorableOnExit {
         return a;
     }
 
+    /**
+     * handles e like handleExtension, and if exactly one ExtensionHandler created an action for it,
+     * asks the DeferredExtensionHandlers to describe that action. The extensions with user modifiable
+     * properties are not deferred, so their options are in the preferences from start up.
+     *
+     * @return the description of the action from which the extension can be deferred on the next
+     *         runs, or null if it should be created on start up
+     * @see ExtensionIndex
+     */
+    public static Map<String, String> handleAndDescribeExtension(BlackBoard b, Object e) {
+        AbstractAction a = null;
+        int actions = 0;
+        for (ExtensionHandler _ : registeredExtensionHandlers) {
+            AbstractAction r = _.handle(b, e);
+            if (r != null) {
+                actions++;
+                if (a == null)
+                    a = r;
+            }
+        }
+        if (actions != 1 || hasUserModifiableProperties(e))
+            return null;
+        for (DeferredExtensionHandler _ : registeredDeferredExtensionHandlers) {
+            Map<String, String> description = _.describe(a);
+            if (description != null)
+                return description;
+        }
+        return null;
+    }
+
+    private static boolean hasUserModifiableProperties(Object e) {
+        for (Field f : e.getClass().getFields())
+            if (f.getAnnotation(UserModifiableProperty.class) != null)
+                return true;
+        return false;
+    }
+
+    /**
+     * creates the placeholder of a deferred extension by the DeferredExtensionHandlers
+     *
+     * @return false if no handler accepted the description, then the extension should be loaded now
+     */
+    public static boolean deferExtension(BlackBoard b, String className, Map<String, String> description) {
+        for (DeferredExtensionHandler _ : registeredDeferredExtensionHandlers) {
+            if (_.defer(b, className, description))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * loads a deferred extension, on its first use, its settings are registered like the ones of
+     * the extensions loaded on start up
+     *
+     * @return the action created for it by the ExtensionHandlers, null if it could not be loaded
+     */
+    public static AbstractAction loadDeferredExtension(BlackBoard b, String className) {
+        try {
+            Object extension = loadExtension(ExtensionClassLoader.cl.loadClass(className));
+            if (extension != null) {
+                SETTINGS.registerSetting(extension, "Extention Options");
+                return handleExtension(b, extension);
+            }
+        } catch (ClassNotFoundException e) {
+            ExceptionHandler.catchException(e);
+        }
+        return null;
+    }
+
     /**
      * returns an instance of extensionClass if the given extensionClass implements Extension (BasicExtension)
      * or has default constructor, otherwise it returns null
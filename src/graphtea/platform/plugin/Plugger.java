@@ -21,9 +21,15 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map.Entry;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
 
 /**
@@ -36,6 +42,10 @@ import java.util.jar.JarFile;
  * verify() reads a HashMap called depends. This Map is filled in the init() method using the property reader of JarFile class. It reads all the dependencies that are mentioned in the jar file. These are only related to version dependencies.
  * <p/>
  * dfs() tries a DFS algorithm to topologically sort the dependencies tree and then use the sorted trees to give priority to plugin loads.
+ * <p/>
+ * The manifests of the jar files are read, and the initializer classes of the plugins are loaded, in parallel. The
+ * initializers are run one by one in the order of dfs(), because they build the UI and the blackboard, which are not
+ * thread safe.
  *
  * @author Reza Mohammadi
  */
@@ -54,6 +64,10 @@ public class Plugger {
     public HashMap<String, ArrayList<String>> childs = new HashMap<String, ArrayList<String>>();
     public URLClassLoader classLoader = null;
     public int activePlugins = 0;
+    /**
+     * the time of each phase of plug() in milliseconds
+     */
+    public LinkedHashMap<String, Long> timings = new LinkedHashMap<String, Long>();
 
     private BlackBoard blackboard = null;
     private String first = null;
@@ -71,61 +85,123 @@ public class Plugger {
     public void plug() {
         File f = new File("plugins");
         if (f.isDirectory() && f.canRead()) {
-            for (File ff : f.listFiles()) {
-                if (ff.isFile() && "jar".equalsIgnoreCase(getExtension(ff))) {
-                    init(ff);
+            long t = System.currentTimeMillis();
+            ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            try {
+                ArrayList<File> jars = new ArrayList<File>();
+                ArrayList<Future<Manifest>> manifests = new ArrayList<Future<Manifest>>();
+                for (final File ff : f.listFiles()) {
+                    if (ff.isFile() && "jar".equalsIgnoreCase(getExtension(ff))) {
+                        jars.add(ff);
+                        manifests.add(pool.submit(new Callable<Manifest>() {
+                            public Manifest call() throws Exception {
+                                JarFile jf = new JarFile(ff);
+                                try {
+                                    return jf.getManifest();
+                                } finally {
+                                    jf.close();
+                                }
+                            }
+                        }));
+                    }
                 }
-            }
-            System.out.println("------------------------------------------------------------");
-            verify();
-            System.out.println("------------------------------------------------------------");
-            if (first != null) {
-                int libCount = 0;
-                File libf = new File("lib");
-                ArrayList<URL> libURLs = new ArrayList<URL>();
-                if (libf.isDirectory() && libf.canRead()) {
-                    for (File ff : libf.listFiles()) {
-                        if (ff.isFile() && "jar".equalsIgnoreCase(getExtension(ff))) {
+                for (int j = 0; j < jars.size(); j++) {
+                    try {
+                        init(jars.get(j), manifests.get(j).get());
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                }
+                timings.put("plugins: manifests", System.currentTimeMillis() - t);
+                System.out.println("------------------------------------------------------------");
+                verify();
+                System.out.println("------------------------------------------------------------");
+                if (first != null) {
+                    int libCount = 0;
+                    File libf = new File("lib");
+                    ArrayList<URL> libURLs = new ArrayList<URL>();
+                    if (libf.isDirectory() && libf.canRead()) {
+                        for (File ff : libf.listFiles()) {
+                            if (ff.isFile() && "jar".equalsIgnoreCase(getExtension(ff))) {
+                                try {
+                                    libURLs.add(ff.toURL());
+                                    System.out.println("Library file " + ff + " added.");
+                                } catch (MalformedURLException e) {
+                                    ExceptionHandler.catchException(e);
+                                }
+                                libCount++;
+                            }
+                        }
+                    }
+                    URL[] urls = new URL[activePlugins + libCount + 1];
+                    int i = 0;
+                    for (URL libURL : libURLs)
+                        urls[i++] = libURL;
+                    for (String name : files.keySet()) {
+                        if (mark.get(name) == 0)
                             try {
-                                libURLs.add(ff.toURL());
-                                System.out.println("Library file " + ff + " added.");
+                                urls[i] = files.get(name).toURL();
                             } catch (MalformedURLException e) {
+                                System.out.println(name + " [" + files.get(name).getPath() + "]");
                                 ExceptionHandler.catchException(e);
                             }
-                            libCount++;
-                        }
+                        i++;
                     }
-                }
-                URL[] urls = new URL[activePlugins + libCount + 1];
-                int i = 0;
-                for (URL libURL : libURLs)
-                    urls[i++] = libURL;
-                for (String name : files.keySet()) {
-                    if (mark.get(name) == 0)
-                        try {
-                            urls[i] = files.get(name).toURL();
-                        } catch (MalformedURLException e) {
-                            System.out.println(name + " [" + files.get(name).getPath() + "]");
-                            ExceptionHandler.catchException(e);
-                        }
-                    i++;
-                }
-                try {
-                    urls[i] = new File("extensions").toURL();
-                } catch (MalformedURLException e) {
-                    ExceptionHandler.catchException(e);
-                }
-                classLoader = new URLClassLoader(urls);
-                System.out.println("" + i + " jar file(s) loaded.");
-                System.out.println("------------------------------------------------------------");
-                dfs(first);
-            } else
-                System.out.println("Can't Load Any Plugin!");
+                    try {
+                        urls[i] = new File("extensions").toURL();
+                    } catch (MalformedURLException e) {
+                        ExceptionHandler.catchException(e);
+                    }
+                    classLoader = new URLClassLoader(urls);
+                    System.out.println("" + i + " jar file(s) loaded.");
+                    System.out.println("------------------------------------------------------------");
+                    t = System.currentTimeMillis();
+                    preloadInitializers(pool);
+                    timings.put("plugins: classes", System.currentTimeMillis() - t);
+                    t = System.currentTimeMillis();
+                    dfs(first);
+                    timings.put("plugins: init", System.currentTimeMillis() - t);
+                } else
+                    System.out.println("Can't Load Any Plugin!");
+            } finally {
+                pool.shutdown();
+            }
             System.out.println("------------------------------------------------------------");
         } else
             System.out.println("There is no directory with name plugins.");
     }
 
+    /**
+     * Loads the initializer classes of the plugins which will be loaded, in parallel. They are
+     * not initialized here, so their static blocks run in the order of dfs().
+     */
+    private void preloadInitializers(ExecutorService pool) {
+        ArrayList<Future<?>> loads = new ArrayList<Future<?>>();
+        for (String name : files.keySet()) {
+            if (mark.get(name) != 0)
+                continue;
+            String cName = initializer.get(name);
+            final String initName = cName == null ? prefix + name + postfix : cName;
+            loads.add(pool.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    try {
+                        return Class.forName(initName, false, classLoader);
+                    } catch (ClassNotFoundException e) {
+                        //the plugin is loaded by a handler
+                        return null;
+                    }
+                }
+            }));
+        }
+        for (Future<?> load : loads) {
+            try {
+                load.get();
+            } catch (Exception e) {
+                ExceptionHandler.catchException(e);
+            }
+        }
+    }
+
     /**
      * Read manifest of a jar file and make that plugin candidate
      * to be loaded.
@@ -135,17 +211,25 @@ public class Plugger {
     public void init(File ff) {
         try {
             JarFile jf = new JarFile(ff);
+            init(ff, jf.getManifest());
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void init(File ff, Manifest manifest) {
+        try {
             System.out.println("------------------------------------------------------------");
-            String name = jf.getManifest().getMainAttributes().getValue("plugin-name");
-            String verStr = jf.getManifest().getMainAttributes().getValue("plugin-version");
-            String dependsStr = jf.getManifest().getMainAttributes().getValue("plugin-depends");
+            String name = manifest.getMainAttributes().getValue("plugin-name");
+            String verStr = manifest.getMainAttributes().getValue("plugin-version");
+            String dependsStr = manifest.getMainAttributes().getValue("plugin-depends");
             if (name == null || verStr == null) {
                 System.out.println("Skipping " + name + "(" + verStr + ")");
                 return;
             }
             Long ver = Long.parseLong(verStr);
             System.out.println("Detected " + name + "(" + ver + ") ...");
-            for (Entry<Object, Object> s : jf.getManifest().getMainAttributes().entrySet()) {
+            for (Entry<Object, Object> s : manifest.getMainAttributes().entrySet()) {
                 if (!"plugin-name".equals(s.getKey()) && !"plugin-version".equals(s.getKey()))
                     System.out.println(s.getKey() + " : " + s.getValue());
             }
@@ -164,8 +248,8 @@ public class Plugger {
             files.put(name, ff);
             childs.put(name, new ArrayList<String>());
             depends.put(name, dependsArray);
-            initializer.put(name, jf.getManifest().getMainAttributes().getValue("plugin-initializer"));
-            configxml.put(name, jf.getManifest().getMainAttributes().getValue("plugin-configxml"));
+            initializer.put(name, manifest.getMainAttributes().getValue("plugin-initializer"));
+            configxml.put(name, manifest.getMainAttributes().getValue("plugin-configxml"));
         } catch (Exception ex) {
             ex.printStackTrace();
         }
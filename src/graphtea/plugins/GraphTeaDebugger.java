@@ -73,6 +73,8 @@ public class GraphTeaDebugger extends Application {
             StaticUtils.loadSingleExtension(GraphPower.class);
             StaticUtils.loadSingleExtension(LoadSimpleGraph.class);
             StaticUtils.loadSingleExtension(SaveSimpleGraph.class);
+            StaticUtils.loadSingleExtension(LoadBinaryGraph.class);
+            StaticUtils.loadSingleExtension(SaveBinaryGraph.class);
 //            StaticUtils.loadSingleExtension(GeneralizedPetersonIndepSetListerAction.class);
             StaticUtils.loadSingleExtension(LatexWriter.class);
             StaticUtils.loadSingleExtension(LatexCAD.class);
@@ -14,6 +14,7 @@ import graphtea.library.event.EventDispatcher;
 import graphtea.platform.core.BlackBoard;
 import graphtea.platform.core.exception.ExceptionHandler;
 import graphtea.plugins.algorithmanimator.AnimatorGUI;
+import graphtea.plugins.commonplugin.undo.UndoManager;
 import graphtea.plugins.algorithmanimator.core.atoms.*;
 
 import javax.swing.*;
@@ -35,6 +36,13 @@ public class AlgorithmAnimator implements EventDispatcher, ActionListener {
      * running algorithm just one step
      */
     private boolean oneStep;
+    /**
+     * messages of the steps which are not shown yet, when the algorithm runs at full speed
+     * the steps are shown in batches instead of updating the page on each step
+     */
+    private final StringBuilder pendingMessages = new StringBuilder();
+    private long lastFlush;
+    static final long FLUSH_INTERVAL = 100;
 
     public AlgorithmAnimator(BlackBoard blackboard) {
         this.blackboard = blackboard;
@@ -64,7 +72,8 @@ public class AlgorithmAnimator implements EventDispatcher, ActionListener {
     }
 
     /**
-     * The main method, Animates an algorithm
+     * The main method, Animates an algorithm. The marks and colors of the animation are not
+     * recorded in the undo history.
      *
      * @param aa
      */
@@ -75,7 +84,13 @@ public class AlgorithmAnimator implements EventDispatcher, ActionListener {
                 boolean b = g.isShowChangesOnView();
                 g.setShowChangesOnView(true);
                 aa.acceptEventDispatcher(AlgorithmAnimator.this);
-                aa.doAlgorithm();
+                UndoManager.suspendRecording();
+                try {
+                    aa.doAlgorithm();
+                } finally {
+                    UndoManager.resumeRecording();
+                }
+                flushMessages();
                 g.setShowChangesOnView(b);
             }
         }.start();
@@ -89,12 +104,16 @@ public class AlgorithmAnimator implements EventDispatcher, ActionListener {
      * @return
      */
     public Event dispatchEvent(Event event) {
+        boolean batch = false;
         try {
 
             if (event instanceof AlgorithmStep) {
                 if (!oneStep) {
                     double s = 100.0 - alggui.speedSlider.getValue();
-                    Thread.sleep((long) (10 * s));
+                    if (s > 0)
+                        Thread.sleep((long) (10 * s));
+                    else
+                        batch = true;
                 }
                 if (oneStep) {
                     paused = true;
@@ -105,16 +124,32 @@ public class AlgorithmAnimator implements EventDispatcher, ActionListener {
         }
         GHTMLPageComponent html = alggui.algorithmOutputTextArea;
 
-        showMessageFor(html, event);
+        if (batch) {
+            String message = event.getMessage();
+            if (message != null && !message.isEmpty()) {
+                if (pendingMessages.length() > 0)
+                    pendingMessages.append("<br>");
+                pendingMessages.append(message);
+            }
+            if (System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL)
+                flushMessages();
+        } else {
+            flushMessages();
+            showMessageFor(html, event);
+        }
 
         Event output = animateEvent(event);
-        if (event.getMessage() != output.getMessage())
+        if (event.getMessage() != output.getMessage()) {
+            flushMessages();
             showMessageFor(html, output);
+        }
 
         if (oneStep && event instanceof AlgorithmStep) {
             alggui.playOneStepButton.setEnabled(true);
             oneStep = false;
         }
+        if (paused)
+            flushMessages();
         while (paused)
             try {
                 Thread.sleep(100);
@@ -125,6 +160,17 @@ public class AlgorithmAnimator implements EventDispatcher, ActionListener {
         return output;
     }
 
+    /**
+     * shows the messages of the steps which are delivered in batch
+     */
+    private void flushMessages() {
+        lastFlush = System.currentTimeMillis();
+        if (pendingMessages.length() == 0)
+            return;
+        alggui.algorithmOutputTextArea.appendHTML(pendingMessages.toString());
+        pendingMessages.setLength(0);
+    }
+
     private void showMessageFor(GHTMLPageComponent html, Event event1) {
         if (event1 != null && event1.getMessage() != null && event1.getMessage() != "") {
             html.appendHTML(event1.getMessage());
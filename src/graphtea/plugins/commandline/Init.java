@@ -61,6 +61,17 @@ public class Init implements PluginInterface {
         for (ExtensionShellCommandProvider c : ExtensionShellCommandProvider.commands) {
             try {
                 String var = shell.newVariable();
+                if (c.deferred != null) {
+                    //the extension is loaded on the first call of the command
+                    shell.set_variable(var, c.deferred);
+                    c.command += c.deferred.getTargetVariable() + " = " + var + ".getTarget();\n"
+                            + c.help
+                            + "return " + var + "." + "performExtensionInCommandLine()" + ";"
+                            + "}";
+                    shell.evaluateCommand(c.command, c.name, c.abrv);
+                    shell.addCodeCompletionDictionary(c.name, null);
+                    continue;
+                }
                 shell.set_variable("_" + c.trgClass.getClass().getSimpleName(), c.trgClass);
                 shell.set_variable(var, c.ths);
                 c.command += c.help
@@ -15,6 +15,7 @@ import graphtea.platform.core.exception.ExceptionHandler;
 import graphtea.plugins.commandline.commands.EdgeCommands;
 import graphtea.plugins.commandline.commands.GraphCommands;
 import graphtea.plugins.commandline.commands.NativeCommands;
+import graphtea.plugins.commandline.commands.ShellServerCommands;
 import graphtea.plugins.commandline.commands.VertexCommands;
 import graphtea.plugins.commandline.parsers.InwardCommandParser;
 import graphtea.plugins.main.GraphData;
@@ -115,7 +116,7 @@ public class Shell {
         main_interpreter = new Interpreter(console);
         parser = new InwardCommandParser(main_interpreter, this);
         parser.addCommands(new GraphCommands(bb));
-//        parser.addCommands(new ShellServerCommands(bb));
+        parser.addCommands(new ShellServerCommands(bb));
         parser.addCommands(new VertexCommands(bb));
         parser.addCommands(new EdgeCommands(bb));
         parser.addCommands(new NativeCommands(bb));
@@ -5,93 +5,290 @@
 
 package graphtea.plugins.commandline;
 
-import bsh.ConsoleInterface;
+import bsh.EvalError;
 import bsh.Interpreter;
-import graphtea.platform.core.BlackBoard;
 import graphtea.platform.core.exception.ExceptionHandler;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
-import java.io.Reader;
+import java.awt.EventQueue;
+import java.io.*;
+import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
+ * A server which runs the shell commands of many clients at the same time.
+ * <p/>
+ * Each connection is a session with its own BeanShell interpreter, seeded with the
+ * evaluations of the shell. Sessions run on a bounded pool, a client which connects when
+ * all the sessions are busy gets "BUSY" and is disconnected. The server listens on the
+ * loopback interface unless another address is set, since the clients run any code.
+ * <p/>
+ * The requests of all the sessions change the same graphs as the user interface, so they are
+ * evaluated on the event dispatch thread, one at a time.
+ * <p/>
+ * The protocol is line based: each line sent by the client is a request, and for each
+ * request a line is sent back, in the same order, so a client can send many requests
+ * without waiting for their replies:
+ * <pre>
+ * &lt;n&gt; OK &lt;output and result&gt;
+ * &lt;n&gt; ERROR &lt;message&gt;
+ * &lt;n&gt; TIMEOUT
+ * </pre>
+ * n is the number of the request in the session, starting from 1. Newlines and backslashes
+ * in the replies are escaped as \n, \r and \\. A request which takes longer than the timeout
+ * gets TIMEOUT and the session is closed, since the abandoned evaluation may still use the
+ * interpreter and the output of the session, it is not started if it is still waiting for
+ * the event dispatch thread.
+ *
  * @author Mohamad Ali Rostami
  * @email mamaliam@gmail.com
  */
 
 public class ShellServer {
-    public static Thread thread;
+    public static final int DEFAULT_PORT = 1234;
+    public static final int DEFAULT_MAX_CLIENTS = 16;
+    public static final long DEFAULT_TIMEOUT = 60000;
+
+    private Thread thread;
     Shell shell;
 
-    public ShellServer(BlackBoard bb, Shell shell) {
+    private int port = DEFAULT_PORT;
+    private InetAddress bindAddress = InetAddress.getLoopbackAddress();
+    private int maxClients = DEFAULT_MAX_CLIENTS;
+    private long timeout = DEFAULT_TIMEOUT;
+
+    private ServerSocket serverSocket;
+    private ThreadPoolExecutor sessions;
+    //the sockets of the current sessions, they are closed to stop the sessions
+    private final Set<Socket> clients = Collections.synchronizedSet(new HashSet<Socket>());
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    public ShellServer(Shell shell) {
+        this.shell = shell;
+    }
+
+    /**
+     * @param port       the port to listen on
+     * @param maxClients maximum number of clients served at the same time
+     * @param timeout    maximum time of running a request in milliseconds
+     */
+    public ShellServer(Shell shell, int port, int maxClients, long timeout) {
         this.shell = shell;
+        this.port = port;
+        this.maxClients = maxClients;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets the address the server listens on, null listens on all the interfaces. It is used
+     * by the next start().
+     */
+    public synchronized void setBindAddress(InetAddress bindAddress) {
+        this.bindAddress = bindAddress;
     }
 
     public void performJob(String eventKey, Object val) {
-        thread = new Thread() {
-            public void run() {
-                try {
-                    ServerSocket ss = new ServerSocket(1234);
-                    final Socket s = ss.accept();
-                    ConsoleInterface ci = new ConsoleInterface() {
-                        Reader r = new InputStreamReader(s.getInputStream());
-
-                        public Reader getIn() {
-                            try {
-                                return new InputStreamReader(s.getInputStream());
-                            } catch (IOException e) {
-                                ExceptionHandler.catchException(e);
-                            }
-                            return null;
+        try {
+            start();
+        } catch (IOException e) {
+            ExceptionHandler.catchException(e);
+        }
+    }
 
+    /**
+     * Opens the server socket and starts accepting clients in a background thread.
+     */
+    public synchronized void start() throws IOException {
+        if (serverSocket != null)
+            throw new IllegalStateException("The server is already running.");
+        serverSocket = new ServerSocket(port, 50, bindAddress);
+        sessions = new ThreadPoolExecutor(0, maxClients, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), threadFactory("shell-session"));
+        final ServerSocket ss = serverSocket;
+        final ThreadPoolExecutor pool = sessions;
+        thread = threadFactory("shell-server").newThread(new Runnable() {
+            public void run() {
+                while (!ss.isClosed()) {
+                    try {
+                        final Socket s = ss.accept();
+                        try {
+                            pool.execute(new Runnable() {
+                                public void run() {
+                                    serve(s);
+                                }
+                            });
+                        } catch (RejectedExecutionException e) {
+                            refuse(s);
                         }
+                    } catch (SocketException e) {
+                        //the server is stopped
+                    } catch (IOException e) {
+                        ExceptionHandler.catchException(e);
+                    }
+                }
+            }
+        });
+        thread.start();
+    }
 
-                        public PrintStream getOut() {
-                            try {
-                                return new PrintStream(s.getOutputStream());
-                            } catch (IOException e) {
-                                ExceptionHandler.catchException(e);  //To change body of catch statement use File | Settings | File Templates.
-                            }
-                            return null;
-                        }
+    /**
+     * Stops accepting clients and closes the current sessions.
+     */
+    public synchronized void stop() {
+        if (serverSocket == null)
+            return;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            ExceptionHandler.catchException(e);
+        }
+        sessions.shutdownNow();
+        //a session waiting for a request is not stopped by the interrupt
+        synchronized (clients) {
+            for (Socket s : clients)
+                close(s);
+            clients.clear();
+        }
+        serverSocket = null;
+    }
 
-                        public PrintStream getErr() {
-                            try {
-                                return new PrintStream(s.getOutputStream());
-                            } catch (IOException e) {
-                                ExceptionHandler.catchException(e);  //To change body of catch statement use File | Settings | File Templates.
-                            }
-                            return null;
-                        }
+    public synchronized boolean isRunning() {
+        return serverSocket != null;
+    }
 
-                        public void println(Object object) {
+    /**
+     * @return the port the server listens on, useful if it is started on port 0
+     */
+    public synchronized int getLocalPort() {
+        return serverSocket == null ? port : serverSocket.getLocalPort();
+    }
 
-                            this.getOut().println(object);
-                        }
+    private ThreadFactory threadFactory(final String name) {
+        return new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name + "-" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
 
-                        public void print(Object object) {
-                            this.getOut().print(object);
-                        }
+    private static void close(Socket s) {
+        try {
+            s.close();
+        } catch (IOException e) {
+            //already closed
+        }
+    }
 
-                        public void error(Object object) {
-                            this.getOut().println(object);
-                        }
-                    };
-
-                    Interpreter interpreter = new Interpreter(ci);
-                    interpreter.eval(shell.getEvaluations());
-                    interpreter.set("me", shell.get("me"));
-                    interpreter.set("current_interpreter", interpreter);
-                    interpreter.run();
-                } catch (Exception e) {
-                    ExceptionHandler.catchException(e);
+    private void refuse(Socket s) {
+        try {
+            Writer out = new OutputStreamWriter(s.getOutputStream(), "UTF-8");
+            out.write("BUSY\n");
+            out.flush();
+            s.close();
+        } catch (IOException e) {
+            //the client is gone
+        }
+    }
+
+    /**
+     * Runs the session of a client until it disconnects.
+     */
+    private void serve(Socket s) {
+        clients.add(s);
+        if (!isRunning()) {
+            //stopped while the session was starting
+            clients.remove(s);
+            close(s);
+            return;
+        }
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), "UTF-8"));
+            Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), "UTF-8"));
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final PrintStream ps = new PrintStream(output, true, "UTF-8");
+            final Interpreter interpreter = new Interpreter(new StringReader(""), ps, ps, false);
+            String evaluations = shell.getEvaluations();
+            if (evaluations != null)
+                interpreter.eval(evaluations);
+            interpreter.set("me", shell.get("me"));
+            interpreter.set("current_interpreter", interpreter);
+            output.reset();
+
+            int n = 0;
+            String line;
+            while ((line = in.readLine()) != null && !Thread.currentThread().isInterrupted()) {
+                n++;
+                final String request = line;
+                FutureTask<Object> result = new FutureTask<Object>(new Callable<Object>() {
+                    public Object call() throws Exception {
+                        return interpreter.eval(request);
+                    }
+                });
+                EventQueue.invokeLater(result);
+                String reply;
+                boolean timedOut = false;
+                try {
+                    Object ret = result.get(timeout, TimeUnit.MILLISECONDS);
+                    ps.flush();
+                    String printed = output.toString("UTF-8");
+                    reply = "OK " + escape(ret == null ? printed : printed + ret);
+                } catch (TimeoutException e) {
+                    //interrupting would interrupt the event dispatch thread
+                    result.cancel(false);
+                    reply = "TIMEOUT";
+                    timedOut = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    reply = "ERROR " + escape(cause instanceof EvalError ? cause.getMessage() : String.valueOf(cause));
                 }
+                output.reset();
+                out.write(n + " " + reply + "\n");
+                if (timedOut)
+                    break;
+                //the replies of pipelined requests are sent together
+                if (!in.ready())
+                    out.flush();
             }
-        };
-        thread.start();
+            out.flush();
+        } catch (InterruptedException e) {
+            //the server is stopped
+        } catch (IOException e) {
+            //the client is disconnected
+        } catch (EvalError e) {
+            ExceptionHandler.catchException(e);
+        } finally {
+            clients.remove(s);
+            close(s);
+        }
+    }
+
+    static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
     }
 }
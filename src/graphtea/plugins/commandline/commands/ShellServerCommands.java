@@ -5,16 +5,9 @@ import graphtea.platform.core.exception.ExceptionHandler;
 import graphtea.platform.lang.CommandAttitude;
 import graphtea.plugins.main.GraphData;
 import graphtea.plugins.commandline.Shell;
+import graphtea.plugins.commandline.ShellServer;
 
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.io.Reader;
-import java.io.InputStreamReader;
 import java.io.IOException;
-import java.io.PrintStream;
-
-import bsh.ConsoleInterface;
-import bsh.Interpreter;
 
 /**
  * @author Mohamad Ali Rostami
@@ -25,7 +18,7 @@ public class ShellServerCommands {
 
     BlackBoard bb;
     GraphData datas;
-    Thread thread;
+    ShellServer server;
 
     public ShellServerCommands(BlackBoard bb) {
         this.bb = bb;
@@ -33,77 +26,24 @@ public class ShellServerCommands {
     }
 
     @CommandAttitude(name = "run_server", abbreviation = "_rs"
-                , description = "")
+                , description = "Runs a server on port 1234 of the loopback interface which serves the shell to many clients, see ShellServer")
 
     public void run() {
-        final Shell shell = Shell.getCurrentShell(bb);
-            thread = new Thread() {
-            public void run() {
-                try {
-                    ServerSocket ss = new ServerSocket(1234);
-                    final Socket s = ss.accept();
-                    ConsoleInterface ci = new ConsoleInterface() {
-                        Reader r = new InputStreamReader(s.getInputStream());
-
-                        public Reader getIn() {
-                            try {
-                                return new InputStreamReader(s.getInputStream());
-                            } catch (IOException e) {
-                                ExceptionHandler.catchException(e);
-                            }
-                            return null;
-
-                        }
-
-                        public PrintStream getOut() {
-                            try {
-                                return new PrintStream(s.getOutputStream());
-                            } catch (IOException e) {
-                                ExceptionHandler.catchException(e);  //To change body of catch statement use File | Settings | File Templates.
-                            }
-                            return null;
-                        }
-
-                        public PrintStream getErr() {
-                            try {
-                                return new PrintStream(s.getOutputStream());
-                            } catch (IOException e) {
-                                ExceptionHandler.catchException(e);  //To change body of catch statement use File | Settings | File Templates.
-                            }
-                            return null;
-                        }
-
-                        public void println(Object object) {
-
-                            this.getOut().println(object);
-                        }
-
-                        public void print(Object object) {
-                            this.getOut().print(object);
-                        }
-
-                        public void error(Object object) {
-                            this.getOut().println(object);
-                        }
-                    };
-
-                    Interpreter interpreter = new Interpreter(ci);
-                    interpreter.eval(shell.getEvaluations());
-                    interpreter.set("me", shell.get("me"));
-                    interpreter.set("current_interpreter", interpreter);
-                    interpreter.run();
-                } catch (Exception e) {
-                    ExceptionHandler.catchException(e);
-                }
-            }
-        };
-        thread.start();
+        if (server != null && server.isRunning())
+            return;
+        server = new ShellServer(Shell.getCurrentShell(bb));
+        try {
+            server.start();
+        } catch (IOException e) {
+            ExceptionHandler.catchException(e);
+        }
     }
 
-    @CommandAttitude(name = "exit_server", abbreviation = "_rs"
-                , description = "")
+    @CommandAttitude(name = "exit_server", abbreviation = "_es"
+                , description = "Stops the shell server")
 
     public void exit() {
-        thread.stop();
+        if (server != null)
+            server.stop();
     }
 }
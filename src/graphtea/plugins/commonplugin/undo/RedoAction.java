@@ -7,8 +7,6 @@ package graphtea.plugins.commonplugin.undo;
 author :roozbeh
 */
 
-import graphtea.graph.graph.GraphModel;
-import graphtea.graph.io.GraphML;
 import graphtea.platform.core.AbstractAction;
 import graphtea.platform.core.BlackBoard;
 import graphtea.plugins.commonplugin.Init;
@@ -30,15 +28,14 @@ public class RedoAction extends AbstractAction {
     }
 
     /**
-     * undo the last undoabe operation done in the context of current blackboard
+     * redo the last undone operation done in the context of current blackboard
      *
      * @param blackboard
      */
     public static void redo(BlackBoard blackboard) {
         GraphData gd = new GraphData(blackboard);
         UndoManager logManager = Init.undoers.get(gd.getGraph());
-        String gml = logManager.getNextRedoData();
-        GraphModel gm = GraphML.GraphML2Graph(gml);
-        gd.getGraphRenderer().setGraph(gm);
+        if (logManager != null)
+            logManager.redo();
     }
 }
\ No newline at end of file
@@ -7,9 +7,6 @@ package graphtea.plugins.commonplugin.undo;
 author :roozbeh
 */
 
-import graphtea.graph.graph.GraphModel;
-import graphtea.graph.io.GraphJSON;
-import graphtea.graph.io.GraphML;
 import graphtea.platform.core.AbstractAction;
 import graphtea.platform.core.BlackBoard;
 import graphtea.plugins.commonplugin.Init;
@@ -30,17 +27,15 @@ public class UndoAction extends AbstractAction {
     }
 
     /**
-     * undo the last undoabe operation done in the context of current blackboard
+     * undo the last undoable operation done in the context of current blackboard
      *
      * @param blackboard
      */
     public static void undo(BlackBoard blackboard) {
         GraphData gd = new GraphData(blackboard);
         UndoManager logManager = Init.undoers.get(gd.getGraph());
-        String ud = logManager.getNextUndoData();
-        GraphModel gm = GraphJSON.Json2Graph(ud);
-//        gd.getGraph().addSubGraph();
-        gd.getGraphRenderer().setGraph(gm);
+        if (logManager != null)
+            logManager.undo();
     }
 
 }
\ No newline at end of file
@@ -8,86 +8,550 @@ package graphtea.plugins.commonplugin.undo;
 * author: azin azadi
 */
 
+import graphtea.graph.atributeset.EdgeAttrSet;
+import graphtea.graph.atributeset.GraphAttrSet;
+import graphtea.graph.atributeset.VertexAttrSet;
+import graphtea.graph.event.AttributeChangeListener;
+import graphtea.graph.event.GraphModelListener;
+import graphtea.graph.graph.Edge;
 import graphtea.graph.graph.GraphModel;
-import graphtea.graph.io.GraphJSON;
-import graphtea.graph.io.GraphML;
-import graphtea.plugins.main.GraphData;
+import graphtea.graph.graph.GraphPoint;
+import graphtea.graph.graph.Vertex;
+import graphtea.platform.attribute.AttributeSet;
 
-public class UndoManager {
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * The undo history of a graph. The changes of the graph are recorded as small deltas and not as
+ * snapshots of the whole graph, so undoing or redoing an edit costs as much as the edit itself:
+ * <ul>
+ * <li>vertices and edges added or removed, they are told by the graph (it is a graph recorder,
+ * see GraphModel.addGraphRecorder) and the same objects are removed or inserted again,</li>
+ * <li>attributes changed, with their values before and after, they are told by the setters of the
+ * graph and of its vertices and edges (it is an attribute change listener of the graph). The
+ * selection and the zoom are not recorded.</li>
+ * </ul>
+ * The deltas are grouped in transactions, each of them is one undo step. A transaction is either
+ * explicit, between beginTransaction and endTransaction, or implicit: the changes made outside an
+ * explicit transaction are grouped until the current event of the AWT event queue is handled.
+ * <p/>
+ * When a transaction is closed it is compacted: an element added and removed again in it is
+ * dropped with its attribute changes, the attribute changes of an element added in it are dropped
+ * (the element keeps its attributes while it is out of the graph), and the changes of the same
+ * attribute are merged into one change from its first value to its last. The history is limited
+ * by an estimate of its memory, the oldest transactions are dropped when it is exceeded.
+ * <p/>
+ * The changes which are not edits of the user, such as the frames of an animated layout or the
+ * marks of an algorithm animation, are made with the recording suspended in their thread (see
+ * suspendRecording), otherwise they would fill the history and push the edits out of it.
+ */
+public class UndoManager implements GraphModelListener, AttributeChangeListener {
     public static final String EVENT_KEY = "Undo Log Manager";
+    //memory budget of the history, in bytes
+    public static final long DEFAULT_MEMORY_BUDGET = 8L << 20;
+
+    private final GraphModel g;
+    //the last done transaction is the first one
+    private final ArrayDeque<Transaction> undoList = new ArrayDeque<Transaction>();
+    private final ArrayDeque<Transaction> redoList = new ArrayDeque<Transaction>();
+    private Transaction open;
+    private int explicitDepth;
+    private boolean sealScheduled;
+    //true while a transaction is undone or redone, so its own changes are not recorded
+    private boolean applying;
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long memoryUsed;
+
+    //the number of suspendRecording() calls of each thread which are not resumed yet
+    private static final ThreadLocal<int[]> suspended = new ThreadLocal<int[]>() {
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    /**
+     * Stops recording the changes which the calling thread makes in any graph, until the matching
+     * resumeRecording(). The changes made by the other threads, i.e. the edits of the user in the
+     * event dispatch thread, are still recorded. Calls can be nested, always call resumeRecording()
+     * in a finally block.
+     */
+    public static void suspendRecording() {
+        suspended.get()[0]++;
+    }
+
+    /**
+     * @throws IllegalStateException if the recording is not suspended in the calling thread
+     */
+    public static void resumeRecording() {
+        int[] depth = suspended.get();
+        if (depth[0] == 0)
+            throw new IllegalStateException("resumeRecording() without suspendRecording()");
+        depth[0]--;
+    }
+
+    /**
+     * runs r with the recording suspended in the calling thread
+     */
+    public static void runUnrecorded(Runnable r) {
+        suspendRecording();
+        try {
+            r.run();
+        } finally {
+            resumeRecording();
+        }
+    }
+
+    private static boolean isSuspended() {
+        return suspended.get()[0] > 0;
+    }
 
     public UndoManager(GraphModel g) {
-        current = lastNode;
-        watchGraph(g);
+        this.g = g;
+        g.addGraphRecorder(this);
+        g.addAttributeChangeListener(this);
     }
 
-    Node current;
-    Node lastNode = new Node();
+    /**
+     * stops recording the changes of the graph
+     */
+    public synchronized void detach() {
+        g.removeGraphRecorder(this);
+        g.removeAttributeChangeListener(this);
+    }
 
-    String lastgml = "";
+    public GraphModel getGraph() {
+        return g;
+    }
 
-    void watchGraph(final GraphModel g) {
-        new Thread() {
-            public void run() {
-                while (true) {
-                    try {
-                        String cur = GraphJSON.Graph2Json(g);
-                        if (!cur.equals(lastgml)) {
-                            //st changed
-                            System.out.println(cur);
-                            addChange(cur);
-                            lastgml = cur;
-                        }
-                        sleep(2000);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
+    /**
+     * Starts a transaction, the changes until the matching endTransaction() are undone in one step.
+     * Transactions can be nested, the outermost one is recorded. Always call endTransaction() in a
+     * finally block.
+     *
+     * @param name the name of the edit, shown to the user
+     */
+    public synchronized void beginTransaction(String name) {
+        if (explicitDepth++ == 0) {
+            seal();
+            open = new Transaction(name);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if there is no transaction in progress
+     */
+    public synchronized void endTransaction() {
+        if (explicitDepth == 0)
+            throw new IllegalStateException("endTransaction() without beginTransaction()");
+        if (--explicitDepth == 0)
+            seal();
+    }
+
+    /**
+     * Records the change of an attribute of a vertex, an edge or the graph. The changes made by the
+     * setters are recorded by themselves, this is for the attributes which are changed in other
+     * ways. It should be called after the change is made, the value is set back by the attribute
+     * set of the element.
+     *
+     * @param element a Vertex, an Edge or the GraphModel
+     * @param name    the name of the attribute, as in VertexAttrSet, EdgeAttrSet or GraphAttrSet
+     */
+    public synchronized void recordAttributeChange(Object element, String name, Object before, Object after) {
+        if (applying || isSuspended() || (before == null ? after == null : before.equals(after)))
+            return;
+        if (open != null && !open.changes.isEmpty()) {
+            //successive changes of an attribute, such as the moves of a dragged vertex
+            Change last = open.changes.get(open.changes.size() - 1);
+            if (last instanceof AttributeChange && last.element == element && ((AttributeChange) last).name.equals(name)) {
+                ((AttributeChange) last).after = AttributeChange.copy(after);
+                return;
             }
-        }.start();
+        }
+        record(new AttributeChange(element, name, before, after));
+    }
+
+    /**
+     * Undoes the last transaction.
+     *
+     * @return false if there is nothing to undo
+     * @throws IllegalStateException if it is called inside a transaction
+     */
+    public synchronized boolean undo() {
+        if (explicitDepth > 0)
+            throw new IllegalStateException("undo() inside a transaction");
+        seal();
+        Transaction t = undoList.pollFirst();
+        if (t == null)
+            return false;
+        applying = true;
+        try {
+            for (int i = t.changes.size() - 1; i >= 0; i--)
+                t.changes.get(i).undo(g);
+        } finally {
+            applying = false;
+        }
+        redoList.addFirst(t);
+        return true;
+    }
+
+    /**
+     * Redoes the last undone transaction.
+     *
+     * @return false if there is nothing to redo
+     * @throws IllegalStateException if it is called inside a transaction
+     */
+    public synchronized boolean redo() {
+        if (explicitDepth > 0)
+            throw new IllegalStateException("redo() inside a transaction");
+        seal();
+        Transaction t = redoList.pollFirst();
+        if (t == null)
+            return false;
+        applying = true;
+        try {
+            for (Change c : t.changes)
+                c.redo(g);
+        } finally {
+            applying = false;
+        }
+        undoList.addFirst(t);
+        return true;
     }
 
+    public synchronized boolean canUndo() {
+        return !undoList.isEmpty() || (open != null && !open.changes.isEmpty());
+    }
 
-    public void addChange(String graphml) {
-        Node first = new Node();
-        first.val = graphml;
-        first.setNext(current);
-        this.current = first;
+    public synchronized boolean canRedo() {
+        return !redoList.isEmpty();
     }
 
     /**
-     * returns the data for the next undo action
+     * @return the name of the transaction which is undone next, null if it has no name
      */
-    public String getNextUndoData() {
-        if (current == lastNode)
-            return null;    //no action to undo
-        String val = current.val;
-        current = current.next;
-        return val;
+    public synchronized String getUndoName() {
+        if (explicitDepth == 0)
+            seal();
+        return undoList.isEmpty() ? null : undoList.peekFirst().name;
+    }
+
+    public synchronized String getRedoName() {
+        return redoList.isEmpty() ? null : redoList.peekFirst().name;
     }
 
     /**
-     * returns the data for the next undo action
+     * removes all the history
      */
-    public String getNextRedoData() {
-        if (current.prev == null)
-            return null;    //no action to undo
-        current = current.prev;
-        return current.val;
+    public synchronized void clear() {
+        if (explicitDepth == 0)
+            open = null;
+        else
+            open = new Transaction(open.name);
+        undoList.clear();
+        redoList.clear();
+        memoryUsed = 0;
     }
 
-}
+    /**
+     * @param bytes the estimated memory the history may use, the oldest transactions are dropped
+     *              when it is exceeded. The last transaction is always kept.
+     */
+    public synchronized void setMemoryBudget(long bytes) {
+        memoryBudget = bytes;
+        trim();
+    }
 
-class Node {
-    Node next, prev;
-    String val;
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
 
     /**
-     * sets the next node linked to this node and also updates the previous node of the next to this
+     * @return the estimated memory used by the history, in bytes
      */
-    public void setNext(Node next) {
-        this.next = next;
-        if (next != null)
-            next.prev = this;
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    //________________________   - Graph Recorder    _________________________________
+
+    public synchronized void vertexAdded(Vertex v) {
+        record(new StructureChange(v, true));
+    }
+
+    public synchronized void vertexRemoved(Vertex v) {
+        record(new StructureChange(v, false));
+    }
+
+    public synchronized void edgeAdded(Edge e) {
+        record(new StructureChange(e, true));
+    }
+
+    public synchronized void edgeRemoved(Edge e) {
+        record(new StructureChange(e, false));
+    }
+
+    public void graphCleared() {
+    }
+
+    public void repaintGraph() {
+    }
+
+    public void graphChanged() {
+    }
+
+    //________________________   - Attribute Listener    _________________________________
+
+    public synchronized void vertexAttributeChanged(Vertex v, String name, Object oldVal, Object newVal) {
+        if (!name.equals(VertexAttrSet.SELECTED))
+            recordAttributeChange(v, name, oldVal, newVal);
+    }
+
+    public synchronized void edgeAttributeChanged(Edge e, String name, Object oldVal, Object newVal) {
+        if (!name.equals(EdgeAttrSet.SELECTED))
+            recordAttributeChange(e, name, oldVal, newVal);
+    }
+
+    public synchronized void graphAttributeChanged(GraphModel g, String name, Object oldVal, Object newVal) {
+        if (!name.equals(GraphAttrSet.ZOOM))
+            recordAttributeChange(g, name, oldVal, newVal);
+    }
+
+    private void record(Change c) {
+        if (applying || isSuspended())
+            return;
+        if (open == null) {
+            open = new Transaction(null);
+            scheduleSeal();
+        }
+        open.changes.add(c);
+    }
+
+    /**
+     * closes the implicit transaction after the current AWT event
+     */
+    private void scheduleSeal() {
+        if (sealScheduled)
+            return;
+        sealScheduled = true;
+        EventQueue.invokeLater(new Runnable() {
+            public void run() {
+                synchronized (UndoManager.this) {
+                    sealScheduled = false;
+                    if (explicitDepth == 0)
+                        seal();
+                }
+            }
+        });
+    }
+
+    /**
+     * adds the open transaction to the history
+     */
+    private void seal() {
+        Transaction t = open;
+        open = null;
+        if (t == null)
+            return;
+        t.compact();
+        if (t.changes.isEmpty())
+            return;
+        for (Transaction r : redoList)
+            memoryUsed -= r.cost;
+        redoList.clear();
+        undoList.addFirst(t);
+        memoryUsed += t.cost;
+        trim();
+    }
+
+    private void trim() {
+        while (memoryUsed > memoryBudget && undoList.size() > 1)
+            memoryUsed -= undoList.pollLast().cost;
+    }
+
+    //________________________   - Deltas    _________________________________
+
+    private static class Transaction {
+        final String name;
+        ArrayList<Change> changes = new ArrayList<Change>();
+        long cost;
+
+        Transaction(String name) {
+            this.name = name;
+        }
+
+        void compact() {
+            //the number of times each element is added or removed, and the first and last of them
+            IdentityHashMap<Object, int[]> structure = new IdentityHashMap<Object, int[]>();
+            for (int i = 0; i < changes.size(); i++) {
+                Change c = changes.get(i);
+                if (c instanceof StructureChange) {
+                    int[] s = structure.get(c.element);
+                    if (s == null)
+                        structure.put(c.element, new int[]{1, i, i});
+                    else {
+                        s[0]++;
+                        s[2] = i;
+                    }
+                }
+            }
+            //the first change of each attribute, which the later ones are merged into
+            IdentityHashMap<Object, HashMap<String, AttributeChange>> attributes
+                    = new IdentityHashMap<Object, HashMap<String, AttributeChange>>();
+            boolean[] keep = new boolean[changes.size()];
+            for (int i = 0; i < changes.size(); i++) {
+                Change c = changes.get(i);
+                int[] s = structure.get(c.element);
+                boolean firstAdded = s != null && ((StructureChange) changes.get(s[1])).added;
+                boolean odd = s != null && s[0] % 2 == 1;
+                if (c instanceof StructureChange) {
+                    //an element added and removed as many times is dropped, of the others the
+                    //first add or the last remove is kept
+                    keep[i] = odd && i == (firstAdded ? s[1] : s[2]);
+                } else if (!firstAdded) {
+                    //the attributes of an element which was not in the graph before are not needed
+                    AttributeChange a = (AttributeChange) c;
+                    HashMap<String, AttributeChange> m = attributes.get(a.element);
+                    if (m == null) {
+                        m = new HashMap<String, AttributeChange>();
+                        attributes.put(a.element, m);
+                    }
+                    AttributeChange first = m.get(a.name);
+                    if (first == null) {
+                        m.put(a.name, a);
+                        keep[i] = true;
+                    } else
+                        first.after = a.after;
+                }
+            }
+            ArrayList<Change> compacted = new ArrayList<Change>();
+            cost = 0;
+            for (int i = 0; i < changes.size(); i++) {
+                Change c = changes.get(i);
+                if (!keep[i])
+                    continue;
+                if (c instanceof AttributeChange) {
+                    AttributeChange a = (AttributeChange) c;
+                    if (a.before == null ? a.after == null : a.before.equals(a.after))
+                        continue;
+                }
+                compacted.add(c);
+                cost += c.cost();
+            }
+            compacted.trimToSize();
+            changes = compacted;
+        }
+    }
+
+    private static abstract class Change {
+        final Object element;
+
+        Change(Object element) {
+            this.element = element;
+        }
+
+        abstract void undo(GraphModel g);
+
+        abstract void redo(GraphModel g);
+
+        /**
+         * @return estimated memory of the change in bytes
+         */
+        abstract long cost();
+    }
+
+    /**
+     * a vertex or an edge added to or removed from the graph
+     */
+    private static class StructureChange extends Change {
+        final boolean added;
+
+        StructureChange(Object element, boolean added) {
+            super(element);
+            this.added = added;
+        }
+
+        void undo(GraphModel g) {
+            apply(g, !added);
+        }
+
+        void redo(GraphModel g) {
+            apply(g, added);
+        }
+
+        private void apply(GraphModel g, boolean insert) {
+            if (element instanceof Vertex) {
+                Vertex v = (Vertex) element;
+                if (insert)
+                    g.insertVertex(v);
+                else
+                    g.removeVertex(v);
+            } else {
+                Edge e = (Edge) element;
+                if (insert)
+                    g.insertEdge(e);
+                else
+                    g.removeEdge(e);
+            }
+        }
+
+        long cost() {
+            return 32;
+        }
+    }
+
+    private static class AttributeChange extends Change {
+        final String name;
+        final Object before;
+        Object after;
+
+        AttributeChange(Object element, String name, Object before, Object after) {
+            super(element);
+            this.name = name;
+            this.before = copy(before);
+            this.after = copy(after);
+        }
+
+        /**
+         * points are mutable, so the recorded values are copies of them
+         */
+        private static Object copy(Object o) {
+            return o instanceof GraphPoint ? ((GraphPoint) o).clone() : o;
+        }
+
+        void undo(GraphModel g) {
+            attributes().put(name, copy(before));
+        }
+
+        void redo(GraphModel g) {
+            attributes().put(name, copy(after));
+        }
+
+        private AttributeSet attributes() {
+            if (element instanceof Vertex)
+                return new VertexAttrSet((Vertex) element);
+            if (element instanceof Edge)
+                return new EdgeAttrSet((Edge) element);
+            return new GraphAttrSet((GraphModel) element);
+        }
+
+        long cost() {
+            return 48 + sizeOf(before) + sizeOf(after);
+        }
+
+        private static long sizeOf(Object o) {
+            if (o == null)
+                return 0;
+            if (o instanceof String)
+                return 40 + 2 * ((String) o).length();
+            if (o instanceof GraphPoint)
+                return 32;
+            if (o instanceof Number || o instanceof Boolean)
+                return 16;
+            return 64;
+        }
     }
 }
@@ -104,12 +104,15 @@ public class GraphGenerator implements PluginMethods {
         Vertex[] vertices = gi.getVertices();
         Point[] pos = gi.getVertexPositions();
         Edge[] edges = gi.getEdges();
-        for (Vertex v : vertices)
-            ret.insertVertex(v);
-        for (int i = 0; i < vertices.length; i++)
-            vertices[i].setLocation(new GraphPoint(pos[i].x, pos[i].y));
-        for (Edge e : edges)
-            ret.insertEdge(e);
+        ret.beginBulkUpdate();
+        try {
+            ret.insertVertices(vertices);
+            for (int i = 0; i < vertices.length; i++)
+                vertices[i].setLocation(new GraphPoint(pos[i].x, pos[i].y));
+            ret.insertEdges(edges);
+        } finally {
+            ret.endBulkUpdate();
+        }
         return ret;
     }
 
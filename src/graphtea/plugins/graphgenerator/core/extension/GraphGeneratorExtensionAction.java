@@ -25,6 +25,11 @@ public class GraphGeneratorExtensionAction extends AbstractExtensionAction<Graph
         return "Generate Graph";
     }
 
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
     @Override
     public GraphModel performExtensionInCommandLine() {
         return GraphGenerator.generateGraphInRect(blackboard,getTarget(), new Rectangle(100, 100, 600,600));
@@ -11,7 +11,9 @@ import graphtea.library.BaseEdge;
 import graphtea.library.BaseGraph;
 import graphtea.library.BaseVertex;
 import graphtea.library.Path;
+import graphtea.library.algorithms.traversal.GraphTraversal;
 import graphtea.library.algorithms.util.LibraryUtils;
+import graphtea.library.util.SparseMatrix;
 
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
@@ -52,10 +54,8 @@ public class AlgorithmUtils {
      */
     public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
     boolean isConnected(BaseGraph<VertexType, EdgeType> g) {
-        ArrayList vs = new ArrayList();
-        int[] parent = new int[g.getVerticesCount()];
-        dfs(g, 0, vs, parent);
-        return vs.size() == g.getVerticesCount();
+        int n = g.getVerticesCount();
+        return n == 0 || new GraphTraversal<VertexType, EdgeType>(g).bfs(0).getCount() == n;
     }
 
     /**
@@ -77,14 +77,17 @@ public class AlgorithmUtils {
      */
     public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
     ArrayList<ArrayList<Integer>> getAdjList(BaseGraph<VertexType, EdgeType> g) {
-        double[][] mat = g.getAdjacencyMatrix().getArray();
+        SparseMatrix mat = g.getSparseAdjacencyMatrix();
+        int[] start = mat.getRowStart();
+        int[] cols = mat.getColumns();
+        double[] vals = mat.getValues();
         ArrayList<ArrayList<Integer>> alist = new ArrayList();
-        int vCount = mat.length;
+        int vCount = mat.getRowDimension();
         for (int i = 0; i < vCount; i++) {
-            ArrayList<Integer> adjacencyList = new ArrayList();
-            for (int j = 0; j < vCount; j++)
-                if (mat[i][j] == 1)
-                    adjacencyList.add(j);
+            ArrayList<Integer> adjacencyList = new ArrayList(mat.rowNonZeros(i));
+            for (int p = start[i]; p < start[i + 1]; p++)
+                if (vals[p] == 1)
+                    adjacencyList.add(cols[p]);
             alist.add(adjacencyList);
         }
         return alist;
@@ -98,17 +101,23 @@ public class AlgorithmUtils {
      */
     public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
     int getDegree(BaseGraph<VertexType, EdgeType> bg, int node) {
-        int result = 0;
-        double[][] mat = bg.getAdjacencyMatrix().getArray();
-        int vCount = mat.length;
-        if (node > vCount)
+        SparseMatrix mat = bg.getSparseAdjacencyMatrix();
+        if (node > mat.getRowDimension())
             return -1;
-        for (int i = 0; i < vCount; i++)
-            if (mat[node][i] == 1)
-                result++;
+        return getDegree(mat, node);
+    }
 
+    /**
+     * number of simple edges (entries equal to 1) in the given row of the adjacency matrix
+     */
+    private static int getDegree(SparseMatrix mat, int node) {
+        int result = 0;
+        int[] start = mat.getRowStart();
+        double[] vals = mat.getValues();
+        for (int p = start[node]; p < start[node + 1]; p++)
+            if (vals[p] == 1)
+                result++;
         return result;
-
     }
 
     /**
@@ -325,14 +334,15 @@ public class AlgorithmUtils {
     public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
     void dfs(BaseGraph<VertexType, EdgeType> g,
              int node, ArrayList visit, int parent[]) {
+        dfs(getAdjList(g), node, visit, parent);
+    }
+
+    private static void dfs(ArrayList<ArrayList<Integer>> adjList, int node, ArrayList visit, int parent[]) {
         visit.add(node);
-        ArrayList e = getAdjList(g);
-        ArrayList neighbors = (ArrayList) e.get(node);
-        for (Object neighbor1 : neighbors) {
-            int neighbor = (Integer) neighbor1;
+        for (int neighbor : adjList.get(node)) {
             if (parent[neighbor] == -1) {
                 parent[neighbor] = node;
-                dfs(g, neighbor, visit, parent);
+                dfs(adjList, neighbor, visit, parent);
             }
         }
     }
@@ -487,10 +497,11 @@ public class AlgorithmUtils {
      */
     public static <VertexType extends BaseVertex, EdgeType extends BaseEdge<VertexType>>
     ArrayList<Integer> getDegreesList(BaseGraph<VertexType, EdgeType> g) {
-        ArrayList<Integer> result = new ArrayList<Integer>();
-        int vCount = g.getVertexArray().length;
+        SparseMatrix mat = g.getSparseAdjacencyMatrix();
+        int vCount = mat.getRowDimension();
+        ArrayList<Integer> result = new ArrayList<Integer>(vCount);
         for (int i = 0; i < vCount; i++)
-            result.add(getDegree(g, i));
+            result.add(getDegree(mat, i));
         return result;
     }
 
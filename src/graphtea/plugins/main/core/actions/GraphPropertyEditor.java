@@ -46,7 +46,7 @@ public class GraphPropertyEditor extends AbstractAction implements AttributeList
 
     Edge lastEdge;
 
-    private TimeLimitedNotifiableAttrSet target;
+    private NotifiableAttributeSet target;
 
     AttributeSetView edgeView = new AttributeSetView();
 
@@ -62,7 +62,7 @@ public class GraphPropertyEditor extends AbstractAction implements AttributeList
 
     PortableNotifiableAttributeSetImpl xx = new PortableNotifiableAttributeSetImpl();
 
-    TimeLimitedNotifiableAttrSet selectionAttributes = new TimeLimitedNotifiableAttrSet(new AttributeSetImpl());
+    NotifiableAttributeSetImpl selectionAttributes = new NotifiableAttributeSetImpl();
 
     SelectPluginMethods spm;
 
@@ -240,7 +240,7 @@ public class GraphPropertyEditor extends AbstractAction implements AttributeList
             viewer = selectView;
 
             iChangedTheAttribute = true;
-            TimeLimitedNotifiableAttrSet retAtrs = new TimeLimitedNotifiableAttrSet(new AttributeSetImpl());
+            NotifiableAttributeSetImpl retAtrs = new NotifiableAttributeSetImpl();
             retAtrs.removeAttributeListener(this);
 
             //adding each Vertex/Edge attribute to selectionAttributes
@@ -377,15 +377,17 @@ public class GraphPropertyEditor extends AbstractAction implements AttributeList
     }
 
 
-    private TimeLimitedNotifiableAttrSet getTarget() {
+    private NotifiableAttributeSet getTarget() {
         return target;
     }
 
-    private void setTarget(TimeLimitedNotifiableAttrSet target) {
-        if (this.target != null) {
-            this.target.stop();
+    /**
+     * sets the attribute set shown in the editor, the previous one stops listening to its element
+     */
+    private void setTarget(NotifiableAttributeSet target) {
+        if (this.target instanceof ElementNotifiableAttrSet) {
+            ((ElementNotifiableAttrSet) this.target).stop();
         }
         this.target = target;
-        this.target.stop();
     }
 }
\ No newline at end of file
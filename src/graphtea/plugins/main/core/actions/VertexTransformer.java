@@ -10,6 +10,8 @@ import graphtea.graph.graph.*;
 import graphtea.graph.ui.GraphRectRegionSelect;
 import graphtea.platform.core.AbstractAction;
 import graphtea.platform.core.BlackBoard;
+import graphtea.plugins.commonplugin.Init;
+import graphtea.plugins.commonplugin.undo.UndoManager;
 import graphtea.plugins.main.GraphData;
 import graphtea.plugins.main.core.AlgorithmUtils;
 
@@ -79,6 +81,11 @@ public class VertexTransformer extends AbstractAction implements PaintHandler<Ab
             drgStartMouseY = ge.mousePos.y;
             if (up == null)//not initialized yet
                 return;
+            //the transformation until the drop is undone in one step
+            endTransformTransaction();
+            transformTransaction = Init.undoers.get(g);
+            if (transformTransaction != null)
+                transformTransaction.beginTransaction("Transform");
             if (up.contains(pos)) {
 //                blackboard.setData(IS_TRANSFORMING, true);
                 activeBox = "up";
@@ -172,10 +179,7 @@ public class VertexTransformer extends AbstractAction implements PaintHandler<Ab
         if (ge.eventType == GraphEvent.DROPPED) {
 //            System.out.println("dropped");
             //add undo data
-            GraphPoint[] newPos = new GraphPoint[gd.getGraph().getVerticesCount()];
-            for (Vertex _ : gd.getGraph()) {
-                newPos[_.getId()] = _.getLocation();
-            }
+            endTransformTransaction();
 
             blackboard.setData(IS_TRANSFORMING, false);
         }
@@ -183,6 +187,15 @@ public class VertexTransformer extends AbstractAction implements PaintHandler<Ab
 //        gd.select.setSelected(sd);
     }
 
+    private UndoManager transformTransaction;
+
+    private void endTransformTransaction() {
+        if (transformTransaction != null) {
+            transformTransaction.endTransaction();
+            transformTransaction = null;
+        }
+    }
+
     private double abs(double dy) {
         return Math.abs(dy);
     }
@@ -26,6 +26,11 @@ public class GraphActionExtensionAction extends AbstractExtensionAction {
         return "Actions";
     }
 
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
     public void performExtension() {
         ga.action(gd);
     }
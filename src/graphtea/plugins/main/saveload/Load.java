@@ -10,24 +10,51 @@ import graphtea.plugins.main.saveload.core.GraphIOException;
 import graphtea.plugins.main.saveload.core.extension.GraphReaderExtension;
 import graphtea.plugins.main.saveload.xmlparser.GraphmlHandlerImpl;
 import graphtea.plugins.main.saveload.xmlparser.GraphmlParser;
+import graphtea.plugins.main.saveload.xmlparser.GraphmlStaxReader;
 import graphtea.platform.core.exception.ExceptionHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
 
 public class Load implements GraphReaderExtension {
 
     /**
-     * loads a graph from a file, note that this method clears the graph first
+     * loads a graph from a file, gzip compressed files are also accepted.
+     * The file is read by GraphmlStaxReader, which builds the graph in bulk.
      *
      * @param selectedFile
-     * @param g
      */
     public static GraphModel loadGraphFromFile(File selectedFile) throws IOException, ParserConfigurationException, SAXException {
+        InputStream istream = new BufferedInputStream(new FileInputStream(selectedFile), 1 << 16);
+        try {
+            istream.mark(2);
+            int magic = istream.read() | (istream.read() << 8);
+            istream.reset();
+            if (magic == GZIPInputStream.GZIP_MAGIC)
+                istream = new BufferedInputStream(new GZIPInputStream(istream, 1 << 16), 1 << 16);
+            return GraphmlStaxReader.read(istream);
+        } catch (XMLStreamException e) {
+            throw new SAXException(e);
+        } finally {
+            istream.close();
+        }
+    }
+
+    /**
+     * loads a graph from a file with the SAX parser, which validates the file against graphml.dtd
+     * and inserts the vertices and edges one by one.
+     *
+     * @param selectedFile
+     */
+    public static GraphModel loadGraphFromFileSAX(File selectedFile) throws IOException, ParserConfigurationException, SAXException {
         FileInputStream istream = new FileInputStream(selectedFile);
         GraphmlHandlerImpl ghi = new GraphmlHandlerImpl();
 
@@ -37,7 +64,12 @@ public class Load implements GraphReaderExtension {
     }
 
     public boolean accepts(File file) {
-        return SaveLoadPluginMethods.getExtension(file).equals(getExtension());
+        String ext = SaveLoadPluginMethods.getExtension(file);
+        if ("gz".equals(ext)) {
+            String name = file.getName();
+            ext = SaveLoadPluginMethods.getExtension(new File(name.substring(0, name.length() - 3)));
+        }
+        return getExtension().equals(ext);
     }
 
     public String getName() {
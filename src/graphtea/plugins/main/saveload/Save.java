@@ -9,9 +9,15 @@ import graphtea.graph.io.GraphML;
 import graphtea.plugins.main.saveload.core.GraphIOException;
 import graphtea.plugins.main.saveload.core.extension.GraphWriterExtension;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Saves a graph file to GraphML file format
@@ -20,25 +26,30 @@ import java.io.IOException;
 public class Save implements GraphWriterExtension {
 
     /**
-     * saves g in file as a GraphML
+     * saves g in file as a GraphML, the file is gzip compressed if its name ends with .gz
      *
      * @param g
      * @param file
      * @throws IOException
      */
     public static void saveGraphML(GraphModel g, File file) throws IOException {
-        FileWriter output = null;
-        output = new FileWriter(file);
-        output.write(""
-                + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
-                + "<!DOCTYPE graphml SYSTEM \"graphml.dtd\">\n"
-                + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\"\n"
-                + "    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
-                + "    xsi:schemaLocation=\"http://graphml.graphdrawing.org/xmlns\n"
-                + "     http://graphml.graphdrawing.org/xmlns/1.0/graphml.xsd\">\n");
-        output.write(GraphML.graph2GraphML(g));
-        output.write("</graphml>");
-        output.close();
+        saveGraphML(g, new FileOutputStream(file), file.getName().toLowerCase().endsWith(".gz"));
+    }
+
+    /**
+     * writes g as a GraphML document to os and closes it. The document is streamed through
+     * a buffer, so the memory used does not depend on the size of the graph.
+     *
+     * @param gzip compress the output with gzip
+     */
+    public static void saveGraphML(GraphModel g, OutputStream os, boolean gzip) throws IOException {
+        OutputStream out = gzip ? new GZIPOutputStream(os, 1 << 16) : new BufferedOutputStream(os, 1 << 16);
+        Writer output = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"), 1 << 16);
+        try {
+            GraphML.writeGraphMLDocument(output, g);
+        } finally {
+            output.close();
+        }
     }
 
     public String getName() {
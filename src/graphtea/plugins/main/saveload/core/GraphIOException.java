@@ -22,4 +22,8 @@ public class GraphIOException extends IOException {
     public GraphIOException(String message) {
         super(message);
     }
+
+    public GraphIOException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
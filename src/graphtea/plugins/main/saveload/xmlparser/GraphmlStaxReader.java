@@ -0,0 +1,202 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+package graphtea.plugins.main.saveload.xmlparser;
+
+import graphtea.graph.atributeset.EdgeAttrSet;
+import graphtea.graph.atributeset.GraphAttrSet;
+import graphtea.graph.atributeset.VertexAttrSet;
+import graphtea.graph.graph.Edge;
+import graphtea.graph.graph.GraphModel;
+import graphtea.graph.graph.Vertex;
+import graphtea.platform.StaticUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Reads a GraphML document with a StAX (pull) parser, without DTD validation.
+ * <p/>
+ * The vertices and edges are collected in arrays while reading, the vertices of the edges are
+ * resolved by their node ids, so an edge may come before its vertices. At the end the graph is
+ * built with one insertVertices and one insertEdges call. The graph is created by the reader, so
+ * no listener is attached to it while it is built.
+ * <p/>
+ * Like GraphmlHandlerImpl, loops (if the graph does not allow them) and parallel edges are ignored.
+ *
+ * @see GraphmlHandlerImpl
+ */
+public class GraphmlStaxReader {
+    private static final String STRING_TYPE = String.class.getName();
+
+    //key id -> {for, attr.name, attr.type}
+    private HashMap<String, String[]> keys = new HashMap<String, String[]>();
+    private HashMap<String, Integer> vertexIndex = new HashMap<String, Integer>();
+    private Vertex[] vertices = new Vertex[16];
+    private int verticesCount = 0;
+    //the vertices in the order of their node elements
+    private int[] nodeOrder = new int[16];
+    private int nodesCount = 0;
+    private boolean[] declared = new boolean[16];
+    private Edge[] edges = new Edge[16];
+    private int[] sources = new int[16], targets = new int[16];
+    private int edgesCount = 0;
+
+    private GraphModel g;
+
+    /**
+     * Reads the GraphML document from in, the stream is not closed.
+     *
+     * @return the graph of the first graph element of the document
+     */
+    public static GraphModel read(InputStream in) throws XMLStreamException {
+        return new GraphmlStaxReader().parse(in);
+    }
+
+    private GraphModel parse(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        XMLStreamReader r = factory.createXMLStreamReader(in);
+        try {
+            Vertex curv = null;
+            Edge cure = null;
+            while (r.hasNext()) {
+                int event = r.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    //data after the end of a node or edge belongs to the enclosing element
+                    String name = r.getLocalName();
+                    if ("node".equals(name))
+                        curv = null;
+                    else if ("edge".equals(name))
+                        cure = null;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT)
+                    continue;
+                String name = r.getLocalName();
+                if ("key".equals(name)) {
+                    keys.put(r.getAttributeValue(null, "id"), new String[]{r.getAttributeValue(null, "for"),
+                            r.getAttributeValue(null, "attr.name"), r.getAttributeValue(null, "attr.type")});
+                } else if ("graph".equals(name)) {
+                    if (g != null)
+                        break;
+                    g = new GraphModel(GraphAttrSet.EDGEDEFAULT_DIRECTED.equals(r.getAttributeValue(null, "edgedefault")));
+                    g.setLabel(r.getAttributeValue(null, "id"));
+                } else if ("node".equals(name)) {
+                    int i = vertex(r.getAttributeValue(null, "id"));
+                    if (!declared[i]) {
+                        declared[i] = true;
+                        if (nodesCount == nodeOrder.length)
+                            nodeOrder = Arrays.copyOf(nodeOrder, 2 * nodesCount);
+                        nodeOrder[nodesCount++] = i;
+                    }
+                    curv = vertices[i];
+                    cure = null;
+                } else if ("edge".equals(name)) {
+                    int s = vertex(r.getAttributeValue(null, "source"));
+                    int t = vertex(r.getAttributeValue(null, "target"));
+                    if (edgesCount == edges.length) {
+                        edges = Arrays.copyOf(edges, 2 * edgesCount);
+                        sources = Arrays.copyOf(sources, 2 * edgesCount);
+                        targets = Arrays.copyOf(targets, 2 * edgesCount);
+                    }
+                    cure = new Edge(vertices[s], vertices[t]);
+                    sources[edgesCount] = s;
+                    targets[edgesCount] = t;
+                    edges[edgesCount++] = cure;
+                    curv = null;
+                } else if ("data".equals(name)) {
+                    String key = r.getAttributeValue(null, "key");
+                    String data = r.getElementText();
+                    handleData(key, data, curv, cure);
+                }
+            }
+        } finally {
+            r.close();
+        }
+        if (g == null)
+            throw new XMLStreamException("No graph element found.");
+        build();
+        return g;
+    }
+
+    /**
+     * Puts the data on the current element. The data of a key which is declared for another kind
+     * of element (including ports and hyperedges) is ignored.
+     */
+    private void handleData(String key, String data, Vertex curv, Edge cure) {
+        String[] k = keys.get(key);
+        String domain = k == null ? null : k[0];
+        String current = cure != null ? "edge" : curv != null ? "node" : "graph";
+        if (domain != null && !"all".equals(domain) && !domain.equals(current))
+            return;
+        String attrName = k != null && k[1] != null ? k[1] : key.substring(Math.min(2, key.length()));
+        String type = k == null ? STRING_TYPE : k[2];
+        //empty values can not be converted to the other types, the default value is kept
+        if (data.length() == 0 && !STRING_TYPE.equals(type))
+            return;
+        Object value = StaticUtils.fromString(type, data);
+        if (cure != null)
+            new EdgeAttrSet(cure).put(attrName, value);
+        else if (curv != null)
+            new VertexAttrSet(curv).put(attrName, value);
+        else if (g != null)
+            new GraphAttrSet(g).put(attrName, value);
+    }
+
+    /**
+     * @return the index of the vertex with the given node id, the vertex is created on its first reference
+     */
+    private int vertex(String id) {
+        Integer i = vertexIndex.get(id);
+        if (i != null)
+            return i;
+        if (verticesCount == vertices.length) {
+            vertices = Arrays.copyOf(vertices, 2 * verticesCount);
+            declared = Arrays.copyOf(declared, 2 * verticesCount);
+        }
+        vertices[verticesCount] = new Vertex();
+        vertexIndex.put(id, verticesCount);
+        return verticesCount++;
+    }
+
+    private void build() {
+        //vertices in the order of their node elements, then the ones which are only referenced by edges
+        Vertex[] vs = new Vertex[verticesCount];
+        int n = 0;
+        for (int i = 0; i < nodesCount; i++)
+            vs[n++] = vertices[nodeOrder[i]];
+        for (int i = 0; i < verticesCount; i++)
+            if (!declared[i])
+                vs[n++] = vertices[i];
+        g.insertVertices(vs);
+
+        boolean directed = g.isDirected();
+        boolean allowLoops = g.isAllowLoops();
+        HashSet<Long> seen = new HashSet<Long>(2 * edgesCount);
+        Edge[] es = new Edge[edgesCount];
+        int m = 0;
+        for (int i = 0; i < edgesCount; i++) {
+            int s = sources[i], t = targets[i];
+            if (s == t && !allowLoops)
+                continue;
+            if (!directed && s > t) {
+                int tmp = s;
+                s = t;
+                t = tmp;
+            }
+            if (seen.add(((long) s << 32) | t))
+                es[m++] = edges[i];
+        }
+        g.insertEdges(Arrays.copyOf(es, m));
+    }
+}
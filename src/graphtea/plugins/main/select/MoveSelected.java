@@ -10,6 +10,8 @@ import graphtea.graph.graph.*;
 import graphtea.library.exceptions.InvalidVertexException;
 import graphtea.platform.core.AbstractAction;
 import graphtea.platform.core.BlackBoard;
+import graphtea.plugins.commonplugin.Init;
+import graphtea.plugins.commonplugin.undo.UndoManager;
 import graphtea.plugins.main.GraphData;
 
 /**
@@ -54,14 +56,19 @@ public class MoveSelected extends AbstractAction {
                     }
                     startx = vdd.v.getLocation().x;
                     starty = vdd.v.getLocation().y;
+                    //the moves until the drop are undone in one step
+                    endMoveTransaction();
+                    moveTransaction = Init.undoers.get(gd.getGraph());
+                    if (moveTransaction != null)
+                        moveTransaction.beginTransaction("Move");
                     drag();
                 }
                 if (vdd.eventType == VertexEvent.RELEASED || vdd.eventType == VertexEvent.DROPPED) {
-                    drop();
-                    //add undo data
-                    GraphPoint[] newPos = new GraphPoint[gd.getGraph().getVerticesCount()];
-                    for (Vertex _ : gd.getGraph()) {
-                        newPos[_.getId()] = _.getLocation();
+                    try {
+                        drop();
+                    } finally {
+                        //add undo data
+                        endMoveTransaction();
                     }
 
                     blackboard.setData(SELECTION_MOVED, new GraphPoint(vdd.v.getLocation().x - startx, vdd.v.getLocation().y - starty));
@@ -78,6 +85,15 @@ public class MoveSelected extends AbstractAction {
         }
     }
 
+    private UndoManager moveTransaction;
+
+    private void endMoveTransaction() {
+        if (moveTransaction != null) {
+            moveTransaction.endTransaction();
+            moveTransaction = null;
+        }
+    }
+
     private void mouseMove() {
         GraphEvent ge = blackboard.getData(GraphEvent.EVENT_KEY);
 //        GraphMouseMoveData gmmd = blackboard.get(GraphMouseMoveData.name);
@@ -8,7 +8,6 @@ import graphtea.graph.atributeset.GraphAttrSet;
 import graphtea.graph.event.GraphEvent;
 import graphtea.graph.graph.*;
 import graphtea.graph.ui.GraphRectRegionSelect;
-import graphtea.library.exceptions.InvalidVertexException;
 import graphtea.platform.core.AbstractAction;
 import graphtea.platform.core.BlackBoard;
 import graphtea.plugins.main.core.actions.VertexTransformer;
@@ -17,6 +16,7 @@ import graphtea.ui.UIUtils;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.geom.Rectangle2D;
+import java.util.Iterator;
 
 /**
  * @author azin azadi
@@ -99,24 +99,20 @@ public class RectangularSelect extends AbstractAction {
 
     public static SubGraph calculateSelected(GraphModel g, Rectangle bounds) {
         SubGraph sd = new SubGraph();
-        for (Vertex vm : g) {
+        for (Vertex vm : g.getSpatialIndex().getVertices(bounds)) {
             GraphPoint loc = vm.getLocation();
-            Point cent = vm.getCenter();
             if (bounds.contains(loc.x, loc.y)) {
                 sd.vertices.add(vm);
             }
         }
-        Edge em;
+        //the edges which both of their ends are selected
         for (Vertex v1 : sd.vertices) {
-            for (Vertex v2 : sd.vertices) {
-                try {
-                    Edge edge = g.getEdge(v1, v2);
-                    if (edge != null) {
-                        sd.edges.add(edge);
-                    }
-                }
-                catch (InvalidVertexException e) {
-                }
+            Iterator<Edge> it = g.lightEdgeIterator(v1);
+            while (it.hasNext()) {
+                Edge edge = it.next();
+                Vertex v2 = edge.source == v1 ? edge.target : edge.source;
+                if (sd.vertices.contains(v2))
+                    sd.edges.add(edge);
             }
         }
 //        for (Iterator<Edge> ei=gv.edgeIterator();ei.hasNext();){
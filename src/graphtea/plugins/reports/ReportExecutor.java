@@ -0,0 +1,509 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+package graphtea.plugins.reports;
+
+import graphtea.graph.graph.GraphModel;
+import graphtea.platform.parameter.Parameter;
+import graphtea.platform.preferences.lastsettings.StorableOnExit;
+import graphtea.platform.preferences.lastsettings.UserModifiableProperty;
+import graphtea.plugins.commonplugin.undo.UndoManager;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+
+import javax.swing.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates reports in the background, so a long report (i.e. the chromatic number) does not
+ * block the user interface.
+ * <p/>
+ * The reports run on a bounded pool of threads, a report which is submitted when the queue is
+ * full fails at once. A running report can be cancelled, or stopped by a timeout: its thread is
+ * interrupted and the report can check <code>ReportExecutor.Context.current()</code> to stop
+ * early, to report its progress or to register a hook which stops its algorithm.
+ * <p/>
+ * The results are cached per graph, by the class and the parameters of the report. A cached result
+ * is used only while the version of the graph is the same as when it was calculated, so any
+ * change of the graph invalidates it (see GraphModel.getVersion()).
+ * <p/>
+ * The reports of a graph are calculated one after the other, since some reports change the graph.
+ * These changes (i.e. marks of a chosen source and sink) are not recorded in the undo history.
+ * <p/>
+ * The ReportListener is always called in the event dispatch thread.
+ *
+ * @author Azin Azadi
+ * @see graphtea.plugins.reports.ui.ReportsUI
+ */
+public class ReportExecutor implements StorableOnExit {
+    {
+        SETTINGS.registerSetting(this, "Reports");
+    }
+
+    public static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    public static final int DEFAULT_QUEUE_SIZE = 64;
+    @UserModifiableProperty(displayName = "Report Time Limit (seconds, 0 for no limit)")
+    public static Integer defaultTimeout = 300;
+    //cached results kept for each graph
+    static final int CACHE_SIZE = 64;
+
+    private static ReportExecutor instance;
+
+    /**
+     * @return the executor which is shared by the user interface and the command line
+     */
+    public static synchronized ReportExecutor getInstance() {
+        if (instance == null)
+            instance = new ReportExecutor(DEFAULT_THREADS, DEFAULT_QUEUE_SIZE);
+        return instance;
+    }
+
+    /**
+     * Receives the state of a submitted report, in the event dispatch thread. Exactly one of
+     * done(), failed() and cancelled() is called for each report.
+     */
+    public interface ReportListener {
+        void progress(GraphReportExtension report, String message);
+
+        /**
+         * @param cached true if the result is taken from the cache
+         */
+        void done(GraphReportExtension report, Object result, boolean cached);
+
+        void failed(GraphReportExtension report, Throwable t);
+
+        /**
+         * @param timedOut true if the report is stopped by its timeout, false if it is cancelled
+         */
+        void cancelled(GraphReportExtension report, boolean timedOut);
+    }
+
+    /**
+     * The context of a running report, which is given to the report through current().
+     */
+    public static class Context {
+        private static final ThreadLocal<Context> current = new ThreadLocal<Context>();
+
+        private final Task task;
+        private final long deadline;
+        private volatile boolean cancelled = false;
+        private volatile boolean cacheable = true;
+        private final List<Runnable> cancelHooks = new ArrayList<Runnable>();
+
+        Context(Task task, long timeout) {
+            this.task = task;
+            this.deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return the context of the report which is running on the current thread, or null if the
+         *         report is not run by a ReportExecutor (i.e. in a batch), so the report should
+         *         check it before using it
+         */
+        public static Context current() {
+            return current.get();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @throws CancellationException if the report is cancelled or its time is over
+         */
+        public void checkCancelled() {
+            if (cancelled)
+                throw new CancellationException();
+        }
+
+        /**
+         * @return the time left until the timeout in milliseconds, Long.MAX_VALUE if there is no timeout
+         */
+        public long getTimeLeft() {
+            if (deadline == Long.MAX_VALUE)
+                return Long.MAX_VALUE;
+            return Math.max(0, deadline - System.currentTimeMillis());
+        }
+
+        /**
+         * shows the progress of the report to the user
+         */
+        public void setProgress(final String message) {
+            if (!cancelled)
+                task.progress(message);
+        }
+
+        /**
+         * @param cacheable false if the result should not be cached, i.e. if it is not exact
+         */
+        public void setCacheable(boolean cacheable) {
+            this.cacheable = cacheable;
+        }
+
+        /**
+         * Adds a hook which is run when the report is cancelled (in the thread which cancels it),
+         * to stop an algorithm which does not check the interrupt flag of its thread. If the report
+         * is already cancelled the hook is run at once.
+         */
+        public void onCancel(Runnable hook) {
+            synchronized (cancelHooks) {
+                if (!cancelled) {
+                    cancelHooks.add(hook);
+                    return;
+                }
+            }
+            hook.run();
+        }
+
+        void cancel() {
+            List<Runnable> hooks;
+            synchronized (cancelHooks) {
+                cancelled = true;
+                hooks = new ArrayList<Runnable>(cancelHooks);
+                cancelHooks.clear();
+            }
+            for (Runnable hook : hooks)
+                hook.run();
+        }
+    }
+
+    /**
+     * A submitted report
+     */
+    public class Task implements Runnable {
+        private final GraphReportExtension report;
+        private final GraphData gd;
+        private final GraphModel graph;
+        private final String key;
+        private final ReportListener listener;
+        private final Context context;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile boolean cancelling = false;
+        private volatile boolean timedOut = false;
+        private volatile ScheduledFuture<?> timeoutFuture;
+        //guarded by the lock of the executor: whether it is given to the pool, and the thread running it
+        private boolean dispatched = false;
+        private Thread thread;
+
+        Task(GraphReportExtension report, GraphData gd, long timeout, ReportListener listener) {
+            this.report = report;
+            this.gd = gd;
+            this.graph = gd.getGraph();
+            this.key = keyOf(report);
+            this.listener = listener;
+            this.context = new Context(this, timeout);
+        }
+
+        public GraphReportExtension getReport() {
+            return report;
+        }
+
+        /**
+         * @return true if the listener is told (or is being told) of the end of the report, a
+         *         cancelled report is done only when its calculation has really stopped
+         */
+        public boolean isDone() {
+            return finished.get();
+        }
+
+        /**
+         * Cancels the report, if it is not finished yet.
+         */
+        public void cancel() {
+            cancel(false);
+        }
+
+        void cancel(boolean timeout) {
+            boolean stopped;
+            synchronized (lock) {
+                if (finished.get() || cancelling)
+                    return;
+                cancelling = true;
+                timedOut = timeout;
+                //a report which is not running yet is stopped here, a running one when its thread returns
+                stopped = waiting.remove(this) || (dispatched && thread == null && pool.remove(this));
+                if (stopped && dispatched)
+                    release(this);
+            }
+            context.cancel();
+            synchronized (lock) {
+                if (thread != null)
+                    thread.interrupt();
+            }
+            if (stopped) {
+                cancelTimeout();
+                finish(null, null, false);
+            }
+        }
+
+        public void run() {
+            synchronized (lock) {
+                if (!cancelling)
+                    thread = Thread.currentThread();
+            }
+            Context.current.set(context);
+            try {
+                //it is cancelled while it was in the queue of the pool
+                if (thread == null)
+                    return;
+                long version = graph.getVersion();
+                Object result;
+                UndoManager.suspendRecording();
+                try {
+                    result = report.calculate(gd);
+                } finally {
+                    UndoManager.resumeRecording();
+                }
+                if (cancelling)
+                    return;
+                if (context.cacheable && graph.getVersion() == version)
+                    putCached(graph, key, version, result);
+                finish(result, null, false);
+            } catch (Throwable t) {
+                if (!cancelling)
+                    finish(null, t, false);
+            } finally {
+                Context.current.remove();
+                synchronized (lock) {
+                    thread = null;
+                    release(this);
+                }
+                //the interrupt of a cancel is not left for the next task of this thread
+                Thread.interrupted();
+                cancelTimeout();
+                if (cancelling)
+                    finish(null, null, false);
+            }
+        }
+
+        private void cancelTimeout() {
+            ScheduledFuture<?> f = timeoutFuture;
+            if (f != null)
+                f.cancel(false);
+        }
+
+        void progress(final String message) {
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    if (!finished.get())
+                        listener.progress(report, message);
+                }
+            });
+        }
+
+        private void finish(final Object result, final Throwable t, final boolean cached) {
+            if (!finished.compareAndSet(false, true))
+                return;
+            final boolean cancelled = cancelling;
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    if (cancelled)
+                        listener.cancelled(report, timedOut);
+                    else if (t != null)
+                        listener.failed(report, t);
+                    else
+                        listener.done(report, result, cached);
+                }
+            });
+        }
+    }
+
+    private static class CachedResult {
+        final long version;
+        final Object result;
+
+        CachedResult(long version, Object result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final int queueSize;
+    private final ScheduledThreadPoolExecutor timer;
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    //the graphs are weak keys, so the results of a closed graph are dropped with it
+    private final Map<GraphModel, Map<String, CachedResult>> cache = new WeakHashMap<GraphModel, Map<String, CachedResult>>();
+
+    private final Object lock = new Object();
+    //the submitted reports which are not given to the pool yet, in the order of their submission
+    private final List<Task> waiting = new LinkedList<Task>();
+    //the graphs and the reports of the tasks which are given to the pool, to the tasks
+    private final Map<Object, Task> busy = new IdentityHashMap<Object, Task>();
+
+    /**
+     * @param threads   the number of reports which can be calculated at the same time
+     * @param queueSize the number of reports which can wait to be calculated
+     */
+    public ReportExecutor(int threads, int queueSize) {
+        this.queueSize = queueSize;
+        //the queue is bounded by submit()
+        pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory("report"));
+        pool.allowCoreThreadTimeOut(true);
+        timer = new ScheduledThreadPoolExecutor(1, threadFactory("report-timer"));
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    private ThreadFactory threadFactory(final String name) {
+        return new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name + "-" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                return t;
+            }
+        };
+    }
+
+    /**
+     * Gives the waiting reports to the pool, in the order of their submission, skipping the ones
+     * whose graph or report object is used by a report which is given to the pool. So the reports
+     * of a graph run one after the other (some of them change the graph, i.e. color it), and a
+     * report object, which is shared by the menus and the reports side bar, never runs on two
+     * threads at the same time. It is called holding the lock.
+     */
+    private void dispatch() {
+        Iterator<Task> it = waiting.iterator();
+        while (it.hasNext()) {
+            Task t = it.next();
+            if (!busy.containsKey(t.graph) && !busy.containsKey(t.report)) {
+                it.remove();
+                busy.put(t.graph, t);
+                busy.put(t.report, t);
+                t.dispatched = true;
+                pool.execute(t);
+            }
+        }
+    }
+
+    //called holding the lock when a given task is ended
+    private void release(Task t) {
+        busy.remove(t.graph);
+        busy.remove(t.report);
+        dispatch();
+    }
+
+    /**
+     * Calculates a report in the background with the default timeout, see submit(GraphReportExtension, GraphData, long, ReportListener)
+     */
+    public Task submit(GraphReportExtension report, GraphData gd, ReportListener listener) {
+        return submit(report, gd, defaultTimeout * 1000L, listener);
+    }
+
+    /**
+     * Calculates a report in the background, or takes its result from the cache.
+     *
+     * @param timeout  the maximum time of the calculation in milliseconds, counted from now, 0 for no limit
+     * @param listener is called in the event dispatch thread
+     * @return the task, which can be cancelled
+     */
+    public Task submit(GraphReportExtension report, GraphData gd, long timeout, ReportListener listener) {
+        final Task task = new Task(report, gd, timeout, listener);
+        CachedResult c = getCached(task.graph, task.key);
+        if (c != null) {
+            task.finish(c.result, null, true);
+            return task;
+        }
+        synchronized (lock) {
+            if (waiting.size() + pool.getQueue().size() >= queueSize) {
+                task.finish(null, new RejectedExecutionException("Too many reports are waiting to be calculated"), false);
+                return task;
+            }
+            waiting.add(task);
+            if (timeout > 0)
+                task.timeoutFuture = timer.schedule(new Runnable() {
+                    public void run() {
+                        task.cancel(true);
+                    }
+                }, timeout, TimeUnit.MILLISECONDS);
+            dispatch();
+        }
+        return task;
+    }
+
+    /**
+     * Calculates a report on the calling thread, or takes its result from the cache.
+     */
+    public Object calculate(GraphReportExtension report, GraphData gd) {
+        GraphModel graph = gd.getGraph();
+        String key = keyOf(report);
+        CachedResult c = getCached(graph, key);
+        if (c != null)
+            return c.result;
+        long version = graph.getVersion();
+        Object result = report.calculate(gd);
+        if (graph.getVersion() == version)
+            putCached(graph, key, version, result);
+        return result;
+    }
+
+    /**
+     * @return the cached result of the report on the graph if it is still valid, null otherwise
+     */
+    public Object getCached(GraphReportExtension report, GraphModel graph) {
+        CachedResult c = getCached(graph, keyOf(report));
+        return c == null ? null : c.result;
+    }
+
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private CachedResult getCached(GraphModel graph, String key) {
+        if (graph == null)
+            return null;
+        synchronized (cache) {
+            Map<String, CachedResult> results = cache.get(graph);
+            if (results == null)
+                return null;
+            CachedResult c = results.get(key);
+            if (c != null && c.version != graph.getVersion()) {
+                results.remove(key);
+                return null;
+            }
+            return c;
+        }
+    }
+
+    private void putCached(GraphModel graph, String key, long version, Object result) {
+        if (graph == null || result == null)
+            return;
+        synchronized (cache) {
+            Map<String, CachedResult> results = cache.get(graph);
+            if (results == null) {
+                results = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                        return size() > CACHE_SIZE;
+                    }
+                };
+                cache.put(graph, results);
+            }
+            results.put(key, new CachedResult(version, result));
+        }
+    }
+
+    /**
+     * @return the class of the report and the values of its parameters
+     */
+    static String keyOf(GraphReportExtension report) {
+        StringBuilder sb = new StringBuilder(report.getClass().getName());
+        for (Field f : report.getClass().getFields())
+            if (f.getAnnotation(Parameter.class) != null && !Modifier.isStatic(f.getModifiers())) {
+                try {
+                    sb.append(';').append(f.getName()).append('=').append(f.get(report));
+                } catch (IllegalAccessException e) {
+                    //public fields are accessible
+                }
+            }
+        return sb.toString();
+    }
+}
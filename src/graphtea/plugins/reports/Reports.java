@@ -44,14 +44,14 @@ public class Reports {
     /**
      * @see graphtea.extensions.reports.basicreports.NumOfQuadrangle#getNumOfQuadrangles(graphtea.graph.graph.GraphModel)
      */
-    public static int getNumOfQuadrangles(GraphModel graph) {
+    public static long getNumOfQuadrangles(GraphModel graph) {
         return NumOfQuadrangle.getNumOfQuadrangles(graph);
     }
 
     /**
      * @see graphtea.extensions.reports.basicreports.NumOfTriangles#getNumOfTriangles(graphtea.graph.graph.GraphModel)
      */
-    public static int getNumOfTriangles(GraphModel graph) {
+    public static long getNumOfTriangles(GraphModel graph) {
         return NumOfTriangles.getNumOfTriangles(graph);
     }
 }
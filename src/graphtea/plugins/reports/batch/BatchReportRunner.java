@@ -0,0 +1,477 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+package graphtea.plugins.reports.batch;
+
+import graphtea.graph.atributeset.GraphAttrSet;
+import graphtea.graph.graph.GraphModel;
+import graphtea.platform.core.BlackBoard;
+import graphtea.platform.extension.ExtensionIndex;
+import graphtea.platform.parameter.Parameter;
+import graphtea.plugins.main.GraphData;
+import graphtea.plugins.main.saveload.core.extension.GraphReaderExtension;
+import graphtea.plugins.reports.extension.GraphReportExtension;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs reports on many graph files without the user interface, and without initializing AWT.
+ * <p/>
+ * Each file is read by the first GraphReaderExtension which accepts it, and the reports are
+ * calculated on it one after the other (a report may change the graph, i.e. color it). The files
+ * are processed in parallel, one task per file on a work stealing ForkJoinPool, and each result is
+ * given to the ResultListener as soon as it is ready, in the thread which calculated it. The
+ * readers and the reports are given as prototypes, each task uses its own copy of them with the
+ * same parameters, so they don't need to be thread safe, but their classes need a public
+ * constructor without parameters.
+ * <p/>
+ * For each report the wall time and the bytes allocated by the calculating thread are measured
+ * (work which the report gives to other threads is not counted in the memory).
+ * <p/>
+ * Usage from the command line (in the directory of the program):
+ * <pre>
+ * java -cp "graphtea-main.jar:plugins/*:lib/*" graphtea.plugins.reports.batch.BatchReportRunner
+ *      [-format csv|json] [-reports name,name,...] [-threads n] [-extensions dir] [-o file] file-or-directory...
+ * </pre>
+ * The readers and the reports are the ones in the config.xml of the save/load and the reports plugins
+ * and the ones in the extensions directory, the reports are chosen by their name or their class
+ * name, all of them by default.
+ * <p/>
+ * Usage from Java:
+ * <pre>
+ * BatchReportRunner r = new BatchReportRunner(readers, reports);
+ * r.run(files, new BatchReportRunner.ResultWriter(out, BatchReportRunner.Format.CSV));
+ * </pre>
+ *
+ * @author azin azadi
+ */
+public class BatchReportRunner {
+    /**
+     * The result of a report on a graph file. If the file could not be read, report is null.
+     */
+    public static class Result {
+        public final File file;
+        public final int vertices, edges;
+        public final GraphReportExtension report;
+        public final Object value;
+        public final long timeNanos;
+        /**
+         * the bytes allocated by the thread while calculating, -1 if the JVM can not measure it
+         */
+        public final long allocatedBytes;
+        public final Throwable error;
+
+        Result(File file, int vertices, int edges, GraphReportExtension report, Object value, long timeNanos, long allocatedBytes, Throwable error) {
+            this.file = file;
+            this.vertices = vertices;
+            this.edges = edges;
+            this.report = report;
+            this.value = value;
+            this.timeNanos = timeNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.error = error;
+        }
+    }
+
+    public interface ResultListener {
+        /**
+         * called for each result, in the thread which calculated it
+         */
+        public void resultReady(Result result);
+    }
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    /**
+     * Writes the results as lines of CSV (with a header line) or JSON objects, one line per result,
+     * and flushes each line so the results can be read while the others are calculated.
+     */
+    public static class ResultWriter implements ResultListener {
+        private final Writer out;
+        private final Format format;
+        private boolean headerWritten = false;
+
+        public ResultWriter(Writer out, Format format) {
+            this.out = out;
+            this.format = format;
+        }
+
+        public synchronized void resultReady(Result r) {
+            try {
+                String report = r.report == null ? "" : r.report.getName();
+                String error = r.error == null ? "" : r.error.toString();
+                if (format == Format.CSV) {
+                    if (!headerWritten) {
+                        out.write("file,vertices,edges,report,value,time_ms,allocated_bytes,error\n");
+                        headerWritten = true;
+                    }
+                    out.write(csv(r.file.getPath()) + "," + r.vertices + "," + r.edges + "," + csv(report) + ","
+                            + csv(r.value == null ? "" : r.value.toString()) + "," + millis(r.timeNanos) + ","
+                            + r.allocatedBytes + "," + csv(error) + "\n");
+                } else {
+                    out.write("{\"file\":" + json(r.file.getPath()) + ",\"vertices\":" + r.vertices + ",\"edges\":" + r.edges
+                            + ",\"report\":" + json(report) + ",\"value\":" + jsonValue(r.value)
+                            + ",\"timeMs\":" + millis(r.timeNanos) + ",\"allocatedBytes\":" + r.allocatedBytes
+                            + (r.error == null ? "" : ",\"error\":" + json(error)) + "}\n");
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static String millis(long nanos) {
+            return String.format(Locale.US, "%.3f", nanos / 1e6);
+        }
+
+        private static String csv(String s) {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0)
+                return s;
+            return "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+
+        private static String jsonValue(Object v) {
+            if (v == null)
+                return "null";
+            if (v instanceof Boolean)
+                return v.toString();
+            if (v instanceof Number) {
+                double d = ((Number) v).doubleValue();
+                if (!Double.isNaN(d) && !Double.isInfinite(d))
+                    return v.toString();
+            }
+            return json(v.toString());
+        }
+
+        private static String json(String s) {
+            StringBuilder sb = new StringBuilder(s.length() + 2);
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20)
+                            sb.append(String.format("\\u%04x", (int) c));
+                        else
+                            sb.append(c);
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+
+    private final List<GraphReaderExtension> readers;
+    private final List<GraphReportExtension> reports;
+    private ForkJoinPool pool;
+
+    /**
+     * @param readers the prototypes of the readers, the first one which accepts a file reads it
+     * @param reports the prototypes of the reports, with their parameters set
+     * @throws IllegalArgumentException if a prototype can not be copied
+     */
+    public BatchReportRunner(List<? extends GraphReaderExtension> readers, List<? extends GraphReportExtension> reports) {
+        this.readers = new ArrayList<GraphReaderExtension>(readers);
+        this.reports = new ArrayList<GraphReportExtension>(reports);
+        //fails now rather than on each file
+        for (GraphReaderExtension r : this.readers)
+            copy(r);
+        for (GraphReportExtension r : this.reports)
+            copy(r);
+    }
+
+    /**
+     * @param pool the pool which the files are processed on, null means the common pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return true if a reader accepts the file
+     */
+    public boolean accepts(File file) {
+        for (GraphReaderExtension r : readers)
+            if (r.accepts(file))
+                return true;
+        return false;
+    }
+
+    /**
+     * @return the files which are accepted by a reader, the directories are searched recursively
+     */
+    public List<File> listFiles(List<File> filesOrDirectories) {
+        List<File> ret = new ArrayList<File>();
+        for (File f : filesOrDirectories)
+            listFiles(f, ret);
+        return ret;
+    }
+
+    private void listFiles(File f, List<File> ret) {
+        if (f.isDirectory()) {
+            File[] files = f.listFiles();
+            if (files == null)
+                return;
+            Arrays.sort(files);
+            for (File c : files)
+                listFiles(c, ret);
+        } else if (f.isFile() && accepts(f)) {
+            ret.add(f);
+        }
+    }
+
+    /**
+     * Calculates the reports on the files, and waits until all of them are done.
+     */
+    public void run(List<File> files, final ResultListener listener) {
+        ForkJoinPool p = pool == null ? ForkJoinPool.commonPool() : pool;
+        List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(files.size());
+        for (final File f : files)
+            tasks.add(new RecursiveAction() {
+                protected void compute() {
+                    process(f, listener);
+                }
+            });
+        p.invoke(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Reads the file and calculates the reports on it, in the current thread.
+     */
+    public void process(File file, ResultListener listener) {
+        GraphModel g;
+        try {
+            g = read(file);
+        } catch (Throwable e) {
+            listener.resultReady(new Result(file, 0, 0, null, null, 0, -1, e));
+            return;
+        }
+        BlackBoard blackboard = new BlackBoard();
+        blackboard.setData(GraphAttrSet.name, g);
+        GraphData gd = new GraphData(blackboard);
+        for (GraphReportExtension prototype : reports) {
+            GraphReportExtension report = copy(prototype);
+            Object value = null;
+            Throwable error = null;
+            long allocated = allocatedBytes();
+            long t = System.nanoTime();
+            try {
+                value = report.calculate(gd);
+            } catch (Throwable e) {
+                error = e;
+            }
+            t = System.nanoTime() - t;
+            if (allocated >= 0)
+                allocated = allocatedBytes() - allocated;
+            listener.resultReady(new Result(file, g.getVerticesCount(), g.getEdgesCount(), prototype, value, t, allocated, error));
+        }
+    }
+
+    private GraphModel read(File file) throws Exception {
+        for (GraphReaderExtension r : readers)
+            if (r.accepts(file))
+                return copy(r).read(file);
+        throw new IOException("No reader accepts " + file);
+    }
+
+    /**
+     * @return a new instance of the class of o with the same parameters
+     * @throws IllegalArgumentException if the class of o can not be instantiated by a public
+     *                                  constructor without parameters
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T o) {
+        try {
+            T ret = (T) o.getClass().getDeclaredConstructor().newInstance();
+            for (Field f : o.getClass().getFields())
+                if (f.getAnnotation(Parameter.class) != null && !Modifier.isStatic(f.getModifiers()) && !Modifier.isFinal(f.getModifiers()))
+                    f.set(ret, f.get(o));
+            return ret;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Can not make a copy of " + o.getClass().getName()
+                    + " for each file, it needs a public constructor without parameters.", e);
+        }
+    }
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /**
+     * @return the bytes allocated by the current thread so far, -1 if it can not be measured
+     */
+    private static long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+            if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled())
+                return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * The readers and reports which are actions of a plugin, in the config.xml of the plugin
+     */
+    static void findActions(String configxml, List<GraphReaderExtension> readers, List<GraphReportExtension> reports) throws Exception {
+        InputStream in = BatchReportRunner.class.getResourceAsStream(configxml);
+        if (in == null)
+            return;
+        try {
+            DocumentBuilder db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            db.setEntityResolver(new EntityResolver() {
+                public InputSource resolveEntity(String publicId, String systemId) {
+                    return new InputSource(new StringReader(""));
+                }
+            });
+            NodeList actions = db.parse(in).getElementsByTagName("action");
+            for (int i = 0; i < actions.getLength(); i++) {
+                String name = ((Element) actions.item(i)).getAttribute("class");
+                try {
+                    add(Class.forName(name, false, BatchReportRunner.class.getClassLoader()), readers, reports);
+                } catch (Throwable t) {
+                    //not usable without the user interface
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void add(Class<?> c, List<GraphReaderExtension> readers, List<GraphReportExtension> reports) throws Exception {
+        if (c.isInterface() || Modifier.isAbstract(c.getModifiers()))
+            return;
+        if (GraphReaderExtension.class.isAssignableFrom(c))
+            readers.add((GraphReaderExtension) c.getDeclaredConstructor().newInstance());
+        else if (GraphReportExtension.class.isAssignableFrom(c))
+            reports.add((GraphReportExtension) c.getDeclaredConstructor().newInstance());
+    }
+
+    /**
+     * The readers and reports found in an extensions directory. The classes are not initialized
+     * unless they are readers or reports, and the ones which the ExtensionIndex of the program
+     * knows are not extensions are not loaded at all.
+     */
+    static void findExtensions(File dir, List<GraphReaderExtension> readers, List<GraphReportExtension> reports) throws IOException {
+        if (!dir.isDirectory())
+            return;
+        ExtensionIndex index = new ExtensionIndex(dir, new File("prefs", "extensions.index"), new File("plugins"), new File("lib"));
+        index.scan();
+        ClassLoader cl = new URLClassLoader(new URL[]{dir.toURI().toURL()}, BatchReportRunner.class.getClassLoader());
+        for (ExtensionIndex.Entry e : index.getClasses()) {
+            if (e.getState() == ExtensionIndex.NOT_EXTENSION)
+                continue;
+            try {
+                add(Class.forName(e.getClassName(), false, cl), readers, reports);
+            } catch (Throwable t) {
+                //not usable without the user interface
+            }
+        }
+    }
+
+    /**
+     * @see BatchReportRunner the usage
+     */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Format format = Format.CSV;
+        String selected = null;
+        int threads = 0;
+        List<File> extensionDirs = new ArrayList<File>();
+        String output = null;
+        List<File> inputs = new ArrayList<File>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (a.equals("-format") && i + 1 < args.length)
+                format = Format.valueOf(args[++i].toUpperCase());
+            else if (a.equals("-reports") && i + 1 < args.length)
+                selected = args[++i];
+            else if (a.equals("-threads") && i + 1 < args.length)
+                threads = Integer.parseInt(args[++i]);
+            else if (a.equals("-extensions") && i + 1 < args.length)
+                extensionDirs.add(new File(args[++i]));
+            else if (a.equals("-o") && i + 1 < args.length)
+                output = args[++i];
+            else
+                inputs.add(new File(a));
+        }
+        if (extensionDirs.isEmpty())
+            extensionDirs.add(new File("extensions"));
+
+        List<GraphReaderExtension> readers = new ArrayList<GraphReaderExtension>();
+        List<GraphReportExtension> reports = new ArrayList<GraphReportExtension>();
+        findActions("/graphtea/plugins/main/saveload/config.xml", readers, reports);
+        findActions("/graphtea/plugins/reports/config.xml", readers, reports);
+        for (File d : extensionDirs)
+            findExtensions(d, readers, reports);
+        if (selected != null) {
+            List<GraphReportExtension> chosen = new ArrayList<GraphReportExtension>();
+            for (String name : selected.split(",")) {
+                boolean found = false;
+                for (GraphReportExtension r : reports)
+                    if (r.getName().equalsIgnoreCase(name.trim()) || r.getClass().getSimpleName().equalsIgnoreCase(name.trim())
+                            || r.getClass().getName().equals(name.trim())) {
+                        chosen.add(r);
+                        found = true;
+                    }
+                if (!found)
+                    System.err.println("Report not found: " + name);
+            }
+            reports = chosen;
+        }
+        if (inputs.isEmpty() || reports.isEmpty()) {
+            System.err.println("usage: BatchReportRunner [-format csv|json] [-reports name,...] [-threads n]"
+                    + " [-extensions dir] [-o file] file-or-directory...");
+            System.err.println(reports.size() + " report(s) and " + readers.size() + " reader(s) found.");
+            System.exit(1);
+        }
+
+        BatchReportRunner runner = new BatchReportRunner(readers, reports);
+        ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+        runner.setPool(pool);
+        Writer out = new BufferedWriter(output == null ? new OutputStreamWriter(System.out, "UTF-8")
+                : new OutputStreamWriter(new FileOutputStream(output), "UTF-8"));
+        long t = System.currentTimeMillis();
+        List<File> files = runner.listFiles(inputs);
+        runner.run(files, new ResultWriter(out, format));
+        out.flush();
+        if (output != null)
+            out.close();
+        if (pool != null)
+            pool.shutdown();
+        System.err.println(files.size() + " file(s), " + reports.size() + " report(s) in " + (System.currentTimeMillis() - t) + "ms");
+    }
+}
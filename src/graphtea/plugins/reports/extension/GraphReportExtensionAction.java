@@ -5,7 +5,9 @@
 package graphtea.plugins.reports.extension;
 
 import graphtea.platform.core.BlackBoard;
+import graphtea.platform.core.exception.ExceptionHandler;
 import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.ReportExecutor;
 import graphtea.ui.AbstractExtensionAction;
 import graphtea.ui.UIUtils;
 import graphtea.ui.components.gpropertyeditor.GCellRenderer;
@@ -39,7 +41,22 @@ public class GraphReportExtensionAction extends AbstractExtensionAction {
 	}
 
 	public Object performExtensionInCommandLine() {
-		return mr.calculate(new GraphData(blackboard));
+		return ReportExecutor.getInstance().calculate(mr, new GraphData(blackboard));
+	}
+
+	/**
+	 * A listener which is only interested in the result of the report
+	 */
+	abstract class ResultListener implements ReportExecutor.ReportListener {
+		public void progress(GraphReportExtension report, String message) {
+		}
+
+		public void failed(GraphReportExtension report, Throwable t) {
+			ExceptionHandler.catchException(t instanceof Exception ? (Exception) t : new RuntimeException(t));
+		}
+
+		public void cancelled(GraphReportExtension report, boolean timedOut) {
+		}
 	}
 
 	Component rendererComponent;
@@ -48,12 +65,9 @@ public class GraphReportExtensionAction extends AbstractExtensionAction {
 	JFileChooser fileChooser;
 	public void performExtension() {
 		//        if (testAndSetParameters(gr)) {
-		new Thread() {
-
-			public void run() {
+		ReportExecutor.getInstance().submit(mr, new GraphData(blackboard), new ResultListener() {
 
-				
-				Object result = mr.calculate(new GraphData(blackboard));
+			public void done(GraphReportExtension report, Object result, boolean cached) {
 				if(result==null)
 					return;
 				jd = new JDialog(UIUtils.getGFrame(blackboard));
@@ -69,14 +83,16 @@ public class GraphReportExtensionAction extends AbstractExtensionAction {
 				panel.add(recalc, BorderLayout.SOUTH);
 				recalc.addActionListener(new ActionListener() {
 					public void actionPerformed(ActionEvent actionEvent) {
-						Object result = mr.calculate(new GraphData(blackboard));
-						jd.remove(rendererComponent);
-						rendererComponent = GCellRenderer.getRendererFor(result);
-						rendererComponent.setEnabled(true);
-						jd.add(rendererComponent, BorderLayout.CENTER);
-						jd.pack();
-						jd.repaint();
-
+						ReportExecutor.getInstance().submit(mr, new GraphData(blackboard), new ResultListener() {
+							public void done(GraphReportExtension report, Object result, boolean cached) {
+								jd.remove(rendererComponent);
+								rendererComponent = GCellRenderer.getRendererFor(result);
+								rendererComponent.setEnabled(true);
+								jd.add(rendererComponent, BorderLayout.CENTER);
+								jd.pack();
+								jd.repaint();
+							}
+						});
 					}
 				});
 
@@ -114,7 +130,7 @@ public class GraphReportExtensionAction extends AbstractExtensionAction {
 
 							File curFile = fileChooser.getSelectedFile();
 							FileWriter fw = new FileWriter(curFile);
-							Object result = mr.calculate(new GraphData(blackboard));
+							Object result = ReportExecutor.getInstance().calculate(mr, new GraphData(blackboard));
 							fw.write(result.toString());
 							fw.close();
 							JOptionPane.showMessageDialog(jd, "Saved to file successfuly.");
@@ -133,7 +149,7 @@ public class GraphReportExtensionAction extends AbstractExtensionAction {
 				jd.pack();
 
 				}
-			}.start();
+			});
 		}
 
 	}
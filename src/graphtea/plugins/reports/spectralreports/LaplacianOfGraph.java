@@ -37,56 +37,12 @@ public class LaplacianOfGraph implements GraphReportExtension  {
 		/ power_of_ten;
 	}
 
-	/**
-	 * Undirected Laplacian.
-	 * @param A the Adjacency matrix of the graph
-	 * @return Laplacian of the graph
-	 */
-	private Matrix getLaplacian(Matrix A)
-	{
-		//double[][] res=new double[g.numOfVertices()][g.numOfVertices()];
-
-
-		int n=A.getArray().length;
-		double[][] ATemp = A.getArray();
-
-		Matrix D = new Matrix(n,n);
-		double[][] DTemp = D.getArray();
-		int sum; 
-		if(inDegree)
-		{
-			for(int i=0; i<n ; i++ )
-			{
-				sum = 0 ;
-				for(int j=0; j<n ; j++)
-				{
-					sum+=ATemp[j][i];
-				}
-				DTemp[i][i]=sum;
-			}
-		}
-		else
-		{
-			for(int i=0; i<n ; i++ )
-			{
-				sum = 0 ;
-				for(int j=0; j<n ; j++)
-				{
-					sum+=ATemp[i][j];
-				}
-				DTemp[i][i]=sum;
-			}
-		}
-
-		return D.minus(A);
-	}
-
 	//
-	private ArrayList<String> ShowLaplacian(Matrix A)
+	private ArrayList<String> ShowLaplacian(Matrix L)
 	{
 		ArrayList<String> result = new ArrayList<String>();		
 
-		double[][] Lap = getLaplacian(A).getArray();
+		double[][] Lap = L.getArray();
 
 		result.add(new String("Laplacian Matrix:"));
 		for(double[] k : Lap)
@@ -99,14 +55,14 @@ public class LaplacianOfGraph implements GraphReportExtension  {
 
 	/**
 	 * Gets the eigen values and vectors of the graph and returns them as an array of strings.
-	 * @param A the Adjacency matrix of the graph
+	 * @param L the Laplacian matrix of the graph
 	 * @return Laplacian of the graph
 	 */
-	private ArrayList<String> getEigenValuesAndVectors(Matrix matrix)
+	private ArrayList<String> getEigenValuesAndVectors(Matrix L)
 	{
 		ArrayList<String> result = new ArrayList<String>();
 		result.add(new String("Eigen Value Decomposition:"));
-		EigenvalueDecomposition ed = getLaplacian(matrix).eig();
+		EigenvalueDecomposition ed = L.eig();
 		double rv[] = ed.getRealEigenvalues();
 		double iv[] = ed.getImagEigenvalues();
 		for (int i = 0; i < rv.length; i++)
@@ -152,9 +108,10 @@ public class LaplacianOfGraph implements GraphReportExtension  {
 				else
 					inDegree = false;
 			}
-			Matrix A = g.getWeightedAdjacencyMatrix();
-			ArrayList<String> calc = new ArrayList<String>(ShowLaplacian(A));
-			calc.addAll(getEigenValuesAndVectors(A));
+			//the Laplacian is built sparse (D - A), only the eigen decomposition needs the dense form
+			Matrix L = g.getSparseLaplacianMatrix(inDegree).toMatrix();
+			ArrayList<String> calc = new ArrayList<String>(ShowLaplacian(L));
+			calc.addAll(getEigenValuesAndVectors(L));
 			return(calc);
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
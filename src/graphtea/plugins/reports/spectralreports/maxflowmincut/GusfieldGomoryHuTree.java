@@ -3,12 +3,15 @@ package graphtea.plugins.reports.spectralreports.maxflowmincut;
 import graphtea.graph.graph.Edge;
 import graphtea.graph.graph.GraphModel;
 import graphtea.graph.graph.Vertex;
+import graphtea.library.algorithms.flow.GomoryHuCutTree;
 
+/**
+ * Shows the Gomory-Hu tree of a graph, which is computed by GomoryHuCutTree.
+ */
 public class GusfieldGomoryHuTree {
 
-	private MinCut MC;
 	public GraphModel mainGraph, GHTree;
-	private int[] flow, neighbors;
+	private GomoryHuCutTree<Vertex, Edge> cutTree;
 	public GusfieldGomoryHuTree(GraphModel g) throws Exception
 	{
 		if (g.isDirected())
@@ -18,79 +21,50 @@ public class GusfieldGomoryHuTree {
 		GHTree = new GraphModel(false);
 		GHTree.setLabel("Gomory-Hu Tree");
 		GHTree.setDrawEdgeLabels(true);
-		MC = new MinCut(g, null, null, false);
+		cutTree = new GomoryHuCutTree<Vertex, Edge>(g);
 	}
 	public GraphModel perform()
 	{
-		//HashMap<Vertex, LinkedList<Vertex>> neighbors = new HashMap<Vertex, LinkedList<Vertex>>();
-		int size = mainGraph.numOfVertices();
-		
-		//first node creation
-		Vertex s1 = new Vertex();
-		s1.setLabel(mainGraph.getVertex(0).getLabel());
-		s1.setLocation(mainGraph.getVertex(0).getLocation());
-		GHTree.addVertex(s1);
-		
-		
-		MC  = new MinCut(mainGraph, null, null, true);
-		neighbors = new int[size];
-		flow = new int[size];
-		int t, temp;
-		
-
-		
-
-		for(int s=1; s<size; s++)
-		{			
-			
-			t = neighbors[s];
-			MC.source = mainGraph.getVertex(s);
-			MC.sink = mainGraph.getVertex(t);
-			
-			flow[s] = MC.perform();
-			for (int i=1; i < size ; i++)
-			{
-				if (i!=s && MC.cut.contains(i) && neighbors[i]==t)
-					neighbors[i]=s;
-			}
-			if(MC.cut.contains(neighbors[t]))
-			{
-				neighbors[s] = neighbors[t];
-				neighbors[t]=s;
-				temp = flow[t];
-				flow[t] = flow[s];
-				flow[s] = temp;
-				
-			}
-		}
-		
+		cutTree.build();
 		showResult();
 		return GHTree;
+	}
 
-
+	/**
+	 * @return the computed tree, without any rendering
+	 */
+	public GomoryHuCutTree<Vertex, Edge> getCutTree()
+	{
+		return cutTree;
 	}
+
 	public void showResult()
 	{
 		GHTree.clear();
 		int size = mainGraph.numOfVertices();
-		Vertex v, vg;
+		Vertex[] vertices = new Vertex[size];
+		Vertex vg;
 		for(int s=0; s<size; s++)
 		{
 			// node creation
 			vg = mainGraph.getVertex(s);
-			v = new Vertex();
-			v.setLabel(vg.getLabel());
-			v.setLocation(vg.getLocation());
-			GHTree.addVertex(v);
+			vertices[s] = new Vertex();
+			vertices[s].setLabel(vg.getLabel());
+			vertices[s].setLocation(vg.getLocation());
 		}
+		GHTree.insertVertices(vertices);
+		
+		int[] parent = cutTree.getParents();
+		Edge[] edges = new Edge[Math.max(0, size-1)];
 		Edge e;
-		for(int i=0; i<size; i++)
+		for(int i=1; i<size; i++)
 		{
-			e = new Edge(GHTree.getVertex(i), GHTree.getVertex(neighbors[i]));
-			e.setWeight(flow[i]);
+			e = new Edge(vertices[i], vertices[parent[i]]);
+			e.setWeight((int) cutTree.getWeight(i));
 			e.setShowWeight(true);
-			GHTree.addEdge(e);
+			edges[i-1] = e;
 		}
+		GHTree.insertEdges(edges);
 		
 	}
 }
@@ -1,14 +1,10 @@
 package graphtea.plugins.reports.spectralreports.maxflowmincut;
 
-import graphtea.graph.graph.Edge;
 import graphtea.graph.graph.GraphModel;
 import graphtea.graph.graph.Vertex;
 
 public abstract class MaxFlow {
 	
-	public double C[][]; 
-	public double F[][];
-	
 	protected GraphModel g;
 	protected int n;
 	protected Vertex source,sink;
@@ -24,29 +20,19 @@ public abstract class MaxFlow {
 	
 	public int perform()
 	{
-		doAlgorithm();
+		int res = doAlgorithm();
 		if(showResult)
 			makeLabels();
-		int res=0;
-		for(int i=0; i<n ; i++)
-		{
-			res+= F[i][t];
-		}
 		return res;
-			
 	}
 	
 	
 	
-	protected abstract void doAlgorithm();
+	/**
+	 * computes the flow from source to sink
+	 * @return the value of the flow
+	 */
+	protected abstract int doAlgorithm();
 	
-	protected void makeLabels()
-	{
-		for(Edge e : g.getEdges())
-		{
-			e.setLabel(F[e.source.getId()][e.target.getId()] + "/" + C[e.source.getId()][e.target.getId()] );
-			e.setShowWeight(false);
-		}
-		g.setDrawEdgeLabels(true);
-	}
+	protected abstract void makeLabels();
 }
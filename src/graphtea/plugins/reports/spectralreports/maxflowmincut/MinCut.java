@@ -6,8 +6,6 @@ import java.util.LinkedList;
 
 public class MinCut{
 
-	public double C[][]; 
-	public double F[][];
 	public Vertex source,sink;
 	public LinkedList<Integer> cut = new LinkedList<Integer>();
 	public boolean showResult;
@@ -15,7 +13,7 @@ public class MinCut{
 	
 	protected int n;
 	protected GraphModel g;
-	protected double Cf[][];
+	protected boolean sourceSide[];
 	protected PushRelabel PR;
 		
 	
@@ -25,6 +23,7 @@ public class MinCut{
 		this.sink = sink;
 		this.showResult = showResult;
 		PR = new PushRelabel(g, source, sink, showResult);
+		n = g.getVerticesCount();
 	}
 	
 	public int perform()
@@ -37,9 +36,6 @@ public class MinCut{
 	
 	public int calcMinCutVal()
 	{
-		// TO DO: Modify this not to instantiate a new PR every time but
-		// to use the same PR with new source and sinks.
-		//PushRelabel PR = new PushRelabel(g, source, sink, false);
 		reinitialize();
 		return(PR.perform());
 	}
@@ -56,54 +52,34 @@ public class MinCut{
 	{
 		reinitialize();
 		int res = PR.perform();
-		C = PR.C;
-		F = PR.F;
-		n = C.length;
-		Cf = new double[n][n];
-		for(int i=0; i<n ; i++)
-			for(int j=0; j<n ; j++)
-				Cf[i][j] = C[i][j] - F[i][j] + F[j][i];
 		findCut();
 		return res;
 	}
 	
+	/**
+	 * @return true if the vertex of the given id is on the source side of the
+	 * last computed cut
+	 */
+	public boolean isOnSourceSide(int id)
+	{
+		return sourceSide[id];
+	}
 	
 	private void findCut()
 	{
-		//Using BFS we find all the reachable vertices from source
-		// on the residual network
-		boolean[] seen = new boolean[n];
-		
-		LinkedList<Integer> queue = new LinkedList<Integer>();
-			
-		int s = source.getId();
-		seen[s]=true;
-		queue.add(s);
-		
-		cut.add(s);
-		
-		int v;
-		while(!queue.isEmpty())
-		{
-			v=queue.removeFirst();
-			for(int i=0 ; i < n ; i++)
-			{
-				if(Cf[v][i]>0)
-					if(!seen[i])
-					{
-						seen[i]=true;
-						queue.add(i);
-						cut.add(i);
-					}
-			}
-		}
+		// the vertices reachable from source on the residual network,
+		// found by a BFS in the network
+		sourceSide = PR.getNetwork().getSourceSide();
+		for(int i=0 ; i < n ; i++)
+			if(sourceSide[i])
+				cut.add(i);
 	}
 	
 	protected void makeLabels()
 	{
 		for(int t=0; t<n ; t++)
 		{
-			if(cut.contains(t))
+			if(sourceSide[t])
 				g.getVertex(t).setColor(7);
 			
 			else
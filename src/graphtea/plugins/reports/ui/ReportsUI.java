@@ -7,6 +7,7 @@ package graphtea.plugins.reports.ui;
 import graphtea.platform.core.BlackBoard;
 import graphtea.platform.parameter.Parametrizable;
 import graphtea.plugins.main.GraphData;
+import graphtea.plugins.reports.ReportExecutor;
 import graphtea.plugins.reports.extension.GraphReportExtension;
 import graphtea.ui.AttributeSetView;
 import graphtea.ui.ParameterShower;
@@ -24,6 +25,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 /**
+ * The reports are calculated in the background by the ReportExecutor, clicking on a report which
+ * is being calculated cancels it.
+ *
  * @author azin azadi
  */
 public class ReportsUI {
@@ -34,6 +38,8 @@ public class ReportsUI {
     public HashMap<String, GraphReportExtension> reportByName = new HashMap<String, GraphReportExtension>();
 
     public PortableNotifiableAttributeSetImpl reportResults = new PortableNotifiableAttributeSetImpl();
+    //the reports which are being calculated, by their names
+    HashMap<String, ReportExecutor.Task> running = new HashMap<String, ReportExecutor.Task>();
 
     JFrame frm = new JFrame("Reports");
     public static ReportsUI self = null;
@@ -73,6 +79,13 @@ public class ReportsUI {
                 ParameterShower ps = new ParameterShower();
                 String name = (String) gtm.getValueAt(row, 0);
                 GraphReportExtension o = reportByName.get(name);
+                ReportExecutor.Task task = running.get(name);
+                if (task != null && !task.isDone()) {
+                    task.cancel();
+                    if (!task.isDone())
+                        info.setText(name + " is being cancelled");
+                    return;
+                }
                 if (o instanceof Parametrizable){
                     if (ps.xshow(o)) {
                         reCalculateReport(name);
@@ -116,8 +129,8 @@ public class ReportsUI {
             return;
         for (GraphReportExtension gre : reports) {
             String name = gre.getName();
-            reportResults.put(name, gre.calculate(graphData));
             reportByName.put(name, gre);
+            reCalculateReport(name);
             AttributeSetView view = reportResults.getView();
             view.setEditable(name, false);
             view.setDescription(name, gre.getDescription());
@@ -125,8 +138,53 @@ public class ReportsUI {
         propEd.connect(reportResults);
     }
 
+    /**
+     * calculates the report in the background, the result is shown when it is ready
+     */
     public void reCalculateReport(String reportName) {
         GraphReportExtension gre = reportByName.get(reportName);
-        reportResults.put(reportName, gre.calculate(graphData));
+        ReportExecutor.Task task = running.get(reportName);
+        //it is still being calculated or cancelled
+        if (task != null && !task.isDone())
+            return;
+        if (graphData.getGraph() == null)
+            return;
+        reportResults.put(reportName, "Calculating...");
+        Calculation c = new Calculation();
+        c.task = ReportExecutor.getInstance().submit(gre, graphData, c);
+        running.put(reportName, c.task);
+    }
+
+    /**
+     * Shows the state of one calculation of a report, the listener is called after submit()
+     * returns, since it is called later in the event dispatch thread.
+     */
+    class Calculation implements ReportExecutor.ReportListener {
+        ReportExecutor.Task task;
+
+        private void finished(GraphReportExtension report, Object result, String message) {
+            //the report may be calculated again since this one finished
+            if (running.get(report.getName()) != task)
+                return;
+            running.remove(report.getName());
+            reportResults.put(report.getName(), result);
+            info.setText(message);
+        }
+
+        public void progress(GraphReportExtension report, String message) {
+            info.setText(report.getName() + ": " + message + " (click to cancel)");
+        }
+
+        public void done(GraphReportExtension report, Object result, boolean cached) {
+            finished(report, result, report.getName() + (cached ? " is not changed" : " is calculated"));
+        }
+
+        public void failed(GraphReportExtension report, Throwable t) {
+            finished(report, "Error: " + t, report.getName() + " failed: " + t.getMessage());
+        }
+
+        public void cancelled(GraphReportExtension report, boolean timedOut) {
+            finished(report, "Click to Calculate", report.getName() + (timedOut ? " timed out" : " is cancelled"));
+        }
     }
 }
\ No newline at end of file
@@ -4,9 +4,12 @@
 // Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
 package graphtea.plugins.visualization.corebasics.animator;
 
+import graphtea.graph.atributeset.VertexAttrSet;
 import graphtea.graph.graph.*;
 import graphtea.platform.core.BlackBoard;
 import graphtea.platform.core.exception.ExceptionHandler;
+import graphtea.plugins.commonplugin.Init;
+import graphtea.plugins.commonplugin.undo.UndoManager;
 
 import java.awt.geom.Point2D;
 import java.util.HashMap;
@@ -71,20 +74,47 @@ public class GeneralAnimator implements Runnable {
         Iterator<Point2D> m;
         Iterator<Point2D> i;
         final int k = 21;
-        for (int j = 1; j != k; j++) {
-            AbstractGraphRenderer ren = blackboard.getData(AbstractGraphRenderer.EVENT_KEY);
-            final int j1 = j;
-            ren.ignoreRepaints(new Runnable() {
-                public void run() {
-                    doAnimateStep(movements, initials, j1, k, current);
-                }
-            });
+        //the frames are not recorded in the undo history, the whole move is recorded after them
+        UndoManager.suspendRecording();
+        try {
+            for (int j = 1; j != k; j++) {
+                AbstractGraphRenderer ren = blackboard.getData(AbstractGraphRenderer.EVENT_KEY);
+                final int j1 = j;
+                ren.ignoreRepaints(new Runnable() {
+                    public void run() {
+                        doAnimateStep(movements, initials, j1, k, current);
+                    }
+                });
+            }
+        } finally {
+            UndoManager.resumeRecording();
         }
+        recordMoves(initials);
         if (supportBendedEdge) {
             paintEdges();
         }
     }
 
+    /**
+     * records the moves of the animation in the undo history of the graph, as one edit
+     */
+    private void recordMoves(Vector<Point2D> initials) {
+        UndoManager undo = Init.undoers.get(g);
+        if (undo == null)
+            return;
+        undo.beginTransaction("Layout");
+        try {
+            Iterator<Point2D> i = initials.iterator();
+            for (Vertex vertex : vertexDestinations.keySet()) {
+                Point2D initial = i.next();
+                undo.recordAttributeChange(vertex, VertexAttrSet.LOCATION,
+                        new GraphPoint(initial.getX(), initial.getY()), vertex.getLocation());
+            }
+        } finally {
+            undo.endTransaction();
+        }
+    }
+
     private void doAnimateStep(Vector<Point2D> movements, Vector<Point2D> initials, int j, int k, Thread current) {
         Iterator<Vertex> v;
         Iterator<Point2D> m;
@@ -0,0 +1,363 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+package graphtea.plugins.visualization.localsfvis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A force directed layout (spring-electrical model) on primitive arrays.
+ * <p/>
+ * The positions of the vertices are in one buffer, <code>pos[2*i]</code> and <code>pos[2*i+1]</code>
+ * are the x and y of vertex i. Each step computes the forces on all vertices and moves each of them
+ * along its force:
+ * <ul>
+ * <li>every pair of vertices repels each other by K^3/d^2, the repulsion is approximated by a
+ * Barnes-Hut quadtree which is rebuilt on each step: a far cell (cell size / distance &lt; theta)
+ * acts as a single mass in its center of mass, so a step is O(n log n). It decays faster than the
+ * usual K^2/d, which stretches the edges of large graphs;</li>
+ * <li>the end points of each edge attract each other by d^2/K, read from CSR adjacency arrays.</li>
+ * </ul>
+ * K is the natural length of edges. The forces are computed in parallel on a ForkJoinPool, in blocks
+ * of vertices. The step length is adaptive (Yifan Hu): it grows while the energy decreases steadily
+ * and shrinks otherwise, the layout is converged when it gets small relative to K.
+ *
+ * @see animatorLSF
+ */
+public class BarnesHutLayout {
+    //number of vertices each worker takes at a time
+    static final int BLOCK = 256;
+    //smaller graphs are computed on the calling thread
+    static final int PARALLEL_THRESHOLD = 2048;
+    //cells deeper than this are not split, so coincident vertices do not make an infinite tree
+    static final int MAX_DEPTH = 40;
+    //the step length is multiplied or divided by this, it starts from 5K
+    static final double COOLING = 0.97;
+
+    private final int n;
+    private final double[] pos;
+    private final double[] force;
+    private final int[] offsets, targets, inOffsets, inSources;
+    private final ForkJoinPool pool;
+
+    private double k = 80;
+    private double theta = 1.2;
+    private double step;
+    private double energy = Double.MAX_VALUE;
+    private int progress = 0;
+    private boolean adaptive = true;
+
+    //the quadtree, node 0 is the root, the 4 children of a node are first[node] .. first[node]+3
+    private int nodes;
+    private int[] first, body;
+    private double[] mass, sx, sy, ox, oy, size;
+
+    /**
+     * @param pos       the initial positions, used as the position buffer of the layout
+     * @param offsets   the CSR out adjacency, the targets of vertex i are targets[offsets[i] .. offsets[i+1])
+     * @param inOffsets the CSR in adjacency, for directed graphs, or null
+     * @param pool      the pool which the forces are computed on, null means the common pool
+     */
+    public BarnesHutLayout(double[] pos, int[] offsets, int[] targets, int[] inOffsets, int[] inSources,
+                           ForkJoinPool pool) {
+        this.n = pos.length / 2;
+        this.pos = pos;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.pool = pool;
+        force = new double[2 * n];
+        int cap = 4 * n + 1;
+        first = new int[cap];
+        body = new int[cap];
+        mass = new double[cap];
+        sx = new double[cap];
+        sy = new double[cap];
+        ox = new double[cap];
+        oy = new double[cap];
+        size = new double[cap];
+        step = 5 * k;
+    }
+
+    /**
+     * @return the position buffer, it is changed by each step
+     */
+    public double[] getPositions() {
+        return pos;
+    }
+
+    public double getNaturalLength() {
+        return k;
+    }
+
+    /**
+     * sets the natural length of edges and restarts the cooling
+     */
+    public void setNaturalLength(double k) {
+        this.k = k;
+        restart();
+    }
+
+    /**
+     * @param theta the Barnes-Hut opening criterion, 0 computes the exact repulsion
+     */
+    public void setTheta(double theta) {
+        this.theta = theta;
+    }
+
+    /**
+     * @param adaptive whether the step length is adapted to the progress of the energy, otherwise it
+     *                 is reduced on every step (simple cooling)
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * resets the step length, so the layout moves again after a change
+     */
+    public void restart() {
+        step = 5 * k;
+        energy = Double.MAX_VALUE;
+        progress = 0;
+    }
+
+    /**
+     * @return whether the vertices almost stopped moving
+     */
+    public boolean isConverged() {
+        return step < k / 100;
+    }
+
+    /**
+     * moves each vertex randomly by at most amount in each direction and restarts the cooling
+     */
+    public void perturb(double amount) {
+        for (int i = 0; i < 2 * n; i++)
+            pos[i] += amount * (Math.random() - 0.5) * 2;
+        restart();
+    }
+
+    /**
+     * translates all the vertices so their center is (x, y)
+     */
+    public void center(double x, double y) {
+        if (n == 0)
+            return;
+        double cx = 0, cy = 0;
+        for (int i = 0; i < n; i++) {
+            cx += pos[2 * i];
+            cy += pos[2 * i + 1];
+        }
+        double dx = x - cx / n, dy = y - cy / n;
+        for (int i = 0; i < n; i++) {
+            pos[2 * i] += dx;
+            pos[2 * i + 1] += dy;
+        }
+    }
+
+    /**
+     * Does one iteration of the layout.
+     */
+    public void step() {
+        if (n == 0)
+            return;
+        buildTree();
+        computeForces();
+
+        double e = 0;
+        for (int i = 0; i < n; i++) {
+            double fx = force[2 * i], fy = force[2 * i + 1];
+            double f2 = fx * fx + fy * fy;
+            e += f2;
+            if (f2 > 0) {
+                double s = step / Math.sqrt(f2);
+                pos[2 * i] += fx * s;
+                pos[2 * i + 1] += fy * s;
+            }
+        }
+        if (!adaptive)
+            step *= COOLING;
+        else if (e < energy) {
+            if (++progress >= 5) {
+                progress = 0;
+                step /= COOLING;
+            }
+        } else {
+            progress = 0;
+            step *= COOLING;
+        }
+        energy = e;
+    }
+
+    private void computeForces() {
+        int threads = (pool == null ? ForkJoinPool.commonPool() : pool).getParallelism();
+        if (n < PARALLEL_THRESHOLD || threads < 2) {
+            int[] stack = new int[3 * MAX_DEPTH + 4];
+            for (int i = 0; i < n; i++)
+                computeForce(i, stack);
+            return;
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (int t = Math.min(threads, n / BLOCK + 1); t > 0; t--)
+            tasks.add(new RecursiveAction() {
+                protected void compute() {
+                    int[] stack = new int[3 * MAX_DEPTH + 4];
+                    int start;
+                    while ((start = next.getAndAdd(BLOCK)) < n) {
+                        int end = Math.min(n, start + BLOCK);
+                        for (int i = start; i < end; i++)
+                            computeForce(i, stack);
+                    }
+                }
+            });
+        (pool == null ? ForkJoinPool.commonPool() : pool).invoke(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private void computeForce(int i, int[] stack) {
+        double x = pos[2 * i], y = pos[2 * i + 1];
+        double fx = 0, fy = 0;
+
+        //repulsion, K^3 * m / d^2 along the unit vector
+        double k3 = k * k * k, theta2 = theta * theta;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            double m = mass[node];
+            if (m == 0)
+                continue;
+            double dx = x - sx[node] / m, dy = y - sy[node] / m;
+            double d2 = dx * dx + dy * dy;
+            if (first[node] < 0 || size[node] * size[node] < theta2 * d2) {
+                if (body[node] == i)
+                    m -= 1;
+                if (d2 > 0 && m > 0) {
+                    double f = k3 * m / (d2 * Math.sqrt(d2));
+                    fx += dx * f;
+                    fy += dy * f;
+                }
+            } else {
+                int c = first[node];
+                stack[top++] = c;
+                stack[top++] = c + 1;
+                stack[top++] = c + 2;
+                stack[top++] = c + 3;
+            }
+        }
+
+        //attraction, d^2 / K along the unit vector
+        for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+            int j = targets[p];
+            double dx = pos[2 * j] - x, dy = pos[2 * j + 1] - y;
+            double d = Math.sqrt(dx * dx + dy * dy) / k;
+            fx += dx * d;
+            fy += dy * d;
+        }
+        if (inOffsets != null)
+            for (int p = inOffsets[i]; p < inOffsets[i + 1]; p++) {
+                int j = inSources[p];
+                double dx = pos[2 * j] - x, dy = pos[2 * j + 1] - y;
+                double d = Math.sqrt(dx * dx + dy * dy) / k;
+                fx += dx * d;
+                fy += dy * d;
+            }
+        force[2 * i] = fx;
+        force[2 * i + 1] = fy;
+    }
+
+    private void buildTree() {
+        double minx = Double.MAX_VALUE, miny = Double.MAX_VALUE;
+        double maxx = -Double.MAX_VALUE, maxy = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            double x = pos[2 * i], y = pos[2 * i + 1];
+            minx = Math.min(minx, x);
+            maxx = Math.max(maxx, x);
+            miny = Math.min(miny, y);
+            maxy = Math.max(maxy, y);
+        }
+        nodes = 0;
+        newNode(minx, miny, Math.max(Math.max(maxx - minx, maxy - miny), 1) * 1.0001);
+        for (int i = 0; i < n; i++)
+            insert(i);
+    }
+
+    private int newNode(double x, double y, double s) {
+        if (nodes == first.length) {
+            int cap = 2 * nodes;
+            first = Arrays.copyOf(first, cap);
+            body = Arrays.copyOf(body, cap);
+            mass = Arrays.copyOf(mass, cap);
+            sx = Arrays.copyOf(sx, cap);
+            sy = Arrays.copyOf(sy, cap);
+            ox = Arrays.copyOf(ox, cap);
+            oy = Arrays.copyOf(oy, cap);
+            size = Arrays.copyOf(size, cap);
+        }
+        int node = nodes++;
+        first[node] = -1;
+        body[node] = -1;
+        mass[node] = 0;
+        sx[node] = sy[node] = 0;
+        ox[node] = x;
+        oy[node] = y;
+        size[node] = s;
+        return node;
+    }
+
+    private int quadrant(int node, double x, double y) {
+        double h = size[node] / 2;
+        return (x < ox[node] + h ? 0 : 1) + (y < oy[node] + h ? 0 : 2);
+    }
+
+    /**
+     * inserts vertex i, adding its mass to the cells on its way. A cell at MAX_DEPTH keeps all the
+     * vertices which fall in it, as a single mass.
+     */
+    private void insert(int i) {
+        double x = pos[2 * i], y = pos[2 * i + 1];
+        int node = 0;
+        for (int depth = 0; ; depth++) {
+            mass[node]++;
+            sx[node] += x;
+            sy[node] += y;
+            if (first[node] >= 0) {
+                node = first[node] + quadrant(node, x, y);
+                continue;
+            }
+            if (mass[node] == 1) {
+                body[node] = i;
+                return;
+            }
+            if (depth >= MAX_DEPTH)
+                return;
+
+            //split the leaf and move its vertex to a child
+            int j = body[node];
+            body[node] = -1;
+            double h = size[node] / 2;
+            int c = newNode(ox[node], oy[node], h);
+            newNode(ox[node] + h, oy[node], h);
+            newNode(ox[node], oy[node] + h, h);
+            newNode(ox[node] + h, oy[node] + h, h);
+            first[node] = c;
+            int q = c + quadrant(node, pos[2 * j], pos[2 * j + 1]);
+            mass[q] = 1;
+            sx[q] = pos[2 * j];
+            sy[q] = pos[2 * j + 1];
+            body[q] = j;
+            node = c + quadrant(node, x, y);
+        }
+    }
+}
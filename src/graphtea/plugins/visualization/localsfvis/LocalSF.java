@@ -97,7 +97,7 @@ public class LocalSF extends AbstractAction {
             fgv.forceQuickPaint = true;
         }
         if (!g2a.containsKey(g)) {
-            a = new animatorLSF(blackboard, g, gv);
+            a = new animatorLSF(g, gv);
             g2a.put(g, a);
             a.start();
         }
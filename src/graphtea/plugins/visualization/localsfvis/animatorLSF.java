@@ -4,431 +4,282 @@
 // Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
 package graphtea.plugins.visualization.localsfvis;
 
+import graphtea.graph.atributeset.VertexAttrSet;
 import graphtea.graph.graph.AbstractGraphRenderer;
+import graphtea.graph.graph.Edge;
 import graphtea.graph.graph.GraphModel;
 import graphtea.graph.graph.GraphPoint;
 import graphtea.graph.graph.Vertex;
-import graphtea.library.exceptions.InvalidVertexException;
-import graphtea.platform.core.BlackBoard;
+import graphtea.library.CSRGraph;
 import graphtea.platform.core.exception.ExceptionHandler;
+import graphtea.plugins.commonplugin.Init;
+import graphtea.plugins.commonplugin.undo.UndoManager;
 
-import java.awt.*;
-import java.awt.geom.Rectangle2D;
-import java.io.File;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
+ * Runs a BarnesHutLayout on the graph until it is stopped.
+ * <p/>
+ * The layout works on its own position buffer, the iterations of a frame are done back to back and
+ * only at the end of the frame the positions are pushed to the vertices, in the event dispatch thread
+ * like the moves of the user, and inside ignoreRepaints so the graph is repainted once. Vertices
+ * which are moved by the user are read back at the start of each frame, and the layout is rebuilt
+ * when vertices or edges are added or removed.
+ * <p/>
+ * The frames are not recorded in the undo history, when the layout is stopped the moves of the
+ * whole run are recorded as one edit, also in the event dispatch thread.
+ *
  * @author azin azadi
+ * @see BarnesHutLayout
  */
 class animatorLSF extends Thread {
-    private boolean b = true;
-    private boolean c = true;
-
-    public animatorLSF(BlackBoard blackboard, GraphModel g, AbstractGraphRenderer gv) {
-        this.blackboard = blackboard;
+    //time of computing in each frame, in milliseconds
+    static final int FRAME = 40;
+    //sleep between frames, to let the graph be painted
+    static final int PAUSE = 10;
+    //sleep between checks of a converged layout
+    static final int IDLE = 200;
+    //the factor which the natural length of edges is changed by in stronger() and weaker()
+    static final double STRENGTH_STEP = 1.25;
+
+    public animatorLSF(GraphModel g, AbstractGraphRenderer gv) {
+        super("LocalSF");
+        setDaemon(true);
         this.g = g;
         this.gv = gv;
-        getVertices();
     }
 
-    private BlackBoard blackboard;
     private GraphModel g;
     private AbstractGraphRenderer gv;
-    private Vertex[] v;
-    private Rectangle[] vRects;  //represents the rectangle arround each vertex
-    private GraphPoint[] verPos; //fresh generated vertex positions!
-    private Point[] velocity;
-    private GraphPoint[] prevVerPos; //refferes to previous state of vertex positions, for finding vertices that moved by anything else
-    //    private final double neighborRadius = 300;
-    private double stres = 10;
-    private double maxF = 1000;
-    private final int E = 5;
-    private double springK = 0.7;
-    private double q1q2k = 50000;
-    private boolean stop = false;
-    private int n = 0;
-    private int counter1 = 0,
-            counter2 = 0,
-            counter3 = 0,
-            counter4 = 0;
+    private volatile boolean stop = false;
 
-    private HashSet<Integer>[] neighbors;
+    private BarnesHutLayout layout;
+    private Vertex[] v;
+    //the positions which were last pushed to the vertices
+    private double[] pushed;
+    private int n = -1, m = -1;
+    private double centerX, centerY;
+    private volatile double naturalLength = -1;
+    //the locations of the vertices before the layout moved them
+    private final IdentityHashMap<Vertex, GraphPoint> initial = new IdentityHashMap<Vertex, GraphPoint>();
 
-    boolean saveScreenShots = false;
+    volatile boolean temporaryStress = false;
+    volatile boolean isDynamic = true;
 
     public void run() {
-        stop = false;
-        {   //determining the directory name for saveing images
-//            int _i = 0;
-//            String _prefix = "c:\\";
-//            while (new File(_prefix + _i).isDirectory() || new File(_prefix + _i).isFile()) _i++;
-//            new File(_prefix + _i).mkdir();
-//            prefix = _prefix + _i + "\\";
+        try {
+            animate();
+        } finally {
+            EventQueue.invokeLater(new Runnable() {
+                public void run() {
+                    recordLayout();
+                    gv.repaint();
+                }
+            });
         }
-//        SaveLoadPluginMethods slpm = new SaveLoadPluginMethods(blackboard);
-//        gv.animation = true;
-//        gv.ignoreUpdates = true;
-        int stablep = 0;
-
-        final GraphPoint centerPoint = calculateGraphCenterPoint();     //calculating the center of graph to pin its center
-        final Rectangle2D.Double bounds = g.getAbsBounds();     //calculating the bounds of graph to pin its center
+    }
 
+    private void animate() {
+        stop = false;
+        boolean first = true;
         while (!stop) {
-            if (counter3++ == 150) {
-                counter3 = 0;
-                int nstable = 0;
-                for (int i = 0; i < n; i++) {
-                    if (stableVertex[i])
-                        ++nstable;
-                    stableVertex[i] = false;
+            boolean changed;
+            if (g.getVerticesCount() != n || g.getEdgesCount() != m) {
+                if (!snapshot()) {
+                    pause(IDLE);
+                    continue;
                 }
-//                if (nstable > 4 * n / 5)
-//                    ++stablep;
-//                if (stablep == 4) {
-                stablep = 0;
-                if (isDynamic) {
-                    stres();
-                    stres = stres * 99 / 100;
+                if (first) {
+                    first = false;
+                    double[] pos = layout.getPositions();
+                    for (int i = 0; i < n; i++) {
+                        centerX += pos[2 * i] / n;
+                        centerY += pos[2 * i + 1] / n;
+                    }
                 }
-//                }
+                changed = true;
+            } else
+                changed = readMovedVertices();
 
-//                System.out.println(nstable + " stable vertices");
-            }
-            if (counter4++ == 100) {
-                counter4 = 2;
-                if (isDynamic)
-                    updateKs();
+            if (naturalLength != layout.getNaturalLength()) {
+                layout.setNaturalLength(naturalLength);
+                changed = true;
             }
-            if (counter1++ == 20) {
-                counter1 = 0;
-                refreshNeighbors();
-                getVertices();
+            if (temporaryStress) {
+                temporaryStress = false;
+                layout.perturb(naturalLength / 2);
+                changed = true;
             }
-            refreshPositioning();
-            if (counter2++ == 10) {
-                counter2 = 0;
-//                gv.ignoreUpdates = true;
-                try {
-                    gv.ignoreRepaints(new Runnable() {
-                        public void run() {
-                            GraphPoint newCenterPoint = calculateGraphCenterPoint();
-                            Rectangle2D.Double newBounds = calculateGraphAbsBoundsPoint();
-                            //todo: to preserve graph bounds
-                            double dx = centerPoint.x - newCenterPoint.x;
-                            double dy = centerPoint.y - newCenterPoint.y;
-                            for (int i = 0; i < n; i++) {
-                                double x = verPos[i].x;
-                                double y = verPos[i].y;
-//                                x=x+dx+ ((x-newCenterPoint.x)/newBounds.width)*bounds.width;
-                                x += dx;
-                                y += dy;
-                                GraphPoint p = v[i].getLocation();
-//                    if (p.distance(verPos[i])<2)
-//                        stableVertex[i] = true;
-
-//                        if (!p.equals(prevVerPos[i])) {     //only change the position when it is changed
-//                            continue;
-//                        }
-
-//                    if (!stableVertex[i])
-                                v[i].setLocation(verPos[i]);
-                                prevVerPos[i] = p;
-//                    else
-//                        stableVertex[i]=true;
-                            }
-                        }
-                    });
-                }
-                catch (InvalidVertexException e) {
-                    getVertices();
-                    refreshNeighbors();
-                }
-
-                if (saveScreenShots && b && c) {
-//                    slpm.saveAsImage(nextFile(), "png");                       //saving the screen shot
-
-                }
-                b = !b;
-                if (b)
-                    c = !c;       //har 4 bar ie bar
-//                gv.ignoreUpdates = true;
-
-//                getVertices();
-//                refreshNeighbors();
+            layout.setAdaptive(isDynamic);
+            if (changed)
+                layout.restart();
+            if (layout.isConverged()) {
+                pause(IDLE);
+                continue;
             }
 
-            try {
-                Thread.sleep((long) (0.7 * Math.log10(n) * Math.sqrt(n)));
-            } catch (InterruptedException e) {
-                ExceptionHandler.catchException(e);
-            }
+            long end = System.currentTimeMillis() + FRAME;
+            do {
+                layout.step();
+            } while (!layout.isConverged() && System.currentTimeMillis() < end);
+            layout.center(centerX, centerY);
+            push();
+            pause(PAUSE);
         }
-//        gv.ignoreUpdates = false;
-//        gv.animation = false;
-//        gv.updateBounds();
-        gv.repaint();
     }
 
-    private GraphPoint calculateGraphCenterPoint() {
-        GraphPoint centerPoint = new GraphPoint();
-        for (GraphPoint p : verPos) {
-            centerPoint.add(p.x, p.y);
+    /**
+     * records the moves of the whole run in the undo history of the graph, as one edit
+     */
+    private void recordLayout() {
+        UndoManager undo = Init.undoers.get(g);
+        if (undo == null)
+            return;
+        undo.beginTransaction("Layout");
+        try {
+            for (Map.Entry<Vertex, GraphPoint> e : initial.entrySet())
+                undo.recordAttributeChange(e.getKey(), VertexAttrSet.LOCATION, e.getValue(), e.getKey().getLocation());
+        } finally {
+            undo.endTransaction();
         }
-        centerPoint.x /= n;
-        centerPoint.y /= n;
-        return centerPoint;
+        initial.clear();
     }
-    private Rectangle2D.Double calculateGraphAbsBoundsPoint() {
 
-        Rectangle2D.Double ret = new Rectangle2D.Double();
-        for (GraphPoint p : verPos) {
-            ret.add(p.x, p.y);
+    /**
+     * takes a CSR snapshot of the graph and makes a new layout on it, from the current locations
+     *
+     * @return false if the graph was changed while taking the snapshot
+     */
+    private boolean snapshot() {
+        CSRGraph<Vertex, Edge> csr;
+        try {
+            csr = new CSRGraph<Vertex, Edge>(g);
+        } catch (RuntimeException e) {
+            return false;
         }
-        return ret;
-    }
-
-    static String prefix;
-    int i = 100000;
-
-    File nextFile() { //for saving image
-        return new File(prefix + (i++) + ".jpg");
-    }
-
-    boolean temporaryStress = false;
-
-    void stres() {
-//        if (minDistance<stres){
+        n = csr.getVerticesCount();
+        m = csr.getEdgesCount();
+        v = new Vertex[n];
+        double[] pos = new double[2 * n];
         for (int i = 0; i < n; i++) {
-            verPos[i].x += stres / 2 - Math.random() * stres;
-            verPos[i].y += stres / 2 - Math.random() * stres;
+            v[i] = csr.getVertex(i);
+            GraphPoint p = v[i].getLocation();
+            pos[2 * i] = p.x;
+            pos[2 * i + 1] = p.y;
+            if (!initial.containsKey(v[i]))
+                initial.put(v[i], new GraphPoint(p.x, p.y));
         }
-//        }
-        temporaryStress = false;
-        springK *= 3;
-//        maxF *= 2;
-        q1q2k /= 4;
-//        refreshPositioning();
-//        refreshPositioning();
-//        refreshPositioning();
-//        refreshPositioning();
-        refreshPositioning();
-        refreshPositioning();
-        refreshPositioning();
-        springK /= 3;
-//        maxF /= 2;
-        q1q2k *= 4;
-//        System.out.println("stres" + s++);
+        pushed = pos.clone();
+        if (naturalLength < 0)
+            naturalLength = averageEdgeLength(csr, pos);
+        if (csr.isDirected())
+            layout = new BarnesHutLayout(pos, csr.getOutOffsets(), csr.getOutTargets(),
+                    csr.getInOffsets(), csr.getInSources(), null);
+        else
+            layout = new BarnesHutLayout(pos, csr.getOutOffsets(), csr.getOutTargets(), null, null, null);
+        layout.setNaturalLength(naturalLength);
+        return true;
     }
 
-    float minDistance;
-    float maxDistance;
-
-    private void updateKs() {
-        int i = 0;
-        for (Vertex vm : g) {
-            vRects[i] = vm.getBounds().getBounds();
-            i++;
-        }
-
-        minDistance = 1000000;
-        maxDistance = Float.MIN_VALUE;
-        final int MAX_DISTANCE = (int) (Math.sqrt(n) * (60));
-        final float MIN_DISTANCE = (float) ((8 - Math.log10(n)) * 10);
-        double lb = 60 + 100.0 / Math.sqrt(n);
-        double hb = 95 + 100.0 / Math.sqrt(n);
-        boolean strongerK = false;
-        for (i = 0; i < n; ++i) {
-            vRects[i].grow((int) lb, (int) lb);
-            for (int j : neighbors[i]) {
-//                Rectangle r=vRects[i].union(vRects[j]);
-//                r.grow();
-//                minDistance =min(minDistance,r.width+r.height);
-                float distance = Math.abs((float) (verPos[i].x - verPos[j].x)) + Math.abs((float) (verPos[i].y - verPos[j].y));
-//                maxDistance = Math.max(maxDistance, distance);
-                minDistance = Math.min(minDistance, distance);
-                if (vRects[j].contains(verPos[i])) {
-                    strongerK = true;
-                }
+    /**
+     * @return the average length of edges in the current drawing, between 30 and 200
+     */
+    private static double averageEdgeLength(CSRGraph<Vertex, Edge> csr, double[] pos) {
+        int[] offsets = csr.getOutOffsets(), targets = csr.getOutTargets();
+        double sum = 0;
+        for (int i = 0; i < csr.getVerticesCount(); i++)
+            for (int p = offsets[i]; p < offsets[i + 1]; p++) {
+                int j = targets[p];
+                sum += Math.hypot(pos[2 * i] - pos[2 * j], pos[2 * i + 1] - pos[2 * j + 1]);
             }
-            vRects[i].grow((int) (-lb), (int) (-lb));
-        }
-//        Rectangle r = new Rectangle();
-//        r.
-        Rectangle gBounds = g.getAbsBounds().getBounds();
-        maxDistance = (gBounds.width + gBounds.height) / 2;
-//        System.out.println("min getDistance:" + minDistance);
-//        System.out.println("max getDistance:" + maxDistance);
-        if (strongerK && maxDistance < MAX_DISTANCE) {
-//        if (minDistance < lb) {
-            weaker();
-        }
-        if (!strongerK && minDistance > MIN_DISTANCE) {
-            stronger();
-        }
-//        System.out.println("SpringK: " + springK);
-    }
-
-    void stronger() {
-        springK /= (0.75);
-        q1q2k /= (1.3);
+        if (targets.length == 0)
+            return 80;
+        return Math.max(30, Math.min(200, sum / targets.length));
     }
 
-    void weaker() {
-        springK *= 0.75;
-        q1q2k *= 1.3;
-    }
-
-    int s = 0;
-
-    public void _stop() {
-        stop = true;
-    }
-
-    boolean stableVertex[];
-
-
-    private void getVertices() {
-        int _n = g.getVerticesCount();
-        if (_n != n) {
-            n = _n;
-            verPos = new GraphPoint[n];
-            velocity = new Point[n];
-            prevVerPos = new GraphPoint[n];
-            dists = new pair[Math.max(n - 1, 0)];
-            neighbors = new HashSet[n];
-            for (int i = 0; i < n; i++) {
-                neighbors[i] = new HashSet<Integer>();
-                if (i != 0) dists[i - 1] = new pair(0, 0);  //the len of dists should be n-1
+    /**
+     * copies the locations of the vertices which are moved by someone else to the layout
+     *
+     * @return true if any vertex was moved
+     */
+    private boolean readMovedVertices() {
+        double[] pos = layout.getPositions();
+        boolean moved = false;
+        for (int i = 0; i < n; i++) {
+            GraphPoint p = v[i].getLocation();
+            if (p.x != pushed[2 * i] || p.y != pushed[2 * i + 1]) {
+                pos[2 * i] = pushed[2 * i] = p.x;
+                pos[2 * i + 1] = pushed[2 * i + 1] = p.y;
+                moved = true;
             }
-            v = new Vertex[n];
-            vRects = new Rectangle[n];
-            stableVertex = new boolean[n];
-        }
-        int i = 0;
-        for (Vertex vm : g) {
-            v[i] = vm;
-            verPos[i] = vm.getLocation();
-            velocity[i] = new Point();
-            vRects[i] = vm.getBounds().getBounds();
-            prevVerPos[i] = new GraphPoint(verPos[i]);
-            i++;
         }
+        return moved;
     }
 
-    Point f = new Point();
-    Point fs = new Point(0, 0);
-    double fex = 0;
-    double fey = 0;
-    double fsx = 0;
-    double fsy = 0;
-    double x;
-    double y;
-    double d;
-    int fx;
-    int fy;
-    double d3;
-
-    //ghalbe tapande
-    private void refreshPositioning() {
-        for (int i = 0; i < n; i++) {
-//            if (!stableVertex[i] || Math.random()<0.1) {
-            fex = 0;
-            fey = 0;
-            fsx = 0;
-            fsy = 0;
-            for (Integer j : neighbors[i]) {
-                x = verPos[i].x - verPos[j].x;
-                y = verPos[i].y - verPos[j].y;
-                if (x == 0 && y == 0) {          //if vertices are in the same location squeeze them!
-                    x = Math.random() * 15;
-                    y = Math.random() * 15;
-//                    verPos[i].x+=x;
-//                    verPos[i].y+=y;
-                    verPos[j].y -= x;
-                    verPos[j].x -= y;
-                    x = verPos[i].x - verPos[j].x;
-                    y = verPos[i].y - verPos[j].y;
-                }
-                d = Math.abs(y) + Math.abs(x);
-                if (d < 10)           //baraie paresh haie gonde
-                    continue;
-
-                //electrical force
-                if (d != 0) {
-                    d3 = d * d * d;
-                    fex += x / d3;
-                    fey += y / d3;
-                }
-                if (edge(i, j)) {
-                    //spring force
-                    fsx += x;
-                    fsy += y;
+    /**
+     * pushes the positions of the layout to the vertices, and waits for it so the layout is not
+     * changed meanwhile
+     */
+    private void push() {
+        final double[] pos = layout.getPositions();
+        final Runnable setLocations = new Runnable() {
+            public void run() {
+                for (int i = 0; i < n; i++) {
+                    v[i].setLocation(new GraphPoint(pos[2 * i], pos[2 * i + 1]));
+                    pushed[2 * i] = pos[2 * i];
+                    pushed[2 * i + 1] = pos[2 * i + 1];
                 }
             }
-            fx = (int) (q1q2k * fex - springK * fsx);
-            fy = (int) (q1q2k * fey - springK * fsy);
-            int fi = Math.abs(fx) + Math.abs(fy);
-            if (fi > maxF) {
-//                System.out.println("MAXF exceeded: "+fi);
-                fx = (int) (maxF * fx / (fi));
-                fy = (int) (maxF * fy / (fi));
-            }
-
-            verPos[i].x += fx / E;
-            verPos[i].y += fy / E;
-//            velocity[i].x += fx;
-//            velocity[i].y += fy;
-//            verPos[i].x += (fx + velocity[i].x)/E;
-//            verPos[i].y += (fy + velocity[i].y)/E;
-
+        };
+        try {
+            EventQueue.invokeAndWait(new Runnable() {
+                public void run() {
+                    UndoManager.suspendRecording();
+                    try {
+                        gv.ignoreRepaints(setLocations);
+                    } finally {
+                        UndoManager.resumeRecording();
+                    }
+                }
+            });
+        } catch (InterruptedException e) {
+            stop = true;
+        } catch (InvocationTargetException e) {
+            ExceptionHandler.catchException(e);
+            stop = true;
         }
-        if (temporaryStress)
-            stres();
-//        }
     }
 
-    private boolean edge(int i, int jj) {
+    private void pause(long millis) {
         try {
-            return g.isEdge(v[i], v[jj]) || g.isEdge(v[jj], v[i]);
-        }
-        catch (Exception e) {
-            getVertices();
-            refreshNeighbors();
-            return false;
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            stop = true;
         }
     }
 
-    pair[] dists;
+    /**
+     * makes edges shorter
+     */
+    void stronger() {
+        if (naturalLength > 0)
+            naturalLength /= STRENGTH_STEP;
+    }
 
-    private void refreshNeighbors() {
-        for (int i = 0; i < n; i++) {
-            if (!stableVertex[i]) {
-                neighbors[i].clear();
-                int _j = 0;
-                for (int j = 0; j < n; j++) {
-                    if (j != i) {
-                        dists[_j].node = j;
-                        dists[_j++].d = v[i].getLocation().distance(v[j].getLocation());
-                        if (edge(i, j))
-                            neighbors[i].add(j);
-                    }
-                }
-                Arrays.sort(dists);
-                for (int t = 0; t < Math.min(5, n - 1); t++) {
-//                    System.out.println(dists[t].d);
-                    if (dists[t].d < 200)
-                        neighbors[i].add(dists[t].node);
-                    if (dists[t].d < 2) {
-                        verPos[t].x += 10 * Math.random() - 5;
-                        verPos[t].y += 10 * Math.random() - 5;
-                    }
-                }
-            }
-        }
+    /**
+     * makes edges longer
+     */
+    void weaker() {
+        if (naturalLength > 0)
+            naturalLength *= STRENGTH_STEP;
     }
 
-    boolean isDynamic = true;
+    public void _stop() {
+        stop = true;
+    }
 
     void setDynamic(boolean b) {
         isDynamic = b;
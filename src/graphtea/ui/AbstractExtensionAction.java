@@ -52,6 +52,7 @@ public abstract class AbstractExtensionAction<t extends Extension> extends Abstr
     }
 
     public t target;
+    String actionId;
 
 
     static HashMap<String, JMenu> reportSubMenus = new HashMap<String, JMenu>();
@@ -60,7 +61,7 @@ public abstract class AbstractExtensionAction<t extends Extension> extends Abstr
         super(bb);
         target = sp;
         String name = getMenuNamePrefix() + sp.getName();
-        String actionId = name + sp.getDescription() + target.getClass().getName();
+        actionId = name + sp.getDescription() + target.getClass().getName();
         listen4Event(UIUtils.getUIEventKey(actionId));
         if (!name.equals("")) {
             menuItem = createMenuItem(name, actionId, bb);
@@ -260,6 +261,19 @@ public abstract class AbstractExtensionAction<t extends Extension> extends Abstr
 
     }
 
+    /**
+     * determines whether the extension of this action can be created on its first use on the next
+     * runs. Then a DeferredExtensionAction with the same menu item and command is created instead of it
+     * on start up. Override it to return true only if creating the action does nothing else than
+     * creating its menu item and command.
+     *
+     * @return false by default
+     * @see DeferredExtensionAction
+     */
+    public boolean isDeferrable() {
+        return false;
+    }
+
     /**
      * returns the menu name that the menuitem of this action is its child
      */
@@ -0,0 +1,134 @@
+// GraphTea Project: http://github.com/graphtheorysoftware/GraphTea
+// Copyright (C) 2012 Graph Theory Software Foundation: http://GraphTheorySoftware.com
+// Copyright (C) 2008 Mathematical Science Department of Sharif University of Technology
+// Distributed under the terms of the GNU General Public License (GPL): http://www.gnu.org/licenses/
+
+package graphtea.ui;
+
+import graphtea.platform.core.AbstractAction;
+import graphtea.platform.core.BlackBoard;
+import graphtea.platform.extension.DeferredExtensionHandler;
+import graphtea.platform.extension.Extension;
+import graphtea.platform.extension.ExtensionLoader;
+import graphtea.ui.components.gmenu.GMenuBar;
+import graphtea.ui.components.gmenu.GMenuItem;
+
+import javax.swing.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The placeholder of an extension which is created on its first use. It has the menu item and
+ * the command line command of the AbstractExtensionAction of the extension, which were described
+ * on a previous run. When one of them is used, the extension is loaded, its action replaces this
+ * and does the job.
+ *
+ * @author azin azadi
+ * @see AbstractExtensionAction#isDeferrable()
+ * @see graphtea.platform.extension.ExtensionIndex
+ */
+public class DeferredExtensionAction extends AbstractAction {
+    private final String className;
+    private final Map<String, String> description;
+    private JMenu parentMenu;
+    private GMenuItem menuItem;
+    private AbstractExtensionAction action;
+    private boolean loaded = false;
+
+    public DeferredExtensionAction(BlackBoard bb, String className, Map<String, String> description) {
+        super(bb);
+        this.className = className;
+        this.description = description;
+        String actionId = description.get("actionId");
+        listen4Event(UIUtils.getUIEventKey(actionId));
+        menuItem = new GMenuItem(description.get("label"), actionId, bb);
+        parentMenu = UIUtils.getGFrame(bb).getMenu().getUniqueMenu(description.get("parentMenu"), -1);
+        GMenuBar.insert(parentMenu, menuItem, Integer.parseInt(description.get("place")));
+        if (description.containsKey("command"))
+            ExtensionShellCommandProvider.addDeferredCommand(this, description.get("command.name"),
+                    description.get("command.abbreviation"), description.get("command"),
+                    description.get("command.description"), description.get("command.help"));
+    }
+
+    /**
+     * loads the extension if it is not loaded yet
+     *
+     * @return the action of the extension, null if it could not be loaded
+     */
+    public synchronized AbstractExtensionAction getAction() {
+        if (!loaded) {
+            loaded = true;
+            unListenEvent(getLastListenedEventKey());
+            parentMenu.remove(menuItem);
+            AbstractAction a = ExtensionLoader.loadDeferredExtension(blackboard, className);
+            if (a instanceof AbstractExtensionAction)
+                action = (AbstractExtensionAction) a;
+        }
+        return action;
+    }
+
+    public Extension getTarget() {
+        AbstractExtensionAction a = getAction();
+        return a == null ? null : a.getTarget();
+    }
+
+    /**
+     * @return the name of the variable which the extension is kept in, in the command line
+     */
+    public String getTargetVariable() {
+        return description.get("command.variable");
+    }
+
+    public Object performExtensionInCommandLine() {
+        AbstractExtensionAction a = getAction();
+        return a == null ? null : a.performExtensionInCommandLine();
+    }
+
+    public void performAction(String eventName, Object value) {
+        AbstractExtensionAction a = getAction();
+        if (a != null)
+            a.performAction(eventName, value);
+    }
+
+    /**
+     * The DeferredExtensionHandler of AbstractExtensionActions
+     */
+    public static class Handler implements DeferredExtensionHandler {
+        public Map<String, String> describe(AbstractAction action) {
+            if (!(action instanceof AbstractExtensionAction))
+                return null;
+            AbstractExtensionAction a = (AbstractExtensionAction) action;
+            if (!a.isDeferrable() || a.isInsertExtraButtonToMenuItem() || a.menuItem == null || a.parentMenu == null)
+                return null;
+            Map<String, String> ret = new LinkedHashMap<String, String>();
+            ret.put("handler", Handler.class.getName());
+            ret.put("actionId", a.actionId);
+            ret.put("label", a.getMenuNamePrefix() + a.getTarget().getName());
+            ret.put("parentMenu", a.getParentMenuName());
+            ret.put("place", "" + a.getMenuPlace());
+            for (ExtensionShellCommandProvider c : ExtensionShellCommandProvider.commands) {
+                if (c.ths == a) {
+                    put(ret, "command.name", c.name);
+                    put(ret, "command.abbreviation", c.abrv);
+                    put(ret, "command", c.command);
+                    put(ret, "command.description", c.desc);
+                    put(ret, "command.help", c.help);
+                    put(ret, "command.variable", "_" + a.getTarget().getClass().getSimpleName());
+                }
+            }
+            return ret;
+        }
+
+        private static void put(Map<String, String> m, String key, String value) {
+            if (value != null)
+                m.put(key, value);
+        }
+
+        public boolean defer(BlackBoard b, String className, Map<String, String> description) {
+            if (!Handler.class.getName().equals(description.get("handler")))
+                return false;
+            new DeferredExtensionAction(b, className, description);
+            return true;
+        }
+    }
+}
@@ -16,6 +16,10 @@ import java.util.Vector;
 public class ExtensionShellCommandProvider {
     public AbstractExtensionAction ths;
     public Extension trgClass;
+    /**
+     * not null if the command is of an extension which is not loaded yet, then ths and trgClass are null
+     */
+    public DeferredExtensionAction deferred;
     public CommandAttitude comati;
     public String abrv;
     public String command;
@@ -50,4 +54,16 @@ public class ExtensionShellCommandProvider {
         commands.add(c);
         commandsDict.put(name, c);
     }
+
+    /**
+     * adds the command of an extension which is loaded on its first use
+     *
+     * @see #addCommand
+     */
+    public static void addDeferredCommand(DeferredExtensionAction deferred, String name, String abrv, String command, String desc, String help) {
+        ExtensionShellCommandProvider c = new ExtensionShellCommandProvider(null, null, name, abrv, command, desc, help);
+        c.deferred = deferred;
+        commands.add(c);
+        commandsDict.put(name, c);
+    }
 }
@@ -70,6 +70,7 @@ public class UI {
         //initialize the event handler to handle menu and toolbar events
         new UIEventHandler(blackboard);
         ExtensionLoader.registerExtensionHandler(new UIActionExtensionHandler());
+        ExtensionLoader.registerDeferredExtensionHandler(new DeferredExtensionAction.Handler());
     }
 
     /**